@@ -261,6 +261,8 @@ public final class Constants {
 
     public static final String HAZELCAST_EXERCISE_CACHE = HAZELCAST_QUIZ_PREFIX + "exercise-cache";
 
+    public static final String HAZELCAST_QUIZ_PROCESSING_EXECUTOR = HAZELCAST_QUIZ_PREFIX + "processing-executor";
+
     public static final int HAZELCAST_QUIZ_EXERCISE_CACHE_SERIALIZER_ID = 1;
 
     public static final int HAZELCAST_PATH_SERIALIZER_ID = 2;
@@ -269,6 +271,40 @@ public final class Constants {
 
     public static final String HAZELCAST_ACTIVE_PLAGIARISM_CHECKS_PER_COURSE_CACHE = HAZELCAST_PLAGIARISM_PREFIX + "active-plagiarism-checks-per-course-cache";
 
+    public static final String HAZELCAST_EXAM_SCORES_PREFIX = "exam-scores-";
+
+    public static final String HAZELCAST_EXAM_SCORES_CACHE = HAZELCAST_EXAM_SCORES_PREFIX + "cache";
+
+    public static final String HAZELCAST_EXAM_SCORES_GENERATIONS = HAZELCAST_EXAM_SCORES_PREFIX + "generations";
+
+    public static final String HAZELCAST_EXAM_SCORES_EXAM_ID_BY_EXERCISE_ID = HAZELCAST_EXAM_SCORES_PREFIX + "exam-id-by-exercise-id";
+
+    public static final String HAZELCAST_COURSE_DASHBOARD_PREFIX = "course-dashboard-";
+
+    public static final String HAZELCAST_COURSE_DASHBOARD_COURSE_GENERATIONS = HAZELCAST_COURSE_DASHBOARD_PREFIX + "course-generations";
+
+    public static final String HAZELCAST_COURSE_DASHBOARD_USER_GENERATIONS = HAZELCAST_COURSE_DASHBOARD_PREFIX + "user-generations";
+
+    public static final String HAZELCAST_WEBSOCKET_AUTHORIZATION_INVALIDATION_TOPIC = "websocket-authorization-invalidation";
+
+    public static final String HAZELCAST_LOCALVC_AUTHORIZATION_INVALIDATION_TOPIC = "localvc-authorization-invalidation";
+
+    public static final String HAZELCAST_REPOSITORY_OPERATION_PROGRESS = "repository-operation-progress";
+
+    public static final String HAZELCAST_IRIS_LLM_RESPONSE_TIMES = "iris-llm-response-times";
+
+    public static final String HAZELCAST_LOCAL_CI_PREFIX = "local-ci-";
+
+    public static final String HAZELCAST_LOCAL_CI_BUILD_JOB_QUEUE = HAZELCAST_LOCAL_CI_PREFIX + "build-job-queue";
+
+    public static final String HAZELCAST_LOCAL_CI_QUEUED_BUILD_JOBS_BY_PARTICIPATION = HAZELCAST_LOCAL_CI_PREFIX + "queued-build-jobs-by-participation";
+
+    public static final String HAZELCAST_LOCAL_CI_PROCESSING_BUILD_JOBS = HAZELCAST_LOCAL_CI_PREFIX + "processing-build-jobs";
+
+    public static final String HAZELCAST_LOCAL_CI_BUILD_AGENTS = HAZELCAST_LOCAL_CI_PREFIX + "build-agents";
+
+    public static final String HAZELCAST_LOCAL_CI_BUILD_JOB_RESULTS = HAZELCAST_LOCAL_CI_PREFIX + "build-job-results";
+
     public static final String VERSION_CONTROL_URL = "versionControlUrl";
 
     public static final String VERSION_CONTROL_NAME = "versionControlName";
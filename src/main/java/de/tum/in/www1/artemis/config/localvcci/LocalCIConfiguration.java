@@ -3,14 +3,11 @@ package de.tum.in.www1.artemis.config.localvcci;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import javax.xml.stream.XMLInputFactory;
@@ -32,6 +29,7 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import de.tum.in.www1.artemis.exception.LocalCIException;
 import de.tum.in.www1.artemis.service.ResourceLoaderService;
+import de.tum.in.www1.artemis.service.connectors.localci.LocalCIPriorityBuildExecutor;
 
 /**
  * Creates beans needed for the local CI system.
@@ -63,11 +61,12 @@ public class LocalCIConfiguration {
 
     /**
      * Creates an executor service that manages the queue of build jobs.
+     * The queue is ordered by the priority of the build jobs and shares the build capacity fairly between courses, see {@link LocalCIPriorityBuildExecutor}.
      *
      * @return The executor service bean.
      */
     @Bean
-    public ExecutorService localCIBuildExecutorService() {
+    public LocalCIPriorityBuildExecutor localCIBuildExecutorService() {
         log.info("Using ExecutorService with thread pool size {} and a queue size limit of {}.", threadPoolSize, queueSizeLimit);
 
         ThreadFactory customThreadFactory = new ThreadFactoryBuilder().setNameFormat("local-ci-build-%d")
@@ -77,8 +76,7 @@ public class LocalCIConfiguration {
             throw new RejectedExecutionException("Task " + runnable.toString() + " rejected from " + executor.toString());
         };
 
-        return new ThreadPoolExecutor(threadPoolSize, threadPoolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(queueSizeLimit), customThreadFactory,
-                customRejectedExecutionHandler);
+        return new LocalCIPriorityBuildExecutor(threadPoolSize, queueSizeLimit, customThreadFactory, customRejectedExecutionHandler);
     }
 
     /**
@@ -88,12 +86,11 @@ public class LocalCIConfiguration {
      * @return The scheduled executor service bean.
      */
     @Bean
-    public ScheduledExecutorService buildQueueLogger(ExecutorService localCIBuildExecutorService) {
+    public ScheduledExecutorService buildQueueLogger(LocalCIPriorityBuildExecutor localCIBuildExecutorService) {
         ScheduledExecutorService buildQueueLogger = Executors.newSingleThreadScheduledExecutor();
         buildQueueLogger.scheduleAtFixedRate(() -> {
-            ThreadPoolExecutor threadPoolExecutor = (ThreadPoolExecutor) localCIBuildExecutorService;
             // Report on the current state of the local CI ExecutorService queue every 30 seconds.
-            log.info("Current queue size of local CI ExecutorService: {}", threadPoolExecutor.getQueue().size());
+            log.info("Current queue size of local CI ExecutorService: {}", localCIBuildExecutorService.getQueue().size());
         }, 0, 30, TimeUnit.SECONDS);
         return buildQueueLogger;
     }
@@ -46,17 +46,12 @@ import org.springframework.web.util.WebUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Iterators;
 
-import de.tum.in.www1.artemis.domain.Exercise;
 import de.tum.in.www1.artemis.domain.User;
-import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
-import de.tum.in.www1.artemis.repository.ExamRepository;
-import de.tum.in.www1.artemis.repository.ExerciseRepository;
-import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
-import de.tum.in.www1.artemis.repository.UserRepository;
 import de.tum.in.www1.artemis.security.Role;
 import de.tum.in.www1.artemis.security.jwt.JWTFilter;
 import de.tum.in.www1.artemis.security.jwt.TokenProvider;
 import de.tum.in.www1.artemis.service.AuthorizationCheckService;
+import de.tum.in.www1.artemis.service.WebsocketAuthorizationCacheService;
 import de.tum.in.www1.artemis.validation.InetSocketAddressValidator;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
 
@@ -76,15 +71,9 @@ public class WebsocketConfiguration extends DelegatingWebSocketMessageBrokerConf
 
     private final TaskScheduler messageBrokerTaskScheduler;
 
-    private final StudentParticipationRepository studentParticipationRepository;
-
     private final AuthorizationCheckService authorizationCheckService;
 
-    private final UserRepository userRepository;
-
-    private final ExerciseRepository exerciseRepository;
-
-    private final ExamRepository examRepository;
+    private final WebsocketAuthorizationCacheService websocketAuthorizationCacheService;
 
     // Split the addresses by comma
     @Value("#{'${spring.websocket.broker.addresses}'.split(',')}")
@@ -97,16 +86,12 @@ public class WebsocketConfiguration extends DelegatingWebSocketMessageBrokerConf
     private String brokerPassword;
 
     public WebsocketConfiguration(MappingJackson2HttpMessageConverter springMvcJacksonConverter, TaskScheduler messageBrokerTaskScheduler, TokenProvider tokenProvider,
-            StudentParticipationRepository studentParticipationRepository, AuthorizationCheckService authorizationCheckService, ExerciseRepository exerciseRepository,
-            UserRepository userRepository, ExamRepository examRepository) {
+            AuthorizationCheckService authorizationCheckService, WebsocketAuthorizationCacheService websocketAuthorizationCacheService) {
         this.objectMapper = springMvcJacksonConverter.getObjectMapper();
         this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
         this.tokenProvider = tokenProvider;
-        this.studentParticipationRepository = studentParticipationRepository;
         this.authorizationCheckService = authorizationCheckService;
-        this.exerciseRepository = exerciseRepository;
-        this.userRepository = userRepository;
-        this.examRepository = examRepository;
+        this.websocketAuthorizationCacheService = websocketAuthorizationCacheService;
     }
 
     @Override
@@ -276,20 +261,21 @@ public class WebsocketConfiguration extends DelegatingWebSocketMessageBrokerConf
                 Long exerciseId = getExerciseIdFromNonPersonalExerciseResultDestination(destination);
 
                 // TODO: Is it right that TAs are not allowed to subscribe to exam exercises?
-                Exercise exercise = exerciseRepository.findByIdElseThrow(exerciseId);
-                if (exercise.isExamExercise()) {
-                    return isUserInstructorOrHigherForExercise(principal, exercise);
+                var exerciseCourse = websocketAuthorizationCacheService.getExerciseCourse(exerciseId);
+                User user = websocketAuthorizationCacheService.getUserWithGroupsAndAuthorities(principal.getName());
+                if (exerciseCourse.examExercise()) {
+                    return authorizationCheckService.isAtLeastInstructorInCourse(exerciseCourse.course(), user);
                 }
                 else {
-                    return isUserTAOrHigherForExercise(principal, exercise);
+                    return authorizationCheckService.isAtLeastTeachingAssistantInCourse(exerciseCourse.course(), user);
                 }
             }
 
             var examId = getExamIdFromExamRootDestination(destination);
             if (examId.isPresent()) {
-                var exam = examRepository.findByIdElseThrow(examId.get());
-                User user = userRepository.getUserWithGroupsAndAuthorities(principal.getName());
-                return authorizationCheckService.isAtLeastInstructorInCourse(exam.getCourse(), user);
+                var course = websocketAuthorizationCacheService.getExamCourse(examId.get());
+                User user = websocketAuthorizationCacheService.getUserWithGroupsAndAuthorities(principal.getName());
+                return authorizationCheckService.isAtLeastInstructorInCourse(course, user);
             }
             return true;
         }
@@ -305,18 +291,7 @@ public class WebsocketConfiguration extends DelegatingWebSocketMessageBrokerConf
     }
 
     private boolean isParticipationOwnedByUser(Principal principal, Long participationId) {
-        StudentParticipation participation = studentParticipationRepository.findByIdElseThrow(participationId);
-        return participation.isOwnedBy(principal.getName());
-    }
-
-    private boolean isUserInstructorOrHigherForExercise(Principal principal, Exercise exercise) {
-        User user = userRepository.getUserWithGroupsAndAuthorities(principal.getName());
-        return authorizationCheckService.isAtLeastInstructorInCourse(exercise.getCourseViaExerciseGroupOrCourseMember(), user);
-    }
-
-    private boolean isUserTAOrHigherForExercise(Principal principal, Exercise exercise) {
-        User user = userRepository.getUserWithGroupsAndAuthorities(principal.getName());
-        return authorizationCheckService.isAtLeastTeachingAssistantForExercise(exercise, user);
+        return websocketAuthorizationCacheService.isParticipationOwnedBy(participationId, principal.getName());
     }
 
     /**
@@ -0,0 +1,12 @@
+package de.tum.in.www1.artemis.domain.iris;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The time at which an LLM response was sent, used to warm up the rate limit of a user.
+ *
+ * @param messageId the id of the LLM response
+ * @param sentAt    the time the LLM response was sent
+ */
+public record IrisLlmResponseTime(long messageId, ZonedDateTime sentAt) {
+}
@@ -1,5 +1,6 @@
 package de.tum.in.www1.artemis.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -50,6 +51,15 @@ public interface CompetencyProgressRepository extends JpaRepository<CompetencyPr
             """)
     Optional<CompetencyProgress> findEagerByCompetencyIdAndUserId(@Param("competencyId") Long competencyId, @Param("userId") Long userId);
 
+    @Query("""
+            SELECT cp
+            FROM CompetencyProgress cp
+                LEFT JOIN FETCH cp.user
+            WHERE cp.learningGoal.id = :competencyId
+                AND cp.user.id IN :userIds
+            """)
+    List<CompetencyProgress> findAllByCompetencyIdAndUserIds(@Param("competencyId") Long competencyId, @Param("userIds") Collection<Long> userIds);
+
     @Query("""
             SELECT cp
             FROM CompetencyProgress cp
@@ -195,6 +195,18 @@ public interface GradingScaleRepository extends JpaRepository<GradingScale, Long
         return this.matchPercentageToGradeStep(percentage, gradeSteps);
     }
 
+    /**
+     * Maps a grade percentage to a valid grade step within the grading scale without loading the grading scale again, e.g. when calculating the grades of many students
+     *
+     * @param percentage   the grade percentage to be mapped
+     * @param gradingScale the grading scale with its grade steps
+     * @return grade step corresponding to the given percentage
+     * @see #matchPercentageToGradeStep(double, Long)
+     */
+    default GradeStep matchPercentageToGradeStep(double percentage, GradingScale gradingScale) {
+        return matchPercentageToGradeStep(percentage, gradingScale.getGradeSteps());
+    }
+
     /**
      * @param percentage the grade percentage to be mapped
      * @param gradeSteps the grade steps of a grading scale
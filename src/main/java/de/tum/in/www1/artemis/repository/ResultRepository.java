@@ -17,9 +17,11 @@ import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.assessment.dashboard.ResultCount;
 import de.tum.in.www1.artemis.domain.enumeration.AssessmentType;
 import de.tum.in.www1.artemis.domain.leaderboard.tutor.TutorLeaderboardAssessments;
+import de.tum.in.www1.artemis.service.scheduled.ParticipantResultDTO;
 import de.tum.in.www1.artemis.service.util.RoundingUtil;
 import de.tum.in.www1.artemis.web.rest.dto.DueDateStat;
 import de.tum.in.www1.artemis.web.rest.dto.ResultWithPointsPerGradingCriterionDTO;
+import de.tum.in.www1.artemis.web.rest.dto.quiz.QuizResultStatisticDTO;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
 
 /**
@@ -111,6 +113,23 @@ public interface ResultRepository extends JpaRepository<Result, Long> {
     @EntityGraph(type = LOAD, attributePaths = { "submission", "submission.results", "feedbacks", "assessor" })
     Optional<Result> findWithEagerSubmissionAndFeedbackAndAssessorById(Long resultId);
 
+    /**
+     * Get the values of all rated and unrated results of a quiz exercise that are relevant for its statistics, without loading the results as entities
+     *
+     * @param exerciseId the id of the quiz exercise
+     * @return the results of all participations of the quiz exercise that are either rated or unrated and have a completion date
+     */
+    @Query("""
+            SELECT new de.tum.in.www1.artemis.web.rest.dto.quiz.QuizResultStatisticDTO(p.id, r.rated, r.completionDate, r.score, s.id)
+            FROM Result r
+                JOIN r.participation p
+                LEFT JOIN r.submission s
+            WHERE p.exercise.id = :exerciseId
+                AND r.rated IS NOT NULL
+                AND r.completionDate IS NOT NULL
+            """)
+    List<QuizResultStatisticDTO> findQuizResultStatisticsByExerciseId(@Param("exerciseId") long exerciseId);
+
     /**
      * counts the number of assessments of a course, which are either rated or not rated
      *
@@ -235,61 +254,53 @@ public interface ResultRepository extends JpaRepository<Result, Long> {
             """)
     long countNumberOfAssessmentsByTypeForExerciseAfterDueDate(@Param("exerciseId") Long exerciseId, @Param("types") List<AssessmentType> types);
 
+    /**
+     * Get the (rated and unrated) results of multiple students in an exercise at once, e.g. to update their participant scores in a batch.
+     * The results of every student are ordered by participation, submission and result, starting with the latest one, and only results of legal submissions are included.
+     *
+     * @param exerciseId the id of the exercise
+     * @param studentIds the ids of the students
+     * @return the results with the ids of their students
+     */
     @Query("""
-            SELECT r
-            FROM Exercise e JOIN e.studentParticipations p JOIN p.submissions s JOIN s.results r
-            WHERE e.id = :exerciseId
-                AND p.student.id = :studentId
-                AND r.score IS NOT NULL
-                AND r.completionDate IS NOT NULL
-                AND (s.type <> 'ILLEGAL' or s.type is null)
-            ORDER BY p.id DESC, s.id DESC, r.id DESC
-            """)
-    List<Result> getResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForStudent(@Param("exerciseId") Long exerciseId, @Param("studentId") Long studentId);
-
-    @Query("""
-            SELECT r
-            FROM Exercise e JOIN e.studentParticipations p JOIN p.submissions s JOIN s.results r
-            WHERE e.id = :exerciseId
-                AND p.team.id = :teamId
-                AND r.score IS NOT NULL
-                AND r.completionDate IS NOT NULL
-                AND (s.type <> 'ILLEGAL' or s.type is null)
-            ORDER BY p.id DESC, s.id DESC, r.id DESC
-            """)
-    List<Result> getResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForTeam(@Param("exerciseId") Long exerciseId, @Param("teamId") Long teamId);
-
-    @Query("""
-            SELECT r
+            SELECT new de.tum.in.www1.artemis.service.scheduled.ParticipantResultDTO(p.student.id, r)
             FROM Exercise e
             JOIN e.studentParticipations p
             JOIN p.submissions s
             JOIN s.results r
             WHERE e.id = :exerciseId
-                AND p.student.id = :studentId
+                AND p.student.id IN :studentIds
                 AND r.score IS NOT NULL
                 AND r.completionDate IS NOT NULL
-                AND r.rated = true
                 AND (s.type <> 'ILLEGAL' or s.type is null)
             ORDER BY p.id DESC, s.id DESC, r.id DESC
             """)
-    List<Result> getRatedResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForStudent(@Param("exerciseId") Long exerciseId, @Param("studentId") Long studentId);
+    List<ParticipantResultDTO> getResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForStudents(@Param("exerciseId") Long exerciseId,
+            @Param("studentIds") Collection<Long> studentIds);
 
+    /**
+     * Get the (rated and unrated) results of multiple teams in an exercise at once, e.g. to update their participant scores in a batch.
+     * The results of every team are ordered the same way as in {@link #getResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForStudents(Long, Collection)}.
+     *
+     * @param exerciseId the id of the exercise
+     * @param teamIds    the ids of the teams
+     * @return the results with the ids of their teams
+     */
     @Query("""
-            SELECT r
+            SELECT new de.tum.in.www1.artemis.service.scheduled.ParticipantResultDTO(p.team.id, r)
             FROM Exercise e
             JOIN e.studentParticipations p
             JOIN p.submissions s
             JOIN s.results r
             WHERE e.id = :exerciseId
-                AND p.team.id = :teamId
+                AND p.team.id IN :teamIds
                 AND r.score IS NOT NULL
                 AND r.completionDate IS NOT NULL
-                AND r.rated = true
                 AND (s.type <> 'ILLEGAL' or s.type is null)
             ORDER BY p.id DESC, s.id DESC, r.id DESC
             """)
-    List<Result> getRatedResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForTeam(@Param("exerciseId") Long exerciseId, @Param("teamId") Long teamId);
+    List<ParticipantResultDTO> getResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForTeams(@Param("exerciseId") Long exerciseId,
+            @Param("teamIds") Collection<Long> teamIds);
 
     List<Result> findAllByLastModifiedDateAfter(Instant lastModifiedDate);
 
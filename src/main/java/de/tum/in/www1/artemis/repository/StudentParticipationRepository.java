@@ -38,6 +38,27 @@ public interface StudentParticipationRepository extends JpaRepository<StudentPar
 
     Set<StudentParticipation> findByExerciseId(@Param("exerciseId") Long exerciseId);
 
+    @Query("""
+            SELECT p.student.login
+            FROM StudentParticipation p
+            WHERE p.exercise.id = :exerciseId
+                AND p.student.login IN :logins
+            """)
+    Set<String> findStudentLoginsByExerciseIdAndStudentLogins(@Param("exerciseId") long exerciseId, @Param("logins") Collection<String> logins);
+
+    /**
+     * Get the id of the exam the exercise of the participation belongs to
+     *
+     * @param participationId the id of the participation
+     * @return the id of the exam or an empty optional if the participation does not exist or belongs to a course exercise
+     */
+    @Query("""
+            SELECT p.exercise.exerciseGroup.exam.id
+            FROM StudentParticipation p
+            WHERE p.id = :participationId
+            """)
+    Optional<Long> findExamIdById(@Param("participationId") long participationId);
+
     @Query("""
             SELECT DISTINCT p FROM StudentParticipation p LEFT JOIN FETCH p.results r
             WHERE p.exercise.course.id = :#{#courseId}
@@ -244,6 +265,32 @@ public interface StudentParticipationRepository extends JpaRepository<StudentPar
             """)
     List<StudentParticipation> findByExerciseIdWithLatestAutomaticResultAndFeedbacks(@Param("exerciseId") Long exerciseId);
 
+    @Query("""
+            SELECT p.id
+            FROM StudentParticipation p
+            WHERE p.exercise.id = :exerciseId
+            ORDER BY p.id
+            """)
+    List<Long> findIdsByExerciseId(@Param("exerciseId") long exerciseId);
+
+    /**
+     * Get the given participations with each latest {@link AssessmentType#AUTOMATIC} result and feedbacks (determined by id).
+     *
+     * @param participationIds the ids of the participations.
+     * @return the participations that have an automatic result.
+     */
+    @Query("""
+            select distinct p from StudentParticipation p
+            left join fetch p.results r
+            left join fetch r.feedbacks
+            left join fetch r.submission s
+            where p.id in :participationIds
+                and (r.id = (select max(pr.id) from p.results pr
+                    left join pr.submission prs
+                    where pr.assessmentType = 'AUTOMATIC' and (prs.type <> 'ILLEGAL' or prs.type is null)))
+            """)
+    List<StudentParticipation> findByIdsWithLatestAutomaticResultAndFeedbacks(@Param("participationIds") Collection<Long> participationIds);
+
     /**
      * Get all participations without individual due date for an exercise with each latest {@link AssessmentType#AUTOMATIC} result and feedbacks (determined by id).
      *
@@ -278,6 +325,18 @@ public interface StudentParticipationRepository extends JpaRepository<StudentPar
             """)
     List<StudentParticipation> findByExerciseIdWithManualResultAndFeedbacks(@Param("exerciseId") Long exerciseId);
 
+    // Manual result can either be from type MANUAL or SEMI_AUTOMATIC
+    @Query("""
+            select distinct p from StudentParticipation p
+            left join fetch p.results r
+            left join fetch r.feedbacks
+            left join fetch r.submission s
+            where p.id in :participationIds
+                 and (s.type <> 'ILLEGAL' or s.type is null)
+                 and (r.assessmentType = 'MANUAL' or r.assessmentType = 'SEMI_AUTOMATIC')
+            """)
+    List<StudentParticipation> findByIdsWithManualResultAndFeedbacks(@Param("participationIds") Collection<Long> participationIds);
+
     default List<StudentParticipation> findByExerciseIdWithManualResultAndFeedbacksWithoutIndividualDueDate(Long exerciseId) {
         return findByExerciseIdWithManualResultAndFeedbacks(exerciseId).stream().filter(participation -> participation.getIndividualDueDate() == null).toList();
     }
@@ -311,6 +370,14 @@ public interface StudentParticipationRepository extends JpaRepository<StudentPar
             """)
     List<StudentParticipation> findByExerciseIdAndStudentId(@Param("exerciseId") Long exerciseId, @Param("studentId") Long studentId);
 
+    @Query("""
+            SELECT p
+            FROM StudentParticipation p
+                JOIN FETCH p.student
+            WHERE p.exercise.id = :exerciseId
+            """)
+    List<StudentParticipation> findAllWithStudentByExerciseId(@Param("exerciseId") long exerciseId);
+
     @Query("""
             SELECT DISTINCT p
             FROM StudentParticipation p
@@ -2,6 +2,7 @@ package de.tum.in.www1.artemis.repository;
 
 import static org.springframework.data.jpa.repository.EntityGraph.EntityGraphType.LOAD;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -18,6 +19,7 @@ import org.springframework.transaction.annotation.Transactional;
 import de.tum.in.www1.artemis.domain.Exercise;
 import de.tum.in.www1.artemis.domain.User;
 import de.tum.in.www1.artemis.domain.scores.StudentScore;
+import de.tum.in.www1.artemis.web.rest.dto.UserExerciseScoreDTO;
 
 @Repository
 public interface StudentScoreRepository extends JpaRepository<StudentScore, Long> {
@@ -29,6 +31,9 @@ public interface StudentScoreRepository extends JpaRepository<StudentScore, Long
     @EntityGraph(type = LOAD, attributePaths = { "user", "exercise" })
     Optional<StudentScore> findByExercise_IdAndUser_Id(Long exerciseId, Long userId);
 
+    @EntityGraph(type = LOAD, attributePaths = { "user", "exercise" })
+    List<StudentScore> findAllByExercise_IdAndUser_IdIn(Long exerciseId, Collection<Long> userIds);
+
     @EntityGraph(type = LOAD, attributePaths = { "user", "exercise", "lastResult", "lastRatedResult" })
     List<StudentScore> findAllByExerciseIn(Set<Exercise> exercises, Pageable pageable);
 
@@ -58,6 +63,14 @@ public interface StudentScoreRepository extends JpaRepository<StudentScore, Long
             """)
     List<StudentScore> findAllByExercisesAndUser(@Param("exercises") List<Exercise> exercises, @Param("user") User user);
 
+    @Query("""
+            SELECT new de.tum.in.www1.artemis.web.rest.dto.UserExerciseScoreDTO(s.user.id, s.exercise.id, s.lastScore)
+            FROM StudentScore s
+            WHERE s.exercise IN :exercises
+                AND s.user.id IN :userIds
+            """)
+    List<UserExerciseScoreDTO> findAllScoresByExercisesAndUserIds(@Param("exercises") Collection<Exercise> exercises, @Param("userIds") Collection<Long> userIds);
+
     @Query("""
             SELECT s
             FROM StudentScore s
@@ -381,7 +381,22 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
      * @return a new submission for the given type connected to the given participation
      */
     default Submission initializeSubmission(Participation participation, Exercise exercise, SubmissionType submissionType) {
+        Submission submission = instantiateSubmission(participation, exercise, submissionType);
+        save(submission);
+        participation.addSubmission(submission);
+        return submission;
+    }
 
+    /**
+     * Creates a new submission (depending on the type of the given exercise) for the given participation without storing it in the database, e.g. to store many submissions
+     * at once.
+     *
+     * @param participation  the participation to which the submission belongs
+     * @param exercise       the corresponding exercise
+     * @param submissionType type for the submission to be created
+     * @return a new unsaved submission for the given type that references the given participation
+     */
+    default Submission instantiateSubmission(Participation participation, Exercise exercise, SubmissionType submissionType) {
         Submission submission;
         if (exercise instanceof ProgrammingExercise) {
             submission = new ProgrammingSubmission();
@@ -404,11 +419,16 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
 
         submission.setType(submissionType);
         submission.setParticipation(participation);
-        save(submission);
-        participation.addSubmission(submission);
         return submission;
     }
 
+    @Query("""
+            SELECT DISTINCT s.participation.id
+            FROM Submission s
+            WHERE s.participation.exercise.id = :exerciseId
+            """)
+    Set<Long> findParticipationIdsWithSubmissionsByExerciseId(@Param("exerciseId") long exerciseId);
+
     /**
      * Count number of submissions for exercise.
      *
@@ -1,15 +1,21 @@
 package de.tum.in.www1.artemis.repository;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
 import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
 import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
 import de.tum.in.www1.artemis.domain.quiz.SubmittedAnswer;
+import de.tum.in.www1.artemis.web.rest.dto.quiz.DragAndDropSelectionDTO;
+import de.tum.in.www1.artemis.web.rest.dto.quiz.MultipleChoiceSelectionDTO;
+import de.tum.in.www1.artemis.web.rest.dto.quiz.ShortAnswerSelectionDTO;
 
 /**
  * Spring Data JPA repository for the SubmittedAnswer entity.
@@ -19,6 +25,52 @@ public interface SubmittedAnswerRepository extends JpaRepository<SubmittedAnswer
 
     Set<SubmittedAnswer> findBySubmission(QuizSubmission quizSubmission);
 
+    /**
+     * Get the selected answer options of all multiple choice answers of the given submissions without loading the submitted answers as entities
+     *
+     * @param submissionIds the ids of the quiz submissions
+     * @return one entry per selected answer option, and one entry without answer option for each answer without selection
+     */
+    @Query("""
+            SELECT new de.tum.in.www1.artemis.web.rest.dto.quiz.MultipleChoiceSelectionDTO(answer.submission.id, answer.quizQuestion.id, answerOption.id)
+            FROM MultipleChoiceSubmittedAnswer answer
+                LEFT JOIN answer.selectedOptions answerOption
+            WHERE answer.submission.id IN :submissionIds
+            """)
+    List<MultipleChoiceSelectionDTO> findMultipleChoiceSelectionsBySubmissionIds(@Param("submissionIds") Collection<Long> submissionIds);
+
+    /**
+     * Get the mappings of all drag and drop answers of the given submissions without loading the submitted answers as entities
+     *
+     * @param submissionIds the ids of the quiz submissions
+     * @return one entry per mapping, and one entry without drag item and drop location for each answer without mappings
+     */
+    @Query("""
+            SELECT new de.tum.in.www1.artemis.web.rest.dto.quiz.DragAndDropSelectionDTO(answer.submission.id, answer.quizQuestion.id, dragItem.id, dropLocation.id)
+            FROM DragAndDropSubmittedAnswer answer
+                LEFT JOIN answer.mappings mapping
+                LEFT JOIN mapping.dragItem dragItem
+                LEFT JOIN mapping.dropLocation dropLocation
+            WHERE answer.submission.id IN :submissionIds
+            """)
+    List<DragAndDropSelectionDTO> findDragAndDropSelectionsBySubmissionIds(@Param("submissionIds") Collection<Long> submissionIds);
+
+    /**
+     * Get the submitted texts of all short answer answers of the given submissions without loading the submitted answers as entities
+     *
+     * @param submissionIds the ids of the quiz submissions
+     * @return one entry per submitted text, and one entry without spot for each answer without submitted texts
+     */
+    @Query("""
+            SELECT new de.tum.in.www1.artemis.web.rest.dto.quiz.ShortAnswerSelectionDTO(answer.submission.id, answer.quizQuestion.id, spot.id, submittedText.text,
+                submittedText.isCorrect)
+            FROM ShortAnswerSubmittedAnswer answer
+                LEFT JOIN answer.submittedTexts submittedText
+                LEFT JOIN submittedText.spot spot
+            WHERE answer.submission.id IN :submissionIds
+            """)
+    List<ShortAnswerSelectionDTO> findShortAnswerSelectionsBySubmissionIds(@Param("submissionIds") Collection<Long> submissionIds);
+
     /**
      * Loads submitted answers from the database in case there is a QuizSubmission in one of the passed student participation
      * Assumes that submissions are loaded eagerly in case they exist
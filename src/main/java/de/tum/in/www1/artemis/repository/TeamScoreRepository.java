@@ -2,6 +2,7 @@ package de.tum.in.www1.artemis.repository;
 
 import static org.springframework.data.jpa.repository.EntityGraph.EntityGraphType.LOAD;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -19,6 +20,7 @@ import de.tum.in.www1.artemis.domain.Exercise;
 import de.tum.in.www1.artemis.domain.Team;
 import de.tum.in.www1.artemis.domain.User;
 import de.tum.in.www1.artemis.domain.scores.TeamScore;
+import de.tum.in.www1.artemis.web.rest.dto.UserExerciseScoreDTO;
 
 @Repository
 public interface TeamScoreRepository extends JpaRepository<TeamScore, Long> {
@@ -30,6 +32,9 @@ public interface TeamScoreRepository extends JpaRepository<TeamScore, Long> {
     @EntityGraph(type = LOAD, attributePaths = { "team", "exercise" })
     Optional<TeamScore> findByExercise_IdAndTeam_Id(@Param("exerciseId") Long exerciseId, @Param("teamId") Long teamId);
 
+    @EntityGraph(type = LOAD, attributePaths = { "team", "exercise" })
+    List<TeamScore> findAllByExercise_IdAndTeam_IdIn(Long exerciseId, Collection<Long> teamIds);
+
     @EntityGraph(type = LOAD, attributePaths = { "team", "exercise", "lastResult", "lastRatedResult" })
     List<TeamScore> findAllByExerciseIn(Set<Exercise> exercises, Pageable pageable);
 
@@ -67,6 +72,15 @@ public interface TeamScoreRepository extends JpaRepository<TeamScore, Long> {
             """)
     List<TeamScore> findAllByExercisesAndUser(@Param("exercises") List<Exercise> exercises, @Param("user") User user);
 
+    @Query("""
+            SELECT new de.tum.in.www1.artemis.web.rest.dto.UserExerciseScoreDTO(u.id, s.exercise.id, s.lastScore)
+            FROM TeamScore s
+                JOIN s.team.students u
+            WHERE s.exercise IN :exercises
+                AND u.id IN :userIds
+            """)
+    List<UserExerciseScoreDTO> findAllScoresByExercisesAndUserIds(@Param("exercises") Collection<Exercise> exercises, @Param("userIds") Collection<Long> userIds);
+
     @Transactional // ok because of delete
     @Modifying
     void deleteByExerciseAndTeam(Exercise exercise, Team team);
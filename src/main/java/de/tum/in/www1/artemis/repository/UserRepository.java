@@ -62,6 +62,8 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
 
     Optional<User> findOneByLogin(String login);
 
+    List<User> findAllByLoginIn(Collection<String> logins);
+
     @EntityGraph(type = LOAD, attributePaths = { "groups", "authorities" })
     Optional<User> findOneWithGroupsAndAuthoritiesByRegistrationNumber(String registrationNumber);
 
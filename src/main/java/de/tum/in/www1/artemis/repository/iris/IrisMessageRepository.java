@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import de.tum.in.www1.artemis.domain.iris.IrisLlmResponseTime;
 import de.tum.in.www1.artemis.domain.iris.IrisMessage;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
 
@@ -29,15 +30,15 @@ public interface IrisMessageRepository extends JpaRepository<IrisMessage, Long>
     List<IrisMessage> findAllExceptSystemMessagesWithContentBySessionId(Long sessionId);
 
     /**
-     * Counts the number of LLM responses the user got within the given timeframe.
+     * Finds the LLM responses the user got within the given timeframe.
      *
      * @param userId the id of the user
      * @param start  the start of the timeframe
      * @param end    the end of the timeframe
-     * @return the number of chat messages sent by the user within the given timeframe
+     * @return the ids and send times of the chat messages sent to the user within the given timeframe
      */
     @Query("""
-            SELECT COUNT(DISTINCT m)
+            SELECT DISTINCT new de.tum.in.www1.artemis.domain.iris.IrisLlmResponseTime(m.id, m.sentAt)
             FROM IrisMessage m
                 LEFT JOIN m.session as s
             WHERE type(s) = de.tum.in.www1.artemis.domain.iris.session.IrisChatSession
@@ -45,7 +46,7 @@ public interface IrisMessageRepository extends JpaRepository<IrisMessage, Long>
                 AND m.sender = 'LLM'
                 AND m.sentAt BETWEEN :start AND :end
             """)
-    int countLlmResponsesOfUserWithinTimeframe(@Param("userId") Long userId, @Param("start") ZonedDateTime start, @Param("end") ZonedDateTime end);
+    List<IrisLlmResponseTime> findLlmResponseTimesOfUserWithinTimeframe(@Param("userId") Long userId, @Param("start") ZonedDateTime start, @Param("end") ZonedDateTime end);
 
     @NotNull
     default IrisMessage findByIdElseThrow(long messageId) throws EntityNotFoundException {
@@ -19,6 +19,7 @@ import org.springframework.stereotype.Repository;
 
 import de.tum.in.www1.artemis.domain.metis.Post;
 import de.tum.in.www1.artemis.web.rest.dto.PostContextFilter;
+import de.tum.in.www1.artemis.web.rest.dto.PostTitleDTO;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
 
 /**
@@ -84,6 +85,25 @@ public interface PostRepository extends JpaRepository<Post, Long>, JpaSpecificat
             """)
     List<String> findPostTagsForCourse(@Param("courseId") Long courseId);
 
+    /**
+     * Retrieves the id and title of all posts of a course that are visible in the course discussion (i.e. excluding messages and plagiarism case posts),
+     * used to build the similarity index of the course without loading the posts themselves
+     *
+     * @param courseId id of the course
+     * @return ids and titles of all course posts
+     */
+    @Query("""
+            SELECT new de.tum.in.www1.artemis.web.rest.dto.PostTitleDTO(post.id, post.title)
+            FROM Post post
+            LEFT JOIN post.lecture lecture LEFT JOIN post.exercise exercise
+            WHERE (lecture.course.id = :courseId
+                OR exercise.course.id = :courseId
+                OR post.course.id = :courseId)
+                AND post.conversation IS NULL
+                AND post.plagiarismCase IS NULL
+            """)
+    List<PostTitleDTO> findPostTitlesForCourse(@Param("courseId") Long courseId);
+
     @Query("""
             SELECT DISTINCT post FROM Post post
             LEFT JOIN post.answers answer LEFT JOIN post.reactions reaction
@@ -1,11 +1,9 @@
 package de.tum.in.www1.artemis.service;
 
-import java.net.URI;
 import java.time.ZonedDateTime;
 import java.util.Objects;
 
 import org.apache.commons.io.FilenameUtils;
-import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -26,23 +24,20 @@ public class AttachmentUnitService {
 
     private final FileService fileService;
 
-    private final FilePathService filePathService;
-
-    private final CacheManager cacheManager;
-
     private final SlideSplitterService slideSplitterService;
 
     private final SlideRepository slideRepository;
 
+    private final MergedLecturePdfService mergedLecturePdfService;
+
     public AttachmentUnitService(SlideRepository slideRepository, SlideSplitterService slideSplitterService, AttachmentUnitRepository attachmentUnitRepository,
-            AttachmentRepository attachmentRepository, FileService fileService, FilePathService filePathService, CacheManager cacheManager) {
+            AttachmentRepository attachmentRepository, FileService fileService, MergedLecturePdfService mergedLecturePdfService) {
         this.attachmentUnitRepository = attachmentUnitRepository;
         this.attachmentRepository = attachmentRepository;
         this.fileService = fileService;
-        this.filePathService = filePathService;
-        this.cacheManager = cacheManager;
         this.slideSplitterService = slideSplitterService;
         this.slideRepository = slideRepository;
+        this.mergedLecturePdfService = mergedLecturePdfService;
     }
 
     /**
@@ -69,7 +64,7 @@ public class AttachmentUnitService {
 
         Attachment savedAttachment = attachmentRepository.saveAndFlush(attachment);
         savedAttachmentUnit.setAttachment(savedAttachment);
-        evictCache(file, savedAttachmentUnit);
+        mergedLecturePdfService.scheduleRebuild(lecture.getId());
 
         return savedAttachmentUnit;
     }
@@ -104,7 +99,6 @@ public class AttachmentUnitService {
         Attachment savedAttachment = attachmentRepository.saveAndFlush(existingAttachment);
         savedAttachmentUnit.setAttachment(savedAttachment);
         prepareAttachmentUnitForClient(savedAttachmentUnit);
-        evictCache(updateFile, savedAttachmentUnit);
 
         if (updateFile != null) {
             if (existingAttachmentUnit.getSlides() != null && !existingAttachmentUnit.getSlides().isEmpty()) {
@@ -115,6 +109,8 @@ public class AttachmentUnitService {
                 slideSplitterService.splitAttachmentUnitIntoSingleSlides(savedAttachmentUnit);
             }
         }
+        // the release date or the file might have changed
+        mergedLecturePdfService.scheduleRebuild(savedAttachmentUnit.getLecture().getId());
 
         return savedAttachmentUnit;
     }
@@ -150,18 +146,6 @@ public class AttachmentUnitService {
         }
     }
 
-    /**
-     * If a file was provided the cache for that file gets evicted.
-     *
-     * @param file           Potential file to evict the cache for.
-     * @param attachmentUnit Attachment unit liked to the file.
-     */
-    private void evictCache(MultipartFile file, AttachmentUnit attachmentUnit) {
-        if (file != null && !file.isEmpty()) {
-            this.cacheManager.getCache("files").evict(filePathService.actualPathForPublicPath(URI.create(attachmentUnit.getAttachment().getLink())).toString());
-        }
-    }
-
     /**
      * Cleans the attachment unit before sending it to the client and sets the attachment relationship.
      *
@@ -2,6 +2,8 @@ package de.tum.in.www1.artemis.service;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.validation.constraints.NotNull;
@@ -12,17 +14,18 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
+
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.competency.Competency;
 import de.tum.in.www1.artemis.domain.competency.CompetencyProgress;
 import de.tum.in.www1.artemis.domain.lecture.ExerciseUnit;
 import de.tum.in.www1.artemis.domain.lecture.LectureUnit;
-import de.tum.in.www1.artemis.domain.lecture.LectureUnitCompletion;
 import de.tum.in.www1.artemis.domain.participation.Participant;
-import de.tum.in.www1.artemis.domain.scores.ParticipantScore;
 import de.tum.in.www1.artemis.repository.*;
 import de.tum.in.www1.artemis.security.SecurityUtils;
 import de.tum.in.www1.artemis.service.util.RoundingUtil;
+import de.tum.in.www1.artemis.web.rest.dto.UserExerciseScoreDTO;
 
 /**
  * Service for calculating the progress of a student in a competency.
@@ -32,6 +35,11 @@ public class CompetencyProgressService {
 
     private final Logger logger = LoggerFactory.getLogger(CompetencyProgressService.class);
 
+    /**
+     * The maximum number of users whose progress is loaded and saved together
+     */
+    private static final int BATCH_SIZE = 500;
+
     private final CompetencyRepository competencyRepository;
 
     private final CompetencyProgressRepository competencyProgressRepository;
@@ -102,9 +110,13 @@ public class CompetencyProgressService {
     @Async
     public void updateProgressByCompetencyAsync(Competency competency) {
         SecurityUtils.setAuthorizationObject(); // required for async
-        competencyProgressRepository.findAllByCompetencyId(competency.getId()).stream().map(CompetencyProgress::getUser).forEach(user -> {
-            updateCompetencyProgress(competency.getId(), user);
-        });
+        var users = competencyProgressRepository.findAllByCompetencyId(competency.getId()).stream().map(CompetencyProgress::getUser).collect(Collectors.toSet());
+        var competencyWithLearningObjects = competencyRepository.findByIdWithExercisesAndLectureUnitsAndCompletions(competency.getId()).orElse(null);
+        if (competencyWithLearningObjects == null || users.isEmpty()) {
+            return;
+        }
+        updateCompetencyProgress(competencyWithLearningObjects, users);
+        updateLearningPathProgress(competencyWithLearningObjects.getCourse(), users);
     }
 
     /**
@@ -126,7 +138,8 @@ public class CompetencyProgressService {
     }
 
     /**
-     * Update the progress for all competencies linked to the given learning object
+     * Update the progress for all competencies linked to the given learning object.
+     * Each competency is loaded only once and the progress of all users is calculated in bulk.
      *
      * @param learningObject The learning object for which to fetch the competencies
      * @param users          A list of users for which to update the progress
@@ -151,11 +164,21 @@ public class CompetencyProgressService {
                 return;
             }
 
-            users.forEach(user -> {
-                competencies.forEach(competency -> {
-                    updateCompetencyProgress(competency.getId(), user);
-                });
-            });
+            Course course = null;
+            for (Competency competency : competencies) {
+                var competencyWithLearningObjects = competencyRepository.findByIdWithExercisesAndLectureUnitsAndCompletions(competency.getId()).orElse(null);
+                if (competencyWithLearningObjects == null) {
+                    logger.debug("Competency {} no longer exists, skipping.", competency.getId());
+                    continue;
+                }
+                updateCompetencyProgress(competencyWithLearningObjects, users);
+                course = competencyWithLearningObjects.getCourse();
+            }
+
+            // All competencies of a learning object belong to the same course, so the learning path of each user only has to be updated once
+            if (course != null) {
+                updateLearningPathProgress(course, users);
+            }
         }
         catch (Exception e) {
             logger.error("Exception while updating progress for competency", e);
@@ -178,95 +201,164 @@ public class CompetencyProgressService {
         }
 
         var competencyProgress = competencyProgressRepository.findEagerByCompetencyIdAndUserId(competencyId, user.getId());
-
-        if (competencyProgress.isPresent()) {
-            var lastModified = competencyProgress.get().getLastModifiedDate();
-            if (lastModified != null && lastModified.isAfter(Instant.now().minusSeconds(1))) {
-                logger.debug("Competency progress has been updated very recently, skipping.");
-                return competencyProgress.get();
-            }
+        if (competencyProgress.isPresent() && isUpdatedRecently(competencyProgress.get())) {
+            // neither the progress nor the learning path have to be calculated again
+            logger.debug("Competency progress has been updated very recently, skipping.");
+            return competencyProgress.get();
         }
 
-        var studentProgress = competencyProgress.orElse(new CompetencyProgress());
-        List<LearningObject> learningObjects = new ArrayList<>();
-
-        List<LectureUnit> allLectureUnits = competency.getLectureUnits().stream().filter(LectureUnit::isVisibleToStudents).toList();
+        var studentProgress = updateCompetencyProgress(competency, Set.of(user)).get(0);
+        learningPathService.updateLearningPathProgress(competency.getCourse().getId(), user.getId());
+        return studentProgress;
+    }
 
-        List<LectureUnit> lectureUnits = allLectureUnits.stream().filter(lectureUnit -> !(lectureUnit instanceof ExerciseUnit)).toList();
+    /**
+     * Updates the progress values (and confidence scores) of the given competency for all given users.
+     * The users are processed in batches: the existing progress and the scores of each batch are loaded with a few queries, the progress is calculated in memory
+     * and the changed progress is saved at once.
+     *
+     * @param competency The competency with its exercises, lecture units and lecture unit completions
+     * @param users      The users for which the progress should be updated
+     * @return The progress of each user, either updated and persisted or unchanged if it has been updated very recently
+     */
+    private List<CompetencyProgress> updateCompetencyProgress(Competency competency, Collection<User> users) {
+        List<LectureUnit> lectureUnits = competency.getLectureUnits().stream().filter(LectureUnit::isVisibleToStudents)
+                .filter(lectureUnit -> !(lectureUnit instanceof ExerciseUnit)).toList();
         List<Exercise> exercises = competency.getExercises().stream().filter(Exercise::isVisibleToStudents).toList();
+        int numberOfLearningObjects = lectureUnits.size() + exercises.size();
+
+        Map<Long, Long> numberOfCompletedLectureUnitsByUserId = lectureUnits.stream().flatMap(lectureUnit -> lectureUnit.getCompletedUsers().stream())
+                .collect(Collectors.groupingBy(completion -> completion.getUser().getId(), Collectors.counting()));
+
+        List<CompetencyProgress> competencyProgresses = new ArrayList<>(users.size());
+        for (List<User> batch : Lists.partition(new ArrayList<>(users), BATCH_SIZE)) {
+            var userIds = batch.stream().map(User::getId).collect(Collectors.toSet());
+            Map<Long, CompetencyProgress> existingProgressByUserId = competencyProgressRepository.findAllByCompetencyIdAndUserIds(competency.getId(), userIds).stream()
+                    .collect(Collectors.toMap(competencyProgress -> competencyProgress.getUser().getId(), Function.identity()));
+            Map<Long, List<UserExerciseScoreDTO>> scoresByUserId = findScoresByUserId(exercises, userIds);
+
+            List<CompetencyProgress> competencyProgressesToSave = new ArrayList<>();
+            for (User user : batch) {
+                var competencyProgress = existingProgressByUserId.get(user.getId());
+                if (competencyProgress != null && isUpdatedRecently(competencyProgress)) {
+                    logger.debug("Competency progress has been updated very recently, skipping.");
+                    competencyProgresses.add(competencyProgress);
+                    continue;
+                }
+
+                var studentProgress = competencyProgress != null ? competencyProgress : new CompetencyProgress();
+                var scores = scoresByUserId.getOrDefault(user.getId(), List.of());
+
+                var progress = RoundingUtil.roundScoreSpecifiedByCourseSettings(calculateProgress(numberOfLearningObjects,
+                        numberOfCompletedLectureUnitsByUserId.getOrDefault(user.getId(), 0L), scores), competency.getCourse());
+                var confidence = RoundingUtil.roundScoreSpecifiedByCourseSettings(calculateConfidence(scores), competency.getCourse());
+
+                if (exercises.isEmpty()) {
+                    // If the competency has no exercises, the confidence score equals the progress
+                    confidence = progress;
+                }
+
+                studentProgress.setCompetency(competency);
+                studentProgress.setUser(user);
+                studentProgress.setProgress(progress);
+                studentProgress.setConfidence(confidence);
+                competencyProgressesToSave.add(studentProgress);
+                competencyProgresses.add(studentProgress);
+
+                logger.debug("Updated progress for user {} in competency {} to {} / {}.", user.getLogin(), competency.getId(), studentProgress.getProgress(),
+                        studentProgress.getConfidence());
+            }
+            saveCompetencyProgresses(competencyProgressesToSave);
+        }
+        return competencyProgresses;
+    }
 
-        learningObjects.addAll(lectureUnits);
-        learningObjects.addAll(exercises);
-
-        var progress = RoundingUtil.roundScoreSpecifiedByCourseSettings(calculateProgress(learningObjects, user), competency.getCourse());
-        var confidence = RoundingUtil.roundScoreSpecifiedByCourseSettings(calculateConfidence(exercises, user), competency.getCourse());
+    /**
+     * Checks if the competency progress was updated less than a second ago, e.g. by concurrent updates triggered by the same change
+     *
+     * @param competencyProgress The competency progress to check
+     * @return True if the competency progress does not have to be calculated again
+     */
+    private static boolean isUpdatedRecently(CompetencyProgress competencyProgress) {
+        var lastModified = competencyProgress.getLastModifiedDate();
+        return lastModified != null && lastModified.isAfter(Instant.now().minusSeconds(1));
+    }
 
+    /**
+     * Loads the individual and team scores of the given users in the given exercises
+     *
+     * @param exercises The exercises linked to a competency
+     * @param userIds   The ids of the users
+     * @return The scores of each user, a user can have at most one score per exercise
+     */
+    private Map<Long, List<UserExerciseScoreDTO>> findScoresByUserId(List<Exercise> exercises, Set<Long> userIds) {
         if (exercises.isEmpty()) {
-            // If the competency has no exercises, the confidence score equals the progress
-            confidence = progress;
+            return Map.of();
         }
+        var studentScores = studentScoreRepository.findAllScoresByExercisesAndUserIds(exercises, userIds);
+        var teamScores = teamScoreRepository.findAllScoresByExercisesAndUserIds(exercises, userIds);
+        return Stream.concat(studentScores.stream(), teamScores.stream()).collect(Collectors.groupingBy(UserExerciseScoreDTO::userId));
+    }
 
-        studentProgress.setCompetency(competency);
-        studentProgress.setUser(user);
-        studentProgress.setProgress(progress);
-        studentProgress.setConfidence(confidence);
-
+    /**
+     * Saves the given competency progresses at once. If this fails, they are saved one by one.
+     *
+     * @param competencyProgresses The competency progresses to save
+     */
+    private void saveCompetencyProgresses(List<CompetencyProgress> competencyProgresses) {
+        if (competencyProgresses.isEmpty()) {
+            return;
+        }
         try {
-            competencyProgressRepository.save(studentProgress);
+            competencyProgressRepository.saveAll(competencyProgresses);
         }
-        catch (DataIntegrityViolationException e) {
-            // In rare instances of initially creating a progress entity, async updates might run in parallel.
-            // This fails the SQL unique constraint and throws an exception. We can safely ignore it.
+        catch (DataIntegrityViolationException ex) {
+            for (CompetencyProgress competencyProgress : competencyProgresses) {
+                try {
+                    competencyProgressRepository.save(competencyProgress);
+                }
+                catch (DataIntegrityViolationException e) {
+                    // In rare instances of initially creating a progress entity, async updates might run in parallel.
+                    // This fails the SQL unique constraint and throws an exception. We can safely ignore it.
+                }
+            }
         }
-
-        logger.debug("Updated progress for user {} in competency {} to {} / {}.", user.getLogin(), competency.getId(), studentProgress.getProgress(),
-                studentProgress.getConfidence());
-
-        learningPathService.updateLearningPathProgress(competency.getCourse().getId(), user.getId());
-        return studentProgress;
     }
 
     /**
-     * Calculate the progress value for the given user in a competency.
+     * Updates the learning path progress of the given users in the course
      *
-     * @param learningObjects A list of all learning objects linked to a specific competency
-     * @param user            The user for which the progress should be calculated
-     * @return The percentage of completed learning objects by the user
+     * @param course The course of the learning paths
+     * @param users  The users whose learning paths should be updated
      */
-    private double calculateProgress(@NotNull List<LearningObject> learningObjects, @NotNull User user) {
-        return learningObjects.stream().map(learningObject -> hasUserCompleted(user, learningObject)).mapToInt(completed -> completed ? 100 : 0).average().orElse(0.);
+    private void updateLearningPathProgress(Course course, Collection<User> users) {
+        users.forEach(user -> learningPathService.updateLearningPathProgress(course.getId(), user.getId()));
     }
 
     /**
-     * Calculate the confidence score for the given user in a competency.
+     * Calculate the progress value for a user in a competency.
      *
-     * @param exercises A list of all exercises linked to a specific competency
-     * @param user      The user for which the confidence score should be calculated
-     * @return The average score of the user in all exercises linked to the competency
+     * @param numberOfLearningObjects       The number of all learning objects linked to the competency
+     * @param numberOfCompletedLectureUnits The number of lecture units linked to the competency that the user completed
+     * @param scores                        The scores of the user in the exercises linked to the competency
+     * @return The percentage of completed learning objects by the user, an exercise counts as completed if the user has at least one result for it
      */
-    private double calculateConfidence(@NotNull List<Exercise> exercises, @NotNull User user) {
-        var studentScores = studentScoreRepository.findAllByExercisesAndUser(exercises, user);
-        var teamScores = teamScoreRepository.findAllByExercisesAndUser(exercises, user);
-        return Stream.concat(studentScores.stream(), teamScores.stream()).map(ParticipantScore::getLastScore).mapToDouble(score -> score).summaryStatistics().getAverage();
+    private static double calculateProgress(int numberOfLearningObjects, long numberOfCompletedLectureUnits, @NotNull List<UserExerciseScoreDTO> scores) {
+        if (numberOfLearningObjects == 0) {
+            return 0.;
+        }
+        long numberOfCompletedExercises = scores.stream().map(UserExerciseScoreDTO::exerciseId).distinct().count();
+        return (numberOfCompletedLectureUnits + numberOfCompletedExercises) * 100. / numberOfLearningObjects;
     }
 
     /**
-     * Checks if the user has completed the learning object.
+     * Calculate the confidence score for a user in a competency.
      *
-     * @param user           The user for which to check the completion status
-     * @param learningObject The lecture unit or exercise
-     * @return True if the user completed the lecture unit or has at least one result for the exercise, false otherwise
+     * @param scores The scores of the user in the exercises linked to the competency
+     * @return The average score of the user in all exercises linked to the competency
      */
-    private boolean hasUserCompleted(@NotNull User user, LearningObject learningObject) {
-        if (learningObject instanceof LectureUnit lectureUnit) {
-            return lectureUnit.getCompletedUsers().stream().map(LectureUnitCompletion::getUser).anyMatch(user1 -> user1.getId().equals(user.getId()));
-        }
-        else if (learningObject instanceof Exercise exercise) {
-            var studentScores = studentScoreRepository.findAllByExercisesAndUser(List.of(exercise), user);
-            var teamScores = teamScoreRepository.findAllByExercisesAndUser(List.of(exercise), user);
-            return Stream.concat(studentScores.stream(), teamScores.stream()).findAny().isPresent();
-        }
-        throw new IllegalArgumentException("Learning object must be either LectureUnit or Exercise");
+    private static double calculateConfidence(@NotNull List<UserExerciseScoreDTO> scores) {
+        return scores.stream().map(UserExerciseScoreDTO::lastScore).filter(Objects::nonNull).mapToDouble(score -> score).average().orElse(0.);
     }
 
     /**
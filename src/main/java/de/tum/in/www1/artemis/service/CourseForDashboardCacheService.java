@@ -0,0 +1,424 @@
+package de.tum.in.www1.artemis.service;
+
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_COURSE_DASHBOARD_COURSE_GENERATIONS;
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_COURSE_DASHBOARD_USER_GENERATIONS;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PreDestroy;
+
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+
+import de.tum.in.www1.artemis.domain.*;
+import de.tum.in.www1.artemis.domain.competency.Competency;
+import de.tum.in.www1.artemis.domain.competency.CompetencyProgress;
+import de.tum.in.www1.artemis.domain.exam.Exam;
+import de.tum.in.www1.artemis.domain.exam.ExamUser;
+import de.tum.in.www1.artemis.domain.lecture.LectureUnitCompletion;
+import de.tum.in.www1.artemis.domain.participation.Participation;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.plagiarism.PlagiarismCase;
+import de.tum.in.www1.artemis.domain.quiz.QuizBatch;
+import de.tum.in.www1.artemis.domain.tutorialgroups.TutorialGroup;
+import de.tum.in.www1.artemis.domain.tutorialgroups.TutorialGroupRegistration;
+import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
+import de.tum.in.www1.artemis.service.listeners.EntityCacheInvalidator;
+import de.tum.in.www1.artemis.service.listeners.EntityChange;
+import de.tum.in.www1.artemis.web.rest.dto.CourseForDashboardDTO;
+
+/**
+ * Caches the {@link CourseForDashboardDTO}s of a user, which are requested on every page load of the course overview and are expensive to build.
+ * <p>
+ * The snapshots are kept in memory on each instance, as they contain whole entity graphs that are filtered and enriched for the user.
+ * Whether a snapshot is still valid is decided by generations that are shared in the Hazelcast cluster:
+ * <ul>
+ * <li>The generation of a user changes whenever one of the user's participations, submissions, results, plagiarism cases, exam registrations, tutorial group
+ * registrations, competency progress or lecture unit completions changes.</li>
+ * <li>The generation of a course changes whenever content that is shared by all users of the course (e.g. exercises, lectures, exams) changes.
+ * Changes of team participations also change the generation of the course, as they affect several users.</li>
+ * <li>The generation of the set of courses changes whenever a course is created, updated or deleted, as this can change which courses are part of the list of all
+ * courses of a user.</li>
+ * </ul>
+ * The list of all courses of a user is built with the generations of the courses it contained the last time, so that changes of other courses do not affect it.
+ * If the list contains other courses than the last time, it is not cached, as the generations of the new courses were not retrieved before the data was loaded.
+ * <p>
+ * If the user of a changed participation (or of the result or submission of a participation) is not loaded, the participation is loaded asynchronously after the commit to
+ * find the affected user.
+ * The generations are changed after the transaction is committed and have to be retrieved before the data for a snapshot is loaded, so snapshots built from
+ * outdated data are never used. In addition, a snapshot expires when one of the dates of its content (e.g. the release or due date of an exercise) is reached
+ * and after {@link #TIME_TO_LIVE} at the latest, which also covers changes that are not made through Hibernate entities (e.g. modifying queries).
+ */
+@Service
+public class CourseForDashboardCacheService implements EntityCacheInvalidator {
+
+    private final Logger log = LoggerFactory.getLogger(CourseForDashboardCacheService.class);
+
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(10);
+
+    /**
+     * The generations have to outlive all snapshots that were created with them, otherwise an expired generation could match an old snapshot again
+     */
+    private static final Duration GENERATION_TIME_TO_LIVE = TIME_TO_LIVE.multipliedBy(2);
+
+    /**
+     * The maximum number of exercises, lectures, exams and participation results in the cached dashboards of each cache, which limits the memory used by the entity graphs
+     */
+    private static final int MAX_CACHED_ELEMENTS = 50_000;
+
+    private static final int MAX_CACHED_COURSE_LISTS = 1000;
+
+    /**
+     * Key of the generation of the set of courses, course ids start at 1
+     */
+    private static final long COURSE_SET = 0L;
+
+    private final IMap<Long, Long> courseGenerations;
+
+    private final IMap<Long, Long> userGenerations;
+
+    private final StudentParticipationRepository studentParticipationRepository;
+
+    /**
+     * Loads participations whose user is not known when they are changed, so that the listener does not query the database during the commit
+     */
+    private final ExecutorService participationLoadingExecutor = Executors
+            .newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("course-dashboard-invalidation-%d").setDaemon(true).build());
+
+    private final Cache<DashboardKey, Snapshot<CourseForDashboardDTO>> coursesForDashboard = CacheBuilder.newBuilder().maximumWeight(MAX_CACHED_ELEMENTS)
+            .weigher((DashboardKey key, Snapshot<CourseForDashboardDTO> snapshot) -> snapshot.weight()).expireAfterWrite(TIME_TO_LIVE).build();
+
+    private final Cache<DashboardKey, Snapshot<List<CourseForDashboardDTO>>> courseListsForDashboard = CacheBuilder.newBuilder().maximumWeight(MAX_CACHED_ELEMENTS)
+            .weigher((DashboardKey key, Snapshot<List<CourseForDashboardDTO>> snapshot) -> snapshot.weight()).expireAfterWrite(TIME_TO_LIVE).build();
+
+    /**
+     * The ids of the courses in the last list of all courses of a user, which outlive the snapshots to retrieve the generations of the courses for the next list
+     */
+    private final Cache<DashboardKey, Set<Long>> courseIdsOfCourseLists = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_COURSE_LISTS)
+            .expireAfterAccess(GENERATION_TIME_TO_LIVE).build();
+
+    public CourseForDashboardCacheService(HazelcastInstance hazelcastInstance, StudentParticipationRepository studentParticipationRepository) {
+        this.studentParticipationRepository = studentParticipationRepository;
+        this.courseGenerations = hazelcastInstance.getMap(HAZELCAST_COURSE_DASHBOARD_COURSE_GENERATIONS);
+        this.userGenerations = hazelcastInstance.getMap(HAZELCAST_COURSE_DASHBOARD_USER_GENERATIONS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        participationLoadingExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns the current generations for the dashboard of the course, which have to be retrieved before the data for the dashboard is loaded
+     *
+     * @param userId   the id of the user
+     * @param courseId the id of the course
+     * @return the current generations
+     */
+    public Generations getGenerations(long userId, long courseId) {
+        return new Generations(Map.of(courseId, courseGenerations.getOrDefault(courseId, 0L)), userGenerations.getOrDefault(userId, 0L));
+    }
+
+    /**
+     * Returns the current generations for the dashboard of all courses, which have to be retrieved before the data for the dashboard is loaded.
+     * These are the generations of the set of courses and of the courses that were part of the last dashboard of the user.
+     *
+     * @param user the user with groups
+     * @return the current generations
+     */
+    public Generations getGenerations(User user) {
+        Set<Long> courseIds = new HashSet<>(Objects.requireNonNullElse(courseIdsOfCourseLists.getIfPresent(new DashboardKey(user, COURSE_SET)), Set.of()));
+        courseIds.add(COURSE_SET);
+        Map<Long, Long> currentGenerations = courseGenerations.getAll(courseIds);
+        Map<Long, Long> generations = courseIds.stream().collect(Collectors.toMap(courseId -> courseId, courseId -> currentGenerations.getOrDefault(courseId, 0L)));
+        return new Generations(Map.copyOf(generations), userGenerations.getOrDefault(user.getId(), 0L));
+    }
+
+    /**
+     * Returns the cached dashboard of the course for the user if it was built in the given generations and none of its dates has passed since
+     *
+     * @param user        the user with groups
+     * @param courseId    the id of the course
+     * @param generations the current generations
+     * @return the cached dashboard or an empty optional if there is none or it is outdated
+     */
+    public Optional<CourseForDashboardDTO> getCourseForDashboard(User user, long courseId, Generations generations) {
+        return getValidSnapshot(coursesForDashboard, new DashboardKey(user, courseId), generations);
+    }
+
+    /**
+     * Stores the dashboard of the course for the user
+     *
+     * @param user        the user with groups
+     * @param courseId    the id of the course
+     * @param generations the generations that were retrieved before the data for the dashboard was loaded
+     * @param course      the dashboard of the course
+     */
+    public void setCourseForDashboard(User user, long courseId, Generations generations, CourseForDashboardDTO course) {
+        coursesForDashboard.put(new DashboardKey(user, courseId), new Snapshot<>(generations, getValidUntil(List.of(course)), getWeight(List.of(course)), course));
+    }
+
+    /**
+     * Returns the cached dashboard of all courses of the user if it was built in the given generations and none of its dates has passed since
+     *
+     * @param user        the user with groups
+     * @param generations the current generations
+     * @return the cached dashboards or an empty optional if there are none or they are outdated
+     */
+    public Optional<List<CourseForDashboardDTO>> getCoursesForDashboard(User user, Generations generations) {
+        return getValidSnapshot(courseListsForDashboard, new DashboardKey(user, COURSE_SET), generations);
+    }
+
+    /**
+     * Stores the dashboard of all courses of the user if the generations of all its courses were retrieved before the data was loaded
+     *
+     * @param user        the user with groups
+     * @param generations the generations that were retrieved before the data for the dashboards was loaded
+     * @param courses     the dashboards of all courses
+     */
+    public void setCoursesForDashboard(User user, Generations generations, List<CourseForDashboardDTO> courses) {
+        var key = new DashboardKey(user, COURSE_SET);
+        Set<Long> courseIds = courses.stream().map(course -> course.course().getId()).collect(Collectors.toSet());
+        courseIdsOfCourseLists.put(key, courseIds);
+        Set<Long> expectedCourseIds = new HashSet<>(courseIds);
+        expectedCourseIds.add(COURSE_SET);
+        if (generations.courseGenerations().keySet().equals(expectedCourseIds)) {
+            courseListsForDashboard.put(key, new Snapshot<>(generations, getValidUntil(courses), getWeight(courses), courses));
+        }
+    }
+
+    private <T> Optional<T> getValidSnapshot(Cache<DashboardKey, Snapshot<T>> cache, DashboardKey key, Generations generations) {
+        Snapshot<T> snapshot = cache.getIfPresent(key);
+        if (snapshot == null) {
+            return Optional.empty();
+        }
+        if (!snapshot.generations().equals(generations) || (snapshot.validUntil() != null && !ZonedDateTime.now().isBefore(snapshot.validUntil()))) {
+            cache.invalidate(key);
+            return Optional.empty();
+        }
+        return Optional.of(snapshot.value());
+    }
+
+    /**
+     * Determines the first date of the dashboard content that lies in the future, as the content visible to a student can change at this date
+     *
+     * @param courses the dashboards of the courses
+     * @return the first future date or null if there is none
+     */
+    private static ZonedDateTime getValidUntil(List<CourseForDashboardDTO> courses) {
+        var now = ZonedDateTime.now();
+        return courses.stream().map(CourseForDashboardDTO::course).flatMap(CourseForDashboardCacheService::getDates).filter(Objects::nonNull).filter(now::isBefore)
+                .min(Comparator.naturalOrder()).orElse(null);
+    }
+
+    /**
+     * Estimates the size of the dashboards by the number of their exercises, lectures, exams and participation results
+     *
+     * @param courses the dashboards of the courses
+     * @return the weight of the dashboards in the cache
+     */
+    private static int getWeight(List<CourseForDashboardDTO> courses) {
+        long weight = 1;
+        for (CourseForDashboardDTO courseForDashboard : courses) {
+            Course course = courseForDashboard.course();
+            weight += getLoadedElements(course.getExercises()).count() + getLoadedElements(course.getLectures()).count() + getLoadedElements(course.getExams()).count();
+            weight += courseForDashboard.participationResults() != null ? courseForDashboard.participationResults().size() : 0;
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static Stream<ZonedDateTime> getDates(Course course) {
+        var courseDates = Stream.of(course.getStartDate(), course.getEndDate(), course.getEnrollmentStartDate(), course.getEnrollmentEndDate(),
+                course.getUnenrollmentEndDate());
+        var exerciseDates = getLoadedElements(course.getExercises()).flatMap(exercise -> Stream.concat(
+                Stream.of(exercise.getReleaseDate(), exercise.getStartDate(), exercise.getDueDate(), exercise.getAssessmentDueDate(), exercise.getExampleSolutionPublicationDate()),
+                getLoadedElements(exercise.getStudentParticipations()).map(Participation::getIndividualDueDate)));
+        var examDates = getLoadedElements(course.getExams()).flatMap(exam -> Stream.of(exam.getVisibleDate(), exam.getStartDate(), exam.getEndDate(), exam.getPublishResultsDate(),
+                exam.getExamStudentReviewStart(), exam.getExamStudentReviewEnd(), exam.getExampleSolutionPublicationDate()));
+        var lectureDates = getLoadedElements(course.getLectures()).flatMap(lecture -> Stream.of(lecture.getVisibleDate(), lecture.getStartDate(), lecture.getEndDate()));
+        return Stream.of(courseDates, exerciseDates, examDates, lectureDates).flatMap(dates -> dates);
+    }
+
+    private static <T> Stream<T> getLoadedElements(Collection<T> collection) {
+        return collection != null && Hibernate.isInitialized(collection) ? collection.stream() : Stream.empty();
+    }
+
+    @Override
+    public Set<Class<?>> getEntityTypes() {
+        return Set.of(Result.class, Submission.class, Participation.class, PlagiarismCase.class, ExamUser.class, TutorialGroupRegistration.class, CompetencyProgress.class,
+                LectureUnitCompletion.class, Course.class, Exercise.class, QuizBatch.class, Lecture.class, Attachment.class, Exam.class, GradingScale.class, Competency.class,
+                TutorialGroup.class);
+    }
+
+    /**
+     * Invalidates the cached dashboards that are affected by a change of the given entity.
+     * Associations that are not loaded are not initialized, the affected dashboards then expire after the time to live.
+     *
+     * @param change the committed change of an entity
+     */
+    @Override
+    public void invalidate(EntityChange change) {
+        Object entity = change.entity();
+        if (entity instanceof Result result) {
+            invalidateParticipation(result.getParticipation());
+        }
+        else if (entity instanceof Submission submission) {
+            invalidateParticipation(submission.getParticipation());
+        }
+        else if (entity instanceof Participation participation) {
+            invalidateParticipation(participation);
+        }
+        else if (entity instanceof PlagiarismCase plagiarismCase) {
+            invalidateUser(plagiarismCase.getStudent());
+        }
+        else if (entity instanceof ExamUser examUser) {
+            invalidateUser(examUser.getUser());
+        }
+        else if (entity instanceof TutorialGroupRegistration registration) {
+            invalidateUser(registration.getStudent());
+        }
+        else if (entity instanceof CompetencyProgress competencyProgress) {
+            invalidateUser(competencyProgress.getUser());
+        }
+        else if (entity instanceof LectureUnitCompletion completion) {
+            invalidateUser(completion.getUser());
+        }
+        else if (entity instanceof Course course) {
+            invalidateCourse(course);
+            // the course might have been added to or removed from the courses of users, e.g. because its groups changed
+            setNewGeneration(COURSE_SET);
+        }
+        else if (entity instanceof Exercise exercise) {
+            invalidateCourseOfExercise(exercise);
+        }
+        else if (entity instanceof QuizBatch quizBatch) {
+            invalidateCourseOfExercise(quizBatch.getQuizExercise());
+        }
+        else if (entity instanceof Lecture lecture) {
+            invalidateCourse(lecture.getCourse());
+        }
+        else if (entity instanceof Attachment attachment) {
+            if (attachment.getLecture() != null && Hibernate.isInitialized(attachment.getLecture())) {
+                invalidateCourse(attachment.getLecture().getCourse());
+            }
+        }
+        else if (entity instanceof Exam exam) {
+            invalidateCourse(exam.getCourse());
+        }
+        else if (entity instanceof GradingScale gradingScale) {
+            invalidateCourse(gradingScale.getCourse());
+        }
+        else if (entity instanceof Competency competency) {
+            invalidateCourse(competency.getCourse());
+        }
+        else if (entity instanceof TutorialGroup tutorialGroup) {
+            invalidateCourse(tutorialGroup.getCourse());
+        }
+    }
+
+    private void invalidateParticipation(Participation participation) {
+        if (participation == null) {
+            return;
+        }
+        if (!Hibernate.isInitialized(participation)) {
+            // the id of an uninitialized proxy can be accessed without loading it
+            invalidateParticipationAfterLoading(participation.getId());
+        }
+        else if (participation instanceof StudentParticipation studentParticipation) {
+            var exercise = studentParticipation.getExercise();
+            if (studentParticipation.getStudent().isPresent()) {
+                invalidateUser(studentParticipation.getStudent().get());
+            }
+            else if (studentParticipation.getTeam().isPresent() && exercise != null && Hibernate.isInitialized(exercise)) {
+                // team participations affect all members of the team
+                invalidateCourseOfExercise(exercise);
+            }
+            else {
+                // e.g. a participation that only references the id
+                invalidateParticipationAfterLoading(studentParticipation.getId());
+            }
+        }
+        // template and solution participations are not part of the dashboards
+    }
+
+    private void invalidateParticipationAfterLoading(Long participationId) {
+        if (participationId == null) {
+            return;
+        }
+        participationLoadingExecutor.execute(() -> {
+            try {
+                studentParticipationRepository.findById(participationId).ifPresent(participation -> {
+                    if (participation.getStudent().isPresent()) {
+                        invalidateUser(participation.getStudent().get());
+                    }
+                    else {
+                        invalidateCourseOfExercise(participation.getExercise());
+                    }
+                });
+            }
+            catch (Exception e) {
+                log.warn("Could not invalidate the cached course dashboards for participation {}: {}", participationId, e.getMessage());
+            }
+        });
+    }
+
+    private void invalidateUser(User user) {
+        if (user != null && user.getId() != null) {
+            userGenerations.set(user.getId(), ThreadLocalRandom.current().nextLong(), GENERATION_TIME_TO_LIVE.toSeconds(), TimeUnit.SECONDS);
+        }
+    }
+
+    private void invalidateCourseOfExercise(Exercise exercise) {
+        if (exercise != null && Hibernate.isInitialized(exercise) && exercise.isCourseExercise()) {
+            invalidateCourse(exercise.getCourseViaExerciseGroupOrCourseMember());
+        }
+    }
+
+    private void invalidateCourse(Course course) {
+        if (course != null && course.getId() != null) {
+            setNewGeneration(course.getId());
+        }
+    }
+
+    private void setNewGeneration(long courseId) {
+        courseGenerations.set(courseId, ThreadLocalRandom.current().nextLong(), GENERATION_TIME_TO_LIVE.toSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * The generations of the courses and of the user at the time the data for a dashboard is loaded
+     *
+     * @param courseGenerations the generations by course id, including the generation of the set of courses for the dashboard of all courses
+     * @param userGeneration    the generation of the user
+     */
+    public record Generations(Map<Long, Long> courseGenerations, long userGeneration) {
+    }
+
+    /**
+     * Identifies the dashboard of a course (or of all courses) for a user. The groups are part of the key, as they determine what is visible to the user.
+     */
+    private record DashboardKey(long userId, Set<String> groups, long courseId) {
+
+        DashboardKey(User user, long courseId) {
+            this(user.getId(), user.getGroups() == null ? Set.of() : Set.copyOf(user.getGroups()), courseId);
+        }
+    }
+
+    private record Snapshot<T>(Generations generations, ZonedDateTime validUntil, int weight, T value) {
+    }
+}
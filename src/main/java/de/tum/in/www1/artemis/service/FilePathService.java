@@ -59,6 +59,10 @@ public class FilePathService {
         return Path.of(fileUploadPath, "attachments", "attachment-unit");
     }
 
+    public static Path getMergedLecturePdfFilePath() {
+        return Path.of(fileUploadPath, "attachments", "lecture-merged");
+    }
+
     public static Path getFileUploadExercisesFilePath() {
         return Path.of(fileUploadPath, "file-upload-exercises");
     }
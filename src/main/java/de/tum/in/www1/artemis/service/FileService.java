@@ -7,7 +7,11 @@ import java.net.URI;
 import java.net.URLDecoder;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.concurrent.*;
@@ -30,14 +34,16 @@ import org.apache.tomcat.util.http.fileupload.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.multipart.commons.CommonsMultipartFile;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.ibm.icu.text.CharsetDetector;
 
 import de.tum.in.www1.artemis.exception.FilePathParsingException;
@@ -53,6 +59,19 @@ public class FileService implements DisposableBean {
 
     private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
 
+    /**
+     * The maximum size of a file that is kept in memory when it is served, larger files are streamed from the disk
+     */
+    private static final int MAX_CACHED_FILE_SIZE = 512 * 1024;
+
+    /**
+     * The maximum total size of the files kept in memory on this instance
+     */
+    private static final long MAX_CACHED_FILES_SIZE = 64L * 1024 * 1024;
+
+    private final Cache<StoredFileVersion, byte[]> smallFileContents = CacheBuilder.newBuilder().maximumWeight(MAX_CACHED_FILES_SIZE)
+            .weigher((StoredFileVersion version, byte[] content) -> content.length).expireAfterAccess(Duration.ofHours(1)).build();
+
     /**
      * A list of common binary file extensions.
      * Extensions must be lower-case without leading dots.
@@ -110,29 +129,62 @@ public class FileService implements DisposableBean {
     }
 
     /**
-     * Get the file for the given path as a byte[]
+     * Get the file for the given path as a resource that can be written to a response.
+     * Files up to {@link #MAX_CACHED_FILE_SIZE} bytes are kept in memory on this instance, larger files are streamed from the disk.
      *
      * @param path the path for the file to load
-     * @return file contents as a byte[], or null, if the file doesn't exist
+     * @return the file, or an empty optional if the file doesn't exist
      * @throws IOException if the file can't be accessed.
      */
-    @Cacheable(value = "files", unless = "#result == null")
-    public byte[] getFileForPath(Path path) throws IOException {
-        if (Files.exists(path)) {
-            return Files.readAllBytes(path);
+    public Optional<StoredFile> getStoredFile(Path path) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        }
+        catch (NoSuchFileException ex) {
+            return Optional.empty();
+        }
+        if (!attributes.isRegularFile()) {
+            return Optional.empty();
+        }
+
+        var storedFileVersion = new StoredFileVersion(path, attributes.size(), attributes.lastModifiedTime().toInstant());
+        if (storedFileVersion.size() > MAX_CACHED_FILE_SIZE) {
+            return Optional.of(new StoredFile(new FileSystemResource(path), storedFileVersion.size(), storedFileVersion.lastModified()));
+        }
+        try {
+            // a changed file has a different size or modification time, so outdated contents are never returned and just expire
+            byte[] content = smallFileContents.get(storedFileVersion, () -> Files.readAllBytes(path));
+            return Optional.of(new StoredFile(new ByteArrayResource(content), content.length, storedFileVersion.lastModified()));
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof NoSuchFileException) {
+                return Optional.empty();
+            }
+            throw new IOException("Could not read file " + path, ex.getCause());
         }
-        return null;
     }
 
     /**
-     * Evict the cache for the given path
+     * A file that can be written to a response
      *
-     * @param path the path for the file to evict from cache
+     * @param resource     the content of the file
+     * @param size         the size of the file in bytes
+     * @param lastModified the time the file was last modified
      */
-    @CacheEvict(value = "files", key = "#path")
-    public void evictCacheForPath(Path path) {
-        log.info("Invalidate files cache for {}", path);
-        // Intentionally blank
+    public record StoredFile(Resource resource, long size, Instant lastModified) {
+
+        /**
+         * Returns an entity tag for the file, which changes whenever the file is replaced or modified
+         *
+         * @return the quoted entity tag
+         */
+        public String eTag() {
+            return "\"" + Long.toHexString(lastModified.toEpochMilli()) + "-" + Long.toHexString(size) + "\"";
+        }
+    }
+
+    private record StoredFileVersion(Path path, long size, Instant lastModified) {
     }
 
     /**
@@ -909,41 +961,45 @@ public class FileService implements DisposableBean {
     }
 
     /**
-     * Merge the PDF files located in the given paths.
+     * Merge the PDF files located in the given paths into the target file.
+     * The documents are buffered in temporary files instead of the memory while they are merged.
      *
      * @param paths             list of paths to merge
      * @param mergedPdfFilename title of merged pdf file
-     * @return byte array of the merged file
+     * @param targetPath        the path of the merged file
+     * @return true if the files were merged, false otherwise
      */
-    public Optional<byte[]> mergePdfFiles(List<String> paths, String mergedPdfFilename) {
+    public boolean mergePdfFiles(List<String> paths, String mergedPdfFilename, Path targetPath) {
         if (paths == null || paths.isEmpty()) {
-            return Optional.empty();
+            return false;
         }
-        PDFMergerUtility pdfMerger = new PDFMergerUtility();
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 
         try {
-            for (String path : paths) {
-                File file = new File(path);
-                if (file.exists()) {
-                    pdfMerger.addSource(file);
-                }
-            }
-
-            PDDocumentInformation pdDocumentInformation = new PDDocumentInformation();
-            pdDocumentInformation.setTitle(mergedPdfFilename);
-            pdfMerger.setDestinationDocumentInformation(pdDocumentInformation);
-
-            pdfMerger.setDestinationStream(outputStream);
-            pdfMerger.mergeDocuments(null);
-
+            PDFMergerUtility pdfMerger = createPdfMerger(paths, mergedPdfFilename);
+            pdfMerger.setDestinationFileName(targetPath.toString());
+            pdfMerger.mergeDocuments(org.apache.pdfbox.io.IOUtils.createTempFileOnlyStreamCache());
         }
         catch (IOException e) {
-            log.warn("Could not merge files");
-            return Optional.empty();
+            log.warn("Could not merge files into {}", targetPath);
+            return false;
+        }
+
+        return true;
+    }
+
+    private static PDFMergerUtility createPdfMerger(List<String> paths, String mergedPdfFilename) throws IOException {
+        PDFMergerUtility pdfMerger = new PDFMergerUtility();
+        for (String path : paths) {
+            File file = new File(path);
+            if (file.exists()) {
+                pdfMerger.addSource(file);
+            }
         }
 
-        return Optional.of(outputStream.toByteArray());
+        PDDocumentInformation pdDocumentInformation = new PDDocumentInformation();
+        pdDocumentInformation.setTitle(mergedPdfFilename);
+        pdfMerger.setDestinationDocumentInformation(pdDocumentInformation);
+        return pdfMerger;
     }
 
     /**
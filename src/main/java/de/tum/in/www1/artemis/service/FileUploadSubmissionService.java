@@ -34,21 +34,18 @@ public class FileUploadSubmissionService extends SubmissionService {
 
     private final FileUploadSubmissionRepository fileUploadSubmissionRepository;
 
-    private final FileService fileService;
-
     private final FilePathService filePathService;
 
     private final ExerciseDateService exerciseDateService;
 
     public FileUploadSubmissionService(FileUploadSubmissionRepository fileUploadSubmissionRepository, SubmissionRepository submissionRepository, ResultRepository resultRepository,
-            ParticipationService participationService, UserRepository userRepository, StudentParticipationRepository studentParticipationRepository, FileService fileService,
+            ParticipationService participationService, UserRepository userRepository, StudentParticipationRepository studentParticipationRepository,
             AuthorizationCheckService authCheckService, FeedbackRepository feedbackRepository, ExamDateService examDateService, ExerciseDateService exerciseDateService,
             CourseRepository courseRepository, ParticipationRepository participationRepository, ComplaintRepository complaintRepository, FeedbackService feedbackService,
             FilePathService filePathService) {
         super(submissionRepository, userRepository, authCheckService, resultRepository, studentParticipationRepository, participationService, feedbackRepository, examDateService,
                 exerciseDateService, courseRepository, participationRepository, complaintRepository, feedbackService);
         this.fileUploadSubmissionRepository = fileUploadSubmissionRepository;
-        this.fileService = fileService;
         this.exerciseDateService = exerciseDateService;
         this.filePathService = filePathService;
     }
@@ -167,6 +164,7 @@ public class FileUploadSubmissionService extends SubmissionService {
         // Note: we can only delete the file, if the file name was changed (i.e. the new file name is different), otherwise this will cause issues
         Optional<FileUploadSubmission> previousFileUploadSubmission = participation.findLatestSubmission();
 
+        // Note: a new file with the same name is served instead of a cached one, because the cached files are identified by their size and modification time
         previousFileUploadSubmission.filter(previousSubmission -> previousSubmission.getFilePath() != null).ifPresent(previousSubmission -> {
             final URI oldFilePath = URI.create(previousSubmission.getFilePath());
             // check if we already had a file associated with this submission
@@ -174,10 +172,6 @@ public class FileUploadSubmissionService extends SubmissionService {
                 // IMPORTANT: only delete the file when it has changed the name
                 previousSubmission.onDelete();
             }
-            else { // same name
-                   // IMPORTANT: invalidate the cache so that the new file with the same name will be downloaded (and not a potentially cached one)
-                fileService.evictCacheForPath(savePath);
-            }
         });
         return newFilePath;
     }
@@ -28,11 +28,15 @@ public class LectureService {
 
     private final ChannelService channelService;
 
-    public LectureService(LectureRepository lectureRepository, AuthorizationCheckService authCheckService, ChannelRepository channelRepository, ChannelService channelService) {
+    private final MergedLecturePdfService mergedLecturePdfService;
+
+    public LectureService(LectureRepository lectureRepository, AuthorizationCheckService authCheckService, ChannelRepository channelRepository, ChannelService channelService,
+            MergedLecturePdfService mergedLecturePdfService) {
         this.lectureRepository = lectureRepository;
         this.authCheckService = authCheckService;
         this.channelRepository = channelRepository;
         this.channelService = channelService;
+        this.mergedLecturePdfService = mergedLecturePdfService;
     }
 
     /**
@@ -126,6 +130,7 @@ public class LectureService {
         Channel lectureChannel = channelRepository.findChannelByLectureId(lecture.getId());
         channelService.deleteChannel(lectureChannel);
         lectureRepository.deleteById(lecture.getId());
+        mergedLecturePdfService.deleteMergedPdfs(lecture.getId());
     }
 
 }
@@ -0,0 +1,241 @@
+package de.tum.in.www1.artemis.service;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import de.tum.in.www1.artemis.domain.enumeration.AttachmentType;
+import de.tum.in.www1.artemis.domain.lecture.AttachmentUnit;
+import de.tum.in.www1.artemis.domain.lecture.LectureUnit;
+import de.tum.in.www1.artemis.repository.AttachmentUnitRepository;
+import de.tum.in.www1.artemis.repository.LectureRepository;
+
+/**
+ * Stores the merged PDF of the attachment units of a lecture, so that it does not have to be merged for every download.
+ * <p>
+ * The merged files are identified by a hash of their inputs (the title of the lecture and the path, size and modification time of every merged file). Changed attachment units
+ * therefore never lead to an outdated file being served, and users who can see different attachment units (e.g. tutors before the release date) get different files.
+ * Only the latest file of every such variant (i.e. every combination of merged attachment units) is kept. When the merged PDF is rebuilt after a change of the lecture,
+ * only the rebuilt file is kept, and all files of the lecture are deleted together with the lecture.
+ */
+@Service
+public class MergedLecturePdfService {
+
+    private final Logger log = LoggerFactory.getLogger(MergedLecturePdfService.class);
+
+    /**
+     * Separates the hash of the merged attachment units from the hash of the inputs in the file name, e.g. {@code <variant hash>_<input hash>.pdf}
+     */
+    private static final String VARIANT_SEPARATOR = "_";
+
+    /**
+     * Outdated merged files are only deleted after this delay, so that running downloads can be finished
+     */
+    private static final long DELETION_DELAY_IN_MINUTES = 5;
+
+    private static final Duration REBUILD_DELAY = Duration.ofMinutes(1);
+
+    private final FileService fileService;
+
+    private final AttachmentUnitRepository attachmentUnitRepository;
+
+    private final LectureRepository lectureRepository;
+
+    private final TaskScheduler scheduler;
+
+    /**
+     * The merges that are currently running on this instance, so that concurrent requests for the same file wait for the same merge
+     */
+    private final Map<Path, CompletableFuture<Optional<Path>>> runningMerges = new ConcurrentHashMap<>();
+
+    private final Map<Long, ScheduledFuture<?>> scheduledRebuilds = new ConcurrentHashMap<>();
+
+    public MergedLecturePdfService(FileService fileService, AttachmentUnitRepository attachmentUnitRepository, LectureRepository lectureRepository,
+            @Qualifier("taskScheduler") TaskScheduler scheduler) {
+        this.fileService = fileService;
+        this.attachmentUnitRepository = attachmentUnitRepository;
+        this.lectureRepository = lectureRepository;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Returns the merged PDF of the given attachment units, which is only merged if there is no stored file for exactly these inputs yet
+     *
+     * @param lectureId       the id of the lecture the attachment units belong to
+     * @param attachmentUnits the attachment units the user is allowed to see, only PDF files are merged
+     * @return the path of the merged file, or an empty optional if there is no PDF file or the files could not be merged
+     */
+    public Optional<Path> getMergedPdf(long lectureId, List<AttachmentUnit> attachmentUnits) {
+        List<AttachmentUnit> pdfAttachmentUnits = attachmentUnits.stream()
+                .filter(unit -> "pdf".equals(StringUtils.substringAfterLast(unit.getAttachment().getLink(), "."))).toList();
+        if (pdfAttachmentUnits.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Path> pdfPaths = pdfAttachmentUnits.stream().map(MergedLecturePdfService::getAttachmentUnitFilePath).toList();
+        String title = lectureRepository.getLectureTitle(lectureId);
+
+        Path mergedPdfPath;
+        try {
+            String fileName = hashVariant(pdfAttachmentUnits) + VARIANT_SEPARATOR + hashInputs(pdfPaths, title) + ".pdf";
+            mergedPdfPath = getLectureDirectory(lectureId).resolve(fileName);
+        }
+        catch (IOException ex) {
+            log.error("Could not access the files to merge for lecture {}", lectureId, ex);
+            return Optional.empty();
+        }
+        if (Files.exists(mergedPdfPath)) {
+            return Optional.of(mergedPdfPath);
+        }
+
+        var merge = new CompletableFuture<Optional<Path>>();
+        var runningMerge = runningMerges.putIfAbsent(mergedPdfPath, merge);
+        if (runningMerge != null) {
+            return runningMerge.join();
+        }
+        try {
+            merge.complete(mergePdfFiles(lectureId, pdfPaths, title, mergedPdfPath));
+        }
+        catch (RuntimeException ex) {
+            merge.completeExceptionally(ex);
+            throw ex;
+        }
+        finally {
+            runningMerges.remove(mergedPdfPath);
+        }
+        return merge.join();
+    }
+
+    /**
+     * Schedules merging the PDF files of the attachment units of the lecture that are visible to students in the background, so that the first download after a change
+     * is fast. The files are merged after a short delay, so that several changes (e.g. when a lecture is split into many units) only lead to one merge.
+     *
+     * @param lectureId the id of the lecture
+     */
+    public void scheduleRebuild(long lectureId) {
+        var rebuild = scheduler.schedule(() -> rebuildMergedPdf(lectureId), Instant.now().plus(REBUILD_DELAY));
+        var previousRebuild = scheduledRebuilds.put(lectureId, rebuild);
+        if (previousRebuild != null) {
+            previousRebuild.cancel(false);
+        }
+    }
+
+    /**
+     * Deletes all merged PDF files of the given lecture, e.g. when the lecture is deleted.
+     *
+     * @param lectureId the id of the lecture
+     */
+    public void deleteMergedPdfs(long lectureId) {
+        var scheduledRebuild = scheduledRebuilds.remove(lectureId);
+        if (scheduledRebuild != null) {
+            scheduledRebuild.cancel(false);
+        }
+        fileService.scheduleDirectoryPathForRecursiveDeletion(getLectureDirectory(lectureId), DELETION_DELAY_IN_MINUTES);
+    }
+
+    private void rebuildMergedPdf(long lectureId) {
+        scheduledRebuilds.remove(lectureId);
+        try {
+            List<AttachmentUnit> attachmentUnits = attachmentUnitRepository.findAllByLectureIdAndAttachmentType(lectureId, AttachmentType.FILE).stream()
+                    .filter(LectureUnit::isVisibleToStudents).toList();
+            Optional<Path> mergedPdfPath = getMergedPdf(lectureId, attachmentUnits);
+            // the lecture has changed, so the files of the other variants are most likely outdated as well and are merged again when they are requested
+            String variantPrefix = mergedPdfPath.map(MergedLecturePdfService::getVariantPrefix).orElse(null);
+            deleteFiles(getLectureDirectory(lectureId), fileName -> variantPrefix == null || !fileName.startsWith(variantPrefix));
+        }
+        catch (Exception ex) {
+            log.error("Failed to rebuild the merged PDF of lecture {}", lectureId, ex);
+        }
+    }
+
+    private Optional<Path> mergePdfFiles(long lectureId, List<Path> pdfPaths, String title, Path mergedPdfPath) {
+        Path temporaryPath = mergedPdfPath.resolveSibling(UUID.randomUUID() + ".tmp");
+        try {
+            Files.createDirectories(mergedPdfPath.getParent());
+            if (!fileService.mergePdfFiles(pdfPaths.stream().map(Path::toString).toList(), title, temporaryPath)) {
+                return Optional.empty();
+            }
+            // the file only becomes visible to other requests when it is complete
+            Files.move(temporaryPath, mergedPdfPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            String variantPrefix = getVariantPrefix(mergedPdfPath);
+            deleteFiles(mergedPdfPath.getParent(), fileName -> fileName.startsWith(variantPrefix) && !fileName.equals(mergedPdfPath.getFileName().toString()));
+            return Optional.of(mergedPdfPath);
+        }
+        catch (IOException ex) {
+            log.error("Failed to store the merged PDF of lecture {}", lectureId, ex);
+            return Optional.empty();
+        }
+        finally {
+            try {
+                Files.deleteIfExists(temporaryPath);
+            }
+            catch (IOException ex) {
+                log.warn("Could not delete temporary file {}", temporaryPath);
+            }
+        }
+    }
+
+    /**
+     * Schedules the merged files in the given directory for deletion
+     *
+     * @param lectureDirectory the directory that contains the merged files of a lecture
+     * @param fileNameFilter   the filter for the names of the outdated files, e.g. the other files of the same variant
+     */
+    private void deleteFiles(Path lectureDirectory, Predicate<String> fileNameFilter) throws IOException {
+        if (!Files.isDirectory(lectureDirectory)) {
+            return;
+        }
+        List<Path> outdatedPaths;
+        try (Stream<Path> files = Files.list(lectureDirectory)) {
+            outdatedPaths = files.filter(path -> path.toString().endsWith(".pdf") && fileNameFilter.test(path.getFileName().toString())).toList();
+        }
+        outdatedPaths.forEach(path -> fileService.schedulePathForDeletion(path, DELETION_DELAY_IN_MINUTES));
+    }
+
+    private static String getVariantPrefix(Path mergedPdfPath) {
+        return StringUtils.substringBefore(mergedPdfPath.getFileName().toString(), VARIANT_SEPARATOR) + VARIANT_SEPARATOR;
+    }
+
+    private static Path getAttachmentUnitFilePath(AttachmentUnit attachmentUnit) {
+        return FilePathService.getAttachmentUnitFilePath()
+                .resolve(Path.of(String.valueOf(attachmentUnit.getId()), StringUtils.substringAfterLast(attachmentUnit.getAttachment().getLink(), "/")));
+    }
+
+    private static Path getLectureDirectory(long lectureId) {
+        return FilePathService.getMergedLecturePdfFilePath().resolve(String.valueOf(lectureId));
+    }
+
+    private static String hashVariant(List<AttachmentUnit> attachmentUnits) {
+        return DigestUtils.sha256Hex(attachmentUnits.stream().map(unit -> String.valueOf(unit.getId())).collect(Collectors.joining(",")));
+    }
+
+    private static String hashInputs(List<Path> pdfPaths, String title) throws IOException {
+        StringBuilder inputs = new StringBuilder(String.valueOf(title));
+        for (Path pdfPath : pdfPaths) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(pdfPath, BasicFileAttributes.class);
+                inputs.append('\n').append(pdfPath).append(':').append(attributes.size()).append(':').append(attributes.lastModifiedTime().toMillis());
+            }
+            catch (NoSuchFileException ex) {
+                // missing files are skipped when merging
+            }
+        }
+        return DigestUtils.sha256Hex(inputs.toString());
+    }
+}
@@ -8,6 +8,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
+
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.enumeration.*;
 import de.tum.in.www1.artemis.domain.participation.*;
@@ -29,6 +31,11 @@ public class ParticipationService {
 
     private final Logger log = LoggerFactory.getLogger(ParticipationService.class);
 
+    /**
+     * The number of participations or submissions that are stored in one transaction when an exercise is started for many students at once
+     */
+    private static final int BULK_SAVE_CHUNK_SIZE = 500;
+
     private final GitService gitService;
 
     private final Optional<ContinuousIntegrationService> continuousIntegrationService;
@@ -174,8 +181,17 @@ public class ParticipationService {
      * @return a StudentParticipation for the exercise and participant with an optional specified initializationDate
      */
     private StudentParticipation createNewParticipationWithInitializationDate(Exercise exercise, Participant participant, ZonedDateTime initializationDate) {
-        StudentParticipation participation;
         // create a new participation only if no participation can be found
+        StudentParticipation participation = instantiateParticipation(exercise, participant);
+        // StartedDate is used to link a Participation to a test exam exercise
+        if (initializationDate != null) {
+            participation.setInitializationDate(initializationDate);
+        }
+        return studentParticipationRepository.saveAndFlush(participation);
+    }
+
+    private StudentParticipation instantiateParticipation(Exercise exercise, Participant participant) {
+        StudentParticipation participation;
         if (exercise instanceof ProgrammingExercise) {
             participation = new ProgrammingExerciseStudentParticipation(versionControlService.orElseThrow().getDefaultBranchOfArtemis());
         }
@@ -185,11 +201,65 @@ public class ParticipationService {
         participation.setInitializationState(InitializationState.UNINITIALIZED);
         participation.setExercise(exercise);
         participation.setParticipant(participant);
-        // StartedDate is used to link a Participation to a test exam exercise
-        if (initializationDate != null) {
-            participation.setInitializationDate(initializationDate);
+        return participation;
+    }
+
+    /**
+     * Starts an exercise for many students at once, e.g. when the exercises of an exam are prepared.
+     * Missing participations are stored together, and the participations of quiz, modeling, text and file upload exercises are initialized together with their initial (empty)
+     * submissions. For programming exercises, only the participations are stored: their repositories and build plans have to be set up afterwards with {@link #startExercise},
+     * which continues from the initialization state of the participation, so that this costly step can be executed in parallel and resumed after an interruption.
+     * Students who already have an initialized participation are skipped.
+     *
+     * @param exercise the exercise which is started, must not be a team exercise
+     * @param students the students who start the exercise
+     * @return the participations which were created or initialized, including the programming participations whose repository and build plan still have to be set up
+     */
+    public List<StudentParticipation> startExerciseInBulk(Exercise exercise, Collection<User> students) {
+        Map<Long, List<StudentParticipation>> participationsByStudentId = studentParticipationRepository.findAllWithStudentByExerciseId(exercise.getId()).stream()
+                .collect(Collectors.groupingBy(participation -> participation.getStudent().orElseThrow().getId()));
+
+        List<StudentParticipation> participationsToSave = new ArrayList<>();
+        List<StudentParticipation> participationsToSetUp = new ArrayList<>();
+        for (User student : students) {
+            var existingParticipations = participationsByStudentId.getOrDefault(student.getId(), List.of());
+            if (existingParticipations.stream().anyMatch(participation -> participation.getInitializationState() != null
+                    && participation.getInitializationState().hasCompletedState(InitializationState.INITIALIZED))) {
+                continue;
+            }
+            var participation = existingParticipations.stream().findFirst().orElseGet(() -> instantiateParticipation(exercise, student));
+            if (exercise instanceof ProgrammingExercise) {
+                if (participation.getId() == null) {
+                    participationsToSave.add(participation);
+                }
+                else {
+                    participation.setExercise(exercise);
+                    participationsToSetUp.add(participation);
+                }
+                continue;
+            }
+            if (participation.getInitializationState() == null || participation.getInitializationState() == InitializationState.UNINITIALIZED) {
+                participation.setInitializationState(InitializationState.INITIALIZED);
+            }
+            if (participation.getInitializationDate() == null) {
+                participation.setInitializationDate(ZonedDateTime.now());
+            }
+            participationsToSave.add(participation);
         }
-        return studentParticipationRepository.saveAndFlush(participation);
+
+        for (var participations : Lists.partition(participationsToSave, BULK_SAVE_CHUNK_SIZE)) {
+            participationsToSetUp.addAll(studentParticipationRepository.saveAll(participations));
+        }
+
+        if (!(exercise instanceof ProgrammingExercise)) {
+            Set<Long> participationIdsWithSubmissions = submissionRepository.findParticipationIdsWithSubmissionsByExerciseId(exercise.getId());
+            List<Submission> submissions = participationsToSetUp.stream().filter(participation -> !participationIdsWithSubmissions.contains(participation.getId()))
+                    .map(participation -> submissionRepository.instantiateSubmission(participation, exercise, null)).toList();
+            for (var submissionsToSave : Lists.partition(submissions, BULK_SAVE_CHUNK_SIZE)) {
+                submissionRepository.saveAll(submissionsToSave);
+            }
+        }
+        return participationsToSetUp;
     }
 
     /**
@@ -1,24 +1,32 @@
 package de.tum.in.www1.artemis.service;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
+
+import de.tum.in.www1.artemis.domain.DomainObject;
 import de.tum.in.www1.artemis.domain.Result;
-import de.tum.in.www1.artemis.domain.participation.Participation;
 import de.tum.in.www1.artemis.domain.quiz.*;
 import de.tum.in.www1.artemis.repository.*;
+import de.tum.in.www1.artemis.web.rest.dto.quiz.DragAndDropSelectionDTO;
+import de.tum.in.www1.artemis.web.rest.dto.quiz.MultipleChoiceSelectionDTO;
+import de.tum.in.www1.artemis.web.rest.dto.quiz.QuizResultStatisticDTO;
+import de.tum.in.www1.artemis.web.rest.dto.quiz.ShortAnswerSelectionDTO;
 
 @Service
 public class QuizStatisticService {
 
     private final Logger log = LoggerFactory.getLogger(QuizStatisticService.class);
 
-    private final StudentParticipationRepository studentParticipationRepository;
+    private static final int SUBMISSION_CHUNK_SIZE = 1000;
 
     private final ResultRepository resultRepository;
 
@@ -30,15 +38,17 @@ public class QuizStatisticService {
 
     private final WebsocketMessagingService websocketMessagingService;
 
-    public QuizStatisticService(StudentParticipationRepository studentParticipationRepository, ResultRepository resultRepository,
-            WebsocketMessagingService websocketMessagingService, QuizPointStatisticRepository quizPointStatisticRepository,
-            QuizQuestionStatisticRepository quizQuestionStatisticRepository, QuizSubmissionRepository quizSubmissionRepository) {
-        this.studentParticipationRepository = studentParticipationRepository;
+    private final SubmittedAnswerRepository submittedAnswerRepository;
+
+    public QuizStatisticService(ResultRepository resultRepository, WebsocketMessagingService websocketMessagingService, QuizPointStatisticRepository quizPointStatisticRepository,
+            QuizQuestionStatisticRepository quizQuestionStatisticRepository, QuizSubmissionRepository quizSubmissionRepository,
+            SubmittedAnswerRepository submittedAnswerRepository) {
         this.resultRepository = resultRepository;
         this.quizPointStatisticRepository = quizPointStatisticRepository;
         this.quizQuestionStatisticRepository = quizQuestionStatisticRepository;
         this.websocketMessagingService = websocketMessagingService;
         this.quizSubmissionRepository = quizSubmissionRepository;
+        this.submittedAnswerRepository = submittedAnswerRepository;
     }
 
     /**
@@ -65,45 +75,109 @@ public class QuizStatisticService {
             }
         }
 
-        // add the Results in every participation of the given quizExercise to the statistics
-        for (Participation participation : studentParticipationRepository.findByExerciseId(quizExercise.getId())) {
-
-            Result latestRatedResult = null;
-            Result latestUnratedResult = null;
-
-            var results = resultRepository.findAllByParticipationIdOrderByCompletionDateDesc(participation.getId());
-            // update all Results of a participation
-            for (Result result : results) {
-
-                // find the latest rated Result
-                if (Boolean.TRUE.equals(result.isRated()) && (latestRatedResult == null || latestRatedResult.getCompletionDate().isBefore(result.getCompletionDate()))) {
-                    latestRatedResult = result;
-                }
-                // find latest unrated Result
-                if (Boolean.FALSE.equals(result.isRated()) && (latestUnratedResult == null || latestUnratedResult.getCompletionDate().isBefore(result.getCompletionDate()))) {
-                    latestUnratedResult = result;
-                }
-            }
-            // update statistics with the latest rated und unrated Result
-            if (latestRatedResult != null && latestRatedResult.getSubmission() != null) {
-                var latestRatedSubmission = quizSubmissionRepository.findWithEagerSubmittedAnswersById(latestRatedResult.getSubmission().getId());
-                quizExercise.addResultToAllStatistics(latestRatedResult, latestRatedSubmission);
-            }
-            if (latestUnratedResult != null && latestUnratedResult.getSubmission() != null) {
-                var latestUnratedSubmission = quizSubmissionRepository.findWithEagerSubmittedAnswersById(latestUnratedResult.getSubmission().getId());
-                quizExercise.addResultToAllStatistics(latestUnratedResult, latestUnratedSubmission);
+        // find the latest rated and unrated result of every participation without loading the results as entities
+        Map<Long, QuizResultStatisticDTO> latestRatedResults = new HashMap<>();
+        Map<Long, QuizResultStatisticDTO> latestUnratedResults = new HashMap<>();
+        for (QuizResultStatisticDTO result : resultRepository.findQuizResultStatisticsByExerciseId(quizExercise.getId())) {
+            var latestResults = result.rated() ? latestRatedResults : latestUnratedResults;
+            latestResults.merge(result.participationId(), result, (latest, candidate) -> candidate.completionDate().isAfter(latest.completionDate()) ? candidate : latest);
+        }
+        List<QuizResultStatisticDTO> latestResults = Stream.concat(latestRatedResults.values().stream(), latestUnratedResults.values().stream())
+                .filter(result -> result.submissionId() != null).toList();
+
+        // update statistics with the latest rated und unrated Result, the submitted answers are loaded for many submissions at once
+        for (List<QuizResultStatisticDTO> results : Lists.partition(latestResults, SUBMISSION_CHUNK_SIZE)) {
+            Map<Long, QuizSubmission> submissions = loadSubmissionsWithSubmittedAnswers(quizExercise, results.stream().map(QuizResultStatisticDTO::submissionId).toList());
+            for (QuizResultStatisticDTO result : results) {
+                var quizSubmission = submissions.getOrDefault(result.submissionId(), new QuizSubmission());
+                quizExercise.addResultToAllStatistics(new Result().score(result.score()).rated(result.rated()), quizSubmission);
             }
         }
 
         // save changed Statistics
         quizPointStatisticRepository.save(quizExercise.getQuizPointStatistic());
-        quizPointStatisticRepository.flush();
+        List<QuizQuestionStatistic> quizQuestionStatistics = new ArrayList<>();
         for (QuizQuestion quizQuestion : quizExercise.getQuizQuestions()) {
             if (quizQuestion.getQuizQuestionStatistic() != null) {
-                quizQuestionStatisticRepository.save(quizQuestion.getQuizQuestionStatistic());
-                quizQuestionStatisticRepository.flush();
+                quizQuestionStatistics.add(quizQuestion.getQuizQuestionStatistic());
+            }
+        }
+        quizQuestionStatisticRepository.saveAll(quizQuestionStatistics);
+    }
+
+    /**
+     * Builds the quiz submissions with their submitted answers from a few set based queries. The submitted answers reference the questions, answer options, drag items,
+     * drop locations and spots of the given quiz exercise, so that they can be compared with the statistics of the quiz exercise without loading any further entities.
+     *
+     * @param quizExercise  the quiz exercise the submissions belong to
+     * @param submissionIds the ids of the quiz submissions
+     * @return the quiz submissions with their submitted answers, mapped by their id
+     */
+    private Map<Long, QuizSubmission> loadSubmissionsWithSubmittedAnswers(QuizExercise quizExercise, List<Long> submissionIds) {
+        Map<Long, QuizQuestion> questions = quizExercise.getQuizQuestions().stream().collect(Collectors.toMap(QuizQuestion::getId, Function.identity()));
+        Map<Long, QuizSubmission> submissions = new HashMap<>();
+
+        for (MultipleChoiceSelectionDTO selection : submittedAnswerRepository.findMultipleChoiceSelectionsBySubmissionIds(submissionIds)) {
+            if (questions.get(selection.questionId()) instanceof MultipleChoiceQuestion question
+                    && getOrAddSubmittedAnswer(submissions, selection.submissionId(), question, MultipleChoiceSubmittedAnswer::new) instanceof MultipleChoiceSubmittedAnswer answer
+                    && selection.answerOptionId() != null) {
+                answer.addSelectedOptions(findOrCreateById(question.getAnswerOptions(), selection.answerOptionId(), AnswerOption::new));
+            }
+        }
+        for (DragAndDropSelectionDTO selection : submittedAnswerRepository.findDragAndDropSelectionsBySubmissionIds(submissionIds)) {
+            if (questions.get(selection.questionId()) instanceof DragAndDropQuestion question
+                    && getOrAddSubmittedAnswer(submissions, selection.submissionId(), question, DragAndDropSubmittedAnswer::new) instanceof DragAndDropSubmittedAnswer answer
+                    && selection.dragItemId() != null && selection.dropLocationId() != null) {
+                var mapping = new DragAndDropMapping();
+                mapping.setDragItem(findOrCreateById(question.getDragItems(), selection.dragItemId(), DragItem::new));
+                mapping.setDropLocation(findOrCreateById(question.getDropLocations(), selection.dropLocationId(), DropLocation::new));
+                answer.addMappings(mapping);
+            }
+        }
+        for (ShortAnswerSelectionDTO selection : submittedAnswerRepository.findShortAnswerSelectionsBySubmissionIds(submissionIds)) {
+            if (questions.get(selection.questionId()) instanceof ShortAnswerQuestion question
+                    && getOrAddSubmittedAnswer(submissions, selection.submissionId(), question, ShortAnswerSubmittedAnswer::new) instanceof ShortAnswerSubmittedAnswer answer
+                    && selection.spotId() != null) {
+                var submittedText = new ShortAnswerSubmittedText();
+                submittedText.setSpot(findOrCreateById(question.getSpots(), selection.spotId(), ShortAnswerSpot::new));
+                submittedText.setText(selection.text());
+                submittedText.setIsCorrect(selection.isCorrect());
+                answer.addSubmittedTexts(submittedText);
+            }
+        }
+        return submissions;
+    }
+
+    private static SubmittedAnswer getOrAddSubmittedAnswer(Map<Long, QuizSubmission> submissions, Long submissionId, QuizQuestion question,
+            Supplier<SubmittedAnswer> answerSupplier) {
+        QuizSubmission submission = submissions.computeIfAbsent(submissionId, id -> new QuizSubmission());
+        SubmittedAnswer submittedAnswer = submission.getSubmittedAnswerForQuestion(question);
+        if (submittedAnswer == null) {
+            submittedAnswer = answerSupplier.get();
+            submittedAnswer.setQuizQuestion(question);
+            submission.addSubmittedAnswers(submittedAnswer);
+        }
+        return submittedAnswer;
+    }
+
+    /**
+     * Finds the element with the given id, e.g. an answer option of a question. If the element was removed from the quiz exercise in the meantime, a placeholder with the id
+     * is returned, which behaves like the removed element when comparing it.
+     *
+     * @param elements            the elements of the quiz exercise
+     * @param id                  the id of the element
+     * @param placeholderSupplier creates the placeholder if no element has the id
+     * @return the element or placeholder with the given id
+     */
+    private static <T extends DomainObject> T findOrCreateById(Collection<T> elements, Long id, Supplier<T> placeholderSupplier) {
+        for (T element : elements) {
+            if (id.equals(element.getId())) {
+                return element;
             }
         }
+        T placeholder = placeholderSupplier.get();
+        placeholder.setId(id);
+        return placeholder;
     }
 
     /**
@@ -139,7 +213,7 @@ public class QuizStatisticService {
             // notify users via websocket about new results for the statistics.
             // filters out solution information
             quiz.filterForStatisticWebsocket();
-            websocketMessagingService.sendMessage("/topic/statistic/" + quiz.getId(), quiz);
+            websocketMessagingService.sendCoalescedMessage("/topic/statistic/" + quiz.getId(), quiz);
         }
     }
 
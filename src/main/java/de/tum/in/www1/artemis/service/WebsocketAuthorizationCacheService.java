@@ -0,0 +1,283 @@
+package de.tum.in.www1.artemis.service;
+
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_WEBSOCKET_AUTHORIZATION_INVALIDATION_TOPIC;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.hazelcast.core.HazelcastInstance;
+
+import de.tum.in.www1.artemis.domain.Authority;
+import de.tum.in.www1.artemis.domain.Course;
+import de.tum.in.www1.artemis.domain.Exercise;
+import de.tum.in.www1.artemis.domain.Team;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.exam.Exam;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.repository.ExamRepository;
+import de.tum.in.www1.artemis.repository.ExerciseRepository;
+import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
+import de.tum.in.www1.artemis.repository.UserRepository;
+import de.tum.in.www1.artemis.service.listeners.CacheInvalidationTopic;
+import de.tum.in.www1.artemis.service.listeners.EntityCacheInvalidator;
+import de.tum.in.www1.artemis.service.listeners.EntityChange;
+
+/**
+ * Caches the data needed to authorize websocket subscriptions for a short time, so that many clients resubscribing at once (e.g. after a restart or a network
+ * interruption) do not exhaust the database connection pool. Only immutable copies of the groups and authorities are cached, so that concurrent requests never share
+ * (and modify) the same entities.
+ * <p>
+ * The cached data is invalidated on all instances after the transaction is committed, when users, courses, exercises, exams, teams or participations are deleted or
+ * when their properties that are relevant for the authorization (see {@link #getRelevantProperties()}) are changed.
+ * Changes that are not made through Hibernate entities (e.g. modifying queries) are picked up when the cached data expires.
+ */
+@Service
+public class WebsocketAuthorizationCacheService implements EntityCacheInvalidator {
+
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    private static final int MAX_CACHED_ENTRIES = 10000;
+
+    private final UserRepository userRepository;
+
+    private final ExerciseRepository exerciseRepository;
+
+    private final ExamRepository examRepository;
+
+    private final StudentParticipationRepository studentParticipationRepository;
+
+    private final CacheInvalidationTopic<Invalidation> invalidations;
+
+    private final Cache<String, UserGroups> usersByLogin = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_ENTRIES).expireAfterWrite(TIME_TO_LIVE).build();
+
+    private final Cache<Long, CachedExerciseCourse> exerciseCourses = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_ENTRIES).expireAfterWrite(TIME_TO_LIVE).build();
+
+    private final Cache<Long, CourseGroups> examCourses = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_ENTRIES).expireAfterWrite(TIME_TO_LIVE).build();
+
+    private final Cache<Long, Set<String>> participationOwners = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_ENTRIES).expireAfterWrite(TIME_TO_LIVE).build();
+
+    public WebsocketAuthorizationCacheService(UserRepository userRepository, ExerciseRepository exerciseRepository, ExamRepository examRepository,
+            StudentParticipationRepository studentParticipationRepository, HazelcastInstance hazelcastInstance) {
+        this.userRepository = userRepository;
+        this.exerciseRepository = exerciseRepository;
+        this.examRepository = examRepository;
+        this.studentParticipationRepository = studentParticipationRepository;
+        this.invalidations = new CacheInvalidationTopic<>(hazelcastInstance, HAZELCAST_WEBSOCKET_AUTHORIZATION_INVALIDATION_TOPIC, this::invalidateLocally);
+    }
+
+    /**
+     * Get the user with groups and authorities. Only the login, the groups and the authorities of the returned user are set.
+     *
+     * @param login the login of the user
+     * @return the user with groups and authorities
+     * @throws de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException if the user does not exist
+     */
+    public User getUserWithGroupsAndAuthorities(String login) {
+        return get(usersByLogin, login, () -> UserGroups.of(userRepository.getUserWithGroupsAndAuthorities(login))).toUser();
+    }
+
+    /**
+     * Get the course of the exercise and whether the exercise is an exam exercise. Only the id and the groups of the returned course are set.
+     *
+     * @param exerciseId the id of the exercise
+     * @return the course of the exercise
+     * @throws de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException if the exercise does not exist
+     */
+    public ExerciseCourse getExerciseCourse(long exerciseId) {
+        var exerciseCourse = get(exerciseCourses, exerciseId, () -> {
+            Exercise exercise = exerciseRepository.findByIdElseThrow(exerciseId);
+            return new CachedExerciseCourse(exercise.isExamExercise(), CourseGroups.of(exercise.getCourseViaExerciseGroupOrCourseMember()));
+        });
+        return new ExerciseCourse(exerciseCourse.examExercise(), exerciseCourse.course().toCourse());
+    }
+
+    /**
+     * Get the course of the exam. Only the id and the groups of the returned course are set.
+     *
+     * @param examId the id of the exam
+     * @return the course of the exam
+     * @throws de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException if the exam does not exist
+     */
+    public Course getExamCourse(long examId) {
+        return get(examCourses, examId, () -> CourseGroups.of(examRepository.findByIdElseThrow(examId).getCourse())).toCourse();
+    }
+
+    /**
+     * Checks if the participation is owned by the user, either directly or as member of the team
+     *
+     * @param participationId the id of the student participation
+     * @param login           the login of the user
+     * @return true if the user owns the participation, false otherwise
+     * @throws de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException if the participation does not exist
+     */
+    public boolean isParticipationOwnedBy(long participationId, String login) {
+        return get(participationOwners, participationId, () -> {
+            StudentParticipation participation = studentParticipationRepository.findByIdElseThrow(participationId);
+            return participation.getStudent().map(student -> Set.of(student.getLogin()))
+                    .orElseGet(() -> participation.getTeam().map(team -> team.getStudents().stream().map(User::getLogin).collect(Collectors.toUnmodifiableSet())).orElse(Set.of()));
+        }).contains(login);
+    }
+
+    private static <K, V> V get(Cache<K, V> cache, K key, Callable<V> loader) {
+        try {
+            return cache.get(key, loader);
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            // rethrow the original exception (e.g. an EntityNotFoundException), missing entities are not cached
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public Set<Class<?>> getEntityTypes() {
+        return Set.of(User.class, Course.class, Exercise.class, Exam.class, Team.class, StudentParticipation.class);
+    }
+
+    @Override
+    public Set<EntityChange.Type> getChangeTypes() {
+        // new entities cannot invalidate cached data
+        return Set.of(EntityChange.Type.UPDATE, EntityChange.Type.DELETE);
+    }
+
+    /**
+     * The properties of the cached entities that are used for the authorization. Changes of other properties (e.g. the name of a user or the results of a participation)
+     * do not invalidate the cached data. All properties of courses and teams are relevant, but these are changed rarely.
+     *
+     * @return the names of the relevant properties by entity type
+     */
+    @Override
+    public Map<Class<?>, Set<String>> getRelevantProperties() {
+        return Map.of(User.class, Set.of("login", "activated", "isDeleted", "groups", "authorities"), StudentParticipation.class, Set.of("student", "team"), Exercise.class,
+                Set.of("course", "exerciseGroup"), Exam.class, Set.of("course"));
+    }
+
+    @Override
+    public Set<String> getRelevantCollectionRoles() {
+        return Set.of(User.class.getName() + ".groups", User.class.getName() + ".authorities", Team.class.getName() + ".students");
+    }
+
+    @Override
+    public void invalidate(EntityChange change) {
+        Object entity = change.entity();
+        if (entity instanceof User user) {
+            invalidations.publish(new Invalidation(InvalidationType.USER, user.getLogin()));
+            // the user is cached by login, so a changed login invalidates the entry of the old login
+            change.getPreviousValue("login").ifPresent(oldLogin -> invalidations.publish(new Invalidation(InvalidationType.USER, oldLogin)));
+        }
+        else if (entity instanceof Course) {
+            // the courses are cached for many exercises and exams, but changes of courses are rare
+            invalidations.publish(new Invalidation(InvalidationType.COURSE, null));
+        }
+        else if (entity instanceof Exercise exercise) {
+            invalidations.publish(new Invalidation(InvalidationType.EXERCISE, exercise.getId()));
+        }
+        else if (entity instanceof Exam exam) {
+            invalidations.publish(new Invalidation(InvalidationType.EXAM, exam.getId()));
+        }
+        else if (entity instanceof Team) {
+            // a team can own participations in several exercises
+            invalidations.publish(new Invalidation(InvalidationType.TEAM, null));
+        }
+        else if (entity instanceof StudentParticipation participation) {
+            invalidations.publish(new Invalidation(InvalidationType.PARTICIPATION, participation.getId()));
+        }
+    }
+
+    private void invalidateLocally(Invalidation invalidation) {
+        switch (invalidation.type()) {
+            case USER -> invalidate(usersByLogin, invalidation.key());
+            case COURSE -> {
+                exerciseCourses.invalidateAll();
+                examCourses.invalidateAll();
+            }
+            case EXERCISE -> invalidate(exerciseCourses, invalidation.key());
+            case EXAM -> invalidate(examCourses, invalidation.key());
+            case TEAM -> participationOwners.invalidateAll();
+            case PARTICIPATION -> invalidate(participationOwners, invalidation.key());
+        }
+    }
+
+    private static void invalidate(Cache<?, ?> cache, Object key) {
+        if (key != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * The course of an exercise
+     *
+     * @param examExercise whether the exercise is an exam exercise
+     * @param course       the course of the exercise, for exam exercises the course of the exam
+     */
+    public record ExerciseCourse(boolean examExercise, Course course) {
+    }
+
+    /**
+     * The login, groups and authorities of a user, which are used for the authorization
+     */
+    private record UserGroups(String login, Set<String> groups, Set<String> authorities) {
+
+        static UserGroups of(User user) {
+            return new UserGroups(user.getLogin(), Set.copyOf(user.getGroups()), user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toUnmodifiableSet()));
+        }
+
+        /**
+         * @return a new user with the login, groups and authorities, so that callers cannot modify the cached data
+         */
+        User toUser() {
+            User user = new User();
+            user.setLogin(login);
+            user.setGroups(new HashSet<>(groups));
+            user.setAuthorities(authorities.stream().map(Authority::new).collect(Collectors.toSet()));
+            return user;
+        }
+    }
+
+    /**
+     * The id and the groups of a course, which are used for the authorization
+     */
+    private record CourseGroups(Long id, String studentGroupName, String teachingAssistantGroupName, String editorGroupName, String instructorGroupName) {
+
+        static CourseGroups of(Course course) {
+            return new CourseGroups(course.getId(), course.getStudentGroupName(), course.getTeachingAssistantGroupName(), course.getEditorGroupName(),
+                    course.getInstructorGroupName());
+        }
+
+        /**
+         * @return a new course with the id and groups, so that callers cannot modify the cached data
+         */
+        Course toCourse() {
+            Course course = new Course();
+            course.setId(id);
+            course.setStudentGroupName(studentGroupName);
+            course.setTeachingAssistantGroupName(teachingAssistantGroupName);
+            course.setEditorGroupName(editorGroupName);
+            course.setInstructorGroupName(instructorGroupName);
+            return course;
+        }
+    }
+
+    private record CachedExerciseCourse(boolean examExercise, CourseGroups course) {
+    }
+
+    private enum InvalidationType {
+        USER, COURSE, EXERCISE, EXAM, TEAM, PARTICIPATION
+    }
+
+    private record Invalidation(InvalidationType type, Object key) implements Serializable {
+    }
+}
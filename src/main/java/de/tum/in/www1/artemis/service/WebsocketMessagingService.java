@@ -1,30 +1,121 @@
 package de.tum.in.www1.artemis.service;
 
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MessageConversionException;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 /**
  * This service sends out websocket messages.
+ * <p>
+ * Messages are sent asynchronously by dedicated worker threads, so that sending many messages (e.g. to all participants of an exam) does not block the executor
+ * used for other asynchronous tasks. Each worker has its own bounded queue, and all messages to the same destination are queued for the same worker, so that they
+ * are sent in the order in which they were queued. If the queue is full, the calling thread sends the message itself, which slows down producers that create messages
+ * faster than they can be sent. Only in this case, a message can overtake earlier messages to the same destination that are still queued.
+ * The workers take up to {@link #MAX_BATCH_SIZE} messages at once and convert a payload that is sent to several destinations (e.g. the same result to all members
+ * of a team) only once.
  */
 @Service
 public class WebsocketMessagingService {
 
     private final Logger log = LoggerFactory.getLogger(WebsocketMessagingService.class);
 
+    private static final int WORKER_THREADS = 4;
+
+    private static final int QUEUE_CAPACITY = 10000;
+
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final SimpMessageSendingOperations messagingTemplate;
 
-    private final Executor asyncExecutor;
+    /**
+     * The queue of each worker, the capacity is shared equally between the workers
+     */
+    private final List<BlockingQueue<OutboundMessage>> queues = new ArrayList<>(WORKER_THREADS);
+
+    /**
+     * The latest message per topic that was sent with {@link #sendCoalescedMessage(String, Object)} and is not sent yet
+     */
+    private final Map<String, OutboundMessage> pendingCoalescedMessages = new ConcurrentHashMap<>();
+
+    private final List<Thread> workers = new ArrayList<>();
 
-    public WebsocketMessagingService(SimpMessageSendingOperations messagingTemplate, @Qualifier("taskExecutor") Executor asyncExecutor) {
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final Timer sendLatency;
+
+    private final Counter callerSentMessages;
+
+    private final Counter coalescedMessages;
+
+    public WebsocketMessagingService(SimpMessageSendingOperations messagingTemplate, MeterRegistry meterRegistry) {
         this.messagingTemplate = messagingTemplate;
-        this.asyncExecutor = asyncExecutor;
+        for (int i = 0; i < WORKER_THREADS; i++) {
+            queues.add(new LinkedBlockingQueue<>(QUEUE_CAPACITY / WORKER_THREADS));
+        }
+
+        Gauge.builder("artemis.websocket.outbound.queue.size", queues, ignored -> queues.stream().mapToInt(Collection::size).sum())
+                .description("Number of websocket messages waiting to be sent").register(meterRegistry);
+        this.sendLatency = Timer.builder("artemis.websocket.outbound.latency").description("Time between queueing and sending a websocket message").register(meterRegistry);
+        this.callerSentMessages = Counter.builder("artemis.websocket.outbound.caller.sent").description("Number of websocket messages sent by the caller because the queue was full")
+                .register(meterRegistry);
+        this.coalescedMessages = Counter.builder("artemis.websocket.outbound.coalesced").description("Number of websocket messages replaced by a newer message to the same topic")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the worker threads that send the queued messages
+     */
+    @PostConstruct
+    public void startWorkers() {
+        running.set(true);
+        for (int i = 0; i < WORKER_THREADS; i++) {
+            var queue = queues.get(i);
+            Thread worker = new Thread(() -> processMessages(queue), "websocket-outbound-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Stops the worker threads, messages that are still queued are discarded and their futures are completed exceptionally
+     */
+    @PreDestroy
+    public void stopWorkers() {
+        running.set(false);
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+
+        var discardedException = new RejectedExecutionException("The websocket message service was stopped");
+        List<OutboundMessage> discardedMessages = new ArrayList<>();
+        queues.forEach(queue -> queue.drainTo(discardedMessages));
+        for (OutboundMessage discardedMessage : discardedMessages) {
+            if (discardedMessage.coalesced()) {
+                // the latest message of the topic completes all messages it superseded
+                discardedMessage = pendingCoalescedMessages.remove(discardedMessage.topic());
+                if (discardedMessage == null) {
+                    continue;
+                }
+            }
+            discardedMessage.future().completeExceptionally(discardedException);
+        }
     }
 
     /**
@@ -36,14 +127,7 @@ public class WebsocketMessagingService {
      * @return a future that can be used to check if the message was sent successfully or resulted in an exception
      */
     public CompletableFuture<Void> sendMessage(String topic, Message<?> message) {
-        try {
-            return CompletableFuture.runAsync(() -> messagingTemplate.send(topic, message), asyncExecutor);
-        }
-        // Note: explicitly catch ALL kinds of exceptions here and do NOT rethrow, because the actual task should NEVER be interrupted when the server cannot send WS messages
-        catch (Exception ex) {
-            log.error("Error when sending message {} to topic {}", message, topic, ex);
-            return CompletableFuture.failedFuture(ex);
-        }
+        return enqueue(new OutboundMessage(topic, null, message, false));
     }
 
     /**
@@ -55,14 +139,39 @@ public class WebsocketMessagingService {
      * @return a future that can be used to check if the message was sent successfully or resulted in an exception
      */
     public CompletableFuture<Void> sendMessage(String topic, Object message) {
-        try {
-            return CompletableFuture.runAsync(() -> messagingTemplate.convertAndSend(topic, message), asyncExecutor);
+        return enqueue(new OutboundMessage(topic, null, message, false));
+    }
+
+    /**
+     * Sends a message over websocket to the given topic, which supersedes all previous messages to this topic.
+     * The message will be sent asynchronously. If a previous message to this topic has not been sent yet, only the new message is sent.
+     * Use this for frequent updates of which only the latest one is relevant (e.g. statistics or progress updates). The latest message is never dropped, so it is safe to send
+     * the final update (e.g. a finished progress) with this method as well.
+     *
+     * @param topic   the destination to which subscription the message should be sent
+     * @param message any object that should be sent to the destination (topic), this will typically get transformed into json
+     * @return a future that can be used to check if the message (or a message superseding it) was sent successfully or resulted in an exception
+     */
+    public CompletableFuture<Void> sendCoalescedMessage(String topic, Object message) {
+        var outboundMessage = new OutboundMessage(topic, null, message, true);
+        var supersededMessage = pendingCoalescedMessages.put(topic, outboundMessage);
+        if (supersededMessage != null) {
+            // the worker that takes the queued message of this topic sends the latest message instead
+            coalescedMessages.increment();
+            outboundMessage.future().whenComplete((result, exception) -> complete(supersededMessage, exception));
+            return outboundMessage.future();
         }
-        // Note: explicitly catch ALL kinds of exceptions here and do NOT rethrow, because the actual task should NEVER be interrupted when the server cannot send WS messages
-        catch (Exception ex) {
-            log.error("Error when sending message {} to topic {}", message, topic, ex);
-            return CompletableFuture.failedFuture(ex);
+        if (!getQueue(outboundMessage).offer(outboundMessage)) {
+            // Back pressure: the caller sends the latest message of this topic itself, which might also be a message that superseded this one in the meantime.
+            // There is no queued message for this topic, so the pending message has to be removed. Otherwise, all subsequent messages to this topic would be coalesced into it.
+            var latestMessage = pendingCoalescedMessages.remove(topic);
+            if (latestMessage != null) {
+                callerSentMessages.increment();
+                // this also completes the messages superseded by the latest message, including this one
+                send(latestMessage, null);
+            }
         }
+        return outboundMessage.future();
     }
 
     /**
@@ -75,13 +184,145 @@ public class WebsocketMessagingService {
      * @return a future that can be used to check if the message was sent successfully or resulted in an exception
      */
     public CompletableFuture<Void> sendMessageToUser(String user, String topic, Object payload) {
-        try {
-            return CompletableFuture.runAsync(() -> messagingTemplate.convertAndSendToUser(user, topic, payload), asyncExecutor);
+        return enqueue(new OutboundMessage(topic, user, payload, false));
+    }
+
+    private CompletableFuture<Void> enqueue(OutboundMessage outboundMessage) {
+        if (!getQueue(outboundMessage).offer(outboundMessage)) {
+            // back pressure: the caller has to wait until the message is sent
+            callerSentMessages.increment();
+            send(outboundMessage, null);
         }
+        return outboundMessage.future();
+    }
+
+    /**
+     * Returns the queue of the worker that sends all messages to the destination of the given message
+     *
+     * @param outboundMessage the message to send
+     * @return the queue of the worker
+     */
+    private BlockingQueue<OutboundMessage> getQueue(OutboundMessage outboundMessage) {
+        return queues.get(Math.floorMod(Objects.hash(outboundMessage.topic(), outboundMessage.user()), WORKER_THREADS));
+    }
+
+    private void processMessages(BlockingQueue<OutboundMessage> queue) {
+        List<OutboundMessage> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (running.get()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                // payloads sent to several destinations within the batch are only converted once
+                Map<Object, Message<?>> convertedPayloads = new IdentityHashMap<>();
+                for (OutboundMessage outboundMessage : batch) {
+                    if (outboundMessage.coalesced()) {
+                        outboundMessage = pendingCoalescedMessages.remove(outboundMessage.topic());
+                        if (outboundMessage == null) {
+                            continue;
+                        }
+                    }
+                    send(outboundMessage, convertedPayloads);
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Sends the message and completes its future.
+     *
+     * @param outboundMessage   the message to send
+     * @param convertedPayloads the payloads that were already converted in the current batch, or null if the payload should not be reused
+     */
+    private void send(OutboundMessage outboundMessage, @Nullable Map<Object, Message<?>> convertedPayloads) {
         // Note: explicitly catch ALL kinds of exceptions here and do NOT rethrow, because the actual task should NEVER be interrupted when the server cannot send WS messages
+        try {
+            Object payload = outboundMessage.payload();
+            if (payload instanceof Message<?> message) {
+                messagingTemplate.send(outboundMessage.topic(), message);
+            }
+            else if (convertedPayloads != null && messagingTemplate instanceof SimpMessagingTemplate template) {
+                Message<?> message = convertedPayloads.computeIfAbsent(payload, ignored -> convert(template, payload));
+                messagingTemplate.send(getDestination(template, outboundMessage), message);
+            }
+            else if (outboundMessage.user() != null) {
+                messagingTemplate.convertAndSendToUser(outboundMessage.user(), outboundMessage.topic(), payload);
+            }
+            else {
+                messagingTemplate.convertAndSend(outboundMessage.topic(), payload);
+            }
+            sendLatency.record(System.nanoTime() - outboundMessage.enqueuedAt(), TimeUnit.NANOSECONDS);
+            complete(outboundMessage, null);
+        }
         catch (Exception ex) {
-            log.error("Error when sending message {} on topic {} to user {}", payload, topic, user, ex);
-            return CompletableFuture.failedFuture(ex);
+            if (outboundMessage.user() != null) {
+                log.error("Error when sending message {} on topic {} to user {}", outboundMessage.payload(), outboundMessage.topic(), outboundMessage.user(), ex);
+            }
+            else {
+                log.error("Error when sending message {} to topic {}", outboundMessage.payload(), outboundMessage.topic(), ex);
+            }
+            complete(outboundMessage, ex);
+        }
+    }
+
+    /**
+     * Converts the payload into a message without destination, so that it can be sent to several destinations (see {@link SimpMessagingTemplate#send(Object, Message)})
+     *
+     * @param template the template whose message converter is used
+     * @param payload  the payload to convert
+     * @return the converted message
+     */
+    private static Message<?> convert(SimpMessagingTemplate template, Object payload) {
+        Message<?> message = template.getMessageConverter().toMessage(payload, null);
+        if (message == null) {
+            throw new MessageConversionException("Unable to convert payload with type='" + payload.getClass().getName() + "'");
+        }
+        return message;
+    }
+
+    /**
+     * Returns the destination of the message, for messages to a user the same destination as in {@link SimpMessagingTemplate#convertAndSendToUser(String, String, Object)}
+     *
+     * @param template        the template that sends the message
+     * @param outboundMessage the message
+     * @return the destination of the message
+     */
+    private static String getDestination(SimpMessagingTemplate template, OutboundMessage outboundMessage) {
+        if (outboundMessage.user() == null) {
+            return outboundMessage.topic();
+        }
+        return template.getUserDestinationPrefix() + outboundMessage.user().replace("/", "%2F") + outboundMessage.topic();
+    }
+
+    private static void complete(OutboundMessage outboundMessage, @Nullable Throwable exception) {
+        if (exception == null) {
+            outboundMessage.future().complete(null);
+        }
+        else {
+            outboundMessage.future().completeExceptionally(exception);
+        }
+    }
+
+    /**
+     * A message waiting to be sent
+     *
+     * @param topic      the destination (for messages to a user: the destination of the user)
+     * @param user       the user that should receive the message, or null if the message is sent to the topic
+     * @param payload    the payload or a prebuild message
+     * @param coalesced  whether the message can be superseded by a later message to the same topic
+     * @param future     the future that is completed when the message was sent
+     * @param enqueuedAt the time the message was queued (see {@link System#nanoTime()})
+     */
+    private record OutboundMessage(String topic, @Nullable String user, Object payload, boolean coalesced, CompletableFuture<Void> future, long enqueuedAt) {
+
+        OutboundMessage(String topic, @Nullable String user, Object payload, boolean coalesced) {
+            this(topic, user, payload, coalesced, new CompletableFuture<>(), System.nanoTime());
         }
     }
 }
@@ -2,10 +2,21 @@ package de.tum.in.www1.artemis.service.compass.strategy;
 
 import java.util.Objects;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import me.xdrop.fuzzywuzzy.FuzzySearch;
 
 public class NameSimilarity {
 
+    /**
+     * The names of UML elements repeat a lot (e.g. between the submissions of the same exercise), so the results of the comparatively expensive Levenshtein calculation are cached.
+     */
+    private static final Cache<NamePair, Double> LEVENSHTEIN_SIMILARITY_CACHE = CacheBuilder.newBuilder().maximumSize(100_000).build();
+
+    private record NamePair(String name1, String name2) {
+    }
+
     /**
      * Analyzes the similarity between two given strings by calculating a Levenshtein simple ratio.
      *
@@ -22,7 +33,7 @@ public class NameSimilarity {
         }
 
         // TODO longterm: think about an even more sophisticated approach that takes e.g. thesaurus and specific uml conventions into account
-        return FuzzySearch.ratio(string1, string2) / 100.0;
+        return LEVENSHTEIN_SIMILARITY_CACHE.asMap().computeIfAbsent(new NamePair(string1, string2), namePair -> FuzzySearch.ratio(string1, string2) / 100.0);
     }
 
     /**
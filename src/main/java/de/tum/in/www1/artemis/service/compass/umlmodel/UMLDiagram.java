@@ -1,7 +1,9 @@
 package de.tum.in.www1.artemis.service.compass.umlmodel;
 
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public abstract class UMLDiagram implements Similarity<UMLDiagram>, Serializable {
 
@@ -52,6 +54,18 @@ public abstract class UMLDiagram implements Similarity<UMLDiagram>, Serializable
      */
     @Override
     public double similarity(Similarity<UMLDiagram> reference) {
+        return similarity(reference, 0);
+    }
+
+    /**
+     * Compares this with another diagram to calculate the similarity like {@link #similarity(Similarity)}, but stops the calculation as soon as the similarity cannot reach the
+     * given minimum similarity anymore.
+     *
+     * @param reference         the reference UML diagram to compare this diagram with
+     * @param minimumSimilarity the minimum similarity [0-1] the caller is interested in
+     * @return the similarity of the diagrams as number [0-1], or a number lower than the minimum similarity if the diagrams are less similar than the minimum similarity
+     */
+    public double similarity(Similarity<UMLDiagram> reference, double minimumSimilarity) {
         if (reference == null || !reference.getClass().isInstance(this)) {
             return 0;
         }
@@ -63,7 +77,7 @@ public abstract class UMLDiagram implements Similarity<UMLDiagram>, Serializable
 
         // To ensure symmetry (i.e. A.similarity(B) = B.similarity(A)) we make sure that this diagram always has less or equally many elements than the reference diagram.
         if (modelElements.size() > referenceModelElements.size()) {
-            return diagramReference.similarity(this);
+            return diagramReference.similarity(this, minimumSimilarity);
         }
 
         double similarity = 0;
@@ -74,9 +88,16 @@ public abstract class UMLDiagram implements Similarity<UMLDiagram>, Serializable
         int maxElementCount = referenceModelElements.size();
         double weight = 1.0 / maxElementCount;
 
+        int remainingElementCount = modelElements.size();
         for (Similarity<UMLElement> element : modelElements) {
             double similarityValue = diagramReference.similarElementScore(element);
             similarity += weight * similarityValue;
+            remainingElementCount--;
+
+            // Every remaining element can add at most the weight to the similarity.
+            if (similarity + remainingElementCount * weight < minimumSimilarity) {
+                return similarity;
+            }
         }
 
         // Make sure that the similarity value is between 0 and 1.
@@ -94,6 +115,52 @@ public abstract class UMLDiagram implements Similarity<UMLDiagram>, Serializable
         return getModelElements().stream().mapToDouble(element -> element.overallSimilarity(referenceElement)).max().orElse(0);
     }
 
+    /**
+     * Counts the model elements of this diagram (see {@link #getModelElements()}) by their similarity type. Elements of different similarity types always have a similarity of 0,
+     * as the similarity calculation of every element type first checks the type of the reference element.
+     * The similarity type of an element is its topmost class below {@link UMLElement} or {@link UMLContainerElement}, so that subclasses of an element type (e.g. deployment
+     * components that inherit the similarity calculation of components) are counted together with it.
+     *
+     * @return the number of model elements by similarity type
+     */
+    public Map<Class<?>, Integer> getModelElementCountsBySimilarityType() {
+        Map<Class<?>, Integer> elementCounts = new HashMap<>();
+        for (UMLElement element : getModelElements()) {
+            Class<?> similarityType = element.getClass();
+            while (similarityType.getSuperclass() != null && similarityType.getSuperclass() != UMLElement.class && similarityType.getSuperclass() != UMLContainerElement.class
+                    && similarityType.getSuperclass() != Object.class) {
+                similarityType = similarityType.getSuperclass();
+            }
+            elementCounts.merge(similarityType, 1, Integer::sum);
+        }
+        return elementCounts;
+    }
+
+    /**
+     * Calculates an upper bound of the similarity of two diagrams without comparing their elements.
+     * Only elements with a similarity type that also occurs in the other diagram can contribute to the similarity, and each of them can contribute at most 1 / (max. element
+     * count), see {@link #similarity(Similarity)}.
+     *
+     * @param elementCounts1 the element counts of the first diagram as returned by {@link #getModelElementCountsBySimilarityType()}
+     * @param elementCounts2 the element counts of the second diagram as returned by {@link #getModelElementCountsBySimilarityType()}
+     * @return the maximum similarity the two diagrams can have as number [0-1]
+     */
+    public static double similarityUpperBound(Map<Class<?>, Integer> elementCounts1, Map<Class<?>, Integer> elementCounts2) {
+        int elementCount1 = elementCounts1.values().stream().mapToInt(Integer::intValue).sum();
+        int elementCount2 = elementCounts2.values().stream().mapToInt(Integer::intValue).sum();
+        if (elementCount1 == 0 || elementCount2 == 0) {
+            return 0;
+        }
+
+        // Element counts of the diagram with less elements, as the similarity calculation iterates over the elements of that diagram.
+        Map<Class<?>, Integer> smallerElementCounts = elementCount1 <= elementCount2 ? elementCounts1 : elementCounts2;
+        Map<Class<?>, Integer> largerElementCounts = elementCount1 <= elementCount2 ? elementCounts2 : elementCounts1;
+
+        int comparableElementCount = smallerElementCounts.entrySet().stream().filter(entry -> largerElementCounts.containsKey(entry.getKey()))
+                .mapToInt(Map.Entry::getValue).sum();
+        return (double) comparableElementCount / Math.max(elementCount1, elementCount2);
+    }
+
     /**
      * Return the submissionId of the UML diagram.
      *
@@ -318,34 +318,6 @@ public class GitService {
         return repository;
     }
 
-    /**
-     * Get the local repository for a given participation.
-     * If the local repo does not exist yet, it will be checked out.
-     * <p>
-     * This method will include the participation ID in the local path of the repository so
-     * JPlag can refer back to the correct participation.
-     *
-     * @param participation Participation the remote repository belongs to.
-     * @param targetPath    path where the repo is located on disk
-     * @return the repository if it could be checked out
-     * @throws GitAPIException      if the repository could not be checked out.
-     * @throws InvalidPathException if the repository could not be checked out Because it contains unmappable characters.
-     */
-    public Repository getOrCheckoutRepositoryForJPlag(ProgrammingExerciseParticipation participation, String targetPath) throws GitAPIException, InvalidPathException {
-        var repoUrl = participation.getVcsRepositoryUrl();
-        String repoFolderName = repoUrl.folderNameForRepositoryUrl();
-
-        // Replace the exercise name in the repository folder name with the participation ID.
-        // This is necessary to be able to refer back to the correct participation after the JPlag detection run.
-        String updatedRepoFolderName = repoFolderName.replaceAll("/[a-zA-Z0-9]*-", "/" + participation.getId() + "-");
-        Path localPath = Path.of(targetPath, updatedRepoFolderName);
-
-        Repository repository = getOrCheckoutRepository(repoUrl, localPath, true);
-        repository.setParticipation(participation);
-
-        return repository;
-    }
-
     /**
      * Get the local repository for a given remote repository URL. If the local repo does not exist yet, it will be checked out.
      * Saves the repo in the default path
@@ -514,6 +486,49 @@ public class GitService {
         }
     }
 
+    /**
+     * Get a bare repository that contains the objects of the given remote repository, e.g. to read the files of a commit without checking them out.
+     * For the local VCS, the repository of the version control system is opened directly. Otherwise, a bare mirror of the remote repository is cloned into the given path
+     * once and only fetched incrementally afterwards.
+     * The caller is responsible for closing the returned repository.
+     *
+     * @param repoUrl    the url of the remote repository
+     * @param mirrorPath the path of the bare mirror, not used for the local VCS
+     * @return the bare repository
+     * @throws GitAPIException    if the mirror could not be cloned or fetched
+     * @throws IOException        if the repository could not be opened
+     * @throws URISyntaxException if the uri of the remote repository could not be retrieved
+     */
+    public org.eclipse.jgit.lib.Repository getOrFetchBareRepository(VcsRepositoryUrl repoUrl, Path mirrorPath) throws GitAPIException, IOException, URISyntaxException {
+        if (profileService.isLocalVcsCi()) {
+            return new FileRepositoryBuilder().setGitDir(Path.of(getGitUri(repoUrl)).toFile()).setMustExist(true).build();
+        }
+        var gitUriAsString = getGitUriAsString(repoUrl);
+        if (!Files.exists(mirrorPath)) {
+            log.debug("Cloning mirror from {} to {}", gitUriAsString, mirrorPath);
+            try (Git git = cloneCommand().setURI(gitUriAsString).setDirectory(mirrorPath.toFile()).setBare(true).call()) {
+                log.debug("Cloned mirror of {}", gitUriAsString);
+            }
+            catch (GitAPIException | JGitInternalException e) {
+                // cleanup the folder so that the next call clones the mirror again
+                if (!FileUtils.deleteQuietly(mirrorPath.toFile())) {
+                    log.error("Could not delete directory after failed clone: {}", mirrorPath.toAbsolutePath());
+                }
+                throw e;
+            }
+        }
+        var repository = new FileRepositoryBuilder().setGitDir(mirrorPath.toFile()).setMustExist(true).build();
+        try (Git git = new Git(repository)) {
+            // the url is set explicitly, because it might have changed from https to ssh or ssh to https since the mirror was cloned
+            fetchCommand(git).setRemote(gitUriAsString).setRefSpecs(new RefSpec("+refs/heads/*:refs/heads/*")).setForceUpdate(true).setRemoveDeletedRefs(true).call();
+        }
+        catch (GitAPIException | JGitInternalException e) {
+            repository.close();
+            throw e;
+        }
+        return repository;
+    }
+
     /**
      * Checks whether the repository is cached.
      * This method does only support repositories that use the repoClonePath which is set in the application-artemis.yml file!
@@ -0,0 +1,180 @@
+package de.tum.in.www1.artemis.service.connectors.localci;
+
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.hazelcast.core.HazelcastInstance;
+
+import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseParticipation;
+import de.tum.in.www1.artemis.service.connectors.localci.dto.LocalCIBuildAgentInformation;
+import de.tum.in.www1.artemis.service.connectors.localci.dto.LocalCIBuildJobQueueItem;
+import de.tum.in.www1.artemis.service.connectors.localci.dto.LocalCIBuildResult;
+import de.tum.in.www1.artemis.service.programming.ProgrammingExerciseParticipationService;
+
+/**
+ * Turns this Artemis instance into a build agent that executes build jobs from the queue shared between all Artemis instances (see {@link LocalCISharedBuildJobQueueService}).
+ * The build agent takes as many build jobs from the queue as the local CI thread pool can execute at the same time, and sends a heartbeat so that its build jobs can be
+ * reassigned to another build agent if this instance dies.
+ * Every instance also processes the results of build jobs whose instance that queued them is not available anymore.
+ * It is only active if "artemis.continuous-integration.distributed-build-queue" and "artemis.continuous-integration.build-agent" are enabled.
+ */
+@Service
+@Profile("localci")
+public class LocalCIBuildAgentService {
+
+    private static final int HEARTBEAT_INTERVAL_SECONDS = 10;
+
+    private static final int POLL_TIMEOUT_SECONDS = 5;
+
+    private final Logger log = LoggerFactory.getLogger(LocalCIBuildAgentService.class);
+
+    private final LocalCISharedBuildJobQueueService localCISharedBuildJobQueueService;
+
+    private final LocalCIBuildJobManagementService localCIBuildJobManagementService;
+
+    private final ProgrammingExerciseParticipationService programmingExerciseParticipationService;
+
+    private final LocalCITriggerService localCITriggerService;
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final AtomicInteger numberOfCurrentBuildJobs = new AtomicInteger();
+
+    private ExecutorService buildAgentExecutor;
+
+    private ScheduledExecutorService heartbeatScheduler;
+
+    private String buildAgentName;
+
+    @Value("${artemis.continuous-integration.build-agent:true}")
+    private boolean buildAgent;
+
+    @Value("${artemis.continuous-integration.thread-pool-size:1}")
+    private int threadPoolSize;
+
+    public LocalCIBuildAgentService(LocalCISharedBuildJobQueueService localCISharedBuildJobQueueService, LocalCIBuildJobManagementService localCIBuildJobManagementService,
+            ProgrammingExerciseParticipationService programmingExerciseParticipationService, LocalCITriggerService localCITriggerService, HazelcastInstance hazelcastInstance) {
+        this.localCISharedBuildJobQueueService = localCISharedBuildJobQueueService;
+        this.localCIBuildJobManagementService = localCIBuildJobManagementService;
+        this.programmingExerciseParticipationService = programmingExerciseParticipationService;
+        this.localCITriggerService = localCITriggerService;
+        this.hazelcastInstance = hazelcastInstance;
+    }
+
+    /**
+     * Starts taking build jobs from the shared queue and sending heartbeats once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBuildAgent() {
+        if (!localCISharedBuildJobQueueService.isEnabled()) {
+            return;
+        }
+
+        heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("local-ci-build-agent-heartbeat-%d").build());
+        buildAgentName = hazelcastInstance.getCluster().getLocalMember().getAddress().toString();
+
+        if (buildAgent) {
+            log.info("Starting local CI build agent {} executing up to {} build jobs at the same time", buildAgentName, threadPoolSize);
+            // Send the first heartbeat before taking any build job, so that other instances do not consider the build jobs of this build agent as orphaned.
+            sendHeartbeat();
+            buildAgentExecutor = Executors.newFixedThreadPool(threadPoolSize, new ThreadFactoryBuilder().setNameFormat("local-ci-build-agent-%d").build());
+            for (int i = 0; i < threadPoolSize; i++) {
+                buildAgentExecutor.execute(this::processBuildJobs);
+            }
+        }
+
+        // Every instance checks for build jobs of dead build agents and for results of dead instances, even if it does not execute build jobs itself.
+        heartbeatScheduler.scheduleAtFixedRate(() -> {
+            try {
+                if (buildAgent) {
+                    sendHeartbeat();
+                }
+                localCISharedBuildJobQueueService.requeueBuildJobsOfDeadBuildAgents();
+                localCISharedBuildJobQueueService.processBuildJobResults(this::processOrphanedBuildJobResult);
+            }
+            catch (RuntimeException e) {
+                // An uncaught exception would cancel all further heartbeats.
+                log.error("Error while sending the heartbeat of local CI build agent {}", buildAgentName, e);
+            }
+        }, HEARTBEAT_INTERVAL_SECONDS, HEARTBEAT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void sendHeartbeat() {
+        localCISharedBuildJobQueueService.sendHeartbeat(new LocalCIBuildAgentInformation(buildAgentName, threadPoolSize, numberOfCurrentBuildJobs.get(), System.currentTimeMillis()));
+    }
+
+    private void processOrphanedBuildJobResult(LocalCIBuildJobQueueItem buildJob, LocalCIBuildResult buildResult) {
+        ProgrammingExerciseParticipation participation = programmingExerciseParticipationService
+                .findProgrammingExerciseParticipationWithLatestSubmissionAndResult(buildJob.participationId());
+        localCITriggerService.processBuildResult(participation, buildResult);
+    }
+
+    private void processBuildJobs() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Optional<LocalCIBuildJobQueueItem> buildJob = localCISharedBuildJobQueueService.takeNextBuildJob(buildAgentName, POLL_TIMEOUT_SECONDS);
+                buildJob.ifPresent(this::executeBuildJob);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            catch (RuntimeException e) {
+                // Keep the build agent running, e.g. if the Hazelcast cluster is temporarily not available.
+                log.error("Error while taking a build job from the shared local CI queue", e);
+            }
+        }
+    }
+
+    private void executeBuildJob(LocalCIBuildJobQueueItem buildJob) {
+        numberOfCurrentBuildJobs.incrementAndGet();
+        try {
+            ProgrammingExerciseParticipation participation = programmingExerciseParticipationService
+                    .findProgrammingExerciseParticipationWithLatestSubmissionAndResult(buildJob.participationId());
+            // The user is notified about errors during the build job by the management service, so only the instance that queued the build job has to be informed here.
+            LocalCIBuildResult buildResult = localCIBuildJobManagementService.runBuildJobOnThisInstance(participation, buildJob.commitHash()).join();
+            localCISharedBuildJobQueueService.finishBuildJob(buildJob, buildResult, null);
+        }
+        catch (CompletionException | CancellationException e) {
+            localCISharedBuildJobQueueService.finishBuildJob(buildJob, null, e.getMessage());
+        }
+        catch (RuntimeException e) {
+            // Make sure the instance that queued the build job does not wait for a result forever, e.g. if the participation was deleted in the meantime.
+            log.error("Could not execute build job {} for participation {}", buildJob.id(), buildJob.participationId(), e);
+            localCISharedBuildJobQueueService.finishBuildJob(buildJob, null, e.getMessage());
+        }
+        finally {
+            numberOfCurrentBuildJobs.decrementAndGet();
+        }
+    }
+
+    /**
+     * Stops the build agent when the application shuts down. Build jobs that are still running are put back into the queue, so that another build agent executes them.
+     */
+    @PreDestroy
+    public void stopBuildAgent() {
+        if (heartbeatScheduler != null) {
+            heartbeatScheduler.shutdownNow();
+        }
+        if (buildAgentExecutor != null) {
+            localCISharedBuildJobQueueService.removeBuildAgent(buildAgentName);
+            buildAgentExecutor.shutdownNow();
+        }
+    }
+}
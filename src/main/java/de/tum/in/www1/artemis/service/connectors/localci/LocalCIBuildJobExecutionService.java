@@ -1,9 +1,10 @@
 package de.tum.in.www1.artemis.service.connectors.localci;
 
+import static de.tum.in.www1.artemis.config.Constants.LONG_FEEDBACK_MAX_LENGTH;
+
 import java.io.IOException;
-import java.io.StringReader;
+import java.io.InputStream;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
@@ -16,7 +17,7 @@ import javax.xml.stream.XMLStreamReader;
 
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,6 +58,8 @@ public class LocalCIBuildJobExecutionService {
 
     private final LocalCIContainerService localCIContainerService;
 
+    private final LocalCIContainerPoolService localCIContainerPoolService;
+
     private final AuxiliaryRepositoryRepository auxiliaryRepositoryRepository;
 
     /**
@@ -70,11 +73,16 @@ public class LocalCIBuildJobExecutionService {
     @Value("${artemis.version-control.local-vcs-repo-path}")
     private String localVCBasePath;
 
+    @Value("${artemis.continuous-integration.build.images.java.default}")
+    private String dockerImage;
+
     public LocalCIBuildJobExecutionService(LocalCIBuildPlanService localCIBuildPlanService, Optional<VersionControlService> versionControlService,
-            LocalCIContainerService localCIContainerService, AuxiliaryRepositoryRepository auxiliaryRepositoryRepository, XMLInputFactory localCIXMLInputFactory) {
+            LocalCIContainerService localCIContainerService, LocalCIContainerPoolService localCIContainerPoolService, AuxiliaryRepositoryRepository auxiliaryRepositoryRepository,
+            XMLInputFactory localCIXMLInputFactory) {
         this.localCIBuildPlanService = localCIBuildPlanService;
         this.versionControlService = versionControlService;
         this.localCIContainerService = localCIContainerService;
+        this.localCIContainerPoolService = localCIContainerPoolService;
         this.auxiliaryRepositoryRepository = auxiliaryRepositoryRepository;
         this.localCIXMLInputFactory = localCIXMLInputFactory;
     }
@@ -96,8 +104,10 @@ public class LocalCIBuildJobExecutionService {
     }
 
     /**
-     * Prepare the paths to the assignment and test repositories, the branch to checkout, the volume configuration for the Docker container, and the container configuration,
-     * and then call {@link #runScriptAndParseResults(ProgrammingExerciseParticipation, String, String, String, String)} to execute the job.
+     * Prepare the paths to the assignment and test repositories, the branch to checkout, and a running Docker container, and then call
+     * {@link #runScriptAndParseResults(ProgrammingExerciseParticipation, String, String, String, String)} to execute the job.
+     * If an idle container is available in the {@link LocalCIContainerPoolService}, the repositories and the build script are copied into it. Otherwise, a new container is
+     * created with the repositories and the build script bound to it.
      *
      * @param participation The participation of the repository for which the build job should be executed.
      * @param commitHash    The commit hash of the commit that should be built. If it is null, the latest commit of the default branch will be built.
@@ -167,6 +177,14 @@ public class LocalCIBuildJobExecutionService {
             throw new LocalCIException("Error while getting branch of participation", e);
         }
 
+        Optional<String> pooledContainerId = localCIContainerPoolService.acquireContainer(dockerImage, containerName);
+        if (pooledContainerId.isPresent()) {
+            // The idle container is already running, so the files needed by the build job have to be copied into it instead of being bound to it.
+            localCIContainerService.copyBuildFilesToContainer(pooledContainerId.get(), assignmentRepositoryPath, testsRepositoryPath, auxiliaryRepositoriesPaths,
+                    auxiliaryRepositoryNames, buildScriptPath, branch, commitHash);
+            return runScriptAndParseResults(participation, containerName, pooledContainerId.get(), branch, commitHash);
+        }
+
         // Create the volume configuration for the container. The assignment repository, the tests repository, and the build script are bound into the container to be used by
         // the build job.
         HostConfig volumeConfig = localCIContainerService.createVolumeConfig(assignmentRepositoryPath, testsRepositoryPath, auxiliaryRepositoriesPaths, auxiliaryRepositoryNames,
@@ -177,11 +195,15 @@ public class LocalCIBuildJobExecutionService {
         // This does not start the container yet.
         CreateContainerResponse container = localCIContainerService.configureContainer(containerName, volumeConfig, branch, commitHash);
 
+        localCIContainerService.startContainer(container.getId());
+
+        log.info("Started container for build job " + containerName);
+
         return runScriptAndParseResults(participation, containerName, container.getId(), branch, commitHash);
     }
 
     /**
-     * Runs the build job. This includes creating and starting a Docker container, executing the build script, and processing the build result.
+     * Runs the build job in an already running Docker container. This includes executing the build script and processing the build result.
      *
      * @param participation The participation for which the build job should be run.
      * @param containerName The name of the container that should be used for the build job. This is used to remove the container and is also accessible from outside build job
@@ -197,10 +219,6 @@ public class LocalCIBuildJobExecutionService {
 
         long timeNanoStart = System.nanoTime();
 
-        localCIContainerService.startContainer(containerId);
-
-        log.info("Started container for build job " + containerName);
-
         localCIContainerService.runScriptInContainer(containerId);
 
         log.info("Finished running the build script in container " + containerName);
@@ -275,18 +293,19 @@ public class LocalCIBuildJobExecutionService {
         List<LocalCIBuildResult.LocalCITestJobDTO> failedTests = new ArrayList<>();
         List<LocalCIBuildResult.LocalCITestJobDTO> successfulTests = new ArrayList<>();
 
-        TarArchiveEntry tarEntry;
-        while ((tarEntry = testResultsTarInputStream.getNextTarEntry()) != null) {
-
-            // Go through all tar entries that are test result files.
-            if (!isValidTestResultFile(tarEntry)) {
-                continue;
-            }
+        try (testResultsTarInputStream) {
+            TarArchiveEntry tarEntry;
+            while ((tarEntry = testResultsTarInputStream.getNextTarEntry()) != null) {
 
-            // Read the contents of the tar entry as a string.
-            String xmlString = readTarEntryContent(testResultsTarInputStream);
+                // Go through all tar entries that are test result files.
+                if (!isValidTestResultFile(tarEntry)) {
+                    continue;
+                }
 
-            processTestResultFile(xmlString, failedTests, successfulTests);
+                // Parse the tar entry directly from the archive stream instead of reading it into a String first, as test result files of large test suites with long stack
+                // traces can become very large.
+                processTestResultFile(testResultsTarInputStream, failedTests, successfulTests);
+            }
         }
 
         return constructBuildResult(failedTests, successfulTests, assignmentRepoBranchName, assignmentRepoCommitHash, testsRepoCommitHash, !failedTests.isEmpty(),
@@ -298,23 +317,19 @@ public class LocalCIBuildJobExecutionService {
                 && tarArchiveEntry.getName().endsWith(".xml");
     }
 
-    private String readTarEntryContent(TarArchiveInputStream tarArchiveInputStream) throws IOException {
-        return IOUtils.toString(tarArchiveInputStream, StandardCharsets.UTF_8);
-    }
-
     /**
      * Processes a test result file and adds the failed and successful tests to the corresponding lists.
      *
-     * @param testResultFileString The string that represents the test results XML file.
+     * @param testResultFileStream The stream of the test results XML file. It is positioned at the current entry of the tar archive and is not closed by this method.
      * @param failedTests          The list of failed tests.
      * @param successfulTests      The list of successful tests.
      * @throws XMLStreamException    if the XML stream reader cannot be created or there is an error while parsing the XML file
      * @throws IllegalStateException if the first start element of the XML file is not a "testsuite" node
      */
-    private void processTestResultFile(String testResultFileString, List<LocalCIBuildResult.LocalCITestJobDTO> failedTests,
+    private void processTestResultFile(InputStream testResultFileStream, List<LocalCIBuildResult.LocalCITestJobDTO> failedTests,
             List<LocalCIBuildResult.LocalCITestJobDTO> successfulTests) throws XMLStreamException {
-        // Create an XML stream reader for the string that represents the test results XML file.
-        XMLStreamReader xmlStreamReader = localCIXMLInputFactory.createXMLStreamReader(new StringReader(testResultFileString));
+        // Create an XML stream reader for the test results XML file. Closing the reader does not close the underlying stream, so the next tar entry can still be read.
+        XMLStreamReader xmlStreamReader = localCIXMLInputFactory.createXMLStreamReader(testResultFileStream);
 
         // Move to the first start element.
         while (xmlStreamReader.hasNext() && !xmlStreamReader.isStartElement()) {
@@ -355,8 +370,9 @@ public class LocalCIBuildJobExecutionService {
             xmlStreamReader.next();
         }
         if (xmlStreamReader.isStartElement() && "failure".equals(xmlStreamReader.getLocalName())) {
-            // Extract the message attribute from the "failure" node.
-            String error = xmlStreamReader.getAttributeValue(null, "message");
+            // Extract the message attribute from the "failure" node. Truncate it right away, as longer messages cannot be stored as feedback anyway and would only be kept in
+            // memory (and sent between instances if the build queue is distributed) for nothing. Shorter messages are stored as long feedback text if necessary.
+            String error = StringUtils.truncate(xmlStreamReader.getAttributeValue(null, "message"), LONG_FEEDBACK_MAX_LENGTH);
 
             // Add the failed test to the list of failed tests.
             List<String> errors = error != null ? List.of(error) : List.of();
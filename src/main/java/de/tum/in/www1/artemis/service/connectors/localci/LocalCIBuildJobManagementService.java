@@ -7,7 +7,6 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -31,7 +30,7 @@ import de.tum.in.www1.artemis.web.websocket.programmingSubmission.BuildTriggerWe
 
 /**
  * This service is responsible for adding build jobs to the local CI executor service.
- * It handles timeouts as well as exceptions that occur during the execution of the build job.
+ * It determines the priority of the build jobs and handles timeouts as well as exceptions that occur during the execution of the build job.
  */
 @Service
 @Profile("localci")
@@ -41,7 +40,7 @@ public class LocalCIBuildJobManagementService {
 
     private final LocalCIBuildJobExecutionService localCIBuildJobExecutionService;
 
-    private final ExecutorService localCIBuildExecutorService;
+    private final LocalCIPriorityBuildExecutor localCIBuildExecutorService;
 
     private final ProgrammingMessagingService programmingMessagingService;
 
@@ -51,6 +50,8 @@ public class LocalCIBuildJobManagementService {
 
     private final LocalCIDockerService localCIDockerService;
 
+    private final LocalCISharedBuildJobQueueService localCISharedBuildJobQueueService;
+
     @Value("${artemis.continuous-integration.timeout-seconds:120}")
     private int timeoutSeconds;
 
@@ -60,19 +61,22 @@ public class LocalCIBuildJobManagementService {
     @Value("${artemis.continuous-integration.build.images.java.default}")
     private String dockerImage;
 
-    public LocalCIBuildJobManagementService(LocalCIBuildJobExecutionService localCIBuildJobExecutionService, ExecutorService localCIBuildExecutorService,
+    public LocalCIBuildJobManagementService(LocalCIBuildJobExecutionService localCIBuildJobExecutionService, LocalCIPriorityBuildExecutor localCIBuildExecutorService,
             ProgrammingMessagingService programmingMessagingService, LocalCIBuildPlanService localCIBuildPlanService, LocalCIContainerService localCIContainerService,
-            LocalCIDockerService localCIDockerService) {
+            LocalCIDockerService localCIDockerService, LocalCISharedBuildJobQueueService localCISharedBuildJobQueueService) {
         this.localCIBuildJobExecutionService = localCIBuildJobExecutionService;
         this.localCIBuildExecutorService = localCIBuildExecutorService;
         this.programmingMessagingService = programmingMessagingService;
         this.localCIBuildPlanService = localCIBuildPlanService;
         this.localCIContainerService = localCIContainerService;
         this.localCIDockerService = localCIDockerService;
+        this.localCISharedBuildJobQueueService = localCISharedBuildJobQueueService;
     }
 
     /**
-     * Submit a build job for a given participation to the executor service.
+     * Submit a build job for a given participation to the executor service, or to the queue shared between all Artemis instances if
+     * "artemis.continuous-integration.distributed-build-queue" is enabled.
+     * A build job of the same participation that is still waiting in the queue is superseded by the new build job.
      *
      * @param participation The participation of the repository for which the build job should be executed.
      * @param commitHash    The commit hash of the submission that led to this build. If it is "null", the latest commit of the repository will be used.
@@ -85,6 +89,48 @@ public class LocalCIBuildJobManagementService {
             throw new LocalCIException("Project type must be Gradle.");
         }
 
+        if (localCISharedBuildJobQueueService.isEnabled()) {
+            return addBuildJobToSharedQueue(participation, commitHash);
+        }
+        return runBuildJobOnThisInstance(participation, commitHash);
+    }
+
+    /**
+     * Add a build job to the queue shared between all Artemis instances. One of the build agents will execute it (see {@link LocalCIBuildAgentService}).
+     *
+     * @param participation The participation of the repository for which the build job should be executed.
+     * @param commitHash    The commit hash of the submission that led to this build. If it is "null", the latest commit of the repository will be used.
+     * @return A future that will be completed with the build result once a build agent finished the build job.
+     */
+    private CompletableFuture<LocalCIBuildResult> addBuildJobToSharedQueue(ProgrammingExerciseParticipation participation, String commitHash) {
+        LocalCIBuildJobPriority priority = LocalCIBuildJobPriority.of(participation);
+        long courseId = participation.getProgrammingExercise().getCourseViaExerciseGroupOrCourseMember().getId();
+
+        CompletableFuture<LocalCIBuildResult> futureResult;
+        try {
+            futureResult = localCISharedBuildJobQueueService.addBuildJob(participation.getId(), commitHash, priority, courseId);
+        }
+        catch (RejectedExecutionException e) {
+            // RejectedExecutionException is thrown if the queue size limit (defined in "artemis.continuous-integration.queue-size-limit") is reached.
+            finishBuildJobExceptionally(participation, commitHash, null, e);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        // Update the build plan status to "QUEUED".
+        localCIBuildPlanService.updateBuildPlanStatus(participation, ContinuousIntegrationService.BuildStatus.QUEUED);
+
+        return futureResult;
+    }
+
+    /**
+     * Submit a build job for a given participation to the executor service of this Artemis instance.
+     * This is also used by the {@link LocalCIBuildAgentService} to execute build jobs taken from the shared queue.
+     *
+     * @param participation The participation of the repository for which the build job should be executed.
+     * @param commitHash    The commit hash of the submission that led to this build. If it is "null", the latest commit of the repository will be used.
+     * @return A future that will be completed with the build result.
+     */
+    public CompletableFuture<LocalCIBuildResult> runBuildJobOnThisInstance(ProgrammingExerciseParticipation participation, String commitHash) {
         // Check if the Docker image is available. It should be available, because it is pulled during the creation of the programming exercise.
         localCIDockerService.pullDockerImage(dockerImage);
 
@@ -97,6 +143,9 @@ public class LocalCIBuildJobManagementService {
         // Wrap the buildJob Callable in a BuildJobTimeoutCallable, so that the build job is cancelled if it takes too long.
         BuildJobTimeoutCallable<LocalCIBuildResult> timedBuildJob = new BuildJobTimeoutCallable<>(buildJob, timeoutSeconds);
 
+        LocalCIBuildJobPriority priority = LocalCIBuildJobPriority.of(participation);
+        long courseId = participation.getProgrammingExercise().getCourseViaExerciseGroupOrCourseMember().getId();
+
         /*
          * Submit the build job to the executor service. This runs in a separate thread, so it does not block the main thread.
          * createCompletableFuture() is only used to provide a way to run build jobs synchronously for testing and debugging purposes and depends on the
@@ -105,9 +154,15 @@ public class LocalCIBuildJobManagementService {
          */
         CompletableFuture<LocalCIBuildResult> futureResult = createCompletableFuture(() -> {
             try {
-                return localCIBuildExecutorService.submit(timedBuildJob).get();
+                return localCIBuildExecutorService.submitBuildJob(timedBuildJob, priority, courseId, participation.getId()).get();
             }
-            catch (RejectedExecutionException | CancellationException | ExecutionException | InterruptedException e) {
+            catch (CancellationException e) {
+                // The build job was superseded by a newer build job of the same participation before it started. The newer build job takes care of the build plan status and
+                // notifies the user about its result, so there is nothing to clean up here.
+                log.info("Build job for commit {} in repository {} was superseded by a newer build job", commitHash, participation.getRepositoryUrl());
+                throw new CompletionException(e);
+            }
+            catch (RejectedExecutionException | ExecutionException | InterruptedException e) {
                 // RejectedExecutionException is thrown if the queue size limit (defined in "artemis.continuous-integration.queue-size-limit") is reached.
                 finishBuildJobExceptionally(participation, commitHash, containerName, e);
                 // Wrap the exception in a CompletionException so that the future is completed exceptionally and the thenAccept block is not run.
@@ -152,7 +207,7 @@ public class LocalCIBuildJobManagementService {
      * Finish the build job if an exception occurred while building and testing the repository.
      *
      * @param participation The participation of the repository for which the build job was executed.
-     * @param containerName The name of the Docker container that was used to execute the build job.
+     * @param containerName The name of the Docker container that was used to execute the build job, or null if no container was created.
      * @param exception     The exception that occurred while building and testing the repository.
      */
     private void finishBuildJobExceptionally(ProgrammingExerciseParticipation participation, String commitHash, String containerName, Exception exception) {
@@ -167,7 +222,9 @@ public class LocalCIBuildJobManagementService {
         // SolutionProgrammingExerciseParticipation, which all extend Participation.
         programmingMessagingService.notifyUserAboutSubmissionError((Participation) participation, error);
 
-        localCIContainerService.stopContainer(containerName);
+        if (containerName != null) {
+            localCIContainerService.stopContainer(containerName);
+        }
     }
 
     /**
@@ -207,7 +264,7 @@ public class LocalCIBuildJobManagementService {
             catch (ExecutionException | InterruptedException | TimeoutException e) {
                 // Cancel the future if it is not completed or cancelled yet.
                 future.cancel(true);
-                // This exception will resurface in the catch block of "localCIBuildExecutorService.submit(timedBuildJob).get()"
+                // This exception will resurface in the catch block of "localCIBuildExecutorService.submitBuildJob(...).get()"
                 // where the container is stopped and the user is notified.
                 throw e;
             }
@@ -0,0 +1,52 @@
+package de.tum.in.www1.artemis.service.connectors.localci;
+
+import de.tum.in.www1.artemis.domain.ProgrammingExercise;
+import de.tum.in.www1.artemis.domain.participation.Participation;
+import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseParticipation;
+import de.tum.in.www1.artemis.domain.participation.SolutionProgrammingExerciseParticipation;
+import de.tum.in.www1.artemis.domain.participation.TemplateProgrammingExerciseParticipation;
+
+/**
+ * The priority class of a local CI build job. Build jobs with a higher priority (i.e. a lower ordinal) are always taken from the queue before build jobs with a lower priority.
+ */
+public enum LocalCIBuildJobPriority {
+
+    /**
+     * Builds of the template and solution repositories and exam test runs. Instructors need this feedback to verify their exercise setup.
+     */
+    INSTRUCTOR,
+
+    /**
+     * Builds of student submissions in exam exercises.
+     */
+    EXAM,
+
+    /**
+     * Builds of graded student submissions in course exercises.
+     */
+    COURSE,
+
+    /**
+     * Builds of practice submissions after the due date of a course exercise.
+     */
+    PRACTICE;
+
+    /**
+     * Determines the priority class of a build job for the given participation.
+     *
+     * @param participation the participation of the repository that should be built.
+     * @return the priority class of the build job.
+     */
+    public static LocalCIBuildJobPriority of(ProgrammingExerciseParticipation participation) {
+        if (participation instanceof TemplateProgrammingExerciseParticipation || participation instanceof SolutionProgrammingExerciseParticipation) {
+            return INSTRUCTOR;
+        }
+        // This cast is safe as all remaining programming exercise participations are student participations, which extend Participation.
+        boolean isTestRun = ((Participation) participation).isTestRun();
+        ProgrammingExercise exercise = participation.getProgrammingExercise();
+        if (exercise.isExamExercise()) {
+            return isTestRun ? INSTRUCTOR : EXAM;
+        }
+        return isTestRun ? PRACTICE : COURSE;
+    }
+}
@@ -0,0 +1,172 @@
+package de.tum.in.www1.artemis.service.connectors.localci;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.github.dockerjava.api.exception.DockerException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.tum.in.www1.artemis.exception.LocalCIException;
+
+/**
+ * Keeps a pool of pre-created, paused Docker containers per Docker image, so that build jobs do not have to wait for a container to be created and started.
+ * Containers are never reused for a second build job, because the code of the previous submission could have modified them. Instead, a used container is removed as usual
+ * (see {@link LocalCIContainerService#stopContainer(String)}) and the pool is refilled in the background.
+ * The pool is disabled if "artemis.continuous-integration.container-pool-size" is 0.
+ */
+@Service
+@Profile("localci")
+public class LocalCIContainerPoolService {
+
+    private static final String POOLED_CONTAINER_NAME_PREFIX = "artemis-local-ci-pool-";
+
+    private final Logger log = LoggerFactory.getLogger(LocalCIContainerPoolService.class);
+
+    private final LocalCIContainerService localCIContainerService;
+
+    private final LocalCIDockerService localCIDockerService;
+
+    private final Map<String, BlockingQueue<String>> idleContainerIdsByImage = new ConcurrentHashMap<>();
+
+    private final ExecutorService poolRefillExecutor = Executors
+            .newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("local-ci-container-pool-%d").setDaemon(true).build());
+
+    @Value("${artemis.continuous-integration.container-pool-size:0}")
+    private int containerPoolSize;
+
+    @Value("${artemis.continuous-integration.build.images.java.default}")
+    private String dockerImage;
+
+    public LocalCIContainerPoolService(LocalCIContainerService localCIContainerService, LocalCIDockerService localCIDockerService) {
+        this.localCIContainerService = localCIContainerService;
+        this.localCIDockerService = localCIDockerService;
+    }
+
+    /**
+     * Removes idle containers left over from a previous run of the application and fills the pool for the default Docker image once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializePool() {
+        if (containerPoolSize <= 0) {
+            return;
+        }
+        poolRefillExecutor.execute(() -> {
+            try {
+                localCIContainerService.removeContainersWithNamePrefix(POOLED_CONTAINER_NAME_PREFIX);
+            }
+            catch (DockerException e) {
+                log.warn("Could not remove leftover idle local CI containers", e);
+            }
+        });
+        prepareImage(dockerImage);
+    }
+
+    /**
+     * Pulls the given Docker image in the background (if it is not available yet) and fills the pool of idle containers for it.
+     *
+     * @param image the Docker image that will be used for upcoming build jobs
+     */
+    public void prepareImage(String image) {
+        if (containerPoolSize <= 0) {
+            return;
+        }
+        poolRefillExecutor.execute(() -> {
+            try {
+                localCIDockerService.pullDockerImage(image);
+                refillPool(image);
+            }
+            catch (LocalCIException | DockerException e) {
+                log.warn("Could not prepare idle local CI containers for image {}", image, e);
+            }
+        });
+    }
+
+    /**
+     * Takes an idle container for the given image from the pool and prepares it to be used by a build job with the given container name.
+     * The pool is refilled in the background.
+     *
+     * @param image         the Docker image the build job needs
+     * @param containerName the name the container should have while it is used by the build job
+     * @return the id of the container, or an empty Optional if no idle container is available and a new container has to be created
+     */
+    public Optional<String> acquireContainer(String image, String containerName) {
+        if (containerPoolSize <= 0) {
+            return Optional.empty();
+        }
+        BlockingQueue<String> idleContainerIds = idleContainerIdsByImage.computeIfAbsent(image, key -> new LinkedBlockingQueue<>());
+        String containerId = idleContainerIds.poll();
+        scheduleRefill(image);
+        if (containerId == null) {
+            log.debug("No idle container available for image {}", image);
+            return Optional.empty();
+        }
+        try {
+            localCIContainerService.claimIdleContainer(containerId, containerName);
+            return Optional.of(containerId);
+        }
+        catch (DockerException e) {
+            // The idle container might have been removed in the meantime. Fall back to creating a new container.
+            log.warn("Could not claim idle container {} for build job {}", containerId, containerName, e);
+            removeContainerQuietly(containerId);
+            return Optional.empty();
+        }
+    }
+
+    private void scheduleRefill(String image) {
+        poolRefillExecutor.execute(() -> {
+            try {
+                refillPool(image);
+            }
+            catch (DockerException e) {
+                log.warn("Could not refill the pool of idle local CI containers for image {}", image, e);
+            }
+        });
+    }
+
+    private void refillPool(String image) {
+        BlockingQueue<String> idleContainerIds = idleContainerIdsByImage.computeIfAbsent(image, key -> new LinkedBlockingQueue<>());
+        while (idleContainerIds.size() < containerPoolSize) {
+            String containerId = localCIContainerService.createIdleContainer(image, POOLED_CONTAINER_NAME_PREFIX + UUID.randomUUID());
+            idleContainerIds.add(containerId);
+        }
+    }
+
+    /**
+     * Removes all idle containers when the application shuts down.
+     */
+    @PreDestroy
+    public void removeIdleContainers() {
+        poolRefillExecutor.shutdownNow();
+        idleContainerIdsByImage.values().forEach(idleContainerIds -> {
+            String containerId;
+            while ((containerId = idleContainerIds.poll()) != null) {
+                removeContainerQuietly(containerId);
+            }
+        });
+    }
+
+    private void removeContainerQuietly(String containerId) {
+        try {
+            localCIContainerService.removeContainer(containerId);
+        }
+        catch (DockerException e) {
+            log.warn("Could not remove idle container {}", containerId, e);
+        }
+    }
+}
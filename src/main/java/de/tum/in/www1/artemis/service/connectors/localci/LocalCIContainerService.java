@@ -1,14 +1,18 @@
 package de.tum.in.www1.artemis.service.connectors.localci;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
 
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
@@ -95,6 +99,119 @@ public class LocalCIContainerService {
                 .exec();
     }
 
+    /**
+     * Create and start a container from the given image that does not have any repositories or build script bound to it yet, and pause it right away.
+     * These containers are kept in the pool of the {@link LocalCIContainerPoolService} and receive the files needed for a build job via
+     * {@link #copyBuildFilesToContainer(String, Path, Path, Path[], String[], Path, String, String)} once they are used.
+     *
+     * @param image         the Docker image to create the container from
+     * @param containerName the name of the container to be created
+     * @return the id of the created container
+     */
+    public String createIdleContainer(String image, String containerName) {
+        String containerId = dockerClient.createContainerCmd(image).withName(containerName).withHostConfig(HostConfig.newHostConfig().withAutoRemove(true))
+                // Same main process as for containers created with configureContainer().
+                .withCmd("sh", "-c", "while [ ! -f /stop_container.txt ]; do sleep 0.5; done").exec().getId();
+        dockerClient.startContainerCmd(containerId).exec();
+        // Paused containers do not consume any CPU time while they are waiting in the pool.
+        dockerClient.pauseContainerCmd(containerId).exec();
+        return containerId;
+    }
+
+    /**
+     * Unpause an idle container taken from the pool and rename it, so that it can be stopped by its name like a container created with
+     * {@link #configureContainer(String, HostConfig, String, String)}.
+     *
+     * @param containerId   the id of the idle container
+     * @param containerName the new name of the container
+     */
+    public void claimIdleContainer(String containerId, String containerName) {
+        dockerClient.unpauseContainerCmd(containerId).exec();
+        dockerClient.renameContainerCmd(containerId).withName(containerName).exec();
+    }
+
+    /**
+     * Remove the container with the given id, regardless of its state.
+     *
+     * @param containerId the id of the container to be removed
+     */
+    public void removeContainer(String containerId) {
+        dockerClient.removeContainerCmd(containerId).withForce(true).exec();
+    }
+
+    /**
+     * Remove all containers whose name starts with the given prefix, e.g. idle containers that were left over from a previous run of the application.
+     *
+     * @param containerNamePrefix the prefix of the container names
+     */
+    public void removeContainersWithNamePrefix(String containerNamePrefix) {
+        List<Container> containers = dockerClient.listContainersCmd().withShowAll(true).exec();
+        containers.stream().filter(container -> container.getNames()[0].startsWith("/" + containerNamePrefix)).forEach(container -> removeContainer(container.getId()));
+    }
+
+    /**
+     * Copy the repositories and the build script into a running container, to the same locations they would be bound to by
+     * {@link #createVolumeConfig(Path, Path, Path[], String[], Path)}.
+     * As the environment of a running container cannot be changed anymore, the environment variables set in {@link #configureContainer(String, HostConfig, String, String)}
+     * are exported at the beginning of the copied build script instead.
+     *
+     * @param containerId                the id of the running container
+     * @param assignmentRepositoryPath   the path to the assignment repository in the file system
+     * @param testRepositoryPath         the path to the test repository in the file system
+     * @param auxiliaryRepositoriesPaths the paths to the auxiliary repositories in the file system
+     * @param auxiliaryRepositoryNames   the names of the auxiliary repositories
+     * @param buildScriptPath            the path to the build script in the file system
+     * @param branch                     the branch to checkout
+     * @param commitHash                 the commit hash to checkout. If it is null, the latest commit of the branch will be checked out.
+     */
+    public void copyBuildFilesToContainer(String containerId, Path assignmentRepositoryPath, Path testRepositoryPath, Path[] auxiliaryRepositoriesPaths,
+            String[] auxiliaryRepositoryNames, Path buildScriptPath, String branch, String commitHash) {
+        Path archivePath = null;
+        try {
+            archivePath = Files.createTempFile("local-ci-build-files-", ".tar");
+            try (TarArchiveOutputStream tarArchiveOutputStream = new TarArchiveOutputStream(Files.newOutputStream(archivePath))) {
+                tarArchiveOutputStream.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+                addDirectoryToArchive(tarArchiveOutputStream, assignmentRepositoryPath, LocalCIBuildJobExecutionService.LocalCIBuildJobRepositoryType.ASSIGNMENT + "-repository");
+                addDirectoryToArchive(tarArchiveOutputStream, testRepositoryPath, LocalCIBuildJobExecutionService.LocalCIBuildJobRepositoryType.TEST + "-repository");
+                for (int i = 0; i < auxiliaryRepositoriesPaths.length; i++) {
+                    addDirectoryToArchive(tarArchiveOutputStream, auxiliaryRepositoriesPaths[i], auxiliaryRepositoryNames[i] + "-repository");
+                }
+                String environment = "export ARTEMIS_BUILD_TOOL=gradle\nexport ARTEMIS_DEFAULT_BRANCH='" + branch + "'\nexport ARTEMIS_ASSIGNMENT_REPOSITORY_COMMIT_HASH='"
+                        + (commitHash != null ? commitHash : "") + "'\n";
+                byte[] buildScript = (environment + Files.readString(buildScriptPath)).getBytes(StandardCharsets.UTF_8);
+                TarArchiveEntry buildScriptEntry = new TarArchiveEntry("script.sh");
+                buildScriptEntry.setSize(buildScript.length);
+                tarArchiveOutputStream.putArchiveEntry(buildScriptEntry);
+                tarArchiveOutputStream.write(buildScript);
+                tarArchiveOutputStream.closeArchiveEntry();
+            }
+            try (InputStream archiveInputStream = Files.newInputStream(archivePath)) {
+                dockerClient.copyArchiveToContainerCmd(containerId).withRemotePath("/").withTarInputStream(archiveInputStream).exec();
+            }
+        }
+        catch (IOException e) {
+            throw new LocalCIException("Could not copy the build files to container " + containerId, e);
+        }
+        finally {
+            if (archivePath != null) {
+                FileUtils.deleteQuietly(archivePath.toFile());
+            }
+        }
+    }
+
+    private void addDirectoryToArchive(TarArchiveOutputStream tarArchiveOutputStream, Path directory, String targetDirectoryName) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.toList()) {
+                String entryName = targetDirectoryName + "/" + directory.relativize(path).toString().replace('\\', '/');
+                tarArchiveOutputStream.putArchiveEntry(new TarArchiveEntry(path.toFile(), entryName));
+                if (Files.isRegularFile(path)) {
+                    Files.copy(path, tarArchiveOutputStream);
+                }
+                tarArchiveOutputStream.closeArchiveEntry();
+            }
+        }
+    }
+
     /**
      * Start the container with the given ID.
      *
@@ -0,0 +1,169 @@
+package de.tum.in.www1.artemis.service.connectors.localci;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor that manages the queue of local CI build jobs.
+ * In contrast to a plain {@link ThreadPoolExecutor} with a FIFO queue, queued build jobs are ordered by
+ * <ol>
+ * <li>their {@link LocalCIBuildJobPriority}, so that e.g. template and solution builds are not starved by a wall of student pushes at the end of an exam,</li>
+ * <li>a virtual start time per course (start-time fair queueing), so that one course cannot occupy all build slots while builds of other courses are waiting,</li>
+ * <li>the order in which they were submitted.</li>
+ * </ol>
+ * Additionally, a build job that is still waiting in the queue is superseded (i.e. cancelled) when a newer build job for the same participation is submitted.
+ * This way, a student pushing many times in a row only occupies one slot in the queue.
+ */
+public class LocalCIPriorityBuildExecutor extends ThreadPoolExecutor {
+
+    private final int queueSizeLimit;
+
+    private final AtomicLong sequenceNumber = new AtomicLong();
+
+    /**
+     * Build jobs that are waiting in the queue, by participation id. Used to supersede queued build jobs of the same participation.
+     */
+    private final Map<Long, PrioritizedBuildJob<?>> queuedBuildJobsByParticipationId = new ConcurrentHashMap<>();
+
+    /**
+     * The virtual start time of the last build job submitted for each course. Guarded by "this".
+     */
+    private final Map<Long, Long> lastVirtualStartTimeByCourseId = new HashMap<>();
+
+    /**
+     * The virtual start time of the last build job that was taken from the queue. Guarded by "this".
+     */
+    private long virtualTime = 0;
+
+    /**
+     * Creates a new executor with a fixed number of threads and a bounded priority queue.
+     *
+     * @param threadPoolSize           the number of build jobs that are executed concurrently.
+     * @param queueSizeLimit           the maximum number of build jobs waiting in the queue. Build jobs submitted when the queue is full are rejected.
+     * @param threadFactory            the factory used to create the build threads.
+     * @param rejectedExecutionHandler the handler called when a build job cannot be executed, e.g. because the executor was shut down.
+     */
+    public LocalCIPriorityBuildExecutor(int threadPoolSize, int queueSizeLimit, ThreadFactory threadFactory, RejectedExecutionHandler rejectedExecutionHandler) {
+        super(threadPoolSize, threadPoolSize, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), threadFactory, rejectedExecutionHandler);
+        this.queueSizeLimit = queueSizeLimit;
+    }
+
+    /**
+     * Submits a build job to the queue.
+     * If a build job for the same participation is still waiting in the queue, it is cancelled and replaced by the new build job.
+     *
+     * @param buildJob        the build job to execute.
+     * @param priority        the priority class of the build job.
+     * @param courseId        the id of the course the build job belongs to. Used to share the build capacity fairly between courses.
+     * @param participationId the id of the participation the build job belongs to.
+     * @param <T>             the type of the build result.
+     * @return a future that is completed with the result of the build job, or cancelled if the build job is superseded by a newer one.
+     * @throws RejectedExecutionException if the queue size limit is reached.
+     */
+    public synchronized <T> Future<T> submitBuildJob(Callable<T> buildJob, LocalCIBuildJobPriority priority, long courseId, long participationId) {
+        PrioritizedBuildJob<?> queuedBuildJob = queuedBuildJobsByParticipationId.get(participationId);
+        // Only remove the build job if it did not start in the meantime.
+        if (queuedBuildJob != null && getQueue().remove(queuedBuildJob)) {
+            queuedBuildJob.cancel(false);
+        }
+        else if (getQueue().size() >= queueSizeLimit) {
+            throw new RejectedExecutionException("The local CI queue is full. Build job for participation " + participationId + " rejected from " + this);
+        }
+
+        PrioritizedBuildJob<T> prioritizedBuildJob = new PrioritizedBuildJob<>(buildJob, priority, nextVirtualStartTime(courseId), sequenceNumber.incrementAndGet(),
+                participationId);
+        queuedBuildJobsByParticipationId.put(participationId, prioritizedBuildJob);
+        try {
+            execute(prioritizedBuildJob);
+        }
+        catch (RejectedExecutionException e) {
+            queuedBuildJobsByParticipationId.remove(participationId, prioritizedBuildJob);
+            throw e;
+        }
+        return prioritizedBuildJob;
+    }
+
+    /**
+     * Ensures that tasks submitted through the regular {@link #submit(Callable)} methods can be ordered in the priority queue as well.
+     */
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        synchronized (this) {
+            return new PrioritizedBuildJob<>(callable, LocalCIBuildJobPriority.COURSE, virtualTime + 1, sequenceNumber.incrementAndGet(), null);
+        }
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return newTaskFor(() -> {
+            runnable.run();
+            return value;
+        });
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable runnable) {
+        super.beforeExecute(thread, runnable);
+        if (runnable instanceof PrioritizedBuildJob<?> prioritizedBuildJob) {
+            if (prioritizedBuildJob.participationId != null) {
+                queuedBuildJobsByParticipationId.remove(prioritizedBuildJob.participationId, prioritizedBuildJob);
+            }
+            synchronized (this) {
+                virtualTime = Math.max(virtualTime, prioritizedBuildJob.virtualStartTime);
+                // Courses that are not ahead of the virtual time do not need to be remembered anymore.
+                lastVirtualStartTimeByCourseId.values().removeIf(lastVirtualStartTime -> lastVirtualStartTime <= virtualTime);
+            }
+        }
+    }
+
+    private long nextVirtualStartTime(long courseId) {
+        long virtualStartTime = Math.max(virtualTime, lastVirtualStartTimeByCourseId.getOrDefault(courseId, 0L)) + 1;
+        lastVirtualStartTimeByCourseId.put(courseId, virtualStartTime);
+        return virtualStartTime;
+    }
+
+    /**
+     * A build job in the queue of the executor that can be ordered by priority, virtual start time and sequence number.
+     *
+     * @param <T> the type of the build result.
+     */
+    private static class PrioritizedBuildJob<T> extends FutureTask<T> implements Comparable<PrioritizedBuildJob<?>> {
+
+        private static final Comparator<PrioritizedBuildJob<?>> COMPARATOR = Comparator.<PrioritizedBuildJob<?>, LocalCIBuildJobPriority>comparing(job -> job.priority)
+                .thenComparingLong(job -> job.virtualStartTime).thenComparingLong(job -> job.sequenceNumber);
+
+        private final LocalCIBuildJobPriority priority;
+
+        private final long virtualStartTime;
+
+        private final long sequenceNumber;
+
+        private final Long participationId;
+
+        PrioritizedBuildJob(Callable<T> callable, LocalCIBuildJobPriority priority, long virtualStartTime, long sequenceNumber, Long participationId) {
+            super(callable);
+            this.priority = priority;
+            this.virtualStartTime = virtualStartTime;
+            this.sequenceNumber = sequenceNumber;
+            this.participationId = participationId;
+        }
+
+        @Override
+        public int compareTo(PrioritizedBuildJob<?> other) {
+            return COMPARATOR.compare(this, other);
+        }
+    }
+}
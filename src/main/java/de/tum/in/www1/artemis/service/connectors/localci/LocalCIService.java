@@ -43,15 +43,18 @@ public class LocalCIService extends AbstractContinuousIntegrationService {
 
     private final LocalCIDockerService localCIDockerService;
 
+    private final LocalCIContainerPoolService localCIContainerPoolService;
+
     @Value("${artemis.continuous-integration.build.images.java.default}")
     String dockerImage;
 
     public LocalCIService(ProgrammingSubmissionRepository programmingSubmissionRepository, FeedbackRepository feedbackRepository, BuildLogEntryService buildLogService,
             BuildLogStatisticsEntryRepository buildLogStatisticsEntryRepository, TestwiseCoverageService testwiseCoverageService, LocalCITriggerService localCITriggerService,
-            LocalCIDockerService localCIDockerService) {
+            LocalCIDockerService localCIDockerService, LocalCIContainerPoolService localCIContainerPoolService) {
         super(programmingSubmissionRepository, feedbackRepository, buildLogService, buildLogStatisticsEntryRepository, testwiseCoverageService);
         this.localCITriggerService = localCITriggerService;
         this.localCIDockerService = localCIDockerService;
+        this.localCIContainerPoolService = localCIContainerPoolService;
     }
 
     @Override
@@ -66,6 +69,9 @@ public class LocalCIService extends AbstractContinuousIntegrationService {
 
         localCIDockerService.pullDockerImage(dockerImage);
 
+        // Make sure idle containers are available for the first builds of the new exercise.
+        localCIContainerPoolService.prepareImage(dockerImage);
+
         // Trigger build for the given participation.
 
         if (TEMPLATE.getName().equals(planKey)) {
@@ -0,0 +1,333 @@
+package de.tum.in.www1.artemis.service.connectors.localci;
+
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_LOCAL_CI_BUILD_AGENTS;
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_LOCAL_CI_BUILD_JOB_QUEUE;
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_LOCAL_CI_BUILD_JOB_RESULTS;
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_LOCAL_CI_PROCESSING_BUILD_JOBS;
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_LOCAL_CI_QUEUED_BUILD_JOBS_BY_PARTICIPATION;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.hazelcast.collection.IQueue;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.transaction.TransactionContext;
+import com.hazelcast.transaction.TransactionalMap;
+import com.hazelcast.transaction.TransactionalQueue;
+
+import de.tum.in.www1.artemis.exception.LocalCIException;
+import de.tum.in.www1.artemis.service.connectors.localci.dto.LocalCIBuildAgentInformation;
+import de.tum.in.www1.artemis.service.connectors.localci.dto.LocalCIBuildJobQueueItem;
+import de.tum.in.www1.artemis.service.connectors.localci.dto.LocalCIBuildJobResultMessage;
+import de.tum.in.www1.artemis.service.connectors.localci.dto.LocalCIBuildQueueStatusDTO;
+import de.tum.in.www1.artemis.service.connectors.localci.dto.LocalCIBuildResult;
+
+/**
+ * Manages the build job queue that is shared between all Artemis instances via Hazelcast if "artemis.continuous-integration.distributed-build-queue" is enabled.
+ * Any instance can add build jobs to the queue, and all instances that act as build agents (see {@link LocalCIBuildAgentService}) take build jobs from it.
+ * Build agents store the results of the build jobs in a Hazelcast map. The instance that added a build job takes its result from the map and completes the future returned by
+ * {@link #addBuildJob}. If that instance is not part of the cluster anymore (e.g. because it was restarted), any other instance processes the result instead (see
+ * {@link #processBuildJobResults}), so that no result is lost.
+ * Build jobs of build agents that stop sending heartbeats are put back into the queue, so that another build agent can execute them.
+ */
+@Service
+@Profile("localci")
+public class LocalCISharedBuildJobQueueService {
+
+    /**
+     * The time after which a build agent that did not send a heartbeat is considered dead.
+     */
+    static final int BUILD_AGENT_HEARTBEAT_TIMEOUT_SECONDS = 30;
+
+    /**
+     * The time after which the result of a build job is removed if no instance processed it, e.g. because all instances were restarted in the meantime.
+     */
+    private static final int BUILD_JOB_RESULT_TIME_TO_LIVE_HOURS = 1;
+
+    private final Logger log = LoggerFactory.getLogger(LocalCISharedBuildJobQueueService.class);
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final IQueue<LocalCIBuildJobQueueItem> queue;
+
+    /**
+     * The build job of each participation that is waiting in the queue, by participation id. Used to supersede queued build jobs without iterating over the queue.
+     */
+    private final IMap<Long, LocalCIBuildJobQueueItem> queuedBuildJobsByParticipationId;
+
+    /**
+     * Build jobs that are currently executed by a build agent, by build job id.
+     */
+    private final IMap<String, LocalCIBuildJobQueueItem> processingBuildJobs;
+
+    /**
+     * Build agents that sent a heartbeat within the last {@link #BUILD_AGENT_HEARTBEAT_TIMEOUT_SECONDS} seconds, by build agent name.
+     */
+    private final IMap<String, LocalCIBuildAgentInformation> buildAgents;
+
+    /**
+     * Results of finished or superseded build jobs that were not processed yet, by build job id.
+     */
+    private final IMap<String, LocalCIBuildJobResultMessage> buildJobResults;
+
+    /**
+     * Futures of the build jobs that were added to the queue by this instance and are not finished yet, by build job id.
+     */
+    private final Map<String, CompletableFuture<LocalCIBuildResult>> pendingBuildJobs = new ConcurrentHashMap<>();
+
+    @Value("${artemis.continuous-integration.distributed-build-queue:false}")
+    private boolean distributedBuildQueue;
+
+    @Value("${artemis.continuous-integration.queue-size-limit:30}")
+    private int queueSizeLimit;
+
+    public LocalCISharedBuildJobQueueService(HazelcastInstance hazelcastInstance) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.queue = hazelcastInstance.getQueue(HAZELCAST_LOCAL_CI_BUILD_JOB_QUEUE);
+        this.queuedBuildJobsByParticipationId = hazelcastInstance.getMap(HAZELCAST_LOCAL_CI_QUEUED_BUILD_JOBS_BY_PARTICIPATION);
+        this.processingBuildJobs = hazelcastInstance.getMap(HAZELCAST_LOCAL_CI_PROCESSING_BUILD_JOBS);
+        this.buildAgents = hazelcastInstance.getMap(HAZELCAST_LOCAL_CI_BUILD_AGENTS);
+        this.buildJobResults = hazelcastInstance.getMap(HAZELCAST_LOCAL_CI_BUILD_JOB_RESULTS);
+        // Results of build jobs added by this instance are processed right away. The results are also polled in processBuildJobResults(), in case an event was missed.
+        this.buildJobResults.addEntryListener((EntryAddedListener<String, LocalCIBuildJobResultMessage>) event -> completePendingBuildJob(event.getKey()), false);
+    }
+
+    /**
+     * Configures Hazelcast for the shared build job queue before the HazelcastInstance is created.
+     *
+     * @param config the {@link Config} the queue-specific configuration should be added to
+     */
+    public static void configureHazelcast(Config config) {
+        // Build jobs are taken from the queue in the order of their priority class and then in the order they were added.
+        config.getQueueConfig(HAZELCAST_LOCAL_CI_BUILD_JOB_QUEUE).setPriorityComparatorClassName(LocalCIBuildJobQueueItem.PriorityComparator.class.getName());
+    }
+
+    /**
+     * @return whether build jobs are distributed between the Artemis instances via the shared queue.
+     */
+    public boolean isEnabled() {
+        return distributedBuildQueue;
+    }
+
+    /**
+     * Adds a build job to the shared queue. A build job of the same participation that is still waiting in the queue is superseded by the new build job.
+     *
+     * @param participationId the id of the participation whose repository should be built.
+     * @param commitHash      the commit hash that should be built. If it is null, the latest commit of the repository will be built.
+     * @param priority        the priority class of the build job.
+     * @param courseId        the id of the course the build job belongs to.
+     * @return a future that is completed with the build result once a build agent finished the build job.
+     * @throws RejectedExecutionException if the queue size limit is reached.
+     */
+    public CompletableFuture<LocalCIBuildResult> addBuildJob(long participationId, String commitHash, LocalCIBuildJobPriority priority, long courseId) {
+        String localMemberId = hazelcastInstance.getCluster().getLocalMember().getUuid().toString();
+        var buildJob = new LocalCIBuildJobQueueItem(UUID.randomUUID().toString(), participationId, commitHash, priority, courseId, System.currentTimeMillis(), localMemberId,
+                null, 0);
+        LocalCIBuildJobQueueItem queuedBuildJob = queuedBuildJobsByParticipationId.get(participationId);
+        // Only supersede the build job if no build agent took it in the meantime.
+        if (queuedBuildJob != null && queue.remove(queuedBuildJob)) {
+            storeBuildJobResult(new LocalCIBuildJobResultMessage(queuedBuildJob, null, null, true));
+        }
+        else if (queue.size() >= queueSizeLimit) {
+            throw new RejectedExecutionException("The shared local CI queue is full. Build job for participation " + participationId + " rejected.");
+        }
+
+        CompletableFuture<LocalCIBuildResult> futureResult = new CompletableFuture<>();
+        pendingBuildJobs.put(buildJob.id(), futureResult);
+        queuedBuildJobsByParticipationId.set(participationId, buildJob);
+        queue.add(buildJob);
+        return futureResult;
+    }
+
+    /**
+     * Takes the next build job from the queue and marks it as being executed by the given build agent.
+     * Both happen in one Hazelcast transaction, so that the build job is not lost if the build agent fails in between.
+     *
+     * @param buildAgentName the name of the build agent that executes the build job.
+     * @param timeoutSeconds the maximum number of seconds to wait for a build job.
+     * @return the build job, or an empty Optional if no build job was added within the timeout.
+     * @throws InterruptedException if the build agent was interrupted while waiting.
+     */
+    public Optional<LocalCIBuildJobQueueItem> takeNextBuildJob(String buildAgentName, long timeoutSeconds) throws InterruptedException {
+        TransactionContext transactionContext = hazelcastInstance.newTransactionContext();
+        transactionContext.beginTransaction();
+        try {
+            TransactionalQueue<LocalCIBuildJobQueueItem> transactionalQueue = transactionContext.getQueue(HAZELCAST_LOCAL_CI_BUILD_JOB_QUEUE);
+            LocalCIBuildJobQueueItem buildJob = transactionalQueue.poll(timeoutSeconds, TimeUnit.SECONDS);
+            if (buildJob == null) {
+                transactionContext.commitTransaction();
+                return Optional.empty();
+            }
+            LocalCIBuildJobQueueItem assignedBuildJob = buildJob.assignedTo(buildAgentName, System.currentTimeMillis());
+            TransactionalMap<String, LocalCIBuildJobQueueItem> transactionalProcessingBuildJobs = transactionContext.getMap(HAZELCAST_LOCAL_CI_PROCESSING_BUILD_JOBS);
+            transactionalProcessingBuildJobs.set(assignedBuildJob.id(), assignedBuildJob);
+            TransactionalMap<Long, LocalCIBuildJobQueueItem> transactionalQueuedBuildJobs = transactionContext.getMap(HAZELCAST_LOCAL_CI_QUEUED_BUILD_JOBS_BY_PARTICIPATION);
+            // A newer build job of the same participation might have been added in the meantime.
+            transactionalQueuedBuildJobs.remove(buildJob.participationId(), buildJob);
+            transactionContext.commitTransaction();
+            return Optional.of(assignedBuildJob);
+        }
+        catch (RuntimeException e) {
+            // The build job stays in the queue.
+            transactionContext.rollbackTransaction();
+            throw e;
+        }
+    }
+
+    /**
+     * Marks a build job as finished and stores its result, so that the instance that added it to the queue (or any other instance if that one is not available anymore) processes
+     * it.
+     * If the build job was reassigned to another build agent in the meantime (e.g. because the heartbeat of this build agent was missing), the result is discarded.
+     *
+     * @param buildJob     the finished build job as returned by {@link #takeNextBuildJob(String, long)}.
+     * @param buildResult  the result of the build job, or null if it failed.
+     * @param errorMessage the reason why the build job failed, or null if it did not fail.
+     */
+    public void finishBuildJob(LocalCIBuildJobQueueItem buildJob, LocalCIBuildResult buildResult, String errorMessage) {
+        if (!processingBuildJobs.remove(buildJob.id(), buildJob)) {
+            log.warn("Build job {} was reassigned to another build agent, discarding its result", buildJob.id());
+            return;
+        }
+        storeBuildJobResult(new LocalCIBuildJobResultMessage(buildJob, buildResult, errorMessage, false));
+    }
+
+    private void storeBuildJobResult(LocalCIBuildJobResultMessage resultMessage) {
+        buildJobResults.set(resultMessage.buildJob().id(), resultMessage, BUILD_JOB_RESULT_TIME_TO_LIVE_HOURS, TimeUnit.HOURS);
+    }
+
+    /**
+     * Processes the results of finished build jobs that were not processed yet. Results of build jobs that were added by this instance complete the futures returned by
+     * {@link #addBuildJob}. Results of build jobs that were added by an instance that is not part of the cluster anymore are passed to the given processor, because nobody waits
+     * for them anymore. Every result is processed by exactly one instance.
+     *
+     * @param orphanedResultProcessor processes the successful result of a build job whose instance is not available anymore, e.g. by storing it in the database.
+     */
+    public void processBuildJobResults(BiConsumer<LocalCIBuildJobQueueItem, LocalCIBuildResult> orphanedResultProcessor) {
+        Set<String> memberIds = hazelcastInstance.getCluster().getMembers().stream().map(member -> member.getUuid().toString()).collect(Collectors.toSet());
+        for (String buildJobId : buildJobResults.keySet()) {
+            if (pendingBuildJobs.containsKey(buildJobId)) {
+                completePendingBuildJob(buildJobId);
+                continue;
+            }
+            LocalCIBuildJobResultMessage resultMessage = buildJobResults.get(buildJobId);
+            if (resultMessage == null || memberIds.contains(resultMessage.buildJob().originMemberId())) {
+                // Already processed, or the instance that added the build job processes the result itself.
+                continue;
+            }
+            // Only one instance succeeds in removing the result, so it is only processed once.
+            resultMessage = buildJobResults.remove(buildJobId);
+            if (resultMessage == null || resultMessage.buildResult() == null) {
+                // Failed build jobs were already reported to the user by the build agent, and superseded build jobs do not have a result.
+                continue;
+            }
+            log.info("The instance that added build job {} for participation {} is not available anymore, processing its result on this instance", buildJobId,
+                    resultMessage.buildJob().participationId());
+            try {
+                orphanedResultProcessor.accept(resultMessage.buildJob(), resultMessage.buildResult());
+            }
+            catch (RuntimeException e) {
+                log.error("Could not process the result of build job {} for participation {}", buildJobId, resultMessage.buildJob().participationId(), e);
+            }
+        }
+    }
+
+    /**
+     * Publishes the heartbeat of a build agent. The build agent is considered dead if it does not send another heartbeat within
+     * {@link #BUILD_AGENT_HEARTBEAT_TIMEOUT_SECONDS} seconds.
+     *
+     * @param buildAgentInformation the current information about the build agent.
+     */
+    public void sendHeartbeat(LocalCIBuildAgentInformation buildAgentInformation) {
+        buildAgents.put(buildAgentInformation.name(), buildAgentInformation, BUILD_AGENT_HEARTBEAT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Removes a build agent, e.g. when its instance shuts down, and puts the build jobs it is executing back into the queue.
+     *
+     * @param buildAgentName the name of the build agent.
+     */
+    public void removeBuildAgent(String buildAgentName) {
+        buildAgents.delete(buildAgentName);
+        requeueBuildJobsOfDeadBuildAgents();
+    }
+
+    /**
+     * Puts the build jobs of build agents that did not send a heartbeat recently back into the queue, so that another build agent executes them.
+     */
+    public void requeueBuildJobsOfDeadBuildAgents() {
+        for (LocalCIBuildJobQueueItem buildJob : processingBuildJobs.values()) {
+            // Only one instance succeeds in removing the build job, so it is only put back into the queue once.
+            if (!buildAgents.containsKey(buildJob.buildAgentName()) && processingBuildJobs.remove(buildJob.id(), buildJob)) {
+                log.warn("Build agent {} is not available anymore, putting build job {} back into the queue", buildJob.buildAgentName(), buildJob.id());
+                var requeuedBuildJob = new LocalCIBuildJobQueueItem(buildJob.id(), buildJob.participationId(), buildJob.commitHash(), buildJob.priority(),
+                        buildJob.courseId(), buildJob.submissionDate(), buildJob.originMemberId(), null, 0);
+                // A newer build job of the same participation that was added in the meantime is not superseded by the older build job.
+                queuedBuildJobsByParticipationId.putIfAbsent(buildJob.participationId(), requeuedBuildJob);
+                queue.add(requeuedBuildJob);
+            }
+        }
+    }
+
+    /**
+     * @return the current state of the shared queue, the running build jobs and the build agents.
+     */
+    public LocalCIBuildQueueStatusDTO getStatus() {
+        List<LocalCIBuildJobQueueItem> queuedBuildJobs = new ArrayList<>(queue);
+        queuedBuildJobs.sort(new LocalCIBuildJobQueueItem.PriorityComparator());
+        List<LocalCIBuildJobQueueItem> runningBuildJobs = processingBuildJobs.values().stream().sorted(Comparator.comparingLong(LocalCIBuildJobQueueItem::buildStartDate))
+                .toList();
+        List<LocalCIBuildAgentInformation> agents = buildAgents.values().stream().sorted(Comparator.comparing(LocalCIBuildAgentInformation::name)).toList();
+        return new LocalCIBuildQueueStatusDTO(distributedBuildQueue, queuedBuildJobs, runningBuildJobs, agents);
+    }
+
+    /**
+     * Completes the future of a build job that was added by this instance, if its result is available.
+     *
+     * @param buildJobId the id of the build job.
+     */
+    private void completePendingBuildJob(String buildJobId) {
+        if (!pendingBuildJobs.containsKey(buildJobId)) {
+            // The build job was added to the queue by another instance.
+            return;
+        }
+        // Only the thread that removes the result completes the future, e.g. if the entry listener and processBuildJobResults() run at the same time.
+        LocalCIBuildJobResultMessage message = buildJobResults.remove(buildJobId);
+        if (message == null) {
+            return;
+        }
+        CompletableFuture<LocalCIBuildResult> futureResult = pendingBuildJobs.remove(buildJobId);
+        // Complete the future asynchronously, so that processing the result does not block the Hazelcast event thread.
+        CompletableFuture.runAsync(() -> {
+            if (message.superseded()) {
+                futureResult.completeExceptionally(new CancellationException("Build job " + buildJobId + " was superseded by a newer build job"));
+            }
+            else if (message.buildResult() != null) {
+                futureResult.complete(message.buildResult());
+            }
+            else {
+                futureResult.completeExceptionally(new LocalCIException(message.errorMessage()));
+            }
+        });
+    }
+}
@@ -56,18 +56,27 @@ public class LocalCITriggerService implements ContinuousIntegrationTriggerServic
      */
     public void triggerBuild(ProgrammingExerciseParticipation participation, String commitHash) {
         CompletableFuture<LocalCIBuildResult> futureResult = localCIBuildJobManagementService.addBuildJobToQueue(participation, commitHash);
-        futureResult.thenAccept(buildResult -> {
-            // The 'user' is not properly logged into Artemis, this leads to an issue when accessing custom repository methods.
-            // Therefore, a mock auth object has to be created.
-            SecurityUtils.setAuthorizationObject();
-            Result result = programmingExerciseGradingService.processNewProgrammingExerciseResult(participation, buildResult);
-            if (result != null) {
-                programmingMessagingService.notifyUserAboutNewResult(result, participation);
-            }
-            else {
-                programmingMessagingService.notifyUserAboutSubmissionError((Participation) participation,
-                        new BuildTriggerWebsocketError("Result could not be processed", participation.getId()));
-            }
-        });
+        futureResult.thenAccept(buildResult -> processBuildResult(participation, buildResult));
+    }
+
+    /**
+     * Processes the result of a build job and notifies the user about the new result.
+     * This is also used to process results from the shared build job queue whose instance that queued the build job is not available anymore.
+     *
+     * @param participation the participation of the repository that was built and tested.
+     * @param buildResult   the result of the build job.
+     */
+    public void processBuildResult(ProgrammingExerciseParticipation participation, LocalCIBuildResult buildResult) {
+        // The 'user' is not properly logged into Artemis, this leads to an issue when accessing custom repository methods.
+        // Therefore, a mock auth object has to be created.
+        SecurityUtils.setAuthorizationObject();
+        Result result = programmingExerciseGradingService.processNewProgrammingExerciseResult(participation, buildResult);
+        if (result != null) {
+            programmingMessagingService.notifyUserAboutNewResult(result, participation);
+        }
+        else {
+            programmingMessagingService.notifyUserAboutSubmissionError((Participation) participation,
+                    new BuildTriggerWebsocketError("Result could not be processed", participation.getId()));
+        }
     }
 }
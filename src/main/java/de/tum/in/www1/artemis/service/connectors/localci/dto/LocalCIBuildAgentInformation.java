@@ -0,0 +1,18 @@
+package de.tum.in.www1.artemis.service.connectors.localci.dto;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Information about an Artemis instance that executes build jobs from the shared build job queue. It is published with every heartbeat of the build agent.
+ *
+ * @param name                           the name of the build agent, i.e. the address of its Hazelcast member.
+ * @param maxNumberOfConcurrentBuildJobs the number of build jobs the build agent executes at the same time.
+ * @param numberOfCurrentBuildJobs       the number of build jobs the build agent is currently executing.
+ * @param lastHeartbeat                  the time (in milliseconds since the epoch) of the last heartbeat of the build agent.
+ */
+public record LocalCIBuildAgentInformation(String name, int maxNumberOfConcurrentBuildJobs, int numberOfCurrentBuildJobs, long lastHeartbeat) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+}
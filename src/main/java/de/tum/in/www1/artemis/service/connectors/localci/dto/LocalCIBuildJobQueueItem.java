@@ -0,0 +1,60 @@
+package de.tum.in.www1.artemis.service.connectors.localci.dto;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Comparator;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import de.tum.in.www1.artemis.service.connectors.localci.LocalCIBuildJobPriority;
+
+/**
+ * A build job in the build job queue that is shared between all Artemis instances via Hazelcast.
+ *
+ * @param id               the unique id of the build job.
+ * @param participationId  the id of the participation whose repository should be built.
+ * @param commitHash       the commit hash that should be built. If it is null, the latest commit of the repository will be built.
+ * @param priority         the priority class of the build job.
+ * @param courseId         the id of the course the build job belongs to.
+ * @param submissionDate   the time (in milliseconds since the epoch) at which the build job was added to the queue.
+ * @param originMemberId   the id of the Hazelcast member (i.e. the Artemis instance) that added the build job to the queue and processes its result.
+ * @param buildAgentName   the name of the build agent that executes the build job, or null if the build job is still waiting in the queue.
+ * @param buildStartDate   the time (in milliseconds since the epoch) at which the build agent started the build job, or 0 if the build job was not started yet.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record LocalCIBuildJobQueueItem(String id, long participationId, String commitHash, LocalCIBuildJobPriority priority, long courseId, long submissionDate,
+        String originMemberId, String buildAgentName, long buildStartDate) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a copy of this build job that is assigned to the given build agent.
+     *
+     * @param buildAgentName the name of the build agent.
+     * @param buildStartDate the time (in milliseconds since the epoch) at which the build agent started the build job.
+     * @return the assigned build job.
+     */
+    public LocalCIBuildJobQueueItem assignedTo(String buildAgentName, long buildStartDate) {
+        return new LocalCIBuildJobQueueItem(id, participationId, commitHash, priority, courseId, submissionDate, originMemberId, buildAgentName, buildStartDate);
+    }
+
+    /**
+     * Orders build jobs in the shared queue by their priority class and then by their submission date.
+     * Hazelcast instantiates this comparator by its class name, so it needs a public no-args constructor.
+     */
+    public static class PriorityComparator implements Comparator<LocalCIBuildJobQueueItem>, Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public int compare(LocalCIBuildJobQueueItem first, LocalCIBuildJobQueueItem second) {
+            int priorityComparison = first.priority().compareTo(second.priority());
+            if (priorityComparison != 0) {
+                return priorityComparison;
+            }
+            return Long.compare(first.submissionDate(), second.submissionDate());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package de.tum.in.www1.artemis.service.connectors.localci.dto;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Stored in a Hazelcast map by a build agent when it finished a build job from the shared build job queue, so that the instance that queued the build job can process the
+ * result. If that instance is not available anymore, any other instance processes the result instead.
+ *
+ * @param buildJob     the finished build job.
+ * @param buildResult  the result of the build job, or null if the build job failed or was superseded.
+ * @param errorMessage the reason why the build job failed, or null if it did not fail.
+ * @param superseded   whether the build job was removed from the queue because a newer build job for the same participation was queued.
+ */
+public record LocalCIBuildJobResultMessage(LocalCIBuildJobQueueItem buildJob, LocalCIBuildResult buildResult, String errorMessage, boolean superseded) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+}
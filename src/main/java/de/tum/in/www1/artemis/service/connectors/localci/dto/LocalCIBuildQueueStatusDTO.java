@@ -0,0 +1,18 @@
+package de.tum.in.www1.artemis.service.connectors.localci.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The current state of the build job queue that is shared between all Artemis instances.
+ *
+ * @param distributed      whether the build job queue is shared between the Artemis instances. If not, each instance only builds the jobs it queued itself.
+ * @param queuedBuildJobs  the build jobs waiting in the queue, ordered by the time they were queued.
+ * @param runningBuildJobs the build jobs currently executed by a build agent.
+ * @param buildAgents      the build agents that sent a heartbeat recently.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record LocalCIBuildQueueStatusDTO(boolean distributed, List<LocalCIBuildJobQueueItem> queuedBuildJobs, List<LocalCIBuildJobQueueItem> runningBuildJobs,
+        List<LocalCIBuildAgentInformation> buildAgents) {
+}
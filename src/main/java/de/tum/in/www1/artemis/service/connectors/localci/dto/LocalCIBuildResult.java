@@ -1,5 +1,7 @@
 package de.tum.in.www1.artemis.service.connectors.localci.dto;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.time.ZonedDateTime;
 import java.util.Collections;
 import java.util.List;
@@ -16,8 +18,12 @@ import de.tum.in.www1.artemis.service.dto.TestCaseDTOInterface;
 /**
  * Represents all the information returned by the local CI system about a build.
  * Note: due to limitations with inheritance, we cannot declare this as a record, but we can use it in a similar way with final fields.
+ * It is serializable so that build agents can send it to other Artemis instances via Hazelcast.
  */
-public class LocalCIBuildResult extends AbstractBuildResultNotificationDTO {
+public class LocalCIBuildResult extends AbstractBuildResultNotificationDTO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     private final String assignmentRepoBranchName;
 
@@ -125,7 +131,7 @@ public class LocalCIBuildResult extends AbstractBuildResultNotificationDTO {
      * @param failedTests     list of failed tests.
      * @param successfulTests list of successful tests.
      */
-    public record LocalCIJobDTO(List<LocalCITestJobDTO> failedTests, List<LocalCITestJobDTO> successfulTests) implements BuildJobDTOInterface {
+    public record LocalCIJobDTO(List<LocalCITestJobDTO> failedTests, List<LocalCITestJobDTO> successfulTests) implements BuildJobDTOInterface, Serializable {
 
         @Override
         public List<? extends TestCaseDTOInterface> getFailedTests() {
@@ -144,7 +150,7 @@ public class LocalCIBuildResult extends AbstractBuildResultNotificationDTO {
      * @param name   name of the test case.
      * @param errors list of error messages.
      */
-    public record LocalCITestJobDTO(String name, List<String> errors) implements TestCaseDTOInterface {
+    public record LocalCITestJobDTO(String name, List<String> errors) implements TestCaseDTOInterface, Serializable {
 
         @Override
         public String getName() {
@@ -0,0 +1,180 @@
+package de.tum.in.www1.artemis.service.connectors.localvc;
+
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_LOCALVC_AUTHORIZATION_INVALIDATION_TOPIC;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.hazelcast.core.HazelcastInstance;
+
+import de.tum.in.www1.artemis.domain.Course;
+import de.tum.in.www1.artemis.domain.ProgrammingExercise;
+import de.tum.in.www1.artemis.domain.Team;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseStudentParticipation;
+import de.tum.in.www1.artemis.service.listeners.CacheInvalidationTopic;
+import de.tum.in.www1.artemis.service.listeners.EntityCacheInvalidator;
+import de.tum.in.www1.artemis.service.listeners.EntityChange;
+
+/**
+ * Caches the logins of authenticated users and the successful read authorizations of git requests for a short time, because a single git command consists of
+ * multiple HTTP requests and many users clone at the same time, e.g. at the start of an exam. Only immutable data is cached, the entities that are needed for other
+ * checks are loaded by each request.
+ * <p>
+ * The cached data is invalidated on all instances after the transaction is committed, when users, courses, programming exercises, teams or programming exercise
+ * participations are deleted or changed. Changes of users only invalidate the cached data if a property that is used for the authentication or the authorization
+ * (see {@link #RELEVANT_USER_PROPERTIES}) is changed.
+ * Changes that are not made through Hibernate entities (e.g. modifying queries) are picked up when the cached data expires.
+ */
+@Service
+@Profile("localvc")
+public class LocalVCAuthorizationCacheService implements EntityCacheInvalidator {
+
+    private static final Set<String> RELEVANT_USER_PROPERTIES = Set.of("login", "password", "activated", "isDeleted", "groups", "authorities");
+
+    private final CacheInvalidationTopic<Invalidation> invalidations;
+
+    /**
+     * The logins of the authenticated users by the SHA-256 hash of the authorization header, so that the plain credentials are not kept in memory.
+     */
+    private final Cache<String, String> authenticatedLogins;
+
+    /**
+     * The successfully authorized read requests, so that they can be invalidated when the user, the exercise or a participation changes.
+     */
+    private final Cache<AuthorizedRequest, AuthorizedRead> authorizedReadRequests;
+
+    public LocalVCAuthorizationCacheService(HazelcastInstance hazelcastInstance,
+            @Value("${artemis.version-control.authorization-cache.time-to-live-seconds:60}") int timeToLiveSeconds) {
+        Duration timeToLive = Duration.ofSeconds(timeToLiveSeconds);
+        this.authenticatedLogins = CacheBuilder.newBuilder().maximumSize(10_000).expireAfterWrite(timeToLive).build();
+        this.authorizedReadRequests = CacheBuilder.newBuilder().maximumSize(10_000).expireAfterWrite(timeToLive).build();
+        this.invalidations = new CacheInvalidationTopic<>(hazelcastInstance, HAZELCAST_LOCALVC_AUTHORIZATION_INVALIDATION_TOPIC, this::invalidateLocally);
+    }
+
+    /**
+     * Get the login of the user that was authenticated with the given credentials
+     *
+     * @param credentialsHash the SHA-256 hash of the authorization header
+     * @return the login of the authenticated user, or an empty optional if the credentials were not authenticated recently
+     */
+    public Optional<String> getAuthenticatedLogin(String credentialsHash) {
+        return Optional.ofNullable(authenticatedLogins.getIfPresent(credentialsHash));
+    }
+
+    /**
+     * Caches the login of the user that was successfully authenticated with the given credentials
+     *
+     * @param credentialsHash the SHA-256 hash of the authorization header
+     * @param login           the login of the authenticated user
+     */
+    public void putAuthenticatedLogin(String credentialsHash, String login) {
+        authenticatedLogins.put(credentialsHash, login);
+    }
+
+    /**
+     * Checks if reading the repository was recently authorized for the given credentials
+     *
+     * @param credentialsHash the SHA-256 hash of the authorization header
+     * @param repositoryUrl   the URL of the repository
+     * @return true if the read request is authorized
+     */
+    public boolean isReadAuthorized(String credentialsHash, String repositoryUrl) {
+        return authorizedReadRequests.getIfPresent(new AuthorizedRequest(credentialsHash, repositoryUrl)) != null;
+    }
+
+    /**
+     * Caches the successful authorization of a read request
+     *
+     * @param credentialsHash the SHA-256 hash of the authorization header
+     * @param repositoryUrl   the URL of the repository
+     * @param login           the login of the authorized user
+     * @param exerciseId      the id of the exercise of the repository
+     */
+    public void putReadAuthorization(String credentialsHash, String repositoryUrl, String login, long exerciseId) {
+        authorizedReadRequests.put(new AuthorizedRequest(credentialsHash, repositoryUrl), new AuthorizedRead(login, exerciseId));
+    }
+
+    @Override
+    public Set<Class<?>> getEntityTypes() {
+        return Set.of(User.class, Course.class, ProgrammingExercise.class, ProgrammingExerciseStudentParticipation.class, Team.class);
+    }
+
+    @Override
+    public Set<EntityChange.Type> getChangeTypes() {
+        // new entities cannot invalidate cached authorizations
+        return Set.of(EntityChange.Type.UPDATE, EntityChange.Type.DELETE);
+    }
+
+    @Override
+    public Map<Class<?>, Set<String>> getRelevantProperties() {
+        return Map.of(User.class, RELEVANT_USER_PROPERTIES);
+    }
+
+    @Override
+    public Set<String> getRelevantCollectionRoles() {
+        return Set.of(User.class.getName() + ".groups", User.class.getName() + ".authorities", Team.class.getName() + ".students");
+    }
+
+    @Override
+    public void invalidate(EntityChange change) {
+        Object entity = change.entity();
+        if (entity instanceof User user) {
+            invalidations.publish(new Invalidation(InvalidationType.USER, user.getLogin()));
+            // the cached logins and authorizations are identified by login, so a changed login invalidates the entries of the old login
+            change.getPreviousValue("login").ifPresent(oldLogin -> invalidations.publish(new Invalidation(InvalidationType.USER, oldLogin)));
+        }
+        else if (entity instanceof Course) {
+            // e.g. the groups of the course changed, changes of courses are rare
+            invalidations.publish(new Invalidation(InvalidationType.ALL, null));
+        }
+        else if (entity instanceof ProgrammingExercise exercise) {
+            invalidations.publish(new Invalidation(InvalidationType.EXERCISE, exercise.getId()));
+        }
+        else if (entity instanceof ProgrammingExerciseStudentParticipation participation && participation.getExercise() != null) {
+            invalidations.publish(new Invalidation(InvalidationType.EXERCISE, participation.getExercise().getId()));
+        }
+        else if (entity instanceof Team team && team.getExercise() != null) {
+            invalidations.publish(new Invalidation(InvalidationType.EXERCISE, team.getExercise().getId()));
+        }
+    }
+
+    private void invalidateLocally(Invalidation invalidation) {
+        switch (invalidation.type()) {
+            case USER -> {
+                authenticatedLogins.asMap().values().removeIf(login -> login.equals(invalidation.key()));
+                authorizedReadRequests.asMap().values().removeIf(authorizedRead -> authorizedRead.login().equals(invalidation.key()));
+            }
+            case EXERCISE -> authorizedReadRequests.asMap().values().removeIf(authorizedRead -> invalidation.key().equals(authorizedRead.exerciseId()));
+            case ALL -> authorizedReadRequests.invalidateAll();
+        }
+    }
+
+    /**
+     * A request of a user (identified by the hash of their credentials) to access a repository.
+     */
+    private record AuthorizedRequest(String credentialsHash, String repositoryUrl) {
+    }
+
+    /**
+     * The user and the exercise of an authorized read request.
+     */
+    private record AuthorizedRead(String login, long exerciseId) {
+    }
+
+    private enum InvalidationType {
+        USER, EXERCISE, ALL
+    }
+
+    private record Invalidation(InvalidationType type, Object key) implements Serializable {
+    }
+}
@@ -2,8 +2,8 @@ package de.tum.in.www1.artemis.service.connectors.localvc;
 
 import java.io.IOException;
 import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -17,11 +17,13 @@ import org.apache.commons.io.FileUtils;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.RefUpdate;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -35,6 +37,7 @@ import de.tum.in.www1.artemis.domain.User;
 import de.tum.in.www1.artemis.domain.VcsRepositoryUrl;
 import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseParticipation;
 import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseStudentParticipation;
+import de.tum.in.www1.artemis.exception.VersionControlException;
 import de.tum.in.www1.artemis.exception.localvc.LocalVCInternalException;
 import de.tum.in.www1.artemis.repository.ProgrammingExerciseRepository;
 import de.tum.in.www1.artemis.repository.ProgrammingExerciseStudentParticipationRepository;
@@ -264,6 +267,129 @@ public class LocalVCService extends AbstractVersionControlService {
         }
     }
 
+    /**
+     * Copies the source repository by forking it directly on the file system. The objects of the source repository are hard linked into a new bare repository (or copied, if
+     * the file system does not support hard links) and the default branch is set to the latest commit of the source branch. Git objects are never modified once they are
+     * written, so both repositories can safely share the linked files.
+     * In contrast to {@link AbstractVersionControlService#copyRepository}, this neither checks out a working copy of the source repository nor pushes it to the target
+     * repository. If the repository cannot be forked, it is copied like in {@link AbstractVersionControlService#copyRepository}.
+     *
+     * @param sourceProjectKey     The key of the template project (normally based on the course and exercise short name)
+     * @param sourceRepositoryName The name of the repository which should be copied
+     * @param sourceBranch         The default branch of the source repository
+     * @param targetProjectKey     The key of the target project to which to copy the new repository to
+     * @param targetRepositoryName The desired name of the target repository
+     * @return The URL for cloning the repository
+     * @throws VersionControlException if the repository could not be copied on the VCS server (e.g. because the source repo does not exist)
+     */
+    @Override
+    public VcsRepositoryUrl copyRepository(String sourceProjectKey, String sourceRepositoryName, String sourceBranch, String targetProjectKey, String targetRepositoryName)
+            throws VersionControlException {
+        final String targetRepositorySlug = targetProjectKey.toLowerCase() + "-" + targetRepositoryName.toLowerCase();
+        final var sourceRepositoryUrl = new LocalVCRepositoryUrl(sourceProjectKey, sourceRepositoryName.toLowerCase(), localVCBaseUrl);
+        final var targetRepositoryUrl = new LocalVCRepositoryUrl(targetProjectKey, targetRepositorySlug, localVCBaseUrl);
+        final Path sourcePath = sourceRepositoryUrl.getLocalRepositoryPath(localVCBasePath);
+        final Path targetPath = targetRepositoryUrl.getLocalRepositoryPath(localVCBasePath);
+
+        // an existing repository is never replaced by a fork, so that it is not deleted if the fork fails
+        if (!Files.exists(targetPath)) {
+            try {
+                forkRepository(sourcePath, sourceBranch, targetProjectKey, targetRepositorySlug, targetPath);
+                log.debug("Forked local git repository {} to {}", sourcePath, targetPath);
+                return targetRepositoryUrl;
+            }
+            catch (IOException | LocalVCInternalException e) {
+                log.warn("Could not fork local git repository {} to {}, copying it instead", sourcePath, targetPath, e);
+                try {
+                    FileUtils.deleteDirectory(targetPath.toFile());
+                }
+                catch (IOException ioException) {
+                    throw new VersionControlException("Could not delete the partially forked repository " + targetPath, ioException);
+                }
+            }
+        }
+        return super.copyRepository(sourceProjectKey, sourceRepositoryName, sourceBranch, targetProjectKey, targetRepositoryName);
+    }
+
+    private void forkRepository(Path sourcePath, String sourceBranch, String targetProjectKey, String targetRepositorySlug, Path targetPath) throws IOException {
+        ObjectId commitId;
+        try (Repository sourceRepository = openRepository(sourcePath)) {
+            commitId = sourceRepository.resolve(Constants.R_HEADS + sourceBranch);
+            if (commitId == null) {
+                commitId = sourceRepository.resolve(Constants.HEAD);
+            }
+        }
+
+        createRepository(targetProjectKey, targetRepositorySlug);
+        // the commit was resolved before, so all objects reachable from it are already stored in the source repository when the objects are linked
+        linkObjects(sourcePath.resolve(Constants.OBJECTS), targetPath.resolve(Constants.OBJECTS));
+        if (commitId == null) {
+            // the source repository is empty
+            return;
+        }
+
+        try (Repository targetRepository = openRepository(targetPath)) {
+            if (!targetRepository.getObjectDatabase().has(commitId)) {
+                throw new LocalVCInternalException("The commit " + commitId.getName() + " is missing in the forked repository " + targetPath);
+            }
+            RefUpdate refUpdate = targetRepository.updateRef(Constants.R_HEADS + defaultBranch);
+            refUpdate.setNewObjectId(commitId);
+            RefUpdate.Result result = refUpdate.update();
+            if (result != RefUpdate.Result.NEW && result != RefUpdate.Result.NO_CHANGE) {
+                throw new LocalVCInternalException("Could not set the branch " + defaultBranch + " of the forked repository " + targetPath + ": " + result);
+            }
+        }
+    }
+
+    private static Repository openRepository(Path repositoryPath) throws IOException {
+        return new FileRepositoryBuilder().setGitDir(repositoryPath.toFile()).setMustExist(true).build();
+    }
+
+    /**
+     * Hard links all files in the objects directory of the source repository into the objects directory of the target repository
+     *
+     * @param sourceObjectsPath the objects directory of the source repository
+     * @param targetObjectsPath the objects directory of the target repository
+     */
+    private static void linkObjects(Path sourceObjectsPath, Path targetObjectsPath) throws IOException {
+        Files.walkFileTree(sourceObjectsPath, new SimpleFileVisitor<>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+                Files.createDirectories(targetObjectsPath.resolve(sourceObjectsPath.relativize(directory)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                linkOrCopy(file, targetObjectsPath.resolve(sourceObjectsPath.relativize(file)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exception) throws IOException {
+                // temporary files of a concurrent push can disappear, they are not needed for the fork
+                if (exception instanceof NoSuchFileException) {
+                    return FileVisitResult.CONTINUE;
+                }
+                throw exception;
+            }
+        });
+    }
+
+    private static void linkOrCopy(Path source, Path target) throws IOException {
+        try {
+            Files.createLink(target, source);
+        }
+        catch (FileAlreadyExistsException | NoSuchFileException e) {
+            // the names of git objects and packs are derived from their content, so an existing file has the same content, and vanished files are temporary files
+        }
+        catch (UnsupportedOperationException | FileSystemException e) {
+            // e.g. the file system does not support hard links or the repositories are stored on different file systems
+            Files.copy(source, target);
+        }
+    }
+
     @Override
     public Boolean repositoryUrlIsValid(@Nullable VcsRepositoryUrl repositoryUrl) {
         if (repositoryUrl == null || repositoryUrl.getURI() == null) {
@@ -5,13 +5,15 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Base64;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 
+import javax.annotation.PreDestroy;
 import javax.servlet.http.HttpServletRequest;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.eclipse.jgit.errors.RepositoryNotFoundException;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
@@ -25,6 +27,10 @@ import org.springframework.security.config.annotation.authentication.builders.Au
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Service;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+
 import de.tum.in.www1.artemis.domain.ProgrammingExercise;
 import de.tum.in.www1.artemis.domain.User;
 import de.tum.in.www1.artemis.domain.enumeration.RepositoryType;
@@ -47,6 +53,8 @@ import de.tum.in.www1.artemis.web.rest.errors.AccessForbiddenException;
 import de.tum.in.www1.artemis.web.rest.errors.AccessUnauthorizedException;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
 import de.tum.in.www1.artemis.web.rest.repository.RepositoryActionType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 
 /**
  * This service is responsible for authenticating and authorizing git requests as well as for retrieving the requested Git repositories from disk.
@@ -74,6 +82,8 @@ public class LocalVCServletService {
 
     private final AuxiliaryRepositoryService auxiliaryRepositoryService;
 
+    private final LocalVCAuthorizationCacheService authorizationCacheService;
+
     @Value("${artemis.version-control.url}")
     private URL localVCBaseUrl;
 
@@ -87,12 +97,15 @@ public class LocalVCServletService {
 
     // Cache the retrieved repositories for quicker access.
     // The resolveRepository method is called multiple times per request.
-    private final Map<String, Repository> repositories = new HashMap<>();
+    // The cache holds one reference (see Repository#incrementOpen()) to each repository, which is released when the repository is evicted.
+    private final Cache<String, CachedRepository> repositories;
 
     public LocalVCServletService(AuthenticationManagerBuilder authenticationManagerBuilder, UserRepository userRepository,
             ProgrammingExerciseRepository programmingExerciseRepository, RepositoryAccessService repositoryAccessService, AuthorizationCheckService authorizationCheckService,
             Optional<LocalCIConnectorService> localCIConnectorService, ProgrammingExerciseParticipationService programmingExerciseParticipationService,
-            AuxiliaryRepositoryService auxiliaryRepositoryService) {
+            AuxiliaryRepositoryService auxiliaryRepositoryService, LocalVCAuthorizationCacheService authorizationCacheService, MeterRegistry meterRegistry,
+            @Value("${artemis.version-control.repository-cache.max-size:1000}") int repositoryCacheMaxSize,
+            @Value("${artemis.version-control.repository-cache.idle-timeout-minutes:10}") int repositoryCacheIdleTimeoutMinutes) {
         this.authenticationManagerBuilder = authenticationManagerBuilder;
         this.userRepository = userRepository;
         this.programmingExerciseRepository = programmingExerciseRepository;
@@ -101,6 +114,10 @@ public class LocalVCServletService {
         this.localCIConnectorService = localCIConnectorService;
         this.programmingExerciseParticipationService = programmingExerciseParticipationService;
         this.auxiliaryRepositoryService = auxiliaryRepositoryService;
+        this.authorizationCacheService = authorizationCacheService;
+        this.repositories = CacheBuilder.newBuilder().maximumSize(repositoryCacheMaxSize).expireAfterAccess(Duration.ofMinutes(repositoryCacheIdleTimeoutMinutes)).recordStats()
+                .removalListener(this::closeRemovedRepository).build();
+        GuavaCacheMetrics.monitor(meterRegistry, repositories, "artemis.localvc.repositories");
     }
 
     /**
@@ -119,27 +136,43 @@ public class LocalVCServletService {
             throw new RepositoryNotFoundException(repositoryPath);
         }
 
-        if (repositories.containsKey(repositoryPath)) {
-            log.debug("Retrieving cached local repository {}", repositoryPath);
-            Repository repository = repositories.get(repositoryPath);
-            repository.incrementOpen();
-            return repository;
-        }
-        else {
-            log.debug("Opening local repository {}", repositoryPath);
-            try (Repository repository = FileRepositoryBuilder.create(repositoryDir.toFile())) {
-                // Enable pushing without credentials, authentication is handled by the LocalVCPushFilter.
-                repository.getConfig().setBoolean("http", null, "receivepack", true);
-
-                this.repositories.put(repositoryPath, repository);
-                repository.incrementOpen();
-                return repository;
-            }
-            catch (IOException e) {
-                log.error("Unable to open local repository {}", repositoryPath);
-                throw new RepositoryNotFoundException(repositoryPath, e);
+        try {
+            while (true) {
+                CachedRepository cachedRepository = repositories.get(repositoryPath, () -> new CachedRepository(openRepository(repositoryPath, repositoryDir)));
+                // The reference acquired here is released by the caller (e.g. the JGit servlet) when it is done with the repository.
+                // Should the repository be evicted in the meantime, it stays usable and is only closed when the last reference is released.
+                Optional<Repository> repository = cachedRepository.acquire();
+                if (repository.isPresent()) {
+                    return repository.get();
+                }
+                // The repository was evicted and closed between retrieving and acquiring it, so it is opened again.
             }
         }
+        catch (ExecutionException e) {
+            log.error("Unable to open local repository {}", repositoryPath);
+            throw new RepositoryNotFoundException(repositoryPath, e.getCause());
+        }
+    }
+
+    private Repository openRepository(String repositoryPath, Path repositoryDir) throws IOException {
+        log.debug("Opening local repository {}", repositoryPath);
+        Repository repository = FileRepositoryBuilder.create(repositoryDir.toFile());
+        // Enable pushing without credentials, authentication is handled by the LocalVCPushFilter.
+        repository.getConfig().setBoolean("http", null, "receivepack", true);
+        return repository;
+    }
+
+    private void closeRemovedRepository(RemovalNotification<String, CachedRepository> notification) {
+        log.debug("Closing cached local repository {} ({})", notification.getKey(), notification.getCause());
+        notification.getValue().release();
+    }
+
+    /**
+     * Closes all cached repositories when the application shuts down.
+     */
+    @PreDestroy
+    public void closeRepositories() {
+        repositories.invalidateAll();
     }
 
     /**
@@ -156,7 +189,8 @@ public class LocalVCServletService {
 
         long timeNanoStart = System.nanoTime();
 
-        User user = authenticateUser(servletRequest.getHeader(LocalVCServletService.AUTHORIZATION_HEADER));
+        String authorizationHeader = servletRequest.getHeader(LocalVCServletService.AUTHORIZATION_HEADER);
+        String login = authenticateUser(authorizationHeader);
 
         // Optimization.
         // For each git command (i.e. 'git fetch' or 'git push'), the git client sends three requests.
@@ -173,29 +207,62 @@ public class LocalVCServletService {
         String projectKey = localVCRepositoryUrl.getProjectKey();
         String repositoryTypeOrUserName = localVCRepositoryUrl.getRepositoryTypeOrUserName();
 
-        ProgrammingExercise exercise;
-
-        try {
-            exercise = programmingExerciseRepository.findOneByProjectKeyOrThrow(projectKey, true);
-        }
-        catch (EntityNotFoundException e) {
-            throw new LocalVCInternalException("Could not find single programming exercise with project key " + projectKey, e);
+        // A single git command consists of multiple HTTP requests, and many users clone at the same time e.g. at the start of an exam.
+        // Successful authorizations of read requests are therefore cached for a short time.
+        // Write requests are always checked against the current user and exercise, because they depend on due dates, locked repositories and recently changed groups.
+        String credentialsHash = DigestUtils.sha256Hex(authorizationHeader);
+        if (repositoryActionType == RepositoryActionType.READ && authorizationCacheService.isReadAuthorized(credentialsHash, localVCRepositoryUrl.toString())) {
+            log.debug("User {} is already authorized to read repository {}", login, localVCRepositoryUrl);
+            return;
         }
 
+        User user = userRepository.findOneWithGroupsAndAuthoritiesByLogin(login).orElseThrow(LocalVCAuthException::new);
+        ProgrammingExercise exercise = findExerciseByProjectKey(projectKey);
+
+        boolean isOnlyStudent = authorizationCheckService.isOnlyStudentInCourse(exercise.getCourseViaExerciseGroupOrCourseMember(), user);
+
         // Check that offline IDE usage is allowed.
-        if (Boolean.FALSE.equals(exercise.isAllowOfflineIde()) && authorizationCheckService.isOnlyStudentInCourse(exercise.getCourseViaExerciseGroupOrCourseMember(), user)) {
+        if (Boolean.FALSE.equals(exercise.isAllowOfflineIde()) && isOnlyStudent) {
             throw new LocalVCForbiddenException();
         }
 
         authorizeUser(repositoryTypeOrUserName, user, exercise, repositoryActionType, localVCRepositoryUrl.isPracticeRepository());
 
+        // Whether students can read the repository of an exam exercise depends on the working time, so these requests are always checked.
+        if (repositoryActionType == RepositoryActionType.READ && (exercise.isCourseExercise() || !isOnlyStudent)) {
+            authorizationCacheService.putReadAuthorization(credentialsHash, localVCRepositoryUrl.toString(), user.getLogin(), exercise.getId());
+        }
+
         log.info("Authorizing user {} for repository {} took {}", user.getLogin(), localVCRepositoryUrl, TimeLogUtil.formatDurationFrom(timeNanoStart));
     }
 
-    private User authenticateUser(String authorizationHeader) throws LocalVCAuthException {
+    private ProgrammingExercise findExerciseByProjectKey(String projectKey) {
+        try {
+            return programmingExerciseRepository.findOneByProjectKeyOrThrow(projectKey, true);
+        }
+        catch (EntityNotFoundException e) {
+            throw new LocalVCInternalException("Could not find single programming exercise with project key " + projectKey, e);
+        }
+    }
+
+    /**
+     * Authenticates the user with the credentials of the authorization header. Successful authentications are cached for a short time, because checking the password
+     * is expensive and each git command consists of several requests.
+     *
+     * @param authorizationHeader the authorization header of the request
+     * @return the login of the authenticated user
+     * @throws LocalVCAuthException if the authentication fails
+     */
+    private String authenticateUser(String authorizationHeader) throws LocalVCAuthException {
 
         String basicAuthCredentials = checkAuthorizationHeader(authorizationHeader);
 
+        String credentialsHash = DigestUtils.sha256Hex(authorizationHeader);
+        Optional<String> authenticatedLogin = authorizationCacheService.getAuthenticatedLogin(credentialsHash);
+        if (authenticatedLogin.isPresent()) {
+            return authenticatedLogin.get();
+        }
+
         if (basicAuthCredentials.split(":").length != 2) {
             throw new LocalVCAuthException();
         }
@@ -215,7 +282,9 @@ public class LocalVCServletService {
         }
 
         // Check that the user exists.
-        return userRepository.findOneByLogin(username).orElseThrow(LocalVCAuthException::new);
+        User user = userRepository.findOneByLogin(username).orElseThrow(LocalVCAuthException::new);
+        authorizationCacheService.putAuthenticatedLogin(credentialsHash, user.getLogin());
+        return user.getLogin();
     }
 
     private String checkAuthorizationHeader(String authorizationHeader) throws LocalVCAuthException {
@@ -298,4 +367,40 @@ public class LocalVCServletService {
     public void processNewPush(String commitHash, Repository repository) {
         localCIConnectorService.orElseThrow().processNewPush(commitHash, repository);
     }
+
+    /**
+     * A repository in the cache. Acquiring and releasing the reference of the cache are synchronized, so that a repository cannot be closed between retrieving it from the
+     * cache and acquiring a reference to it.
+     */
+    private static class CachedRepository {
+
+        private final Repository repository;
+
+        private boolean released = false;
+
+        CachedRepository(Repository repository) {
+            this.repository = repository;
+        }
+
+        /**
+         * Acquires an additional reference to the repository, which has to be released by calling {@link Repository#close()}
+         *
+         * @return the repository, or an empty optional if the reference of the cache was already released
+         */
+        synchronized Optional<Repository> acquire() {
+            if (released) {
+                return Optional.empty();
+            }
+            repository.incrementOpen();
+            return Optional.of(repository);
+        }
+
+        /**
+         * Releases the reference of the cache, the repository is closed as soon as all acquired references are released as well
+         */
+        synchronized void release() {
+            released = true;
+            repository.close();
+        }
+    }
 }
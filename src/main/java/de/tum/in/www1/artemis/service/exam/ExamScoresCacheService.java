@@ -0,0 +1,122 @@
+package de.tum.in.www1.artemis.service.exam;
+
+import static de.tum.in.www1.artemis.config.Constants.*;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+
+import de.tum.in.www1.artemis.web.rest.dto.ExamScoresDTO;
+
+/**
+ * Caches the {@link ExamScoresDTO} of an exam in the Hazelcast cluster, so that the (expensive) score calculation only has to be repeated after something in the exam changed.
+ * <p>
+ * Every committed change of an entity that is relevant for the exam scores changes the generation of the exam (see
+ * {@link de.tum.in.www1.artemis.service.listeners.ExamScoresCacheListener}). Cached scores are only returned if they were calculated in the current generation, so scores
+ * that were calculated while the exam changed are never used. The generations and the registered exercises outlive the cached scores and expire afterwards.
+ */
+@Service
+public class ExamScoresCacheService {
+
+    private static final long TIME_TO_LIVE_HOURS = 1;
+
+    /**
+     * The generations and registered exercises have to outlive all scores that were cached with them, otherwise changes of an exam could not be detected anymore
+     */
+    private static final long GENERATION_TIME_TO_LIVE_HOURS = 2 * TIME_TO_LIVE_HOURS;
+
+    private final IMap<Long, CachedExamScores> examScores;
+
+    private final IMap<Long, Long> generations;
+
+    private final IMap<Long, Long> examIdByExerciseId;
+
+    public ExamScoresCacheService(HazelcastInstance hazelcastInstance) {
+        this.examScores = hazelcastInstance.getMap(HAZELCAST_EXAM_SCORES_CACHE);
+        this.generations = hazelcastInstance.getMap(HAZELCAST_EXAM_SCORES_GENERATIONS);
+        this.examIdByExerciseId = hazelcastInstance.getMap(HAZELCAST_EXAM_SCORES_EXAM_ID_BY_EXERCISE_ID);
+    }
+
+    /**
+     * Returns the current generation of the exam, which has to be retrieved before the data for the score calculation is loaded
+     *
+     * @param examId the id of the exam
+     * @return the current generation of the exam
+     */
+    public long getGeneration(long examId) {
+        return generations.getOrDefault(examId, 0L);
+    }
+
+    /**
+     * Returns the cached scores of the exam if they were calculated in the given generation
+     *
+     * @param examId     the id of the exam
+     * @param generation the current generation of the exam
+     * @return the cached scores or an empty optional if there are none or they are outdated
+     */
+    public Optional<ExamScoresDTO> getExamScores(long examId, long generation) {
+        CachedExamScores cachedExamScores = examScores.get(examId);
+        if (cachedExamScores == null || cachedExamScores.generation() != generation) {
+            return Optional.empty();
+        }
+        return Optional.of(cachedExamScores.examScores());
+    }
+
+    /**
+     * Registers the exercises of the exam so that changes of their results invalidate the cached scores of the exam.
+     * Has to be called before the data for the score calculation is loaded.
+     *
+     * @param examId      the id of the exam
+     * @param exerciseIds the ids of all exercises of the exam
+     */
+    public void registerExercises(long examId, Collection<Long> exerciseIds) {
+        for (Long exerciseId : exerciseIds) {
+            examIdByExerciseId.set(exerciseId, examId, GENERATION_TIME_TO_LIVE_HOURS, TimeUnit.HOURS);
+        }
+    }
+
+    /**
+     * Stores the scores of the exam. They are removed after one hour at the latest.
+     *
+     * @param examId     the id of the exam
+     * @param generation the generation of the exam that was retrieved before the data for the score calculation was loaded
+     * @param scores     the calculated scores
+     */
+    public void setExamScores(long examId, long generation, ExamScoresDTO scores) {
+        examScores.set(examId, new CachedExamScores(generation, scores), TIME_TO_LIVE_HOURS, TimeUnit.HOURS);
+    }
+
+    /**
+     * Invalidates the cached scores of the exam, including scores that are currently being calculated.
+     * Has to be called after the change was committed.
+     *
+     * @param examId the id of the exam
+     */
+    public void invalidateExamScores(long examId) {
+        // a random generation cannot match the generation of cached scores again after the previous generation expired
+        generations.set(examId, ThreadLocalRandom.current().nextLong(), GENERATION_TIME_TO_LIVE_HOURS, TimeUnit.HOURS);
+        examScores.delete(examId);
+    }
+
+    /**
+     * Invalidates the cached scores of the exam the exercise belongs to, if the scores of this exam have been calculated before
+     *
+     * @param exerciseId the id of an exam exercise
+     */
+    public void invalidateExamScoresOfExercise(long exerciseId) {
+        Long examId = examIdByExerciseId.get(exerciseId);
+        if (examId != null) {
+            invalidateExamScores(examId);
+        }
+    }
+
+    private record CachedExamScores(long generation, ExamScoresDTO examScores) implements Serializable {
+    }
+}
@@ -121,6 +121,8 @@ public class ExamService {
 
     private final CourseRepository courseRepository;
 
+    private final ExamScoresCacheService examScoresCacheService;
+
     private final ObjectMapper defaultObjectMapper;
 
     public ExamService(ExamRepository examRepository, StudentExamRepository studentExamRepository, ExamQuizService examQuizService,
@@ -130,7 +132,8 @@ public class ExamService {
             SubmissionRepository submissionRepository, CourseExamExportService courseExamExportService, GitService gitService, GroupNotificationService groupNotificationService,
             GradingScaleRepository gradingScaleRepository, PlagiarismCaseRepository plagiarismCaseRepository, AuthorizationCheckService authorizationCheckService,
             BonusService bonusService, ExerciseDeletionService exerciseDeletionService, SubmittedAnswerRepository submittedAnswerRepository,
-            AuditEventRepository auditEventRepository, CourseScoreCalculationService courseScoreCalculationService, CourseRepository courseRepository) {
+            AuditEventRepository auditEventRepository, CourseScoreCalculationService courseScoreCalculationService, CourseRepository courseRepository,
+            ExamScoresCacheService examScoresCacheService) {
         this.examRepository = examRepository;
         this.studentExamRepository = studentExamRepository;
         this.userRepository = userRepository;
@@ -156,6 +159,7 @@ public class ExamService {
         this.auditEventRepository = auditEventRepository;
         this.courseScoreCalculationService = courseScoreCalculationService;
         this.courseRepository = courseRepository;
+        this.examScoresCacheService = examScoresCacheService;
         this.defaultObjectMapper = new ObjectMapper();
     }
 
@@ -190,17 +194,29 @@ public class ExamService {
     /**
      * Puts students, result, exerciseGroups, bonus and related plagiarism verdicts together for ExamScoresDTO
      * Also calculates the scores of the related bonus source course or exam if present.
+     * The scores of exams without bonus are cached until an entity relevant for the scores changes, see {@link ExamScoresCacheService}.
      *
      * @param examId the id of the exam
      * @return return ExamScoresDTO with students, scores, exerciseGroups, bonus and related plagiarism verdicts for the exam
      */
     public ExamScoresDTO calculateExamScores(Long examId) {
+        // the generation has to be retrieved before any data is loaded, so that changes during the calculation are not hidden by the cache
+        long generation = examScoresCacheService.getGeneration(examId);
+        Optional<ExamScoresDTO> cachedExamScores = examScoresCacheService.getExamScores(examId, generation);
+        if (cachedExamScores.isPresent()) {
+            log.debug("Use cached scores for exam {}", examId);
+            return cachedExamScores.get();
+        }
+
         Exam exam = examRepository.findWithExerciseGroupsAndExercisesByIdOrElseThrow(examId);
+        examScoresCacheService.registerExercises(examId,
+                exam.getExerciseGroups().stream().flatMap(exerciseGroup -> exerciseGroup.getExercises().stream()).map(Exercise::getId).toList());
 
         List<StudentParticipation> studentParticipations = studentParticipationRepository.findByExamIdWithSubmissionRelevantResult(examId); // without test run participations
         log.info("Try to find quiz submitted answer counts");
         List<QuizSubmittedAnswerCount> submittedAnswerCounts = studentParticipationRepository.findSubmittedAnswerCountForQuizzesInExam(examId);
         log.info("Found {} quiz submitted answer counts", submittedAnswerCounts.size());
+        Set<Long> participationIdsWithSubmittedQuizAnswers = submittedAnswerCounts.stream().map(QuizSubmittedAnswerCount::participationId).collect(Collectors.toSet());
 
         // Counts how many participants each exercise has
         Map<Long, Long> exerciseIdToNumberParticipations = studentParticipations.stream()
@@ -243,16 +259,15 @@ public class ExamService {
         List<Long> studentIds = studentExams.stream().map(studentExam -> studentExam.getUser().getId()).toList();
         ExamBonusCalculator examBonusCalculator = createExamBonusCalculator(gradingScale, studentIds);
 
-        var studentResults = new ArrayList<ExamScoresDTO.StudentResult>();
+        // Group the participations by student once instead of filtering all participations for every student
+        Map<Long, List<StudentParticipation>> studentIdToParticipations = studentParticipations.stream()
+                .collect(Collectors.groupingBy(studentParticipation -> studentParticipation.getStudent().orElseThrow().getId()));
 
-        for (StudentExam studentExam : studentExams) {
-            // Adding student results information to DTO
-            List<StudentParticipation> participationsOfStudent = studentParticipations.stream()
-                    .filter(studentParticipation -> studentParticipation.getStudent().orElseThrow().getId().equals(studentExam.getUser().getId())).toList();
-            var studentResult = calculateStudentResultWithGrade(studentExam, participationsOfStudent, exam, gradingScale, true, submittedAnswerCounts, plagiarismMapping,
-                    examBonusCalculator);
-            studentResults.add(studentResult);
-        }
+        // Adding student results information to DTO, the results of the students are independent of each other and can be calculated in parallel
+        List<ExamScoresDTO.StudentResult> studentResults = studentExams.parallelStream()
+                .map(studentExam -> calculateStudentResultWithGrade(studentExam, studentIdToParticipations.getOrDefault(studentExam.getUser().getId(), List.of()), exam,
+                        gradingScale, true, participationIdsWithSubmittedQuizAnswers, plagiarismMapping, examBonusCalculator))
+                .toList();
 
         // Updating exam information in DTO
         int numberOfStudentResults = studentResults.size();
@@ -266,7 +281,13 @@ public class ExamService {
         var hasSecondCorrectionAndStarted = exam.getNumberOfCorrectionRoundsInExam() > 1
                 && exam.getExerciseGroups().stream().flatMap(exerciseGroup -> exerciseGroup.getExercises().stream()).anyMatch(Exercise::getSecondCorrectionEnabled);
 
-        return new ExamScoresDTO(exam.getId(), exam.getTitle(), exam.getExamMaxPoints(), averagePointsAchieved, hasSecondCorrectionAndStarted, exerciseGroups, studentResults);
+        var examScores = new ExamScoresDTO(exam.getId(), exam.getTitle(), exam.getExamMaxPoints(), averagePointsAchieved, hasSecondCorrectionAndStarted, exerciseGroups,
+                studentResults);
+        // the bonus depends on the scores of another course or exam, which are not tracked by the cache
+        if (examBonusCalculator == null) {
+            examScoresCacheService.setExamScores(examId, generation, examScores);
+        }
+        return examScores;
     }
 
     /**
@@ -601,16 +622,17 @@ public class ExamService {
      * achieved per exercise by the relevant student if the given studentExam is assessed.
      * Calculates the corresponding grade if a GradingScale is given.
      *
-     * @param studentExam                    a StudentExam instance that will have its points and grades calculated if it is assessed
-     * @param participationsOfStudent        StudentParticipation list for the given studentExam
-     * @param exam                           the relevant exam
-     * @param gradingScale                   optional GradingScale that will be used to set the grade type and the achieved grade if present
-     * @param calculateFirstCorrectionPoints flag to determine whether to calculate the first correction results or not
+     * @param studentExam                              a StudentExam instance that will have its points and grades calculated if it is assessed
+     * @param participationsOfStudent                  StudentParticipation list for the given studentExam
+     * @param exam                                     the relevant exam
+     * @param gradingScale                             optional GradingScale that will be used to set the grade type and the achieved grade if present
+     * @param calculateFirstCorrectionPoints           flag to determine whether to calculate the first correction results or not
+     * @param participationIdsWithSubmittedQuizAnswers ids of the quiz participations with at least one submitted answer, or null to treat all quiz submissions as non-empty
      * @return exam result for a student who participated in the exam
      */
     private ExamScoresDTO.StudentResult calculateStudentResultWithGrade(StudentExam studentExam, List<StudentParticipation> participationsOfStudent, Exam exam,
-            Optional<GradingScale> gradingScale, boolean calculateFirstCorrectionPoints, List<QuizSubmittedAnswerCount> quizSubmittedAnswerCounts,
-            PlagiarismMapping plagiarismMapping, ExamBonusCalculator examBonusCalculator) {
+            Optional<GradingScale> gradingScale, boolean calculateFirstCorrectionPoints, Set<Long> participationIdsWithSubmittedQuizAnswers, PlagiarismMapping plagiarismMapping,
+            ExamBonusCalculator examBonusCalculator) {
         User user = studentExam.getUser();
 
         if (!Boolean.TRUE.equals(studentExam.isSubmitted())) {
@@ -668,8 +690,9 @@ public class ExamService {
                 // Check whether the student attempted to solve the exercise
                 boolean hasNonEmptySubmission = hasNonEmptySubmission(studentParticipation.getSubmissions(), exercise);
                 // special handling for quizzes to avoid performance issues
-                if (exercise instanceof QuizExercise && quizSubmittedAnswerCounts != null) {
-                    hasNonEmptySubmission = hasNonEmptySubmissionInQuiz(studentParticipation, quizSubmittedAnswerCounts);
+                if (exercise instanceof QuizExercise && participationIdsWithSubmittedQuizAnswers != null) {
+                    // If the participation is not contained in the set, the quiz submission is empty
+                    hasNonEmptySubmission = participationIdsWithSubmittedQuizAnswers.contains(studentParticipation.getId());
                 }
                 exerciseGroupIdToExerciseResult.put(exercise.getExerciseGroup().getId(), new ExamScoresDTO.ExerciseResult(exercise.getId(), exercise.getTitle(),
                         exercise.getMaxPoints(), relevantResult.getScore(), achievedPoints, hasNonEmptySubmission));
@@ -688,9 +711,9 @@ public class ExamService {
             overallScoreAchieved = (overallPointsAchieved / exam.getExamMaxPoints()) * 100.0;
             if (gradingScale.isPresent()) {
                 // Calculate current student grade
-                GradeStep studentGrade = gradingScaleRepository.matchPercentageToGradeStep(overallScoreAchieved, gradingScale.get().getId());
+                GradeStep studentGrade = gradingScaleRepository.matchPercentageToGradeStep(overallScoreAchieved, gradingScale.get());
                 var overallScoreAchievedInFirstCorrection = (overallPointsAchievedInFirstCorrection / exam.getExamMaxPoints()) * 100.0;
-                GradeStep studentGradeInFirstCorrection = gradingScaleRepository.matchPercentageToGradeStep(overallScoreAchievedInFirstCorrection, gradingScale.get().getId());
+                GradeStep studentGradeInFirstCorrection = gradingScaleRepository.matchPercentageToGradeStep(overallScoreAchievedInFirstCorrection, gradingScale.get());
                 overallGrade = studentGrade.getGradeName();
                 overallGradeInFirstCorrection = studentGradeInFirstCorrection.getGradeName();
                 hasPassed = studentGrade.getIsPassingGrade();
@@ -709,18 +732,6 @@ public class ExamService {
                 exerciseGroupIdToExerciseResult, mostSevereVerdict);
     }
 
-    private boolean hasNonEmptySubmissionInQuiz(StudentParticipation studentParticipation, List<QuizSubmittedAnswerCount> quizSubmittedAnswerCounts) {
-        // If an entry is NOT available, it means the quiz submission is empty, i.e.
-        // If the participation is not contained in the list, it is empty, i.e. hasNonEmptySubmission is true when the participation is contained
-
-        for (var quizSubmittedAnswerCount : quizSubmittedAnswerCounts) {
-            if (quizSubmittedAnswerCount.participationId() == studentParticipation.getId()) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     /**
      * First rounds max points for each exercise according to their {@link IncludedInOverallScore} value and sums them up.
      *
@@ -832,7 +843,7 @@ public class ExamService {
             }
         }
         else if (exercise instanceof QuizExercise) {
-            // NOTE: due to performance concerns, this is handled differently, search for quizSubmittedAnswerCounts to find out more
+            // NOTE: due to performance concerns, this is handled differently, search for participationIdsWithSubmittedQuizAnswers to find out more
             return true;
         }
         else {
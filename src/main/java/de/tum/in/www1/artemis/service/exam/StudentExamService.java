@@ -8,21 +8,26 @@ import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
 
 import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.enumeration.InitializationState;
 import de.tum.in.www1.artemis.domain.exam.Exam;
@@ -89,13 +94,18 @@ public class StudentExamService {
 
     private final TaskScheduler scheduler;
 
+    private final ExamScoresCacheService examScoresCacheService;
+
+    private final ExecutorService exerciseStartExecutor;
+
     public StudentExamService(StudentExamRepository studentExamRepository, UserRepository userRepository, ParticipationService participationService,
             QuizSubmissionRepository quizSubmissionRepository, SubmittedAnswerRepository submittedAnswerRepository, TextSubmissionRepository textSubmissionRepository,
             ModelingSubmissionRepository modelingSubmissionRepository, SubmissionVersionService submissionVersionService,
             ProgrammingExerciseParticipationService programmingExerciseParticipationService, SubmissionService submissionService,
             StudentParticipationRepository studentParticipationRepository, ExamQuizService examQuizService, ProgrammingExerciseRepository programmingExerciseRepository,
             ProgrammingTriggerService programmingTriggerService, ExamRepository examRepository, CacheManager cacheManager, WebsocketMessagingService websocketMessagingService,
-            @Qualifier("taskScheduler") TaskScheduler scheduler) {
+            @Qualifier("taskScheduler") TaskScheduler scheduler, ExamScoresCacheService examScoresCacheService,
+            @Value("${artemis.version-control.bulk-operations.exercise-start-concurrency:10}") int exerciseStartConcurrency) {
         this.participationService = participationService;
         this.studentExamRepository = studentExamRepository;
         this.userRepository = userRepository;
@@ -114,6 +124,15 @@ public class StudentExamService {
         this.cacheManager = cacheManager;
         this.websocketMessagingService = websocketMessagingService;
         this.scheduler = scheduler;
+        this.examScoresCacheService = examScoresCacheService;
+        // the threads are only created when the exercises of an exam are started
+        this.exerciseStartExecutor = Executors.newFixedThreadPool(exerciseStartConcurrency,
+                new ThreadFactoryBuilder().setNameFormat("exam-exercise-start-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        exerciseStartExecutor.shutdownNow();
     }
 
     /**
@@ -131,6 +150,8 @@ public class StudentExamService {
         // most important aspect here: set studentExam to submitted and set submission date
         // 3. DB Call: write
         submitStudentExam(studentExamFromClient);
+        // the modifying query bypasses the Hibernate listeners, so we have to invalidate the cached exam scores ourselves after it was committed
+        examScoresCacheService.invalidateExamScores(existingStudentExam.getExam().getId());
         log.debug("    Set student exam to submitted in {}", formatDurationFrom(start));
 
         start = System.nanoTime();
@@ -615,53 +636,70 @@ public class StudentExamService {
             // NOTE: the following code is performed in parallel threads, therefore we need to set the authorization here
             SecurityUtils.setAuthorizationObject();
             // NOTE: it's not ideal to invoke the next line several times (2000 student exams with 10 exercises would lead to 20.000 database calls to find all participations).
-            // One optimization could be that we load all participations per exercise once (or per exercise) into a large list (10 * 2000 = 20.000 participations) and then check if
-            // those participations exist in Java, however this might lead to memory issues and might be more difficult to program (and more difficult to understand)
-            // TODO: directly check in the database if the entry exists for the student, exercise and InitializationState.INITIALIZED
+            // Therefore, the exercises of a real exam are started in bulk instead (see startExercises)
             var studentParticipations = participationService.findByExerciseAndStudentId(exercise, student.getId());
             // we start the exercise if no participation was found that was already fully initialized
             if (studentParticipations.stream().noneMatch(studentParticipation -> studentParticipation.getParticipant().equals(student)
                     && studentParticipation.getInitializationState() != null && studentParticipation.getInitializationState().hasCompletedState(InitializationState.INITIALIZED))) {
-                try {
-                    // Load lazy property
-                    if (exercise instanceof ProgrammingExercise programmingExercise && !Hibernate.isInitialized(programmingExercise.getTemplateParticipation())) {
-                        final var programmingExerciseReloaded = programmingExerciseRepository.findByIdWithTemplateAndSolutionParticipationElseThrow(exercise.getId());
-                        programmingExercise.setTemplateParticipation(programmingExerciseReloaded.getTemplateParticipation());
-                    }
-                    // this will also create initial (empty) submissions for quiz, text, modeling and file upload
-                    // If the startedDate is provided, the InitializationDate is set to the startedDate
-                    StudentParticipation participation;
-                    if (startedDate != null) {
-                        participation = participationService.startExerciseWithInitializationDate(exercise, student, true, startedDate);
-                    }
-                    else {
-                        participation = participationService.startExercise(exercise, student, true);
-                    }
-                    generatedParticipations.add(participation);
-                    // Unlock repository and participation only if the real exam starts within 5 minutes or if we have a test exam or test run
-                    if (participation instanceof ProgrammingExerciseStudentParticipation programmingParticipation && exercise instanceof ProgrammingExercise programmingExercise) {
-                        if (studentExam.isTestRun() || studentExam.isTestExam()
-                                || ExamDateService.getExamProgrammingExerciseUnlockDate(programmingExercise).isBefore(ZonedDateTime.now())) {
-                            // Note: only unlock the programming exercise student repository for the affected user (Important: Do NOT invoke unlockAll)
-                            programmingExerciseParticipationService.unlockStudentRepositoryAndParticipation(programmingParticipation);
-                        }
-                        else {
-                            programmingExerciseParticipationService.lockStudentParticipation(programmingParticipation);
-                        }
-                    }
-                    log.info("SUCCESS: Start exercise for student exam {} and exercise {} and student {}", studentExam.getId(), exercise.getId(),
-                            student.getParticipantIdentifier());
+                startExercise(studentExam, exercise, startedDate).ifPresent(generatedParticipations::add);
+            }
+        }
+    }
+
+    /**
+     * Starts the exercise for the student of the student exam. The repository of a programming exercise is unlocked for test runs, test exams and if the exam starts within
+     * 5 minutes, otherwise it is locked.
+     *
+     * @param studentExam the student exam to which the exercise belongs
+     * @param exercise    the exercise to start
+     * @param startedDate the Date to which the InitializationDate should be set, or null if it should be set to the current time
+     * @return the started participation, or an empty optional if the exercise could not be started
+     */
+    private Optional<StudentParticipation> startExercise(StudentExam studentExam, Exercise exercise, @Nullable ZonedDateTime startedDate) {
+        User student = studentExam.getUser();
+        try {
+            // Load lazy property
+            if (exercise instanceof ProgrammingExercise programmingExercise && !Hibernate.isInitialized(programmingExercise.getTemplateParticipation())) {
+                final var programmingExerciseReloaded = programmingExerciseRepository.findByIdWithTemplateAndSolutionParticipationElseThrow(exercise.getId());
+                programmingExercise.setTemplateParticipation(programmingExerciseReloaded.getTemplateParticipation());
+            }
+            // this will also create initial (empty) submissions for quiz, text, modeling and file upload
+            // If the startedDate is provided, the InitializationDate is set to the startedDate
+            StudentParticipation participation;
+            if (startedDate != null) {
+                participation = participationService.startExerciseWithInitializationDate(exercise, student, true, startedDate);
+            }
+            else {
+                participation = participationService.startExercise(exercise, student, true);
+            }
+            // Unlock repository and participation only if the real exam starts within 5 minutes or if we have a test exam or test run
+            if (participation instanceof ProgrammingExerciseStudentParticipation programmingParticipation && exercise instanceof ProgrammingExercise programmingExercise) {
+                if (studentExam.isTestRun() || studentExam.isTestExam()
+                        || ExamDateService.getExamProgrammingExerciseUnlockDate(programmingExercise).isBefore(ZonedDateTime.now())) {
+                    // Note: only unlock the programming exercise student repository for the affected user (Important: Do NOT invoke unlockAll)
+                    programmingExerciseParticipationService.unlockStudentRepositoryAndParticipation(programmingParticipation);
                 }
-                catch (Exception ex) {
-                    log.warn("FAILED: Start exercise for student exam {} and exercise {} and student {} with exception: {}", studentExam.getId(), exercise.getId(),
-                            student.getParticipantIdentifier(), ex.getMessage(), ex);
+                else {
+                    programmingExerciseParticipationService.lockStudentParticipation(programmingParticipation);
                 }
             }
+            log.info("SUCCESS: Start exercise for student exam {} and exercise {} and student {}", studentExam.getId(), exercise.getId(), student.getParticipantIdentifier());
+            return Optional.of(participation);
+        }
+        catch (Exception ex) {
+            log.warn("FAILED: Start exercise for student exam {} and exercise {} and student {} with exception: {}", studentExam.getId(), exercise.getId(),
+                    student.getParticipantIdentifier(), ex.getMessage(), ex);
+            return Optional.empty();
         }
     }
 
     /**
-     * Starts all the exercises of all the student exams of an exam
+     * Starts all the exercises of all the student exams of an exam.
+     * <p>
+     * The participations and initial submissions of all students are created in bulk per exercise first. Afterwards, the repositories and build plans of the programming
+     * exercises are set up for each student exam in parallel, limited by the configured concurrency for the version control system. The participations store which setup
+     * steps were completed, so that invoking this method again after an interruption (e.g. because the node was restarted) only continues the missing steps.
+     * A student exam counts as failed if one of its exercises could not be started, the exercises of the other student exams are started nevertheless.
      *
      * @param examId exam to which the student exams belong
      * @return a future that will yield the number of generated participations
@@ -669,7 +707,6 @@ public class StudentExamService {
     public CompletableFuture<Integer> startExercises(Long examId) {
         var exam = examRepository.findWithStudentExamsExercisesById(examId).orElseThrow(() -> new EntityNotFoundException("Exam", examId));
         var studentExams = exam.getStudentExams();
-        List<StudentParticipation> generatedParticipations = Collections.synchronizedList(new ArrayList<>());
 
         var cache = cacheManager.getCache(EXAM_EXERCISE_START_STATUS);
         if (cache != null) {
@@ -678,30 +715,140 @@ public class StudentExamService {
 
         var finishedExamsCounter = new AtomicInteger(0);
         var failedExamsCounter = new AtomicInteger(0);
+        var generatedParticipations = new AtomicInteger(0);
         var startedAt = ZonedDateTime.now();
         var lock = new ReentrantLock();
         sendAndCacheExercisePreparationStatus(examId, 0, 0, studentExams.size(), 0, startedAt, lock);
 
-        var threadPool = Executors.newFixedThreadPool(10);
-        var futures = studentExams.stream()
-                .map(studentExam -> CompletableFuture.runAsync(() -> setUpExerciseParticipationsAndSubmissions(studentExam, generatedParticipations), threadPool)
-                        .thenRun(() -> sendAndCacheExercisePreparationStatus(examId, finishedExamsCounter.incrementAndGet(), failedExamsCounter.get(), studentExams.size(),
-                                generatedParticipations.size(), startedAt, lock))
-                        .exceptionally(throwable -> {
+        return CompletableFuture.supplyAsync(() -> startExercisesInBulk(studentExams), exerciseStartExecutor).thenCompose(bulkStart -> {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (StudentExam studentExam : studentExams) {
+                var participations = bulkStart.participationsByStudentId().getOrDefault(studentExam.getUser().getId(), List.of());
+                var programmingExerciseIds = participations.stream().filter(participation -> participation instanceof ProgrammingExerciseStudentParticipation)
+                        .map(participation -> participation.getExercise().getId()).collect(Collectors.toSet());
+                boolean startedInBulk = !bulkStart.failedStudentIds().contains(studentExam.getUser().getId());
+                // the other participations were already started completely
+                generatedParticipations.addAndGet(participations.size() - programmingExerciseIds.size());
+                if (programmingExerciseIds.isEmpty()) {
+                    if (startedInBulk) {
+                        finishedExamsCounter.incrementAndGet();
+                    }
+                    else {
+                        failedExamsCounter.incrementAndGet();
+                    }
+                    continue;
+                }
+                var future = CompletableFuture
+                        .supplyAsync(() -> setUpProgrammingExercises(studentExam, programmingExerciseIds, generatedParticipations) && startedInBulk, exerciseStartExecutor)
+                        .thenAccept(started -> {
+                            if (started) {
+                                finishedExamsCounter.incrementAndGet();
+                            }
+                            else {
+                                failedExamsCounter.incrementAndGet();
+                            }
+                            sendAndCacheExercisePreparationStatus(examId, finishedExamsCounter.get(), failedExamsCounter.get(), studentExams.size(), generatedParticipations.get(),
+                                    startedAt, lock);
+                        }).exceptionally(throwable -> {
                             log.error("Exception while preparing exercises for student exam {}", studentExam.getId(), throwable);
                             sendAndCacheExercisePreparationStatus(examId, finishedExamsCounter.get(), failedExamsCounter.incrementAndGet(), studentExams.size(),
-                                    generatedParticipations.size(), startedAt, lock);
+                                    generatedParticipations.get(), startedAt, lock);
                             return null;
-                        }))
-                .toArray(CompletableFuture[]::new);
-        return CompletableFuture.allOf(futures).thenApply((emtpy) -> {
-            threadPool.shutdown();
-            sendAndCacheExercisePreparationStatus(examId, finishedExamsCounter.get(), failedExamsCounter.get(), studentExams.size(), generatedParticipations.size(), startedAt,
+                        });
+                futures.add(future);
+            }
+            sendAndCacheExercisePreparationStatus(examId, finishedExamsCounter.get(), failedExamsCounter.get(), studentExams.size(), generatedParticipations.get(), startedAt,
                     lock);
-            return generatedParticipations.size();
+            return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+        }).handle((empty, throwable) -> {
+            if (throwable != null) {
+                log.error("Exception while preparing exercises for exam {}", examId, throwable);
+                failedExamsCounter.set(studentExams.size() - finishedExamsCounter.get());
+            }
+            sendAndCacheExercisePreparationStatus(examId, finishedExamsCounter.get(), failedExamsCounter.get(), studentExams.size(), generatedParticipations.get(), startedAt,
+                    lock);
+            return generatedParticipations.get();
         });
     }
 
+    /**
+     * The result of starting the exercises of student exams in bulk
+     *
+     * @param participationsByStudentId the created or initialized participations grouped by the id of the student, including the programming participations that still have to
+     *                                      be set up
+     * @param failedStudentIds          the ids of the students for whom at least one exercise could not be started
+     */
+    private record BulkExerciseStart(Map<Long, List<StudentParticipation>> participationsByStudentId, Set<Long> failedStudentIds) {
+    }
+
+    /**
+     * Creates the missing participations and initial submissions of all exercises of the given student exams in bulk.
+     * If an exercise cannot be started, only the student exams containing it are affected, the other exercises are started nevertheless.
+     *
+     * @param studentExams the student exams whose exercises should be started
+     * @return the started participations and the students for whom an exercise could not be started
+     */
+    private BulkExerciseStart startExercisesInBulk(Collection<StudentExam> studentExams) {
+        // NOTE: the following code is performed in another thread, therefore we need to set the authorization here
+        SecurityUtils.setAuthorizationObject();
+        long start = System.nanoTime();
+        Map<Long, Exercise> exercisesById = new HashMap<>();
+        Map<Long, Set<User>> studentsByExerciseId = new HashMap<>();
+        for (StudentExam studentExam : studentExams) {
+            if (studentExam.isTestRun()) {
+                // the participations of test runs are already set up when the test run is created
+                continue;
+            }
+            for (Exercise exercise : studentExam.getExercises()) {
+                exercisesById.putIfAbsent(exercise.getId(), exercise);
+                studentsByExerciseId.computeIfAbsent(exercise.getId(), id -> new LinkedHashSet<>()).add(studentExam.getUser());
+            }
+        }
+
+        Map<Long, List<StudentParticipation>> participationsByStudentId = new HashMap<>();
+        Set<Long> failedStudentIds = new HashSet<>();
+        studentsByExerciseId.forEach((exerciseId, students) -> {
+            try {
+                var participations = participationService.startExerciseInBulk(exercisesById.get(exerciseId), students);
+                for (StudentParticipation participation : participations) {
+                    participationsByStudentId.computeIfAbsent(participation.getStudent().orElseThrow().getId(), id -> new ArrayList<>()).add(participation);
+                }
+            }
+            catch (Exception ex) {
+                log.error("FAILED: Start exercise {} for {} students in bulk", exerciseId, students.size(), ex);
+                students.forEach(student -> failedStudentIds.add(student.getId()));
+            }
+        });
+        log.info("Created the participations of {} exercises for {} student exams in {}", exercisesById.size(), studentExams.size(), formatDurationFrom(start));
+        return new BulkExerciseStart(participationsByStudentId, failedStudentIds);
+    }
+
+    /**
+     * Sets up the repositories and build plans of the given programming exercises of the student exam, whose participations were already created
+     *
+     * @param studentExam             the student exam
+     * @param programmingExerciseIds  the ids of the programming exercises that should be set up
+     * @param generatedParticipations the number of participations that were started, which is incremented for every programming exercise that was set up
+     * @return true if all programming exercises were set up, false if at least one of them failed and has to be started again
+     */
+    private boolean setUpProgrammingExercises(StudentExam studentExam, Set<Long> programmingExerciseIds, AtomicInteger generatedParticipations) {
+        // NOTE: the following code is performed in parallel threads, therefore we need to set the authorization here
+        SecurityUtils.setAuthorizationObject();
+        boolean allStarted = true;
+        for (Exercise exercise : studentExam.getExercises()) {
+            if (!programmingExerciseIds.contains(exercise.getId())) {
+                continue;
+            }
+            if (startExercise(studentExam, exercise, null).isPresent()) {
+                generatedParticipations.incrementAndGet();
+            }
+            else {
+                allStarted = false;
+            }
+        }
+        return allStarted;
+    }
+
     private void sendAndCacheExercisePreparationStatus(Long examId, int finished, int failed, int overall, int participations, ZonedDateTime startTime, ReentrantLock lock) {
         // Synchronizing and comparing to avoid race conditions here
         // Otherwise it can happen that a status with less completed exams is sent after one with a higher value
@@ -726,7 +873,7 @@ public class StudentExamService {
             else {
                 log.warn("Unable to add exam exercise start status to distributed cache because it is null");
             }
-            websocketMessagingService.sendMessage(EXAM_EXERCISE_START_STATUS_TOPIC.formatted(examId), status);
+            websocketMessagingService.sendCoalescedMessage(EXAM_EXERCISE_START_STATUS_TOPIC.formatted(examId), status);
         }
         catch (Exception e) {
             log.warn("Failed to send exercise preparation status", e);
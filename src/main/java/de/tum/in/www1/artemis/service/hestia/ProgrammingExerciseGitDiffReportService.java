@@ -2,7 +2,6 @@ package de.tum.in.www1.artemis.service.hestia;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashSet;
@@ -20,7 +19,6 @@ import org.springframework.stereotype.Service;
 
 import de.tum.in.www1.artemis.domain.DomainObject;
 import de.tum.in.www1.artemis.domain.ProgrammingExercise;
-import de.tum.in.www1.artemis.domain.VcsRepositoryUrl;
 import de.tum.in.www1.artemis.domain.hestia.ProgrammingExerciseGitDiffEntry;
 import de.tum.in.www1.artemis.domain.hestia.ProgrammingExerciseGitDiffReport;
 import de.tum.in.www1.artemis.domain.participation.SolutionProgrammingExerciseParticipation;
@@ -160,33 +158,6 @@ public class ProgrammingExerciseGitDiffReportService {
         }
     }
 
-    /**
-     * Calculates git diff between two repositories and returns the cumulative number of diff lines.
-     *
-     * @param urlRepoA       url of the first repo to compare
-     * @param localPathRepoA local path to the checked out instance of the first repo to compare
-     * @param urlRepoB       url of the second repo to compare
-     * @param localPathRepoB local path to the checked out instance of the second repo to compare
-     * @return cumulative number of lines in the git diff of given repositories
-     */
-    public int calculateNumberOfDiffLinesBetweenRepos(VcsRepositoryUrl urlRepoA, Path localPathRepoA, VcsRepositoryUrl urlRepoB, Path localPathRepoB) {
-        var repoA = gitService.getExistingCheckedOutRepositoryByLocalPath(localPathRepoA, urlRepoA);
-        var repoB = gitService.getExistingCheckedOutRepositoryByLocalPath(localPathRepoB, urlRepoB);
-
-        var treeParserRepoA = new FileTreeIterator(repoA);
-        var treeParserRepoB = new FileTreeIterator(repoB);
-
-        try (var diffOutputStream = new ByteArrayOutputStream(); var git = Git.wrap(repoB)) {
-            git.diff().setOldTree(treeParserRepoB).setNewTree(treeParserRepoA).setOutputStream(diffOutputStream).call();
-            var diff = diffOutputStream.toString();
-            return extractDiffEntries(diff, true).stream().mapToInt(ProgrammingExerciseGitDiffEntry::getLineCount).sum();
-        }
-        catch (IOException | GitAPIException e) {
-            log.error("Error calculating number of diff lines between repositories: urlRepoA={}, urlRepoB={}.", urlRepoA, urlRepoB, e);
-            return Integer.MAX_VALUE;
-        }
-    }
-
     /**
      * Creates a new ProgrammingExerciseGitDiffReport for an exercise.
      * It will take the git-diff between the template and solution repositories and return all changes.
@@ -212,7 +183,7 @@ public class ProgrammingExerciseGitDiffReportService {
         try (ByteArrayOutputStream diffOutputStream = new ByteArrayOutputStream(); Git git = Git.wrap(templateRepo)) {
             git.diff().setOldTree(oldTreeParser).setNewTree(newTreeParser).setOutputStream(diffOutputStream).call();
             var diff = diffOutputStream.toString();
-            var programmingExerciseGitDiffEntries = extractDiffEntries(diff, false);
+            var programmingExerciseGitDiffEntries = extractDiffEntries(diff);
             var report = new ProgrammingExerciseGitDiffReport();
             for (ProgrammingExerciseGitDiffEntry gitDiffEntry : programmingExerciseGitDiffEntries) {
                 gitDiffEntry.setGitDiffReport(report);
@@ -228,7 +199,7 @@ public class ProgrammingExerciseGitDiffReportService {
      * @param diff The raw git-diff output
      * @return The extracted ProgrammingExerciseGitDiffEntries
      */
-    private List<ProgrammingExerciseGitDiffEntry> extractDiffEntries(String diff, boolean useAbsoluteLineCount) {
+    private List<ProgrammingExerciseGitDiffEntry> extractDiffEntries(String diff) {
         var lines = diff.split("\n");
         var parserState = new ParserState();
 
@@ -245,7 +216,7 @@ public class ProgrammingExerciseGitDiffReportService {
             else if (!parserState.deactivateCodeReading) {
                 switch (line.charAt(0)) {
                     case '+' -> handleAddition(parserState);
-                    case '-' -> handleRemoval(parserState, useAbsoluteLineCount);
+                    case '-' -> handleRemoval(parserState);
                     case ' ' -> handleUnchanged(parserState);
                     default -> parserState.deactivateCodeReading = true;
                 }
@@ -291,7 +262,7 @@ public class ProgrammingExerciseGitDiffReportService {
         parserState.currentPreviousLineCount++;
     }
 
-    private void handleRemoval(ParserState parserState, boolean useAbsoluteLineCount) {
+    private void handleRemoval(ParserState parserState) {
         var entry = parserState.currentEntry;
         if (!parserState.lastLineRemoveOperation && !entry.isEmpty()) {
             parserState.entries.add(entry);
@@ -303,16 +274,7 @@ public class ProgrammingExerciseGitDiffReportService {
             entry.setPreviousLineCount(0);
             entry.setPreviousStartLine(parserState.currentPreviousLineCount);
         }
-        if (useAbsoluteLineCount) {
-            if (parserState.currentEntry.getLineCount() == null) {
-                parserState.currentEntry.setLineCount(0);
-                parserState.currentEntry.setStartLine(parserState.currentLineCount);
-            }
-            parserState.currentEntry.setLineCount(parserState.currentEntry.getLineCount() + 1);
-        }
-        else {
-            entry.setPreviousLineCount(entry.getPreviousLineCount() + 1);
-        }
+        entry.setPreviousLineCount(entry.getPreviousLineCount() + 1);
 
         parserState.currentEntry = entry;
         parserState.lastLineRemoveOperation = true;
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 import de.tum.in.www1.artemis.domain.iris.IrisMessage;
 import de.tum.in.www1.artemis.domain.iris.IrisMessageContent;
 import de.tum.in.www1.artemis.domain.iris.IrisMessageSender;
+import de.tum.in.www1.artemis.domain.iris.session.IrisChatSession;
 import de.tum.in.www1.artemis.domain.iris.session.IrisSession;
 import de.tum.in.www1.artemis.repository.iris.IrisMessageContentRepository;
 import de.tum.in.www1.artemis.repository.iris.IrisMessageRepository;
@@ -29,15 +30,20 @@ public class IrisMessageService {
 
     private final IrisMessageContentRepository irisMessageContentRepository;
 
-    public IrisMessageService(IrisSessionRepository irisSessionRepository, IrisMessageRepository irisMessageRepository, IrisMessageContentRepository irisMessageContentRepository) {
+    private final IrisRateLimitService irisRateLimitService;
+
+    public IrisMessageService(IrisSessionRepository irisSessionRepository, IrisMessageRepository irisMessageRepository, IrisMessageContentRepository irisMessageContentRepository,
+            IrisRateLimitService irisRateLimitService) {
         this.irisSessionRepository = irisSessionRepository;
         this.irisMessageRepository = irisMessageRepository;
         this.irisMessageContentRepository = irisMessageContentRepository;
+        this.irisRateLimitService = irisRateLimitService;
     }
 
     /**
      * Saves a new message to the database. The message must have a session and a sender.
      * This method ensures that the message is saved in the session and the contents are saved.
+     * LLM responses in chat sessions are counted towards the rate limit of the user.
      *
      * @param message The message to save
      * @param session The session the message belongs to
@@ -71,6 +77,11 @@ public class IrisMessageService {
         message.getContent().addAll(contents);
         savedMessage = irisMessageRepository.save(message);
 
+        // Only the responses in chat sessions count towards the rate limit
+        if (sender == IrisMessageSender.LLM && sessionWithMessages instanceof IrisChatSession chatSession) {
+            irisRateLimitService.addLlmResponse(chatSession.getUser().getId(), savedMessage);
+        }
+
         return savedMessage;
     }
 }
@@ -1,17 +1,34 @@
 package de.tum.in.www1.artemis.service.iris;
 
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_IRIS_LLM_RESPONSE_TIMES;
+
+import java.io.Serializable;
 import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+
 import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.iris.IrisLlmResponseTime;
+import de.tum.in.www1.artemis.domain.iris.IrisMessage;
 import de.tum.in.www1.artemis.repository.iris.IrisMessageRepository;
 import de.tum.in.www1.artemis.service.iris.exception.IrisRateLimitExceededException;
 
 /**
  * Service for the rate limit of the iris chatbot.
+ * <p>
+ * The LLM responses of each user within the rate limit timeframe are kept in a distributed map, so that checking the rate limit does not have to count the messages in the
+ * database. The responses of a user are only loaded from the database when the rate limit of the user is checked for the first time (e.g. after a restart of the cluster).
  */
 @Service
 @Profile("iris")
@@ -19,14 +36,20 @@ public class IrisRateLimitService {
 
     private final IrisMessageRepository irisMessageRepository;
 
+    /**
+     * The send times of the LLM responses within the rate limit timeframe per user id
+     */
+    private final IMap<Long, LlmResponseTimes> llmResponseTimes;
+
     @Value("${artemis.iris.rate-limit:5}")
     private int rateLimit;
 
     @Value("${artemis.iris.rate-limit-timeframe-hours:24}")
     private int rateLimitTimeframeHours;
 
-    public IrisRateLimitService(IrisMessageRepository irisMessageRepository) {
+    public IrisRateLimitService(IrisMessageRepository irisMessageRepository, HazelcastInstance hazelcastInstance) {
         this.irisMessageRepository = irisMessageRepository;
+        this.llmResponseTimes = hazelcastInstance.getMap(HAZELCAST_IRIS_LLM_RESPONSE_TIMES);
     }
 
     /**
@@ -37,9 +60,11 @@ public class IrisRateLimitService {
      * @return the rate limit information
      */
     public IrisRateLimitInformation getRateLimitInformation(User user) {
-        var start = ZonedDateTime.now().minusHours(rateLimitTimeframeHours);
-        var end = ZonedDateTime.now();
-        var currentMessageCount = irisMessageRepository.countLlmResponsesOfUserWithinTimeframe(user.getId(), start, end);
+        var responseTimes = llmResponseTimes.get(user.getId());
+        if (responseTimes == null || !responseTimes.loaded()) {
+            responseTimes = loadLlmResponseTimes(user.getId());
+        }
+        var currentMessageCount = responseTimes.countSentSince(getTimeframeStart().toInstant().toEpochMilli());
 
         return new IrisRateLimitInformation(currentMessageCount, rateLimit);
     }
@@ -59,6 +84,74 @@ public class IrisRateLimitService {
         }
     }
 
+    /**
+     * Counts the given LLM response towards the rate limit of the given user.
+     * This has to be called for every LLM response in a chat session after it was saved.
+     *
+     * @param userId  the id of the user who got the response
+     * @param message the saved LLM response
+     */
+    public void addLlmResponse(long userId, IrisMessage message) {
+        long messageId = message.getId();
+        long sentAt = message.getSentAt().toInstant().toEpochMilli();
+        long timeframeStart = getTimeframeStart().toInstant().toEpochMilli();
+        // the entry processor is executed atomically on the member owning the key
+        llmResponseTimes.executeOnKey(userId, entry -> {
+            entry.setValue(LlmResponseTimes.merge(entry.getValue(), Map.of(messageId, sentAt), false, timeframeStart));
+            return null;
+        });
+        llmResponseTimes.setTtl(userId, rateLimitTimeframeHours, TimeUnit.HOURS);
+    }
+
+    /**
+     * Loads the LLM responses of the user within the rate limit timeframe from the database and merges them with the responses that were added in the meantime
+     *
+     * @param userId the id of the user
+     * @return the send times of the LLM responses of the user
+     */
+    private LlmResponseTimes loadLlmResponseTimes(long userId) {
+        var end = ZonedDateTime.now();
+        var start = end.minusHours(rateLimitTimeframeHours);
+        var loadedResponseTimes = irisMessageRepository.findLlmResponseTimesOfUserWithinTimeframe(userId, start, end).stream()
+                .collect(Collectors.toMap(IrisLlmResponseTime::messageId, response -> response.sentAt().toInstant().toEpochMilli(), (first, second) -> first, HashMap::new));
+        long timeframeStart = start.toInstant().toEpochMilli();
+        LlmResponseTimes responseTimes = llmResponseTimes.executeOnKey(userId, entry -> {
+            var mergedResponseTimes = LlmResponseTimes.merge(entry.getValue(), loadedResponseTimes, true, timeframeStart);
+            entry.setValue(mergedResponseTimes);
+            return mergedResponseTimes;
+        });
+        llmResponseTimes.setTtl(userId, rateLimitTimeframeHours, TimeUnit.HOURS);
+        return responseTimes;
+    }
+
+    private ZonedDateTime getTimeframeStart() {
+        return ZonedDateTime.now().minusHours(rateLimitTimeframeHours);
+    }
+
+    /**
+     * The LLM responses of a user within the rate limit timeframe.
+     *
+     * @param loaded            whether the responses were loaded from the database, otherwise only the responses since the entry was created are known
+     * @param sentAtByMessageId the send time (in epoch milliseconds) per message id
+     */
+    private record LlmResponseTimes(boolean loaded, Map<Long, Long> sentAtByMessageId) implements Serializable {
+
+        int countSentSince(long timeframeStart) {
+            return (int) sentAtByMessageId.values().stream().filter(sentAt -> sentAt >= timeframeStart).count();
+        }
+
+        /**
+         * Merges the given responses into the existing responses, responses that are outside the timeframe are removed.
+         * Merging the same response twice (e.g. if it was added while the responses were loaded from the database) does not count it twice.
+         */
+        static LlmResponseTimes merge(@Nullable LlmResponseTimes existing, Map<Long, Long> sentAtByMessageId, boolean loaded, long timeframeStart) {
+            Map<Long, Long> merged = existing == null ? new HashMap<>() : new HashMap<>(existing.sentAtByMessageId());
+            merged.putAll(sentAtByMessageId);
+            merged.values().removeIf(sentAt -> sentAt < timeframeStart);
+            return new LlmResponseTimes(loaded || (existing != null && existing.loaded()), merged);
+        }
+    }
+
     /**
      * Contains information about the rate limit of a user.
      *
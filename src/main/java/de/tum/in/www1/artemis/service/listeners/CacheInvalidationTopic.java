@@ -0,0 +1,52 @@
+package de.tum.in.www1.artemis.service.listeners;
+
+import java.io.Serializable;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+
+/**
+ * Invalidates data that is cached locally on each instance on all instances of the cluster: the data is invalidated synchronously on this instance, the other instances
+ * are notified asynchronously via a Hazelcast topic.
+ *
+ * @param <T> the type of the invalidation messages
+ */
+public class CacheInvalidationTopic<T extends Serializable> {
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationTopic.class);
+
+    private final ITopic<T> topic;
+
+    private final Consumer<T> localInvalidation;
+
+    /**
+     * @param hazelcastInstance the Hazelcast instance of the cluster
+     * @param topicName         the name of the Hazelcast topic, which has to be unique for each cache
+     * @param localInvalidation invalidates the locally cached data for an invalidation message
+     */
+    public CacheInvalidationTopic(HazelcastInstance hazelcastInstance, String topicName, Consumer<T> localInvalidation) {
+        this.localInvalidation = localInvalidation;
+        this.topic = hazelcastInstance.getTopic(topicName);
+        this.topic.addMessageListener(message -> localInvalidation.accept(message.getMessageObject()));
+    }
+
+    /**
+     * Invalidates the cached data on this instance and notifies the other instances
+     *
+     * @param invalidation the invalidation message
+     */
+    public void publish(T invalidation) {
+        localInvalidation.accept(invalidation);
+        try {
+            topic.publish(invalidation);
+        }
+        catch (Exception e) {
+            // the change itself was already made, so it must not fail because of the cache
+            log.warn("Could not publish the cache invalidation on topic {}: {}", topic.getName(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package de.tum.in.www1.artemis.service.listeners;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A cache whose entries are invalidated when entities are changed. The changes are passed to {@link #invalidate(EntityChange)} by the {@link PostCommitEntityListener}
+ * after the transaction is committed. Otherwise, a concurrent request could load the data of the uncommitted transaction and cache it again.
+ */
+public interface EntityCacheInvalidator {
+
+    /**
+     * @return the entity types (including their subtypes) whose changes invalidate cached entries
+     */
+    Set<Class<?>> getEntityTypes();
+
+    /**
+     * @return the types of changes that invalidate cached entries
+     */
+    default Set<EntityChange.Type> getChangeTypes() {
+        return EnumSet.allOf(EntityChange.Type.class);
+    }
+
+    /**
+     * The properties of the entity types that are used by the cached entries. Updates that only change other properties are ignored.
+     * All properties of entity types that are not contained are relevant.
+     *
+     * @return the names of the relevant properties by entity type
+     */
+    default Map<Class<?>, Set<String>> getRelevantProperties() {
+        return Map.of();
+    }
+
+    /**
+     * The collections that are used by the cached entries, identified by their Hibernate role (e.g. {@code de.tum.in.www1.artemis.domain.User.groups}).
+     * Changes of these collections are passed as updates of their owner.
+     *
+     * @return the roles of the relevant collections
+     */
+    default Set<String> getRelevantCollectionRoles() {
+        return Set.of();
+    }
+
+    /**
+     * Invalidates the cached entries that are affected by the committed change. Exceptions are logged, as the change itself must not fail because of the cache.
+     *
+     * @param change the committed change
+     */
+    void invalidate(EntityChange change);
+}
@@ -0,0 +1,28 @@
+package de.tum.in.www1.artemis.service.listeners;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A committed change of an entity, see {@link PostCommitEntityListener}.
+ *
+ * @param entity         the created, updated or deleted entity, or the owner of a changed collection
+ * @param type           the type of the change, changes of collections are updates of their owner
+ * @param previousValues the previous values of the changed properties of an updated entity by property name, empty for other changes
+ */
+public record EntityChange(Object entity, Type type, Map<String, Object> previousValues) {
+
+    public enum Type {
+        INSERT, UPDATE, DELETE
+    }
+
+    /**
+     * Get the value of the property before the entity was updated
+     *
+     * @param propertyName the name of the property
+     * @return the previous value or an empty optional if the property was not changed (or its previous value was null)
+     */
+    public Optional<Object> getPreviousValue(String propertyName) {
+        return Optional.ofNullable(previousValues.get(propertyName));
+    }
+}
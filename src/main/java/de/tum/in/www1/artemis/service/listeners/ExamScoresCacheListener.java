@@ -0,0 +1,164 @@
+package de.tum.in.www1.artemis.service.listeners;
+
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.PreDestroy;
+
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.tum.in.www1.artemis.domain.Bonus;
+import de.tum.in.www1.artemis.domain.Exercise;
+import de.tum.in.www1.artemis.domain.GradingScale;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.Submission;
+import de.tum.in.www1.artemis.domain.exam.Exam;
+import de.tum.in.www1.artemis.domain.exam.ExerciseGroup;
+import de.tum.in.www1.artemis.domain.exam.StudentExam;
+import de.tum.in.www1.artemis.domain.participation.Participation;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.plagiarism.PlagiarismCase;
+import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
+import de.tum.in.www1.artemis.service.exam.ExamScoresCacheService;
+
+/**
+ * Listener for changes of entities that are relevant for the scores of an exam to invalidate the cached {@link de.tum.in.www1.artemis.web.rest.dto.ExamScoresDTO}.
+ * <p>
+ * The scores are only invalidated after the transaction is committed (see {@link PostCommitEntityListener}). Otherwise, a concurrent calculation could retrieve the new
+ * generation of the exam, load the data before it is committed and cache outdated scores.
+ * <p>
+ * Results and submissions (which determine whether a student has a non-empty submission) are changed frequently and often only reference their participation.
+ * If the exercise of the participation is not loaded, the exam is looked up by the id of the participation asynchronously after the commit.
+ *
+ * @see ExamScoresCacheService
+ */
+@Component
+public class ExamScoresCacheListener implements EntityCacheInvalidator {
+
+    private final Logger log = LoggerFactory.getLogger(ExamScoresCacheListener.class);
+
+    private static final Set<Class<?>> RELEVANT_ENTITIES = Set.of(Result.class, Submission.class, Exercise.class, PlagiarismCase.class, StudentExam.class, ExerciseGroup.class,
+            GradingScale.class, Bonus.class, Exam.class);
+
+    private final ExamScoresCacheService examScoresCacheService;
+
+    private final StudentParticipationRepository studentParticipationRepository;
+
+    /**
+     * Looks up the exams of participations whose exercise is not loaded, so that the listener does not query the database during the commit
+     */
+    private final ExecutorService examLookupExecutor = Executors
+            .newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("exam-scores-invalidation-%d").setDaemon(true).build());
+
+    public ExamScoresCacheListener(ExamScoresCacheService examScoresCacheService, StudentParticipationRepository studentParticipationRepository) {
+        this.examScoresCacheService = examScoresCacheService;
+        this.studentParticipationRepository = studentParticipationRepository;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        examLookupExecutor.shutdownNow();
+    }
+
+    @Override
+    public Set<Class<?>> getEntityTypes() {
+        return RELEVANT_ENTITIES;
+    }
+
+    /**
+     * Invalidates the cached scores of the exam the changed entity belongs to. Associations that are not loaded are not initialized.
+     *
+     * @param change the committed change of an entity
+     */
+    @Override
+    public void invalidate(EntityChange change) {
+        Object entity = change.entity();
+        if (entity instanceof Result result) {
+            invalidateExamScoresOfParticipation(result.getParticipation());
+        }
+        else if (entity instanceof Submission submission) {
+            invalidateExamScoresOfParticipation(submission.getParticipation());
+        }
+        else if (entity instanceof Exercise exercise) {
+            invalidateExamScoresOfExercise(exercise);
+        }
+        else if (entity instanceof PlagiarismCase plagiarismCase) {
+            invalidateExamScoresOfExercise(plagiarismCase.getExercise());
+        }
+        else if (entity instanceof StudentExam studentExam) {
+            invalidateExamScores(studentExam.getExam());
+        }
+        else if (entity instanceof ExerciseGroup exerciseGroup) {
+            invalidateExamScores(exerciseGroup.getExam());
+        }
+        else if (entity instanceof GradingScale gradingScale) {
+            invalidateExamScores(gradingScale.getExam());
+        }
+        else if (entity instanceof Bonus bonus) {
+            if (bonus.getBonusToGradingScale() != null && Hibernate.isInitialized(bonus.getBonusToGradingScale())) {
+                invalidateExamScores(bonus.getBonusToGradingScale().getExam());
+            }
+        }
+        else if (entity instanceof Exam exam) {
+            invalidateExamScores(exam);
+        }
+    }
+
+    private void invalidateExamScoresOfParticipation(Participation participation) {
+        if (participation == null || participation.getId() == null) {
+            return;
+        }
+        if (!Hibernate.isInitialized(participation) || (participation instanceof StudentParticipation && participation.getExercise() == null)) {
+            // e.g. an uninitialized proxy or a participation that only references the id, whose id can be accessed without loading it
+            invalidateExamScoresOfParticipationAfterLoading(participation.getId());
+        }
+        else if (participation instanceof StudentParticipation) {
+            invalidateExamScoresOfExercise(participation.getExercise());
+        }
+        // template and solution participations do not affect any exam
+    }
+
+    private void invalidateExamScoresOfParticipationAfterLoading(long participationId) {
+        examLookupExecutor.execute(() -> {
+            try {
+                studentParticipationRepository.findExamIdById(participationId).ifPresent(examScoresCacheService::invalidateExamScores);
+            }
+            catch (Exception e) {
+                log.warn("Could not invalidate the cached exam scores for participation {}: {}", participationId, e.getMessage());
+            }
+        });
+    }
+
+    private void invalidateExamScoresOfExercise(Exercise exercise) {
+        if (exercise == null || exercise.getId() == null) {
+            return;
+        }
+        if (!Hibernate.isInitialized(exercise)) {
+            // the type of the exercise is unknown without loading it, so the exam is looked up among the exams whose scores were calculated
+            examScoresCacheService.invalidateExamScoresOfExercise(exercise.getId());
+        }
+        else if (exercise.isExamExercise()) {
+            var exerciseGroup = exercise.getExerciseGroup();
+            if (Hibernate.isInitialized(exerciseGroup)) {
+                invalidateExamScores(exerciseGroup.getExam());
+            }
+            else {
+                examScoresCacheService.invalidateExamScoresOfExercise(exercise.getId());
+            }
+        }
+        // results of course exercises do not affect any exam
+    }
+
+    private void invalidateExamScores(Exam exam) {
+        // the id of an uninitialized proxy can be accessed without loading it
+        if (exam != null && exam.getId() != null) {
+            examScoresCacheService.invalidateExamScores(exam.getId());
+        }
+    }
+}
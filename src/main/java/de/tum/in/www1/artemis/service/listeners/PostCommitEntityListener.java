@@ -0,0 +1,175 @@
+package de.tum.in.www1.artemis.service.listeners;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listens to Hibernate events and passes the committed changes of entities to the {@link EntityCacheInvalidator}s that declared the changed entity type.
+ * <p>
+ * Hibernate only keeps the events of entity types that at least one invalidator is interested in until the transaction is committed. Changes of collections are fired
+ * when the collection is flushed, so they are deferred until the transaction is committed as well.
+ * Changes that are not made through Hibernate entities (e.g. modifying queries) are not detected, so the cached entries have to expire after some time.
+ */
+@Component
+public class PostCommitEntityListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener,
+        PostCollectionUpdateEventListener, PostCollectionRecreateEventListener {
+
+    private final Logger log = LoggerFactory.getLogger(PostCommitEntityListener.class);
+
+    private final List<EntityCacheInvalidator> invalidators;
+
+    private final Map<Class<?>, List<EntityCacheInvalidator>> invalidatorsByEntityType = new ConcurrentHashMap<>();
+
+    public PostCommitEntityListener(List<EntityCacheInvalidator> invalidators, EntityManagerFactory entityManagerFactory) {
+        this.invalidators = invalidators;
+
+        var eventListenerRegistry = entityManagerFactory.unwrap(SessionFactoryImpl.class).getServiceRegistry().getService(EventListenerRegistry.class);
+        eventListenerRegistry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        eventListenerRegistry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        eventListenerRegistry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        eventListenerRegistry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        eventListenerRegistry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        log.info("Registered Hibernate listeners for {} caches", invalidators.size());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        var change = new EntityChange(event.getEntity(), EntityChange.Type.INSERT, Map.of());
+        getInvalidators(event.getPersister()).forEach(invalidator -> invalidate(invalidator, change));
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // nothing was changed, so the cached entries are still valid
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        List<EntityCacheInvalidator> relevantInvalidators = getInvalidators(event.getPersister()).stream()
+                .filter(invalidator -> isRelevantUpdate(invalidator, event)).toList();
+        if (relevantInvalidators.isEmpty()) {
+            return;
+        }
+        var change = new EntityChange(event.getEntity(), EntityChange.Type.UPDATE, getPreviousValues(event));
+        relevantInvalidators.forEach(invalidator -> invalidate(invalidator, change));
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // nothing was changed, so the cached entries are still valid
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        var change = new EntityChange(event.getEntity(), EntityChange.Type.DELETE, Map.of());
+        getInvalidators(event.getPersister()).forEach(invalidator -> invalidate(invalidator, change));
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // nothing was changed, so the cached entries are still valid
+    }
+
+    /**
+     * Called when a collection of an entity (e.g. the groups of a user or the students of a team) is updated
+     *
+     * @param event the Hibernate collection event
+     */
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        invalidateAfterCommit(event);
+    }
+
+    /**
+     * Called when a collection of an entity (e.g. the groups of a user or the students of a team) is replaced
+     *
+     * @param event the Hibernate collection event
+     */
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        invalidateAfterCommit(event);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return !getInvalidators(persister).isEmpty();
+    }
+
+    private void invalidateAfterCommit(AbstractCollectionEvent event) {
+        if (event.getCollection() == null) {
+            return;
+        }
+        String role = event.getCollection().getRole();
+        List<EntityCacheInvalidator> relevantInvalidators = invalidators.stream()
+                .filter(invalidator -> invalidator.getRelevantCollectionRoles().contains(role) && invalidator.getChangeTypes().contains(EntityChange.Type.UPDATE)).toList();
+        if (relevantInvalidators.isEmpty()) {
+            return;
+        }
+        var change = new EntityChange(event.getAffectedOwnerOrNull(), EntityChange.Type.UPDATE, Map.of());
+        event.getSession().getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, session) -> {
+            if (success) {
+                relevantInvalidators.forEach(invalidator -> invalidate(invalidator, change));
+            }
+        });
+    }
+
+    private void invalidate(EntityCacheInvalidator invalidator, EntityChange change) {
+        if (change.entity() == null || !invalidator.getChangeTypes().contains(change.type())) {
+            return;
+        }
+        try {
+            invalidator.invalidate(change);
+        }
+        catch (Exception e) {
+            // the change itself was already committed, so it must not fail because of the cache
+            log.warn("Could not invalidate the cached entries of {} for {}: {}", invalidator.getClass().getSimpleName(), change.entity().getClass().getSimpleName(),
+                    e.getMessage());
+        }
+    }
+
+    private List<EntityCacheInvalidator> getInvalidators(EntityPersister persister) {
+        return invalidatorsByEntityType.computeIfAbsent(persister.getMappedClass(), entityType -> invalidators.stream()
+                .filter(invalidator -> invalidator.getEntityTypes().stream().anyMatch(relevantType -> relevantType.isAssignableFrom(entityType))).toList());
+    }
+
+    /**
+     * Checks if one of the properties that are relevant for the invalidator was changed. If Hibernate could not determine the changed properties, the update is relevant.
+     *
+     * @param invalidator the invalidator of the cache
+     * @param event       the Hibernate update event
+     * @return true if the cached entries have to be invalidated
+     */
+    private static boolean isRelevantUpdate(EntityCacheInvalidator invalidator, PostUpdateEvent event) {
+        Class<?> entityType = event.getPersister().getMappedClass();
+        var relevantProperties = invalidator.getRelevantProperties().entrySet().stream().filter(entry -> entry.getKey().isAssignableFrom(entityType)).map(Map.Entry::getValue)
+                .findFirst();
+        if (relevantProperties.isEmpty() || event.getDirtyProperties() == null) {
+            return true;
+        }
+        String[] propertyNames = event.getPersister().getPropertyNames();
+        return Arrays.stream(event.getDirtyProperties()).mapToObj(index -> propertyNames[index]).anyMatch(relevantProperties.get()::contains);
+    }
+
+    private static Map<String, Object> getPreviousValues(PostUpdateEvent event) {
+        if (event.getDirtyProperties() == null || event.getOldState() == null) {
+            return Map.of();
+        }
+        String[] propertyNames = event.getPersister().getPropertyNames();
+        Map<String, Object> previousValues = new HashMap<>();
+        for (int index : event.getDirtyProperties()) {
+            previousValues.put(propertyNames[index], event.getOldState()[index]);
+        }
+        return Collections.unmodifiableMap(previousValues);
+    }
+}
@@ -2,7 +2,6 @@ package de.tum.in.www1.artemis.service.metis;
 
 import java.time.ZonedDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import javax.validation.Valid;
 
@@ -30,6 +29,7 @@ import de.tum.in.www1.artemis.security.Role;
 import de.tum.in.www1.artemis.service.AuthorizationCheckService;
 import de.tum.in.www1.artemis.service.WebsocketMessagingService;
 import de.tum.in.www1.artemis.service.metis.similarity.PostSimilarityComparisonStrategy;
+import de.tum.in.www1.artemis.service.metis.similarity.PostSimilarityIndexService;
 import de.tum.in.www1.artemis.service.notifications.GroupNotificationService;
 import de.tum.in.www1.artemis.service.plagiarism.PlagiarismCaseService;
 import de.tum.in.www1.artemis.web.rest.dto.PostContextFilter;
@@ -45,6 +45,11 @@ public class PostService extends PostingService {
 
     public static final int TOP_K_SIMILARITY_RESULTS = 5;
 
+    /**
+     * Number of candidates preselected by the similarity index that are ranked with the post similarity comparison strategy
+     */
+    private static final int SIMILARITY_CANDIDATES = 4 * TOP_K_SIMILARITY_RESULTS;
+
     private final PostRepository postRepository;
 
     private final PlagiarismCaseRepository plagiarismCaseRepository;
@@ -55,16 +60,20 @@ public class PostService extends PostingService {
 
     private final PostSimilarityComparisonStrategy postContentCompareStrategy;
 
+    private final PostSimilarityIndexService postSimilarityIndexService;
+
     protected PostService(CourseRepository courseRepository, AuthorizationCheckService authorizationCheckService, UserRepository userRepository, PostRepository postRepository,
             ExerciseRepository exerciseRepository, LectureRepository lectureRepository, GroupNotificationService groupNotificationService,
             PostSimilarityComparisonStrategy postContentCompareStrategy, WebsocketMessagingService websocketMessagingService, PlagiarismCaseService plagiarismCaseService,
-            PlagiarismCaseRepository plagiarismCaseRepository, ConversationParticipantRepository conversationParticipantRepository) {
+            PlagiarismCaseRepository plagiarismCaseRepository, ConversationParticipantRepository conversationParticipantRepository,
+            PostSimilarityIndexService postSimilarityIndexService) {
         super(courseRepository, userRepository, exerciseRepository, lectureRepository, authorizationCheckService, websocketMessagingService, conversationParticipantRepository);
         this.postRepository = postRepository;
         this.plagiarismCaseRepository = plagiarismCaseRepository;
         this.groupNotificationService = groupNotificationService;
         this.postContentCompareStrategy = postContentCompareStrategy;
         this.plagiarismCaseService = plagiarismCaseService;
+        this.postSimilarityIndexService = postSimilarityIndexService;
     }
 
     /**
@@ -97,6 +106,7 @@ public class PostService extends PostingService {
             // display priority of announcement is set to pinned per default
             post.setDisplayPriority(DisplayPriority.PINNED);
             Post savedPost = postRepository.save(post);
+            postSimilarityIndexService.indexPost(courseId, savedPost);
             sendNotification(savedPost, course);
             broadcastForPost(new PostDTO(savedPost, MetisCrudAction.CREATE), course, null);
             return savedPost;
@@ -108,6 +118,7 @@ public class PostService extends PostingService {
             plagiarismCaseService.savePostForPlagiarismCaseAndNotifyStudent(savedPost.getPlagiarismCase().getId(), savedPost);
         }
         else {
+            postSimilarityIndexService.indexPost(courseId, savedPost);
             broadcastForPost(new PostDTO(savedPost, MetisCrudAction.CREATE), course, null);
             sendNotification(savedPost, course);
         }
@@ -168,6 +179,7 @@ public class PostService extends PostingService {
         }
 
         Post updatedPost = postRepository.save(existingPost);
+        postSimilarityIndexService.indexPost(courseId, updatedPost);
 
         if (updatedPost.getExercise() != null) {
             // protect sample solution, grading instructions, etc.
@@ -311,6 +323,7 @@ public class PostService extends PostingService {
 
         // delete
         postRepository.deleteById(postId);
+        postSimilarityIndexService.removePost(courseId, postId);
         broadcastForPost(new PostDTO(post, MetisCrudAction.DELETE), course, null);
     }
 
@@ -358,20 +371,33 @@ public class PostService extends PostingService {
     }
 
     /**
-     * Calculates k similar posts based on the underlying content comparison strategy
+     * Calculates k similar posts based on the underlying content comparison strategy.
+     * Only the candidates preselected by the similarity index of the course are loaded and compared, instead of all posts of the course.
      *
      * @param courseId id of the course in which similar posts are searched for
      * @param post     post that is to be created and check for similar posts beforehand
      * @return list of similar posts
      */
     public List<Post> getSimilarPosts(Long courseId, Post post) {
-        PostContextFilter postContextFilter = new PostContextFilter(courseId);
-        List<Post> coursePosts = this.getCoursePosts(postContextFilter, false, null).stream().collect(Collectors.toCollection(ArrayList::new));
+        final User user = userRepository.getUserWithGroupsAndAuthorities();
+
+        // checks
+        preCheckUserAndCourseForCommunication(user, courseId);
+
+        List<Long> candidateIds = postSimilarityIndexService.findSimilarPostIds(courseId, post.getTitle(), SIMILARITY_CANDIDATES);
+        if (candidateIds.isEmpty()) {
+            return List.of();
+        }
+        // posts deleted in the meantime (e.g. on another instance) are simply not found
+        List<Post> candidatePosts = new ArrayList<>(postRepository.findAllById(candidateIds));
+
+        // protect sample solution, grading instructions, etc.
+        candidatePosts.stream().map(Post::getExercise).filter(Objects::nonNull).forEach(Exercise::filterSensitiveInformation);
 
-        // sort course posts by calculated similarity scores
-        coursePosts.sort(Comparator.comparing(coursePost -> postContentCompareStrategy.performSimilarityCheck(post, coursePost)));
-        setAuthorRoleOfPostings(coursePosts);
-        return Lists.reverse(coursePosts).stream().limit(TOP_K_SIMILARITY_RESULTS).toList();
+        // sort candidate posts by calculated similarity scores
+        candidatePosts.sort(Comparator.comparing(coursePost -> postContentCompareStrategy.performSimilarityCheck(post, coursePost)));
+        setAuthorRoleOfPostings(candidatePosts);
+        return Lists.reverse(candidatePosts).stream().limit(TOP_K_SIMILARITY_RESULTS).toList();
     }
 
     /**
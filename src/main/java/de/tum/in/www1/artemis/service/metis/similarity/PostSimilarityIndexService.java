@@ -0,0 +1,176 @@
+package de.tum.in.www1.artemis.service.metis.similarity;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import de.tum.in.www1.artemis.domain.metis.Post;
+import de.tum.in.www1.artemis.repository.metis.PostRepository;
+import de.tum.in.www1.artemis.web.rest.dto.PostTitleDTO;
+
+/**
+ * Maintains an in-memory inverted index per course that maps character trigrams of post titles to the posts containing them.
+ * The index is used to preselect the posts that are most likely similar to a new post, so that the (more expensive) {@link PostSimilarityComparisonStrategy}
+ * only has to be applied to a handful of candidates instead of to all posts of a course.
+ * <p>
+ * The index of a course is built lazily from the database on first use and kept up to date when posts are created, updated or deleted on this instance.
+ * Changes made on other instances are picked up when the index expires and is rebuilt.
+ */
+@Service
+public class PostSimilarityIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(PostSimilarityIndexService.class);
+
+    private static final int SHINGLE_LENGTH = 3;
+
+    private static final int MAX_INDEXED_COURSES = 200;
+
+    private static final Duration INDEX_TIME_TO_LIVE = Duration.ofMinutes(10);
+
+    private final PostRepository postRepository;
+
+    private final Cache<Long, CourseIndex> courseIndices = CacheBuilder.newBuilder().maximumSize(MAX_INDEXED_COURSES).expireAfterWrite(INDEX_TIME_TO_LIVE).build();
+
+    public PostSimilarityIndexService(PostRepository postRepository) {
+        this.postRepository = postRepository;
+    }
+
+    /**
+     * Finds the ids of the course posts whose titles share the most trigrams with the given title, ordered by descending trigram Jaccard similarity.
+     * Posts that do not share a single trigram with the title are never returned.
+     *
+     * @param courseId id of the course in which similar posts are searched for
+     * @param title    title of the post for which similar posts are searched for
+     * @param limit    maximum number of post ids to return
+     * @return ids of the most similar posts, the most similar one first
+     */
+    public List<Long> findSimilarPostIds(long courseId, String title, int limit) {
+        Set<String> shingles = shingles(title);
+        if (shingles.isEmpty()) {
+            return List.of();
+        }
+        return getCourseIndex(courseId).findSimilarPostIds(shingles, limit);
+    }
+
+    /**
+     * Adds the post to the index of the course or updates its indexed title. Does nothing if the index of the course has not been built yet,
+     * as it will contain the post anyway once it is built.
+     *
+     * @param courseId id of the course the post belongs to
+     * @param post     the persisted post
+     */
+    public void indexPost(long courseId, Post post) {
+        CourseIndex courseIndex = courseIndices.getIfPresent(courseId);
+        if (courseIndex != null && post.getId() != null && post.getConversation() == null && post.getPlagiarismCase() == null) {
+            courseIndex.put(post.getId(), post.getTitle());
+        }
+    }
+
+    /**
+     * Removes the post from the index of the course
+     *
+     * @param courseId id of the course the post belonged to
+     * @param postId   id of the deleted post
+     */
+    public void removePost(long courseId, long postId) {
+        CourseIndex courseIndex = courseIndices.getIfPresent(courseId);
+        if (courseIndex != null) {
+            courseIndex.remove(postId);
+        }
+    }
+
+    private CourseIndex getCourseIndex(long courseId) {
+        try {
+            return courseIndices.get(courseId, () -> buildCourseIndex(courseId));
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Could not build the post similarity index for course " + courseId, e.getCause());
+        }
+    }
+
+    private CourseIndex buildCourseIndex(long courseId) {
+        CourseIndex courseIndex = new CourseIndex();
+        List<PostTitleDTO> postTitles = postRepository.findPostTitlesForCourse(courseId);
+        postTitles.forEach(postTitle -> courseIndex.put(postTitle.id(), postTitle.title()));
+        log.debug("Built post similarity index for course {} with {} posts", courseId, postTitles.size());
+        return courseIndex;
+    }
+
+    /**
+     * Splits the lowercased title into overlapping character trigrams. Leading and trailing spaces are added so that the beginning and end of words are weighted,
+     * titles shorter than a trigram are used as a whole.
+     *
+     * @param title the title of a post, may be null
+     * @return the set of trigrams of the title, empty if the title is blank
+     */
+    static Set<String> shingles(String title) {
+        if (title == null || title.isBlank()) {
+            return Set.of();
+        }
+        String normalizedTitle = " " + title.strip().toLowerCase().replaceAll("\\s+", " ") + " ";
+        Set<String> shingles = new HashSet<>();
+        for (int i = 0; i + SHINGLE_LENGTH <= normalizedTitle.length(); i++) {
+            shingles.add(normalizedTitle.substring(i, i + SHINGLE_LENGTH));
+        }
+        return shingles;
+    }
+
+    /**
+     * The inverted index of a single course. Access is synchronized as posts of a course may be created and searched concurrently.
+     */
+    private static class CourseIndex {
+
+        private final Map<Long, Set<String>> shinglesByPostId = new HashMap<>();
+
+        private final Map<String, Set<Long>> postIdsByShingle = new HashMap<>();
+
+        synchronized void put(long postId, String title) {
+            remove(postId);
+            Set<String> shingles = shingles(title);
+            if (shingles.isEmpty()) {
+                return;
+            }
+            shinglesByPostId.put(postId, shingles);
+            shingles.forEach(shingle -> postIdsByShingle.computeIfAbsent(shingle, key -> new HashSet<>()).add(postId));
+        }
+
+        synchronized void remove(long postId) {
+            Set<String> shingles = shinglesByPostId.remove(postId);
+            if (shingles == null) {
+                return;
+            }
+            for (String shingle : shingles) {
+                Set<Long> postIds = postIdsByShingle.get(shingle);
+                postIds.remove(postId);
+                if (postIds.isEmpty()) {
+                    postIdsByShingle.remove(shingle);
+                }
+            }
+        }
+
+        synchronized List<Long> findSimilarPostIds(Set<String> shingles, int limit) {
+            // count the shared shingles per post by only visiting the posts that share at least one shingle
+            Map<Long, Integer> sharedShingles = new HashMap<>();
+            for (String shingle : shingles) {
+                for (Long postId : postIdsByShingle.getOrDefault(shingle, Set.of())) {
+                    sharedShingles.merge(postId, 1, Integer::sum);
+                }
+            }
+
+            Map<Long, Double> similarities = new HashMap<>();
+            sharedShingles.forEach((postId, shared) -> similarities.put(postId, (double) shared / (shingles.size() + shinglesByPostId.get(postId).size() - shared)));
+
+            // prefer newer posts (i.e. higher ids) if the similarity is equal
+            return similarities.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed())).limit(limit)
+                    .map(Map.Entry::getKey).toList();
+        }
+    }
+}
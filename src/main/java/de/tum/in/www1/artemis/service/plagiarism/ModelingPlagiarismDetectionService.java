@@ -5,7 +5,10 @@ import static com.google.gson.JsonParser.parseString;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -22,6 +25,7 @@ import de.tum.in.www1.artemis.domain.plagiarism.modeling.ModelingPlagiarismResul
 import de.tum.in.www1.artemis.domain.plagiarism.modeling.ModelingSubmissionElement;
 import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
 import de.tum.in.www1.artemis.service.compass.umlmodel.parsers.UMLModelParser;
+import de.tum.in.www1.artemis.service.plagiarism.cache.ModelingSubmissionSimilarities;
 import de.tum.in.www1.artemis.service.plagiarism.cache.PlagiarismCacheService;
 import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
 
@@ -105,6 +109,11 @@ public class ModelingPlagiarismDetectionService {
         Map<UMLDiagram, ModelingSubmission> models = new HashMap<>();
         ObjectMapper objectMapper = new ObjectMapper();
 
+        // Reuse the similarities calculated by previous plagiarism checks of this exercise for all submissions that did not change since then
+        ModelingSubmissionSimilarities cachedSimilarities = Optional.ofNullable(plagiarismCacheService.getModelingSubmissionSimilarities(exerciseId))
+                .orElseGet(ModelingSubmissionSimilarities::new);
+        cachedSimilarities.retainSubmissions(modelingSubmissions.stream().map(ModelingSubmission::getId).collect(Collectors.toSet()));
+
         AtomicInteger processedSubmissionCount = new AtomicInteger(1);
         modelingSubmissions.stream().filter(modelingSubmission -> !modelingSubmission.isEmpty(objectMapper))
                 .filter(modelingSubmission -> minimumScore == 0 || modelingSubmission.getLatestResult() != null && modelingSubmission.getLatestResult().getScore() != null
@@ -113,6 +122,8 @@ public class ModelingPlagiarismDetectionService {
                     String progressMessage = "Getting UML diagram for submission: " + processedSubmissionCount + "/" + modelingSubmissions.size();
                     plagiarismWebsocketService.notifyInstructorAboutPlagiarismState(topic, PlagiarismCheckState.RUNNING, List.of(progressMessage));
 
+                    cachedSimilarities.updateModelHash(modelingSubmission.getId(), DigestUtils.sha256Hex(modelingSubmission.getModel()));
+
                     try {
                         log.debug("Build UML diagram from json");
                         UMLDiagram model = UMLModelParser.buildModelFromJSON(parseString(modelingSubmission.getModel()).getAsJsonObject(), modelingSubmission.getId());
@@ -130,67 +141,96 @@ public class ModelingPlagiarismDetectionService {
 
         log.info("Found {} modeling submissions with at least {} elements to compare", models.size(), minimumModelSize);
 
-        Set<PlagiarismComparison<ModelingSubmissionElement>> comparisons = new HashSet<>();
         List<UMLDiagram> nonEmptyDiagrams = new ArrayList<>(models.keySet());
+        List<Map<Class<?>, Integer>> elementCounts = nonEmptyDiagrams.stream().map(UMLDiagram::getModelElementCountsBySimilarityType).toList();
 
         long timeBeforeStartInMillis = System.currentTimeMillis();
 
-        // It is intended to use the classic for loop here, because we only want to check
-        // similarity between two different submissions once
-        for (int i = 0; i < nonEmptyDiagrams.size(); i++) {
-            String progressMessage = "Comparing submissions: " + (i + 1) + "/" + nonEmptyDiagrams.size();
+        // Every diagram is only compared with the following diagrams, so that the similarity between two different submissions is only calculated once.
+        // The diagrams are compared in parallel, as the comparisons are independent of each other.
+        AtomicInteger comparedDiagramCount = new AtomicInteger();
+        List<PlagiarismComparison<ModelingSubmissionElement>> similarComparisons = IntStream.range(0, nonEmptyDiagrams.size()).parallel().boxed().flatMap(i -> {
+            var diagramComparisons = compareWithFollowingDiagrams(i, nonEmptyDiagrams, elementCounts, models, cachedSimilarities, minimumSimilarity, result);
+            String progressMessage = "Comparing submissions: " + comparedDiagramCount.incrementAndGet() + "/" + nonEmptyDiagrams.size();
             plagiarismWebsocketService.notifyInstructorAboutPlagiarismState(topic, PlagiarismCheckState.RUNNING, List.of(progressMessage));
+            return diagramComparisons.stream();
+        }).toList();
+        Set<PlagiarismComparison<ModelingSubmissionElement>> comparisons = new HashSet<>(similarComparisons);
+        plagiarismCacheService.setModelingSubmissionSimilarities(exerciseId, cachedSimilarities);
 
-            for (int j = i + 1; j < nonEmptyDiagrams.size(); j++) {
+        log.info("Found {} similar modeling submission combinations (>{})", comparisons.size(), minimumSimilarity);
+        plagiarismWebsocketService.notifyInstructorAboutPlagiarismState(topic, PlagiarismCheckState.COMPLETED, List.of());
 
-                UMLDiagram model1 = nonEmptyDiagrams.get(i);
-                UMLDiagram model2 = nonEmptyDiagrams.get(j);
+        long durationInMillis = System.currentTimeMillis() - timeBeforeStartInMillis;
+        int[] similarityDistribution = calculateSimilarityDistribution(comparisons);
 
-                final double similarity = model1.similarity(model2);
-                log.debug("Compare result {} with {}: {}", i, j, similarity);
+        result.setComparisons(comparisons);
+        result.setDuration(durationInMillis);
+        result.setSimilarityDistribution(similarityDistribution);
 
-                if (similarity * 100 < minimumSimilarity) {
-                    // ignore comparison results with too small similarity
-                    continue;
-                }
+        return result;
+    }
 
-                ModelingSubmission modelingSubmissionA = models.get(model1);
-                ModelingSubmission modelingSubmissionB = models.get(model2);
+    /**
+     * Compares the diagram with the given index with all following diagrams in the list.
+     * Pairs of diagrams that cannot reach the minimum similarity according to their element counts are skipped without comparing their elements.
+     * Similarities calculated by previous plagiarism checks are reused, newly calculated similarities are added to the cached similarities.
+     */
+    private List<PlagiarismComparison<ModelingSubmissionElement>> compareWithFollowingDiagrams(int index, List<UMLDiagram> diagrams, List<Map<Class<?>, Integer>> elementCounts,
+            Map<UMLDiagram, ModelingSubmission> models, ModelingSubmissionSimilarities cachedSimilarities, double minimumSimilarity, ModelingPlagiarismResult result) {
+        List<PlagiarismComparison<ModelingSubmissionElement>> comparisons = new ArrayList<>();
+        UMLDiagram model1 = diagrams.get(index);
+
+        for (int j = index + 1; j < diagrams.size(); j++) {
+            if (UMLDiagram.similarityUpperBound(elementCounts.get(index), elementCounts.get(j)) * 100 < minimumSimilarity) {
+                log.debug("Skip comparing result {} with {}", index, j);
+                continue;
+            }
 
-                log.info("Found similar models {} with {}: {}", i, j, similarity);
+            UMLDiagram model2 = diagrams.get(j);
 
-                PlagiarismSubmission<ModelingSubmissionElement> submissionA = PlagiarismSubmission.fromModelingSubmission(modelingSubmissionA);
-                submissionA.setSize(model1.getAllModelElements().size());
-                submissionA.setElements(model1.getAllModelElements().stream().map(ModelingSubmissionElement::fromUMLElement).toList());
+            long submissionId1 = models.get(model1).getId();
+            long submissionId2 = models.get(model2).getId();
+            OptionalDouble cachedSimilarity = cachedSimilarities.getSimilarity(submissionId1, submissionId2, minimumSimilarity / 100);
+            final double similarity;
+            if (cachedSimilarity.isPresent()) {
+                similarity = cachedSimilarity.getAsDouble();
+                log.debug("Reuse result {} with {}: {}", index, j, similarity);
+            }
+            else {
+                similarity = model1.similarity(model2, minimumSimilarity / 100);
+                cachedSimilarities.putSimilarity(submissionId1, submissionId2, similarity, minimumSimilarity / 100);
+                log.debug("Compare result {} with {}: {}", index, j, similarity);
+            }
 
-                PlagiarismSubmission<ModelingSubmissionElement> submissionB = PlagiarismSubmission.fromModelingSubmission(modelingSubmissionB);
-                submissionB.setSize(model2.getAllModelElements().size());
-                submissionB.setElements(model2.getAllModelElements().stream().map(ModelingSubmissionElement::fromUMLElement).toList());
+            if (similarity * 100 < minimumSimilarity) {
+                // ignore comparison results with too small similarity
+                continue;
+            }
 
-                PlagiarismComparison<ModelingSubmissionElement> comparison = new PlagiarismComparison<>();
+            log.info("Found similar models {} with {}: {}", index, j, similarity);
 
-                comparison.setPlagiarismResult(result);
-                comparison.setSimilarity(similarity * 100);
-                comparison.setSubmissionA(submissionA);
-                comparison.setSubmissionB(submissionB);
-                // TODO: Add matches to highlight similar modeling elements
-                comparison.setMatches(new HashSet<>());
+            PlagiarismSubmission<ModelingSubmissionElement> submissionA = PlagiarismSubmission.fromModelingSubmission(models.get(model1));
+            submissionA.setSize(model1.getAllModelElements().size());
+            submissionA.setElements(model1.getAllModelElements().stream().map(ModelingSubmissionElement::fromUMLElement).toList());
 
-                comparisons.add(comparison);
-            }
-        }
+            PlagiarismSubmission<ModelingSubmissionElement> submissionB = PlagiarismSubmission.fromModelingSubmission(models.get(model2));
+            submissionB.setSize(model2.getAllModelElements().size());
+            submissionB.setElements(model2.getAllModelElements().stream().map(ModelingSubmissionElement::fromUMLElement).toList());
 
-        log.info("Found {} similar modeling submission combinations (>{})", comparisons.size(), minimumSimilarity);
-        plagiarismWebsocketService.notifyInstructorAboutPlagiarismState(topic, PlagiarismCheckState.COMPLETED, List.of());
+            PlagiarismComparison<ModelingSubmissionElement> comparison = new PlagiarismComparison<>();
 
-        long durationInMillis = System.currentTimeMillis() - timeBeforeStartInMillis;
-        int[] similarityDistribution = calculateSimilarityDistribution(comparisons);
+            comparison.setPlagiarismResult(result);
+            comparison.setSimilarity(similarity * 100);
+            comparison.setSubmissionA(submissionA);
+            comparison.setSubmissionB(submissionB);
+            // TODO: Add matches to highlight similar modeling elements
+            comparison.setMatches(new HashSet<>());
 
-        result.setComparisons(comparisons);
-        result.setDuration(durationInMillis);
-        result.setSimilarityDistribution(similarityDistribution);
+            comparisons.add(comparison);
+        }
 
-        return result;
+        return comparisons;
     }
 
     /**
@@ -2,18 +2,20 @@ package de.tum.in.www1.artemis.service.plagiarism;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.validation.constraints.NotNull;
 
+import org.apache.commons.io.FileUtils;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,19 +31,15 @@ import de.jplag.options.JPlagOptions;
 import de.jplag.reporting.reportobject.ReportObjectFactory;
 import de.tum.in.www1.artemis.domain.PlagiarismCheckState;
 import de.tum.in.www1.artemis.domain.ProgrammingExercise;
-import de.tum.in.www1.artemis.domain.Repository;
 import de.tum.in.www1.artemis.domain.Submission;
 import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseParticipation;
 import de.tum.in.www1.artemis.domain.plagiarism.text.TextPlagiarismResult;
-import de.tum.in.www1.artemis.exception.GitException;
 import de.tum.in.www1.artemis.repository.ProgrammingExerciseRepository;
 import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
 import de.tum.in.www1.artemis.repository.plagiarism.PlagiarismResultRepository;
 import de.tum.in.www1.artemis.service.FileService;
 import de.tum.in.www1.artemis.service.UrlService;
-import de.tum.in.www1.artemis.service.connectors.GitService;
 import de.tum.in.www1.artemis.service.export.ProgrammingExerciseExportService;
-import de.tum.in.www1.artemis.service.hestia.ProgrammingExerciseGitDiffReportService;
 import de.tum.in.www1.artemis.service.plagiarism.cache.PlagiarismCacheService;
 import de.tum.in.www1.artemis.service.util.TimeLogUtil;
 import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
@@ -58,8 +56,6 @@ class ProgrammingPlagiarismDetectionService {
 
     private final ProgrammingExerciseRepository programmingExerciseRepository;
 
-    private final GitService gitService;
-
     private final StudentParticipationRepository studentParticipationRepository;
 
     private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
@@ -74,22 +70,21 @@ class ProgrammingPlagiarismDetectionService {
 
     private final UrlService urlService;
 
-    private final ProgrammingExerciseGitDiffReportService programmingExerciseGitDiffReportService;
+    private final ProgrammingRepositorySnapshotService repositorySnapshotService;
 
-    public ProgrammingPlagiarismDetectionService(ProgrammingExerciseRepository programmingExerciseRepository, FileService fileService, GitService gitService,
+    public ProgrammingPlagiarismDetectionService(ProgrammingExerciseRepository programmingExerciseRepository, FileService fileService,
             StudentParticipationRepository studentParticipationRepository, PlagiarismResultRepository plagiarismResultRepository,
             ProgrammingExerciseExportService programmingExerciseExportService, PlagiarismWebsocketService plagiarismWebsocketService, PlagiarismCacheService plagiarismCacheService,
-            UrlService urlService, ProgrammingExerciseGitDiffReportService programmingExerciseGitDiffReportService) {
+            UrlService urlService, ProgrammingRepositorySnapshotService repositorySnapshotService) {
         this.programmingExerciseRepository = programmingExerciseRepository;
         this.fileService = fileService;
-        this.gitService = gitService;
         this.studentParticipationRepository = studentParticipationRepository;
         this.programmingExerciseExportService = programmingExerciseExportService;
         this.plagiarismResultRepository = plagiarismResultRepository;
         this.plagiarismWebsocketService = plagiarismWebsocketService;
         this.plagiarismCacheService = plagiarismCacheService;
         this.urlService = urlService;
-        this.programmingExerciseGitDiffReportService = programmingExerciseGitDiffReportService;
+        this.repositorySnapshotService = repositorySnapshotService;
     }
 
     /**
@@ -182,19 +177,19 @@ class ProgrammingPlagiarismDetectionService {
             throw new BadRequestAlertException("Insufficient amount of valid and long enough submissions available for comparison", "Plagiarism Check", "notEnoughSubmissions");
         }
 
-        List<Repository> repositories = downloadRepositories(programmingExercise, participations, targetPath.toString(), minimumSize);
-        log.info("Downloading repositories done for programming exercise {}", programmingExerciseId);
-
         final var projectKey = programmingExercise.getProjectKey();
-        final var repoFolder = targetPath.resolve(projectKey).toFile();
+        final var repoFolder = targetPath.resolve(projectKey);
         final var programmingLanguage = getJPlagProgrammingLanguage(programmingExercise);
         final var templateRepoName = urlService.getRepositorySlugFromRepositoryUrl(programmingExercise.getTemplateParticipation().getVcsRepositoryUrl());
 
-        JPlagOptions options = new JPlagOptions(programmingLanguage, Set.of(repoFolder), Set.of())
+        exportRepositories(programmingExercise, participations, repoFolder, templateRepoName, programmingLanguage.suffixes(), minimumSize);
+        log.info("Downloading repositories done for programming exercise {}", programmingExerciseId);
+
+        JPlagOptions options = new JPlagOptions(programmingLanguage, Set.of(repoFolder.toFile()), Set.of())
                 // JPlag expects a value between 0.0 and 1.0
                 .withSimilarityThreshold(similarityThreshold / 100.0).withClusteringOptions(new ClusteringOptions().withEnabled(false));
         if (templateRepoName != null) {
-            var templateFolder = targetPath.resolve(projectKey).resolve(templateRepoName).toFile();
+            var templateFolder = repoFolder.resolve(templateRepoName).toFile();
             options = options.withBaseCodeSubmissionDirectory(templateFolder);
         }
 
@@ -223,7 +218,7 @@ class ProgrammingPlagiarismDetectionService {
             }
         }
         finally {
-            cleanupResourcesAsync(programmingExercise, repositories, targetPath);
+            cleanupResourcesAsync(programmingExercise, targetPath);
         }
 
         return result;
@@ -272,46 +267,15 @@ class ProgrammingPlagiarismDetectionService {
         return zipFile;
     }
 
-    private void cleanupResourcesAsync(final ProgrammingExercise programmingExercise, final List<Repository> repositories, final Path targetPath) {
+    private void cleanupResourcesAsync(final ProgrammingExercise programmingExercise, final Path targetPath) {
         executor.schedule(() -> {
-            log.info("Will delete local repositories for programming exercise {} after plagiarism check", programmingExercise.getId());
-            deleteLocalRepositories(repositories);
-            // delete project root folder in the repos download folder
+            log.info("Will delete linked repository snapshots for programming exercise {} after plagiarism check", programmingExercise.getId());
+            // delete project root folder in the repos download folder, the snapshots themselves are kept for the next plagiarism check
             programmingExerciseExportService.deleteReposDownloadProjectRootDirectory(programmingExercise, targetPath);
-            log.info("Delete local repositories done for programming exercise {} after plagiarism check", programmingExercise.getId());
+            log.info("Delete linked repository snapshots done for programming exercise {} after plagiarism check", programmingExercise.getId());
         }, 10, TimeUnit.SECONDS);
     }
 
-    private void deleteLocalRepositories(List<Repository> repositories) {
-        repositories.parallelStream().forEach(repository -> {
-            var localPath = repository.getLocalPath();
-            try {
-                deleteTempLocalRepository(repository);
-            }
-            catch (GitException ex) {
-                log.error("Delete repository {} did not work as expected: {}", localPath, ex.getMessage());
-            }
-        });
-    }
-
-    /**
-     * Deletes the locally checked out repository.
-     *
-     * @param repository The repository that should get deleted
-     */
-    public void deleteTempLocalRepository(Repository repository) {
-        // we do some cleanup here to prevent future errors with file handling
-        // We can always delete the repository as it won't be used by the student (separate path)
-        if (repository != null) {
-            try {
-                gitService.deleteLocalRepository(repository);
-            }
-            catch (IOException ex) {
-                log.warn("Could not delete temporary repository {}: {}", repository.getLocalPath().toString(), ex.getMessage());
-            }
-        }
-    }
-
     private Language getJPlagProgrammingLanguage(ProgrammingExercise programmingExercise) {
         return switch (programmingExercise.getProgrammingLanguage()) {
             case JAVA -> new de.jplag.java.Language();
@@ -348,62 +312,82 @@ class ProgrammingPlagiarismDetectionService {
                 }).toList();
     }
 
-    private Optional<Repository> cloneTemplateRepository(ProgrammingExercise programmingExercise, String targetPath) {
-        try {
-            var templateRepo = gitService.getOrCheckoutRepository(programmingExercise.getTemplateParticipation(), targetPath);
-            gitService.resetToOriginHead(templateRepo); // start with clean state
-            return Optional.of(templateRepo);
-        }
-        catch (GitException | GitAPIException ex) {
-            log.error("Clone template repository {} in exercise '{}' did not work as expected: {}", programmingExercise.getTemplateParticipation().getVcsRepositoryUrl(),
-                    programmingExercise.getTitle(), ex.getMessage());
-            return Optional.empty();
-        }
-    }
-
-    private boolean shouldAddRepo(int minimumSize, Repository repo, Optional<Repository> templateRepo) {
-        if (templateRepo.isEmpty()) {
-            return true;
-        }
-
-        var diffToTemplate = programmingExerciseGitDiffReportService.calculateNumberOfDiffLinesBetweenRepos(repo.getRemoteRepositoryUrl(), repo.getLocalPath(),
-                templateRepo.get().getRemoteRepositoryUrl(), templateRepo.get().getLocalPath());
-        return diffToTemplate >= minimumSize;
-    }
-
-    private List<Repository> downloadRepositories(ProgrammingExercise programmingExercise, List<ProgrammingExerciseParticipation> participations, String targetPath,
-            int minimumSize) {
+    /**
+     * Exports the snapshots of the template repository and the repositories of the given participations and links them into the given folder, so that JPlag can compare them.
+     * Repositories whose number of changed lines compared to the template repository is below the minimum size are not linked.
+     *
+     * @param programmingExercise the programming exercise
+     * @param participations      the participations whose repositories should be compared
+     * @param repoFolder          the folder in which JPlag compares the submissions
+     * @param templateRepoName    the name of the folder of the template repository in the repo folder, or null if the template repository should not be compared
+     * @param fileSuffixes        the suffixes of the files that JPlag compares
+     * @param minimumSize         consider only repositories with at least this number of changed lines compared to the template repository
+     */
+    private void exportRepositories(ProgrammingExercise programmingExercise, List<ProgrammingExerciseParticipation> participations, Path repoFolder, String templateRepoName,
+            String[] fileSuffixes, int minimumSize) {
         // Used for sending progress notifications
         var topic = plagiarismWebsocketService.getProgrammingExercisePlagiarismCheckTopic(programmingExercise.getId());
 
         int maxRepositories = participations.size() + 1;
-        List<Repository> downloadedRepositories = new ArrayList<>();
+        var exportedRepositories = new AtomicInteger();
 
         plagiarismWebsocketService.notifyInstructorAboutPlagiarismState(topic, PlagiarismCheckState.RUNNING, List.of("Downloading repositories: 0/" + maxRepositories));
-        var templateRepo = cloneTemplateRepository(programmingExercise, targetPath);
-        templateRepo.ifPresent(downloadedRepositories::add);
+        // the template is also linked if it is not compared, so that the changed lines are counted against files that belong to this check
+        var templateFolder = templateRepoName != null ? repoFolder.resolve(templateRepoName) : repoFolder.resolveSibling(repoFolder.getFileName() + "-template");
+        var template = linkTemplateSnapshot(programmingExercise, fileSuffixes, templateFolder);
 
         participations.parallelStream().forEach(participation -> {
             try {
-                var progressMessage = "Downloading repositories: " + (downloadedRepositories.size() + 1) + "/" + maxRepositories;
+                var progressMessage = "Downloading repositories: " + exportedRepositories.incrementAndGet() + "/" + maxRepositories;
                 plagiarismWebsocketService.notifyInstructorAboutPlagiarismState(topic, PlagiarismCheckState.RUNNING, List.of(progressMessage));
 
-                Repository repo = gitService.getOrCheckoutRepositoryForJPlag(participation, targetPath);
-                gitService.resetToOriginHead(repo); // start with clean state
-
-                if (shouldAddRepo(minimumSize, repo, templateRepo)) {
-                    downloadedRepositories.add(repo);
-                }
-                else {
-                    deleteTempLocalRepository(repo);
+                var submissionFolder = repoFolder.resolve(getSubmissionFolderName(participation));
+                var submission = repositorySnapshotService.exportAndLinkSnapshot(participation.getVcsRepositoryUrl(), fileSuffixes, submissionFolder);
+                if (submission.isPresent() && !shouldAddRepo(minimumSize, submission.get(), template)) {
+                    FileUtils.deleteDirectory(submissionFolder.toFile());
                 }
             }
-            catch (GitException | GitAPIException | InvalidPathException ex) {
-                log.error("Clone student repository {} in exercise '{}' did not work as expected: {}", participation.getVcsRepositoryUrl(), programmingExercise.getTitle(),
+            catch (GitAPIException | IOException | URISyntaxException | InvalidPathException ex) {
+                log.error("Export of student repository {} in exercise '{}' did not work as expected: {}", participation.getVcsRepositoryUrl(), programmingExercise.getTitle(),
                         ex.getMessage());
             }
         });
+    }
 
-        return downloadedRepositories;
+    private Optional<Path> linkTemplateSnapshot(ProgrammingExercise programmingExercise, String[] fileSuffixes, Path templateFolder) {
+        try {
+            return repositorySnapshotService.exportAndLinkSnapshot(programmingExercise.getTemplateParticipation().getVcsRepositoryUrl(), fileSuffixes, templateFolder);
+        }
+        catch (GitAPIException | IOException | URISyntaxException | InvalidPathException ex) {
+            log.error("Export of template repository {} in exercise '{}' did not work as expected: {}", programmingExercise.getTemplateParticipation().getVcsRepositoryUrl(),
+                    programmingExercise.getTitle(), ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private boolean shouldAddRepo(int minimumSize, Path submission, Optional<Path> template) {
+        if (template.isEmpty()) {
+            return true;
+        }
+
+        try {
+            return repositorySnapshotService.countChangedLines(submission, template.get()) >= minimumSize;
+        }
+        catch (IOException ex) {
+            log.error("Error calculating number of diff lines between repository {} and template repository {}", submission, template.get(), ex);
+            return true;
+        }
+    }
+
+    /**
+     * Returns the name of the folder of the repository of the participation, in which the project key is replaced with the participation id.
+     * This is necessary to be able to refer back to the correct participation after the JPlag detection run.
+     *
+     * @param participation the participation of the repository
+     * @return the name of the folder, e.g. 42-ab12cde for the repository projectkey-ab12cde of the participation with id 42
+     */
+    private static String getSubmissionFolderName(ProgrammingExerciseParticipation participation) {
+        String repoFolderName = participation.getVcsRepositoryUrl().folderNameForRepositoryUrl().replaceAll("/[a-zA-Z0-9]*-", "/" + participation.getId() + "-");
+        return Path.of(repoFolderName).getFileName().toString();
     }
 }
@@ -0,0 +1,286 @@
+package de.tum.in.www1.artemis.service.plagiarism;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.*;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.OrTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.google.common.util.concurrent.Striped;
+
+import de.tum.in.www1.artemis.domain.VcsRepositoryUrl;
+import de.tum.in.www1.artemis.service.connectors.GitService;
+
+/**
+ * Exports the source files of the latest commit of programming exercise repositories for plagiarism checks.
+ * <p>
+ * The files are read directly from the bare repository of the local VCS (or from a bare mirror that is fetched incrementally for other version control systems), so that no
+ * working copy has to be checked out. Only files with the given suffixes are written. The snapshots are kept between plagiarism checks together with the commit they were
+ * exported from, so that repositories without new commits are not exported again. Snapshots and mirrors that were not used for a while are deleted.
+ * <p>
+ * Snapshots are only exported and linked while holding the lock of their repository, because concurrent plagiarism checks might use the same repositories.
+ */
+@Service
+class ProgrammingRepositorySnapshotService {
+
+    private final Logger log = LoggerFactory.getLogger(ProgrammingRepositorySnapshotService.class);
+
+    private static final String SNAPSHOTS_FOLDER = "snapshots";
+
+    private static final String MIRRORS_FOLDER = "mirrors";
+
+    private static final String COMMIT_MARKER_SUFFIX = ".commit";
+
+    private static final int SNAPSHOT_LOCK_STRIPES = 256;
+
+    @Value("${artemis.plagiarism-snapshot-path:./plagiarism-snapshots}")
+    private String plagiarismSnapshotPath;
+
+    @Value("${artemis.plagiarism-snapshot-retention-days:30}")
+    private int plagiarismSnapshotRetentionDays;
+
+    // the snapshot and the mirror of a repository are only accessed while holding the lock of the relative path of the repository
+    private final Striped<Lock> snapshotLocks = Striped.lazyWeakLock(SNAPSHOT_LOCK_STRIPES);
+
+    private final GitService gitService;
+
+    ProgrammingRepositorySnapshotService(GitService gitService) {
+        this.gitService = gitService;
+    }
+
+    /**
+     * Links the snapshot of the source files of the latest commit of the repository into the target directory. The snapshot is only exported if the snapshot of a previous
+     * plagiarism check belongs to another commit. The linked files belong to the caller, so they are not affected if the snapshot is exported again afterwards.
+     *
+     * @param repositoryUrl the url of the repository
+     * @param fileSuffixes  the suffixes of the files that should be part of the snapshot (e.g. ".java")
+     * @param targetPath    the directory the files should be linked into
+     * @return the target directory, or an empty optional if the repository does not contain any commit
+     * @throws GitAPIException    if the mirror of the repository could not be cloned or fetched
+     * @throws IOException        if the repository could not be read or the snapshot could not be written or linked
+     * @throws URISyntaxException if the uri of the repository could not be retrieved
+     */
+    Optional<Path> exportAndLinkSnapshot(VcsRepositoryUrl repositoryUrl, String[] fileSuffixes, Path targetPath) throws GitAPIException, IOException, URISyntaxException {
+        Path snapshotPath = gitService.getLocalPathOfRepo(getSnapshotsPath().toString(), repositoryUrl);
+        Lock lock = snapshotLocks.get(getSnapshotsPath().relativize(snapshotPath));
+        lock.lock();
+        try {
+            Optional<Path> snapshot = getOrExportSnapshot(repositoryUrl, snapshotPath, fileSuffixes);
+            if (snapshot.isEmpty()) {
+                return Optional.empty();
+            }
+            linkSnapshot(snapshot.get(), targetPath);
+            return Optional.of(targetPath);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the snapshots and mirrors of repositories that were not used by a plagiarism check within the retention period, e.g. because their exercise was deleted.
+     * The snapshots are kept on the local file system of each instance, so this is executed on every instance.
+     */
+    @Scheduled(cron = "${artemis.scheduling.plagiarism-snapshot-cleanup-time:0 30 3 * * *}") // execute this every night at 3:30:00 am
+    public void deleteUnusedSnapshots() {
+        Path snapshotsPath = getSnapshotsPath();
+        if (!Files.isDirectory(snapshotsPath)) {
+            return;
+        }
+        Instant expiryTime = Instant.now().minus(plagiarismSnapshotRetentionDays, ChronoUnit.DAYS);
+        List<Path> commitMarkers;
+        try (Stream<Path> files = Files.walk(snapshotsPath)) {
+            commitMarkers = files.filter(file -> Files.isRegularFile(file) && file.getFileName().toString().endsWith(COMMIT_MARKER_SUFFIX)).toList();
+        }
+        catch (IOException ex) {
+            log.error("Could not list the plagiarism snapshots in {}", snapshotsPath, ex);
+            return;
+        }
+
+        for (Path commitMarkerPath : commitMarkers) {
+            String markerFileName = commitMarkerPath.getFileName().toString();
+            Path snapshotPath = commitMarkerPath.resolveSibling(markerFileName.substring(0, markerFileName.length() - COMMIT_MARKER_SUFFIX.length()));
+            Path relativePath = snapshotsPath.relativize(snapshotPath);
+            Lock lock = snapshotLocks.get(relativePath);
+            lock.lock();
+            try {
+                // the snapshot might have been used since the markers were listed
+                if (!Files.exists(commitMarkerPath) || Files.getLastModifiedTime(commitMarkerPath).toInstant().isAfter(expiryTime)) {
+                    continue;
+                }
+                Files.delete(commitMarkerPath);
+                FileUtils.deleteDirectory(snapshotPath.toFile());
+                FileUtils.deleteDirectory(getMirrorsPath().resolve(relativePath).toFile());
+                log.debug("Deleted unused plagiarism snapshot {}", relativePath);
+            }
+            catch (IOException ex) {
+                log.error("Could not delete the unused plagiarism snapshot {}", relativePath, ex);
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Counts the lines that were added or removed in the linked snapshot compared to the linked snapshot of the template repository
+     *
+     * @param snapshotPath         the directory the snapshot was linked into
+     * @param templateSnapshotPath the directory the snapshot of the template repository was linked into
+     * @return the number of added and removed lines
+     * @throws IOException if the files of the snapshots could not be read
+     */
+    int countChangedLines(Path snapshotPath, Path templateSnapshotPath) throws IOException {
+        Set<Path> files = new HashSet<>(listFiles(snapshotPath));
+        files.addAll(listFiles(templateSnapshotPath));
+
+        DiffAlgorithm diffAlgorithm = DiffAlgorithm.getAlgorithm(DiffAlgorithm.SupportedAlgorithm.HISTOGRAM);
+        int changedLines = 0;
+        for (Path file : files) {
+            RawText text = readText(snapshotPath.resolve(file));
+            RawText templateText = readText(templateSnapshotPath.resolve(file));
+            for (Edit edit : diffAlgorithm.diff(RawTextComparator.DEFAULT, templateText, text)) {
+                changedLines += edit.getLengthA() + edit.getLengthB();
+            }
+        }
+        return changedLines;
+    }
+
+    private Optional<Path> getOrExportSnapshot(VcsRepositoryUrl repositoryUrl, Path snapshotPath, String[] fileSuffixes) throws GitAPIException, IOException, URISyntaxException {
+        Path mirrorPath = getMirrorsPath().resolve(getSnapshotsPath().relativize(snapshotPath));
+        Path commitMarkerPath = getCommitMarkerPath(snapshotPath);
+
+        try (Repository repository = gitService.getOrFetchBareRepository(repositoryUrl, mirrorPath)) {
+            ObjectId commitId = repository.resolve(Constants.HEAD);
+            // the suffixes are part of the marker, so that a snapshot is exported again if other files are relevant
+            String commitMarker = commitId == null ? "" : commitId.name() + "\n" + String.join(",", fileSuffixes);
+            if (Files.exists(commitMarkerPath) && commitMarker.equals(Files.readString(commitMarkerPath)) && (commitId == null || Files.isDirectory(snapshotPath))) {
+                // the modification time of the marker is the last time the snapshot was used, which is considered when deleting unused snapshots
+                Files.setLastModifiedTime(commitMarkerPath, FileTime.from(Instant.now()));
+                log.debug("Snapshot of repository {} is up to date with commit {}", repositoryUrl, commitMarker);
+                return commitId == null ? Optional.empty() : Optional.of(snapshotPath);
+            }
+
+            // the marker is only written after the snapshot is complete, so that an interrupted export is repeated
+            Files.deleteIfExists(commitMarkerPath);
+            FileUtils.deleteDirectory(snapshotPath.toFile());
+            if (commitId != null) {
+                Files.createDirectories(snapshotPath);
+                exportSourceFiles(repository, commitId, fileSuffixes, snapshotPath);
+                log.debug("Exported snapshot of repository {} at commit {}", repositoryUrl, commitId.name());
+            }
+            // repositories without commits also get a marker, so that their mirror is deleted once it is not used anymore
+            Files.createDirectories(commitMarkerPath.getParent());
+            Files.writeString(commitMarkerPath, commitMarker);
+            return commitId == null ? Optional.empty() : Optional.of(snapshotPath);
+        }
+    }
+
+    /**
+     * Hard links all files of the snapshot into the target directory, so that the snapshot can be compared without being copied.
+     * The files are copied if they cannot be linked.
+     */
+    private static void linkSnapshot(Path snapshotPath, Path targetPath) throws IOException {
+        Files.walkFileTree(snapshotPath, new SimpleFileVisitor<>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+                Files.createDirectories(targetPath.resolve(snapshotPath.relativize(directory)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Path targetFile = targetPath.resolve(snapshotPath.relativize(file));
+                try {
+                    Files.createLink(targetFile, file);
+                }
+                catch (UnsupportedOperationException | FileSystemException ex) {
+                    Files.copy(file, targetFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private Path getSnapshotsPath() {
+        return Path.of(plagiarismSnapshotPath, SNAPSHOTS_FOLDER).normalize();
+    }
+
+    private Path getMirrorsPath() {
+        return Path.of(plagiarismSnapshotPath, MIRRORS_FOLDER).normalize();
+    }
+
+    private static Path getCommitMarkerPath(Path snapshotPath) {
+        return snapshotPath.resolveSibling(snapshotPath.getFileName() + COMMIT_MARKER_SUFFIX);
+    }
+
+    private static void exportSourceFiles(Repository repository, ObjectId commitId, String[] fileSuffixes, Path snapshotPath) throws IOException {
+        try (RevWalk revWalk = new RevWalk(repository); TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(revWalk.parseCommit(commitId).getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(createSuffixFilter(fileSuffixes));
+            while (treeWalk.next()) {
+                // symbolic links and submodules are not exported
+                FileMode fileMode = treeWalk.getFileMode(0);
+                if (fileMode != FileMode.REGULAR_FILE && fileMode != FileMode.EXECUTABLE_FILE) {
+                    continue;
+                }
+                Path file = snapshotPath.resolve(treeWalk.getPathString()).normalize();
+                if (!file.startsWith(snapshotPath.normalize())) {
+                    continue;
+                }
+                Files.createDirectories(file.getParent());
+                try (OutputStream outputStream = Files.newOutputStream(file)) {
+                    repository.open(treeWalk.getObjectId(0), Constants.OBJ_BLOB).copyTo(outputStream);
+                }
+            }
+        }
+    }
+
+    private static TreeFilter createSuffixFilter(String[] fileSuffixes) {
+        List<TreeFilter> filters = Arrays.stream(fileSuffixes).<TreeFilter>map(PathSuffixFilter::create).toList();
+        return switch (filters.size()) {
+            case 0 -> TreeFilter.ALL;
+            case 1 -> filters.get(0);
+            default -> OrTreeFilter.create(filters);
+        };
+    }
+
+    private static List<Path> listFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).map(directory::relativize).toList();
+        }
+    }
+
+    private static RawText readText(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return RawText.EMPTY_TEXT;
+        }
+        return new RawText(file.toFile());
+    }
+}
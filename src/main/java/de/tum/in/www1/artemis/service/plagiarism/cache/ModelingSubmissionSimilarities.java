@@ -0,0 +1,95 @@
+package de.tum.in.www1.artemis.service.plagiarism.cache;
+
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The similarities between the modeling submissions of one exercise that were calculated by previous plagiarism checks, so that a rerun only has to compare new or changed
+ * submissions. A similarity is only valid as long as the models of both submissions do not change, which is detected using a hash of the models.
+ * The similarities are stored exactly as calculated, so a reused similarity leads to the same plagiarism result as a new calculation. They can be read and written
+ * concurrently.
+ */
+public class ModelingSubmissionSimilarities {
+
+    private final Map<Long, String> modelHashes = new ConcurrentHashMap<>();
+
+    /**
+     * The similarities by the id of the first and the id of the second submission, where the id of the first submission is the smaller one.
+     * A negative value -x means that the calculation was stopped early because the similarity is lower than x.
+     */
+    private final Map<Long, Map<Long, Double>> similarities = new ConcurrentHashMap<>();
+
+    /**
+     * Stores the hash of the current model of a submission. If the model changed since the similarities were calculated, the similarities of the submission are removed.
+     *
+     * @param submissionId the id of the modeling submission
+     * @param modelHash    the hash of the current model of the submission
+     */
+    public void updateModelHash(long submissionId, String modelHash) {
+        String previousModelHash = modelHashes.put(submissionId, modelHash);
+        if (previousModelHash != null && !previousModelHash.equals(modelHash)) {
+            removeSimilarities(submissionId);
+        }
+    }
+
+    /**
+     * Removes all submissions that are not in the given set, e.g. because they were deleted or replaced by a newer submission of the same participation.
+     *
+     * @param submissionIds the ids of the submissions to keep
+     */
+    public void retainSubmissions(Set<Long> submissionIds) {
+        modelHashes.keySet().retainAll(submissionIds);
+        similarities.keySet().retainAll(submissionIds);
+        similarities.values().forEach(similaritiesOfSubmission -> similaritiesOfSubmission.keySet().retainAll(submissionIds));
+    }
+
+    /**
+     * Returns the previously calculated similarity of two submissions if it is sufficient for a plagiarism check with the given minimum similarity.
+     *
+     * @param submissionId1     the id of the first submission
+     * @param submissionId2     the id of the second submission
+     * @param minimumSimilarity the minimum similarity [0-1] of the plagiarism check
+     * @return the similarity [0-1], a negative number if the similarity is known to be lower than the minimum similarity, or an empty optional if the similarity has to be
+     *         calculated
+     */
+    public OptionalDouble getSimilarity(long submissionId1, long submissionId2, double minimumSimilarity) {
+        Map<Long, Double> similaritiesOfSubmission = similarities.get(Math.min(submissionId1, submissionId2));
+        Double similarity = similaritiesOfSubmission != null ? similaritiesOfSubmission.get(Math.max(submissionId1, submissionId2)) : null;
+        if (similarity == null || (similarity < 0 && -similarity > minimumSimilarity)) {
+            // Either the submissions were not compared yet, or the calculation was stopped at a higher minimum similarity.
+            return OptionalDouble.empty();
+        }
+        return OptionalDouble.of(similarity);
+    }
+
+    /**
+     * Stores the calculated similarity of two submissions.
+     *
+     * @param submissionId1     the id of the first submission
+     * @param submissionId2     the id of the second submission
+     * @param similarity        the similarity [0-1] as calculated by UMLDiagram#similarity(reference, minimumSimilarity)
+     * @param minimumSimilarity the minimum similarity [0-1] used for the calculation
+     */
+    public void putSimilarity(long submissionId1, long submissionId2, double similarity, double minimumSimilarity) {
+        // The calculation might have been stopped early, so a similarity below the minimum similarity is only an upper bound.
+        double storedSimilarity = similarity < minimumSimilarity ? -minimumSimilarity : similarity;
+        similarities.computeIfAbsent(Math.min(submissionId1, submissionId2), submissionId -> new ConcurrentHashMap<>()).put(Math.max(submissionId1, submissionId2),
+                storedSimilarity);
+    }
+
+    /**
+     * Returns the number of stored similarities, which determines the memory used by this object.
+     *
+     * @return the number of pairs of submissions with a stored similarity
+     */
+    public int size() {
+        return similarities.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private void removeSimilarities(long submissionId) {
+        similarities.remove(submissionId);
+        similarities.values().forEach(similaritiesOfSubmission -> similaritiesOfSubmission.remove(submissionId));
+    }
+}
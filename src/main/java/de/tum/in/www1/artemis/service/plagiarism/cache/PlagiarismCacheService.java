@@ -2,17 +2,31 @@ package de.tum.in.www1.artemis.service.plagiarism.cache;
 
 import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_ACTIVE_PLAGIARISM_CHECKS_PER_COURSE_CACHE;
 
+import java.time.Duration;
+
 import org.springframework.stereotype.Service;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.hazelcast.collection.ISet;
 import com.hazelcast.core.HazelcastInstance;
 
 @Service
 public class PlagiarismCacheService {
 
+    // The maximum number of cached similarities of pairs of modeling submissions, over all exercises
+    private static final int MAX_CACHED_MODELING_SUBMISSION_SIMILARITIES = 5_000_000;
+
     // Every course in this set is currently doing a plagiarism check
     private final ISet<Long> activePlagiarismChecksPerCourse;
 
+    // The similarities of the modeling submissions calculated by previous plagiarism checks, by exercise id.
+    // They are only kept in the memory of the instance that ran the check, because they contain one entry per pair of submissions and can be recalculated at any time.
+    // Checks on other instances or after a restart therefore calculate all similarities again.
+    private final Cache<Long, ModelingSubmissionSimilarities> modelingSubmissionSimilaritiesPerExercise = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_CACHED_MODELING_SUBMISSION_SIMILARITIES).weigher((Long exerciseId, ModelingSubmissionSimilarities similarities) -> similarities.size())
+            .expireAfterAccess(Duration.ofDays(1)).build();
+
     public PlagiarismCacheService(HazelcastInstance hazelcastInstance) {
         this.activePlagiarismChecksPerCourse = hazelcastInstance.getSet(HAZELCAST_ACTIVE_PLAGIARISM_CHECKS_PER_COURSE_CACHE);
     }
@@ -44,4 +58,25 @@ public class PlagiarismCacheService {
     public void setInactivePlagiarismCheck(Long courseId) {
         activePlagiarismChecksPerCourse.remove(courseId);
     }
+
+    /**
+     * Returns the similarities of the modeling submissions of the exercise that were calculated by previous plagiarism checks.
+     *
+     * @param exerciseId the id of the modeling exercise
+     * @return the cached similarities, or null if there are none
+     */
+    public ModelingSubmissionSimilarities getModelingSubmissionSimilarities(Long exerciseId) {
+        return modelingSubmissionSimilaritiesPerExercise.getIfPresent(exerciseId);
+    }
+
+    /**
+     * Stores the similarities of the modeling submissions of the exercise for subsequent plagiarism checks on this instance. They are removed if they were not used for one day.
+     *
+     * @param exerciseId                     the id of the modeling exercise
+     * @param modelingSubmissionSimilarities the similarities of the modeling submissions
+     */
+    public void setModelingSubmissionSimilarities(Long exerciseId, ModelingSubmissionSimilarities modelingSubmissionSimilarities) {
+        // the similarities are stored again after each check, so that their weight is updated
+        modelingSubmissionSimilaritiesPerExercise.put(exerciseId, modelingSubmissionSimilarities);
+    }
 }
@@ -5,10 +5,15 @@ import static de.tum.in.www1.artemis.domain.ProgrammingSubmission.createFallback
 
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
 import javax.validation.constraints.NotNull;
 
 import org.apache.commons.math3.util.Precision;
@@ -19,12 +24,15 @@ import org.springframework.boot.actuate.audit.AuditEventRepository;
 import org.springframework.stereotype.Service;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import de.tum.in.www1.artemis.config.Constants;
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.enumeration.CategoryState;
 import de.tum.in.www1.artemis.domain.enumeration.FeedbackType;
 import de.tum.in.www1.artemis.domain.enumeration.SubmissionType;
+import de.tum.in.www1.artemis.domain.enumeration.Visibility;
 import de.tum.in.www1.artemis.domain.participation.*;
 import de.tum.in.www1.artemis.domain.submissionpolicy.LockRepositoryPolicy;
 import de.tum.in.www1.artemis.domain.submissionpolicy.SubmissionPenaltyPolicy;
@@ -39,12 +47,27 @@ import de.tum.in.www1.artemis.service.dto.AbstractBuildResultNotificationDTO;
 import de.tum.in.www1.artemis.service.notifications.GroupNotificationService;
 import de.tum.in.www1.artemis.web.rest.dto.ProgrammingExerciseGradingStatisticsDTO;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
+import de.tum.in.www1.artemis.web.websocket.dto.ProgrammingExerciseReEvaluationProgressDTO;
 
 @Service
 public class ProgrammingExerciseGradingService {
 
     private final Logger log = LoggerFactory.getLogger(ProgrammingExerciseGradingService.class);
 
+    /**
+     * The number of student participations whose results are loaded and re-evaluated at once, see {@link #reEvaluateAllResults(ProgrammingExercise)}
+     */
+    private static final int RE_EVALUATION_CHUNK_SIZE = 100;
+
+    /**
+     * The number of threads that re-evaluate the results of a chunk in parallel. The re-evaluation of a result might access the database (e.g. to count the submissions for
+     * a submission policy), so the threads are limited to not exhaust the database connection pool.
+     */
+    private static final int RE_EVALUATION_THREADS = 4;
+
+    private final ExecutorService reEvaluationExecutor = Executors.newFixedThreadPool(RE_EVALUATION_THREADS,
+            new ThreadFactoryBuilder().setNameFormat("result-re-evaluation-%d").setDaemon(true).build());
+
     private final Optional<ContinuousIntegrationResultService> continuousIntegrationResultService;
 
     private final Optional<VersionControlService> versionControlService;
@@ -374,11 +397,14 @@ public class ProgrammingExerciseGradingService {
         }
 
         // We only apply submission policies if it is a student participation
+        if (isStudentParticipation) {
+            loadSubmissionPolicy(exercise);
+        }
         return calculateScoreForResult(testCases, relevantTestCases, result, exercise, isStudentParticipation);
     }
 
     /**
-     * Updates <b>all</b> latest results of the given exercise with the information of the exercises test cases.
+     * Re-evaluates <b>all</b> latest results of the given exercise with the information of the exercises test cases.
      * <p>
      * This update includes:
      * <ul>
@@ -389,30 +415,84 @@ public class ProgrammingExerciseGradingService {
      *
      * If there are no test cases stored in the database for the given exercise (i.e. we have a legacy exercise) or the weight has not been changed, then the result will not
      * change.
+     * <p>
+     * Not all results are loaded into memory at once: The student participations are loaded in chunks, the results of a chunk are re-evaluated in parallel and only the results
+     * whose grading has actually changed (e.g. not the results of a student who passed none of the test cases whose weight was changed) are saved.
+     * A participation whose result cannot be re-evaluated is skipped and counted as failed. The progress is sent to the topic {@link #getReEvaluationProgressTopic(long)}.
      *
-     * @param exercise whose results should be updated.
-     * @return the results of the exercise that have been updated.
+     * @param exercise whose results should be re-evaluated.
+     * @return the number of results that have been re-evaluated.
      */
-    public List<Result> updateAllResults(final ProgrammingExercise exercise) {
+    public int reEvaluateAllResults(final ProgrammingExercise exercise) {
         final Set<ProgrammingExerciseTestCase> testCases = testCaseRepository.findByExerciseIdAndActive(exercise.getId(), true);
+        final Set<ProgrammingExerciseTestCase> testCasesBeforeDueDate = filterTestCasesForStudents(testCases, true);
+        final Set<ProgrammingExerciseTestCase> testCasesAfterDueDate = filterTestCasesForStudents(testCases, false);
 
-        final Stream<Result> updatedTemplateAndSolutionResult = updateTemplateAndSolutionResults(exercise, testCases);
+        final List<Result> templateAndSolutionResults = updateTemplateAndSolutionResults(exercise, testCases).toList();
+        resultRepository.saveAll(templateAndSolutionResults);
+        int reEvaluatedResults = templateAndSolutionResults.size();
+        int updatedResults = templateAndSolutionResults.size();
 
-        final List<StudentParticipation> studentParticipations = new ArrayList<>();
-        // We only update the latest automatic results here, later manual assessments are not affected
-        studentParticipations.addAll(studentParticipationRepository.findByExerciseIdWithLatestAutomaticResultAndFeedbacks(exercise.getId()));
-        // Also update manual results
-        studentParticipations.addAll(studentParticipationRepository.findByExerciseIdWithManualResultAndFeedbacks(exercise.getId()));
+        loadSubmissionPolicy(exercise);
+        final List<Long> participationIds = studentParticipationRepository.findIdsByExerciseId(exercise.getId());
+        final AtomicInteger failedParticipations = new AtomicInteger();
+        int processedParticipations = 0;
+        try {
+            for (List<Long> participationIdsChunk : Lists.partition(participationIds, RE_EVALUATION_CHUNK_SIZE)) {
+                // We only update the latest automatic results and the manual results, later manual assessments are not affected
+                final List<StudentParticipation> participations = new ArrayList<>(
+                        studentParticipationRepository.findByIdsWithLatestAutomaticResultAndFeedbacks(participationIdsChunk));
+                participations.addAll(studentParticipationRepository.findByIdsWithManualResultAndFeedbacks(participationIdsChunk));
+
+                // a participation that cannot be re-evaluated is skipped, so that it does not abort the re-evaluation of the remaining participations
+                final List<CompletableFuture<Optional<ReEvaluatedResult>>> reEvaluations = participations.stream()
+                        .map(participation -> CompletableFuture
+                                .supplyAsync(() -> reEvaluateLatestResult(exercise, participation, testCases, testCasesBeforeDueDate, testCasesAfterDueDate),
+                                        reEvaluationExecutor)
+                                .exceptionally(ex -> {
+                                    log.error("Could not re-evaluate the latest result of participation {} of programming exercise {}", participation.getId(), exercise.getId(),
+                                            ex);
+                                    failedParticipations.incrementAndGet();
+                                    return Optional.empty();
+                                }))
+                        .toList();
+                final List<ReEvaluatedResult> reEvaluatedChunk = reEvaluations.stream().map(CompletableFuture::join).flatMap(Optional::stream).toList();
+                final List<Result> changedResults = reEvaluatedChunk.stream().filter(ReEvaluatedResult::changed).map(ReEvaluatedResult::result).toList();
+                resultRepository.saveAll(changedResults);
+
+                reEvaluatedResults += reEvaluatedChunk.size();
+                updatedResults += changedResults.size();
+                processedParticipations += participationIdsChunk.size();
+                var progress = new ProgrammingExerciseReEvaluationProgressDTO(participationIds.size(), processedParticipations, updatedResults, failedParticipations.get(), false);
+                websocketMessagingService.sendCoalescedMessage(getReEvaluationProgressTopic(exercise.getId()), progress);
+            }
+        }
+        finally {
+            // the clients are notified that the re-evaluation has finished, even if it was aborted (e.g. because the results of a chunk could not be saved)
+            var progress = new ProgrammingExerciseReEvaluationProgressDTO(participationIds.size(), processedParticipations, updatedResults, failedParticipations.get(), true);
+            websocketMessagingService.sendCoalescedMessage(getReEvaluationProgressTopic(exercise.getId()), progress);
+        }
 
-        final Stream<Result> updatedStudentResults = updateResults(exercise, testCases, studentParticipations);
+        log.debug("Re-evaluated {} results of programming exercise {}, {} of them have changed", reEvaluatedResults, exercise.getId(), updatedResults);
+        return reEvaluatedResults;
+    }
 
-        return Stream.concat(updatedTemplateAndSolutionResult, updatedStudentResults).toList();
+    /**
+     * Stops the threads that re-evaluate results when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        reEvaluationExecutor.shutdownNow();
+    }
+
+    public static String getReEvaluationProgressTopic(long programmingExerciseId) {
+        return "/topic/programming-exercises/" + programmingExerciseId + "/re-evaluation-progress";
     }
 
     /**
      * Updates the latest results of all participations that do not have an individual due date. This includes the template and solution participation.
      * <p>
-     * For details what will be updated for individual results, see {@link ProgrammingExerciseGradingService#updateAllResults}.
+     * For details what will be updated for individual results, see {@link ProgrammingExerciseGradingService#reEvaluateAllResults}.
      *
      * @param exercise whose results should be updated.
      * @return the results of the exercise that have been updated.
@@ -436,7 +516,7 @@ public class ProgrammingExerciseGradingService {
     /**
      * Updates the latest result scores of the given participation.
      * <p>
-     * For details what will be updated, see {@link ProgrammingExerciseGradingService#updateAllResults}.
+     * For details what will be updated, see {@link ProgrammingExerciseGradingService#reEvaluateAllResults}.
      *
      * @param participation for which the results should be updated.
      * @return a list of updated results (maximum two: latest automatic, and latest manual result).
@@ -446,6 +526,7 @@ public class ProgrammingExerciseGradingService {
         final Set<ProgrammingExerciseTestCase> testCases = testCaseRepository.findByExerciseIdAndActive(exercise.getId(), true);
         final Set<ProgrammingExerciseTestCase> testCasesBeforeDueDate = filterTestCasesForStudents(testCases, true);
         final Set<ProgrammingExerciseTestCase> testCasesAfterDueDate = filterTestCasesForStudents(testCases, false);
+        loadSubmissionPolicy(exercise);
 
         final Optional<Result> updatedAutomaticResult = studentParticipationRepository.findByIdWithLatestAutomaticResultAndFeedbacks(participation.getId())
                 .flatMap(studentParticipation -> updateLatestResult(exercise, studentParticipation, testCases, testCasesBeforeDueDate, testCasesAfterDueDate, true));
@@ -466,6 +547,7 @@ public class ProgrammingExerciseGradingService {
     private Stream<Result> updateResults(final ProgrammingExercise exercise, final Set<ProgrammingExerciseTestCase> allTestCases, final List<StudentParticipation> participations) {
         final Set<ProgrammingExerciseTestCase> testCasesBeforeDueDate = filterTestCasesForStudents(allTestCases, true);
         final Set<ProgrammingExerciseTestCase> testCasesAfterDueDate = filterTestCasesForStudents(allTestCases, false);
+        loadSubmissionPolicy(exercise);
 
         return participations.stream().map(participation -> updateLatestResult(exercise, participation, allTestCases, testCasesBeforeDueDate, testCasesAfterDueDate, true))
                 .flatMap(Optional::stream);
@@ -517,19 +599,50 @@ public class ProgrammingExerciseGradingService {
         return Optional.of(result);
     }
 
+    /**
+     * Updates the score for the latest result of the given student participation and checks whether its grading has changed.
+     *
+     * @param exercise               the participation belongs to.
+     * @param participation          of a student in the exercise.
+     * @param allTestCases           of this exercise.
+     * @param testCasesBeforeDueDate the test cases that are visible to the student before the due date.
+     * @param testCasesAfterDueDate  the test cases that are visible to the student after the due date.
+     * @return the latest result with an updated score, or nothing if the participation had no results.
+     */
+    private Optional<ReEvaluatedResult> reEvaluateLatestResult(ProgrammingExercise exercise, Participation participation, Set<ProgrammingExerciseTestCase> allTestCases,
+            Set<ProgrammingExerciseTestCase> testCasesBeforeDueDate, Set<ProgrammingExerciseTestCase> testCasesAfterDueDate) {
+        final Result latestResult = participation.findLatestLegalResult();
+        if (latestResult == null) {
+            return Optional.empty();
+        }
+        final GradingState previousState = GradingState.of(latestResult);
+        return updateLatestResult(exercise, participation, allTestCases, testCasesBeforeDueDate, testCasesAfterDueDate, true)
+                .map(result -> new ReEvaluatedResult(result, !previousState.equals(GradingState.of(result))));
+    }
+
+    /**
+     * Loads the submission policy of the exercise, which is taken into account when calculating the score of the results of student participations.
+     *
+     * @param exercise the exercise whose submission policy should be loaded.
+     */
+    private void loadSubmissionPolicy(ProgrammingExercise exercise) {
+        SubmissionPolicy submissionPolicy = programmingExerciseRepository.findByIdWithSubmissionPolicyElseThrow(exercise.getId()).getSubmissionPolicy();
+        exercise.setSubmissionPolicy(submissionPolicy);
+    }
+
     /**
      * Creates an audit event logging that a re-evaluation was triggered.
      *
-     * @param user     who triggered the re-evaluation.
-     * @param exercise for which the evaluation was triggered.
-     * @param course   the exercise belongs to.
-     * @param results  of the exercise.
+     * @param user            who triggered the re-evaluation.
+     * @param exercise        for which the evaluation was triggered.
+     * @param course          the exercise belongs to.
+     * @param numberOfResults the number of re-evaluated results of the exercise.
      */
-    public void logReEvaluate(User user, ProgrammingExercise exercise, Course course, List<Result> results) {
+    public void logReEvaluate(User user, ProgrammingExercise exercise, Course course, int numberOfResults) {
         var auditEvent = new AuditEvent(user.getLogin(), Constants.RE_EVALUATE_RESULTS, "exercise=" + exercise.getTitle(), "course=" + course.getTitle(),
-                "results=" + results.size());
+                "results=" + numberOfResults);
         auditEventRepository.add(auditEvent);
-        log.info("User {} triggered a re-evaluation of {} results for exercise {} with id {}", user.getLogin(), results.size(), exercise.getTitle(), exercise.getId());
+        log.info("User {} triggered a re-evaluation of {} results for exercise {} with id {}", user.getLogin(), numberOfResults, exercise.getTitle(), exercise.getId());
     }
 
     /**
@@ -579,6 +692,28 @@ public class ProgrammingExerciseGradingService {
         }
     }
 
+    /**
+     * @param result  that has been re-evaluated.
+     * @param changed true, if the grading of the result has changed during the re-evaluation.
+     */
+    private record ReEvaluatedResult(Result result, boolean changed) {
+    }
+
+    /**
+     * The values of a result that can be changed by calculating its score.
+     */
+    private record GradingState(Double score, Integer testCaseCount, Integer passedTestCaseCount, Integer codeIssueCount, List<FeedbackGradingState> feedbacks) {
+
+        static GradingState of(Result result) {
+            var feedbacks = result.getFeedbacks().stream().map(feedback -> new FeedbackGradingState(feedback.getText(), feedback.getDetailText(), feedback.getCredits(),
+                    feedback.isPositive(), feedback.getType(), feedback.getVisibility())).toList();
+            return new GradingState(result.getScore(), result.getTestCaseCount(), result.getPassedTestCaseCount(), result.getCodeIssueCount(), feedbacks);
+        }
+    }
+
+    private record FeedbackGradingState(String text, String detailText, Double credits, Boolean positive, FeedbackType type, Visibility visibility) {
+    }
+
     /**
      * Calculates the grading for a result and updates the feedbacks
      *
@@ -607,11 +742,6 @@ public class ProgrammingExerciseGradingService {
         // Remove feedback that is in an invisible SCA category
         staticCodeAnalysisFeedback = staticCodeAnalysisCategoryRepository.categorizeScaFeedback(result, staticCodeAnalysisFeedback, exercise);
 
-        if (applySubmissionPolicy) {
-            SubmissionPolicy submissionPolicy = programmingExerciseRepository.findByIdWithSubmissionPolicyElseThrow(exercise.getId()).getSubmissionPolicy();
-            exercise.setSubmissionPolicy(submissionPolicy);
-        }
-
         // Case 1: There are tests and test case feedback, find out which tests were not executed or should only count to the score after the due date.
         if (!relevantTestCases.isEmpty() && !testCaseFeedback.isEmpty() && !result.getFeedbacks().isEmpty()) {
             filterAutomaticFeedbacksWithoutTestCase(result, testCases);
@@ -0,0 +1,249 @@
+package de.tum.in.www1.artemis.service.programming;
+
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_REPOSITORY_OPERATION_PROGRESS;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+
+import de.tum.in.www1.artemis.domain.ProgrammingExercise;
+import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseStudentParticipation;
+import de.tum.in.www1.artemis.repository.ProgrammingExerciseRepository;
+import de.tum.in.www1.artemis.security.SecurityUtils;
+import de.tum.in.www1.artemis.web.rest.dto.RepositoryOperationProgressDTO;
+import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
+
+/**
+ * Executes operations (e.g. locking, unlocking or stashing) on the repositories of all student participations of a programming exercise.
+ * <p>
+ * All operations share a bounded number of threads and a rate limit, which can be configured per version control system, so that e.g. locking the repositories of all
+ * exercises at the end of a large exam does not overload the version control server. Failed operations are retried with an exponential backoff.
+ * <p>
+ * The progress of every operation is stored in the Hazelcast cluster, so that instructors can follow it on any instance. Operations that are interrupted (e.g. because
+ * the node executing it was restarted) are not resumed.
+ */
+@Service
+public class RepositoryBulkOperationService {
+
+    private final Logger log = LoggerFactory.getLogger(RepositoryBulkOperationService.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(2);
+
+    /**
+     * The stored progress is updated after this many participations were processed
+     */
+    private static final int PROGRESS_UPDATE_INTERVAL = 50;
+
+    private static final long PROGRESS_TIME_TO_LIVE_HOURS = 24;
+
+    private final ProgrammingExerciseRepository programmingExerciseRepository;
+
+    private final ScheduledExecutorService executor;
+
+    private final RateLimiter rateLimiter;
+
+    private final IMap<String, OperationProgress> progresses;
+
+    public RepositoryBulkOperationService(ProgrammingExerciseRepository programmingExerciseRepository, HazelcastInstance hazelcastInstance,
+            @Value("${artemis.version-control.bulk-operations.concurrency:10}") int concurrency,
+            @Value("${artemis.version-control.bulk-operations.permits-per-second:20}") double permitsPerSecond) {
+        this.programmingExerciseRepository = programmingExerciseRepository;
+        this.progresses = hazelcastInstance.getMap(HAZELCAST_REPOSITORY_OPERATION_PROGRESS);
+        this.rateLimiter = RateLimiter.create(permitsPerSecond);
+        // the threads are only created when the first operation is executed
+        this.executor = Executors.newScheduledThreadPool(concurrency, new ThreadFactoryBuilder().setNameFormat("repository-operation-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Invokes the given <code>operation</code> on all student participations that satisfy the <code>condition</code>-{@link Predicate}.
+     *
+     * @param programmingExerciseId the programming exercise whose participations should be processed
+     * @param operation             the operation to perform
+     * @param condition             the condition that tests whether to invoke the operation on a participation
+     * @param operationName         the name of the operation, which identifies its progress
+     * @return a future containing all participations for which the operation has failed with an exception
+     * @throws EntityNotFoundException if the programming exercise can't be found.
+     */
+    public CompletableFuture<List<ProgrammingExerciseStudentParticipation>> invokeOperationOnAllParticipationsThatSatisfy(long programmingExerciseId,
+            BiConsumer<ProgrammingExercise, ProgrammingExerciseStudentParticipation> operation, Predicate<ProgrammingExerciseStudentParticipation> condition,
+            String operationName) {
+        log.info("Invoking (scheduled) task '{}' for programming exercise with id {}.", operationName, programmingExerciseId);
+
+        ProgrammingExercise programmingExercise = programmingExerciseRepository.findWithEagerStudentParticipationsByIdElseThrow(programmingExerciseId);
+        List<ProgrammingExerciseStudentParticipation> participations = programmingExercise.getStudentParticipations().stream()
+                .map(participation -> (ProgrammingExerciseStudentParticipation) participation).toList();
+
+        var bulkOperation = new BulkOperation(getKey(programmingExerciseId, operationName), programmingExercise, operationName, operation, condition, participations.size());
+        if (participations.isEmpty()) {
+            bulkOperation.finish();
+        }
+        for (ProgrammingExerciseStudentParticipation participation : participations) {
+            executor.execute(() -> execute(bulkOperation, participation, 1));
+        }
+        return bulkOperation.result;
+    }
+
+    /**
+     * Returns the progress of the operations that were executed on the participations of the given programming exercise within the last day
+     *
+     * @param programmingExerciseId the id of the programming exercise
+     * @return the progress of the operations, the latest operation first
+     */
+    public List<RepositoryOperationProgressDTO> getProgress(long programmingExerciseId) {
+        String keyPrefix = getKey(programmingExerciseId, "");
+        return progresses.keySet().stream().filter(key -> key.startsWith(keyPrefix)).map(progresses::get).filter(Objects::nonNull)
+                .sorted(Comparator.comparing(OperationProgress::startDate).reversed()).map(OperationProgress::toDTO).toList();
+    }
+
+    private void execute(BulkOperation bulkOperation, ProgrammingExerciseStudentParticipation participation, int attempt) {
+        try {
+            // We need to set the authorization object for every thread
+            SecurityUtils.setAuthorizationObject();
+            if (bulkOperation.condition.test(participation)) {
+                rateLimiter.acquire();
+                bulkOperation.operation.accept(bulkOperation.programmingExercise, participation);
+            }
+            bulkOperation.processed();
+        }
+        catch (Exception ex) {
+            if (attempt < MAX_ATTEMPTS && !executor.isShutdown()) {
+                long backoff = INITIAL_BACKOFF.toMillis() << (attempt - 1);
+                log.warn("'{}' failed for programming exercise with id {} for student repository with participation id {} (attempt {}), retrying in {} ms: {}",
+                        bulkOperation.operationName, bulkOperation.programmingExercise.getId(), participation.getId(), attempt, backoff, ex.getMessage());
+                executor.schedule(() -> execute(bulkOperation, participation, attempt + 1), backoff, TimeUnit.MILLISECONDS);
+                return;
+            }
+            log.error(String.format("'%s' failed for programming exercise with id %d for student repository with participation id %d", bulkOperation.operationName,
+                    bulkOperation.programmingExercise.getId(), participation.getId()), ex);
+            bulkOperation.failed(participation);
+        }
+    }
+
+    private static String getKey(long programmingExerciseId, String operationName) {
+        return programmingExerciseId + "/" + operationName;
+    }
+
+    /**
+     * An operation that is currently executed on this instance
+     */
+    private class BulkOperation {
+
+        private final String key;
+
+        private final ProgrammingExercise programmingExercise;
+
+        private final String operationName;
+
+        private final BiConsumer<ProgrammingExercise, ProgrammingExerciseStudentParticipation> operation;
+
+        private final Predicate<ProgrammingExerciseStudentParticipation> condition;
+
+        private final int total;
+
+        private final ZonedDateTime startDate = ZonedDateTime.now();
+
+        private int processed = 0;
+
+        private final List<ProgrammingExerciseStudentParticipation> failedParticipations = new ArrayList<>();
+
+        private int unsavedProgress = 0;
+
+        private final CompletableFuture<List<ProgrammingExerciseStudentParticipation>> result = new CompletableFuture<>();
+
+        BulkOperation(String key, ProgrammingExercise programmingExercise, String operationName, BiConsumer<ProgrammingExercise, ProgrammingExerciseStudentParticipation> operation,
+                Predicate<ProgrammingExerciseStudentParticipation> condition, int total) {
+            this.key = key;
+            this.programmingExercise = programmingExercise;
+            this.operationName = operationName;
+            this.operation = operation;
+            this.condition = condition;
+            this.total = total;
+            saveProgress(null);
+        }
+
+        /**
+         * Records that a participation was processed successfully, including participations that did not satisfy the condition
+         */
+        synchronized void processed() {
+            onProcessed();
+        }
+
+        synchronized void failed(ProgrammingExerciseStudentParticipation participation) {
+            failedParticipations.add(participation);
+            onProcessed();
+        }
+
+        private void onProcessed() {
+            if (++processed >= total) {
+                finish();
+            }
+            else if (++unsavedProgress >= PROGRESS_UPDATE_INTERVAL) {
+                saveProgress(null);
+            }
+        }
+
+        synchronized void finish() {
+            saveProgress(ZonedDateTime.now());
+            log.info("Finished executing (scheduled) task '{}' for programming exercise with id {}.", operationName, programmingExercise.getId());
+            if (!failedParticipations.isEmpty()) {
+                var failedIds = failedParticipations.stream().map(participation -> participation.getId().toString()).collect(Collectors.joining(","));
+                log.warn("The (scheduled) task '{}' for programming exercise {} failed for these {} participations: {}", operationName, programmingExercise.getId(),
+                        failedParticipations.size(), failedIds);
+            }
+            result.complete(List.copyOf(failedParticipations));
+        }
+
+        private void saveProgress(ZonedDateTime completionDate) {
+            unsavedProgress = 0;
+            var progress = new OperationProgress(operationName, total, processed, failedParticipations.size(), startDate, completionDate);
+            try {
+                progresses.set(key, progress, PROGRESS_TIME_TO_LIVE_HOURS, TimeUnit.HOURS);
+            }
+            catch (Exception ex) {
+                // the operation itself must not fail because its progress could not be stored
+                log.warn("Could not store the progress of '{}' for programming exercise with id {}: {}", operationName, programmingExercise.getId(), ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The progress of an operation, which is stored in the Hazelcast cluster
+     *
+     * @param operationName  the name of the operation
+     * @param total          the number of participations the operation is executed for
+     * @param processed      the number of participations that were processed, including failed ones and ones that did not satisfy the condition
+     * @param failed         the number of participations for which the operation failed
+     * @param startDate      the time the operation was started
+     * @param completionDate the time the operation was finished, or null if it is still running
+     */
+    record OperationProgress(String operationName, int total, int processed, int failed, ZonedDateTime startDate, ZonedDateTime completionDate) implements Serializable {
+
+        RepositoryOperationProgressDTO toDTO() {
+            return new RepositoryOperationProgressDTO(operationName, completionDate != null, total, processed, failed, startDate, completionDate);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package de.tum.in.www1.artemis.service.scheduled;
+
+import de.tum.in.www1.artemis.domain.Result;
+
+/**
+ * A result together with the id of the participant (user or team) of its participation, as loaded for the calculation of the participant scores
+ */
+public record ParticipantResultDTO(long participantId, Result result) {
+}
@@ -1,12 +1,12 @@
 package de.tum.in.www1.artemis.service.scheduled;
 
 import java.time.Instant;
-import java.time.ZonedDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -20,6 +20,8 @@ import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
+
 import de.tum.in.www1.artemis.domain.Exercise;
 import de.tum.in.www1.artemis.domain.Result;
 import de.tum.in.www1.artemis.domain.Team;
@@ -33,15 +35,22 @@ import de.tum.in.www1.artemis.repository.*;
 import de.tum.in.www1.artemis.security.SecurityUtils;
 import de.tum.in.www1.artemis.service.CompetencyProgressService;
 import de.tum.in.www1.artemis.service.util.RoundingUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Scheduled service for the calculation of the participant scores.
- * Note: Only active on the main instance with "scheduling" profile.
+ * Note: Only active on the main instance with "scheduling" profile. Other instances forward the changes via the broker,
+ * so the participant scores of an exercise are only ever processed by one instance.
  * <p>
  * The approach is two-sided, to make the participant scores eventually consistent within seconds without overloading the database.
  * Using a listener on the {@link Result} entity, changes are detected and forwarded (via the broker if not on the main instance) to this service.
  * This method is fast, but not 100% reliable. Therefore, a cron job regularly checks for invalid participant scores and updates them.
  * In all cases, using asynchronous scheduled tasks speeds up all requests that modify results.
+ * <p>
+ * Changes are collected per exercise and processed in batches: all pending participants of an exercise are loaded with a few set-based queries and their scores
+ * are saved in one transaction, instead of several queries and transactions per participant. This matters when many results of an exercise change at once, e.g. when a programming exercise is re-evaluated.
  *
  * @see de.tum.in.www1.artemis.service.listeners.ResultListener
  */
@@ -51,11 +60,27 @@ public class ParticipantScoreScheduleService {
 
     public static int DEFAULT_WAITING_TIME_FOR_SCHEDULED_TASKS = 500;
 
+    /**
+     * The maximum number of participants whose scores are loaded and saved together
+     */
+    private static final int MAX_BATCH_SIZE = 200;
+
     private final Logger logger = LoggerFactory.getLogger(ParticipantScoreScheduleService.class);
 
     private final TaskScheduler scheduler;
 
-    private final Map<Integer, ScheduledFuture<?>> scheduledTasks = new ConcurrentHashMap<>();
+    /**
+     * The pending updates per exercise and participant. An exercise is removed as a whole when its batch is processed.
+     * The inner maps are only modified within {@link ConcurrentHashMap#compute}, so they do not need to be thread-safe.
+     */
+    private final Map<Long, Map<Long, PendingUpdate>> pendingUpdates = new ConcurrentHashMap<>();
+
+    /**
+     * The exercises for which a batch is scheduled or currently processed, at most one batch per exercise exists at a time
+     */
+    private final Set<Long> scheduledExercises = ConcurrentHashMap.newKeySet();
+
+    private final Map<Long, ScheduledFuture<?>> scheduledBatches = new ConcurrentHashMap<>();
 
     private Optional<Instant> lastScheduledRun = Optional.empty();
 
@@ -75,6 +100,8 @@ public class ParticipantScoreScheduleService {
 
     private final TeamRepository teamRepository;
 
+    private final Timer batchTimer;
+
     /**
      * Determines if the scheduled service is running or not. Use startup() and shutdown() to modify this value accordingly.
      * It should only be necessary in tests to deactivate the service
@@ -83,7 +110,8 @@ public class ParticipantScoreScheduleService {
 
     public ParticipantScoreScheduleService(@Qualifier("taskScheduler") TaskScheduler scheduler, CompetencyProgressService competencyProgressService,
             ParticipantScoreRepository participantScoreRepository, StudentScoreRepository studentScoreRepository, TeamScoreRepository teamScoreRepository,
-            ExerciseRepository exerciseRepository, ResultRepository resultRepository, UserRepository userRepository, TeamRepository teamRepository) {
+            ExerciseRepository exerciseRepository, ResultRepository resultRepository, UserRepository userRepository, TeamRepository teamRepository,
+            MeterRegistry meterRegistry) {
         this.scheduler = scheduler;
         this.competencyProgressService = competencyProgressService;
         this.participantScoreRepository = participantScoreRepository;
@@ -93,6 +121,11 @@ public class ParticipantScoreScheduleService {
         this.resultRepository = resultRepository;
         this.userRepository = userRepository;
         this.teamRepository = teamRepository;
+
+        Gauge.builder("artemis.scheduled.participant_scores.pending", pendingUpdates, updates -> updates.values().stream().mapToInt(Map::size).sum())
+                .description("Number of participant scores waiting to be updated").register(meterRegistry);
+        this.batchTimer = Timer.builder("artemis.scheduled.participant_scores.batch.duration").description("Duration of updating the participant scores of one exercise batch")
+                .register(meterRegistry);
     }
 
     /**
@@ -104,7 +137,7 @@ public class ParticipantScoreScheduleService {
         if (!isRunning.get()) {
             return true;
         }
-        return scheduledTasks.isEmpty();
+        return scheduledExercises.isEmpty() && pendingUpdates.isEmpty();
     }
 
     /**
@@ -133,8 +166,10 @@ public class ParticipantScoreScheduleService {
     public void shutdown() {
         isRunning.set(false);
         // Stop all running tasks, we will reschedule them on startup again
-        scheduledTasks.values().forEach(future -> future.cancel(true));
-        scheduledTasks.clear();
+        scheduledBatches.values().forEach(future -> future.cancel(true));
+        scheduledBatches.clear();
+        scheduledExercises.clear();
+        pendingUpdates.clear();
     }
 
     /**
@@ -198,7 +233,8 @@ public class ParticipantScoreScheduleService {
     }
 
     /**
-     * Schedule a task to update the participant score for the given combination of exercise and participant.
+     * Add the given combination of exercise and participant to the pending updates and schedule a batch for the exercise if there is none yet.
+     * Multiple updates for the same participant before the batch is processed are merged.
      *
      * @param exerciseId          the id of the exercise
      * @param participantId       the id of the participant (user or team, determined by the exercise)
@@ -206,207 +242,230 @@ public class ParticipantScoreScheduleService {
      * @param resultIdToBeDeleted the id of the result that is about to be deleted (or null, if result is created/updated)
      */
     private void scheduleTask(Long exerciseId, Long participantId, Instant resultLastModified, Long resultIdToBeDeleted) {
-        final int participantScoreHash = new ParticipantScoreId(exerciseId, participantId).hashCode();
-        var task = scheduledTasks.get(participantScoreHash);
-        if (task != null) {
-            // If a task is already scheduled, cancel it and reschedule it with the latest result
-            task.cancel(true);
-            scheduledTasks.remove(participantScoreHash);
+        var update = new PendingUpdate(resultLastModified, resultIdToBeDeleted == null ? Set.of() : Set.of(resultIdToBeDeleted));
+        pendingUpdates.compute(exerciseId, (id, updates) -> {
+            var updatesOfExercise = updates == null ? new HashMap<Long, PendingUpdate>() : updates;
+            updatesOfExercise.merge(participantId, update, PendingUpdate::merge);
+            return updatesOfExercise;
+        });
+        scheduleBatch(exerciseId);
+        logger.debug("Scheduled task for exercise {} and participant {}.", exerciseId, participantId);
+    }
+
+    /**
+     * Schedule the processing of the pending updates of the exercise, unless a batch for the exercise is already scheduled or currently processed.
+     *
+     * @param exerciseId the id of the exercise
+     */
+    private void scheduleBatch(Long exerciseId) {
+        if (scheduledExercises.add(exerciseId)) {
+            var schedulingTime = Instant.now().plusMillis(DEFAULT_WAITING_TIME_FOR_SCHEDULED_TASKS);
+            scheduledBatches.put(exerciseId, scheduler.schedule(() -> executeBatch(exerciseId), schedulingTime));
         }
+    }
 
-        var schedulingTime = ZonedDateTime.now().plus(DEFAULT_WAITING_TIME_FOR_SCHEDULED_TASKS, ChronoUnit.MILLIS);
-        var future = scheduler.schedule(() -> this.executeTask(exerciseId, participantId, resultLastModified, resultIdToBeDeleted), schedulingTime.toInstant());
-        scheduledTasks.put(participantScoreHash, future);
-        logger.debug("Scheduled task for exercise {} and participant {} at {}.", exerciseId, participantId, schedulingTime);
+    /**
+     * Execute the batch of pending updates of the exercise. If new updates arrived in the meantime, the next batch is scheduled afterwards.
+     *
+     * @param exerciseId the id of the exercise
+     */
+    private void executeBatch(Long exerciseId) {
+        try {
+            var updates = pendingUpdates.remove(exerciseId);
+            if (updates != null && !updates.isEmpty()) {
+                SecurityUtils.setAuthorizationObject();
+                batchTimer.record(() -> processUpdates(exerciseId, updates));
+            }
+        }
+        catch (Exception e) {
+            logger.error("Exception while processing participant scores for exercise {}:", exerciseId, e);
+        }
+        finally {
+            scheduledBatches.remove(exerciseId);
+            scheduledExercises.remove(exerciseId);
+            if (pendingUpdates.containsKey(exerciseId) && isRunning.get()) {
+                scheduleBatch(exerciseId);
+            }
+        }
     }
 
     /**
-     * Execute the task to update the participant score for the given combination of exercise and participant.
+     * Update the participant scores of the given participants of the exercise.
      *
-     * @param exerciseId          the id of the exercise
-     * @param participantId       the id of the participant (user or team, determined by the exercise)
-     * @param resultLastModified  the last modified date of the result that triggered the update
-     * @param resultIdToBeDeleted the id of the result that is about to be deleted (optional)
+     * @param exerciseId the id of the exercise
+     * @param updates    the pending updates by participant id (user or team, determined by the exercise)
      */
-    private void executeTask(Long exerciseId, Long participantId, Instant resultLastModified, Long resultIdToBeDeleted) {
+    private void processUpdates(Long exerciseId, Map<Long, PendingUpdate> updates) {
         long start = System.currentTimeMillis();
-        logger.info("Processing exercise {} and participant {} to update participant scores.", exerciseId, participantId);
-        try {
-            SecurityUtils.setAuthorizationObject();
-
-            var exercise = exerciseRepository.findById(exerciseId).orElse(null);
-            if (exercise == null) {
-                // If the exercise was deleted, we can delete all participant scores for it as well and skip
-                logger.debug("Exercise {} no longer exists, deleting all participant scores for it.", exerciseId);
-                participantScoreRepository.deleteAllByExerciseId(exerciseId);
-                return;
+        logger.info("Processing exercise {} and {} participants to update participant scores.", exerciseId, updates.size());
+
+        var exercise = exerciseRepository.findById(exerciseId).orElse(null);
+        if (exercise == null) {
+            // If the exercise was deleted, we can delete all participant scores for it as well and skip
+            logger.debug("Exercise {} no longer exists, deleting all participant scores for it.", exerciseId);
+            participantScoreRepository.deleteAllByExerciseId(exerciseId);
+            return;
+        }
+
+        for (List<Long> participantIds : Lists.partition(new ArrayList<>(updates.keySet()), MAX_BATCH_SIZE)) {
+            try {
+                processUpdates(exercise, participantIds, updates);
+            }
+            catch (Exception e) {
+                logger.error("Exception while processing participant scores for exercise {} and participants {}:", exerciseId, participantIds, e);
             }
+        }
 
-            Participant participant;
-            Optional<ParticipantScore> participantScore;
-            if (exercise.isTeamMode()) {
-                // Fetch the team and its score for the given exercise
-                participant = teamRepository.findById(participantId).orElse(null);
-                if (participant == null) {
-                    // If the team was deleted, we can delete all participant scores for it as well and skip
-                    logger.debug("Team {} no longer exists, deleting all participant scores for it.", participantId);
+        long end = System.currentTimeMillis();
+        logger.info("Updating the participant scores for exercise {} and {} participants took {} ms.", exerciseId, updates.size(), end - start);
+    }
+
+    /**
+     * Update the participant scores of the given participants of the exercise with set-based queries.
+     *
+     * @param exercise       the exercise
+     * @param participantIds the ids of the participants (user or team, determined by the exercise)
+     * @param updates        the pending updates by participant id
+     */
+    private void processUpdates(Exercise exercise, List<Long> participantIds, Map<Long, PendingUpdate> updates) {
+        Map<Long, ? extends Participant> participants;
+        Map<Long, ? extends ParticipantScore> participantScores;
+        List<ParticipantResultDTO> orderedResults;
+        if (exercise.isTeamMode()) {
+            participants = teamRepository.findAllById(participantIds).stream().collect(Collectors.toMap(Team::getId, Function.identity()));
+            participantScores = teamScoreRepository.findAllByExercise_IdAndTeam_IdIn(exercise.getId(), participantIds).stream()
+                    .collect(Collectors.toMap(score -> score.getTeam().getId(), Function.identity()));
+            orderedResults = resultRepository.getResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForTeams(exercise.getId(), participantIds);
+        }
+        else {
+            participants = userRepository.findAllById(participantIds).stream().collect(Collectors.toMap(User::getId, Function.identity()));
+            participantScores = studentScoreRepository.findAllByExercise_IdAndUser_IdIn(exercise.getId(), participantIds).stream()
+                    .collect(Collectors.toMap(score -> score.getUser().getId(), Function.identity()));
+            orderedResults = resultRepository.getResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForStudents(exercise.getId(), participantIds);
+        }
+        Map<Long, List<Result>> orderedResultsByParticipantId = orderedResults.stream()
+                .collect(Collectors.groupingBy(ParticipantResultDTO::participantId, Collectors.mapping(ParticipantResultDTO::result, Collectors.toList())));
+
+        List<ParticipantScore> scoresToSave = new ArrayList<>();
+        List<ParticipantScore> scoresToDelete = new ArrayList<>();
+        Set<User> usersToUpdateCompetencyProgress = new HashSet<>();
+
+        for (Long participantId : participantIds) {
+            var update = updates.get(participantId);
+            var participant = participants.get(participantId);
+            if (participant == null) {
+                // If the participant was deleted, we can delete all participant scores for it as well and skip
+                logger.debug("Participant {} no longer exists, deleting all participant scores for it.", participantId);
+                if (exercise.isTeamMode()) {
                     teamScoreRepository.deleteAllByTeamId(participantId);
-                    return;
                 }
-                participantScore = teamScoreRepository.findByExercise_IdAndTeam_Id(exerciseId, participantId).map(score -> score);
-            }
-            else {
-                // Fetch the student and its score for the given exercise
-                participant = userRepository.findById(participantId).orElse(null);
-                if (participant == null) {
-                    // If the user was deleted, we can delete all participant scores for it as well and skip
-                    logger.debug("User {} no longer exists, deleting all participant scores for them.", participantId);
+                else {
                     studentScoreRepository.deleteAllByUserId(participantId);
-                    return;
                 }
-                participantScore = studentScoreRepository.findByExercise_IdAndUser_Id(exerciseId, participantId).map(score -> score);
+                continue;
             }
 
+            var participantScore = Optional.<ParticipantScore>ofNullable(participantScores.get(participantId));
             if (participantScore.isPresent()) {
                 var lastModified = participantScore.get().getLastModifiedDate();
-                if (lastModified != null && lastModified.isAfter(resultLastModified)) {
+                if (lastModified != null && lastModified.isAfter(update.resultLastModified())) {
                     // The participant score was already updated after the last modified date of the result that initiated this task
                     // We assume we already processed the result with the last task that ran and therefore skip the processing
                     logger.debug("Participant score {} is already up-to-date, skipping.", participantScore.get().getId());
-                    return;
+                    continue;
                 }
             }
-            else {
-                if (resultIdToBeDeleted != null) {
-                    // A participant score for this exercise/participant combination does not exist and this task was triggered because a result will be deleted
-                    // It is very likely that the whole participation or exercise is about to be deleted and their participant scores were already removed
-                    // We do not need to do anything in that case
-                    logger.debug("Result {} will be deleted and participant score for its participation is already gone, skipping.", resultIdToBeDeleted);
-                    return;
-                }
+            else if (!update.resultIdsToBeDeleted().isEmpty()) {
+                // A participant score for this exercise/participant combination does not exist and this task was triggered because a result will be deleted
+                // It is very likely that the whole participation or exercise is about to be deleted and their participant scores were already removed
+                // We do not need to do anything in that case
+                logger.debug("Results {} will be deleted and participant score for its participation is already gone, skipping.", update.resultIdsToBeDeleted());
+                continue;
             }
 
             // Either use the existing participant score or create a new one
-            var score = participantScore.orElseGet(() -> {
-                if (participant instanceof Team team) {
-                    var teamScore = new TeamScore();
-                    teamScore.setTeam(team);
-                    teamScore.setExercise(exercise);
-                    return teamScore;
-                }
-                else if (participant instanceof User user) {
-                    var studentScore = new StudentScore();
-                    studentScore.setUser(user);
-                    studentScore.setExercise(exercise);
-                    return studentScore;
-                }
-                else {
-                    return null;
-                }
-            });
+            var score = participantScore.orElseGet(() -> createParticipantScore(participant, exercise));
+            if (score == null) {
+                continue;
+            }
 
-            // Now do the heavy lifting and calculate the latest score based on all results for this exercise
-            // The result that is about to be deleted is excluded from the calculation
-            if (resultIdToBeDeleted != null) {
-                updateParticipantScore(score, resultIdToBeDeleted);
+            // Now calculate the latest score based on all results for this exercise
+            // The results that are about to be deleted are excluded from the calculation
+            var results = orderedResultsByParticipantId.getOrDefault(participantId, List.of()).stream()
+                    .filter(result -> !update.resultIdsToBeDeleted().contains(result.getId())).toList();
+            var lastRatedResult = results.stream().filter(result -> Boolean.TRUE.equals(result.isRated())).findFirst().orElse(null);
+            setLastRatedAttributes(score, lastRatedResult, exercise);
+            var lastResult = results.stream().findFirst().orElse(null);
+            setLastAttributes(score, lastResult, exercise);
+
+            // Persist the changes or delete the participant score if it is not needed anymore
+            if (score.getLastRatedResult() == null && score.getLastResult() == null) {
+                if (score.getId() != null) {
+                    // Delete the participant score if it exists in the database
+                    scoresToDelete.add(score);
+                }
             }
             else {
-                updateParticipantScore(score);
+                scoresToSave.add(score);
             }
-
-            // Update the progress for competencies linked to this exercise
-            competencyProgressService.updateProgressByLearningObject(score.getExercise(), score.getParticipant().getParticipants());
+            usersToUpdateCompetencyProgress.addAll(participant.getParticipants());
         }
-        catch (Exception e) {
-            logger.error("Exception while processing participant score for exercise {} and participant {} for participant scores:", exerciseId, participantId, e);
-        }
-        finally {
-            scheduledTasks.remove(new ParticipantScoreId(exerciseId, participantId).hashCode());
-        }
-        long end = System.currentTimeMillis();
-        logger.info("Updating the participant score for exercise {} and participant {} took {} ms.", exerciseId, participantId, end - start);
-    }
 
-    /**
-     * Updates the given participant score by fetching the last (rated) results from the database.
-     * If both no result and no rated result is found, the participant score is deleted.
-     *
-     * @param participantScore  The participant score to update (with the exercise eager loaded)
-     * @param resultIdsToIgnore A list of result ids to ignore when calculating the score
-     */
-    private void updateParticipantScore(ParticipantScore participantScore, Long... resultIdsToIgnore) {
-        var lastRatedResult = getLastRatedResultForParticipantScore(participantScore, resultIdsToIgnore).orElse(null);
-        setLastRatedAttributes(participantScore, lastRatedResult, participantScore.getExercise());
-
-        var lastResult = getLastResultForParticipantScore(participantScore, resultIdsToIgnore).orElse(null);
-        setLastAttributes(participantScore, lastResult, participantScore.getExercise());
-
-        // Persist the changes or delete the participant score if it is not needed anymore
-        if (participantScore.getLastRatedResult() == null && participantScore.getLastResult() == null) {
-            if (participantScore.getId() != null) {
-                // Delete the participant score if it exists in the database
-                participantScoreRepository.delete(participantScore);
-                logger.debug("Deleted participant score {}.", participantScore.getId());
-            }
+        saveParticipantScores(scoresToSave);
+        if (!scoresToDelete.isEmpty()) {
+            participantScoreRepository.deleteAll(scoresToDelete);
+            logger.debug("Deleted {} participant scores.", scoresToDelete.size());
         }
-        else {
-            participantScoreRepository.save(participantScore);
-            logger.debug("Updated participant score {}.", participantScore.getId());
+
+        // Update the progress for competencies linked to this exercise
+        if (!usersToUpdateCompetencyProgress.isEmpty()) {
+            competencyProgressService.updateProgressByLearningObject(exercise, usersToUpdateCompetencyProgress);
         }
     }
 
-    /**
-     * Get the result that can replace the currently set last result for a participant score
-     *
-     * @param participantScore  the participant score to update (user/team and exercise must be set)
-     * @param resultIdsToIgnore a list of ids to ignore when fetching the last result
-     * @return optional of new result
-     * @author Stefan Waldhauser
-     */
-    private Optional<Result> getLastResultForParticipantScore(ParticipantScore participantScore, Long[] resultIdsToIgnore) {
-        // the new last result (result with the highest id of submission with the highest id) will be at the beginning of the list
-        Optional<Result> resultOrdered;
-        if (participantScore instanceof StudentScore studentScore) {
-            resultOrdered = resultRepository
-                    .getResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForStudent(participantScore.getExercise().getId(), studentScore.getUser().getId()).stream()
-                    .filter(result -> Arrays.stream(resultIdsToIgnore).noneMatch(id -> id.equals(result.getId()))).findFirst();
-        }
-        else if (participantScore instanceof TeamScore teamScore) {
-            resultOrdered = resultRepository
-                    .getResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForTeam(participantScore.getExercise().getId(), teamScore.getTeam().getId()).stream()
-                    .filter(result -> Arrays.stream(resultIdsToIgnore).noneMatch(id -> id.equals(result.getId()))).findFirst();
+    private ParticipantScore createParticipantScore(Participant participant, Exercise exercise) {
+        if (participant instanceof Team team) {
+            var teamScore = new TeamScore();
+            teamScore.setTeam(team);
+            teamScore.setExercise(exercise);
+            return teamScore;
         }
-        else {
-            return Optional.empty();
+        else if (participant instanceof User user) {
+            var studentScore = new StudentScore();
+            studentScore.setUser(user);
+            studentScore.setExercise(exercise);
+            return studentScore;
         }
-        return resultOrdered;
+        return null;
     }
 
     /**
-     * Get the result that can replace the currently set last rated result for a participant score
+     * Saves the participant scores in one transaction. Hibernate sends the updates of existing participant scores as JDBC batches, new participant scores are still
+     * inserted one by one, because their ids are generated by the database (IDENTITY), which disables insert batching.
+     * If this fails (e.g. because a participant score was created concurrently), the participant scores are saved one by one, so that one failure does not affect the others.
      *
-     * @param participantScore  the participant score to update (user/team and exercise must be set)
-     * @param resultIdsToIgnore a list of ids to ignore when fetching the last rated result
-     * @return optional of new result
-     * @author Stefan Waldhauser
+     * @param participantScores the participant scores to save
      */
-    private Optional<Result> getLastRatedResultForParticipantScore(ParticipantScore participantScore, Long[] resultIdsToIgnore) {
-        // the new last rated result (rated result with the highest id of submission with the highest id) will be at the beginning of the list
-        Optional<Result> ratedResultsOrdered;
-        if (participantScore instanceof StudentScore studentScore) {
-            ratedResultsOrdered = resultRepository
-                    .getRatedResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForStudent(participantScore.getExercise().getId(), studentScore.getUser().getId()).stream()
-                    .filter(result -> Arrays.stream(resultIdsToIgnore).noneMatch(id -> id.equals(result.getId()))).findFirst();
+    private void saveParticipantScores(List<ParticipantScore> participantScores) {
+        if (participantScores.isEmpty()) {
+            return;
         }
-        else if (participantScore instanceof TeamScore teamScore) {
-            ratedResultsOrdered = resultRepository
-                    .getRatedResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForTeam(participantScore.getExercise().getId(), teamScore.getTeam().getId()).stream()
-                    .filter(result -> Arrays.stream(resultIdsToIgnore).noneMatch(id -> id.equals(result.getId()))).findFirst();
+        try {
+            participantScoreRepository.saveAll(participantScores);
+            logger.debug("Updated {} participant scores.", participantScores.size());
         }
-        else {
-            return Optional.empty();
+        catch (Exception e) {
+            logger.warn("Could not save {} participant scores at once, saving them one by one: {}", participantScores.size(), e.getMessage());
+            for (ParticipantScore participantScore : participantScores) {
+                try {
+                    participantScoreRepository.save(participantScore);
+                }
+                catch (Exception ex) {
+                    logger.error("Exception while saving participant score for exercise {} and participant {}:", participantScore.getExercise().getId(),
+                            participantScore.getParticipant().getId(), ex);
+                }
+            }
         }
-        return ratedResultsOrdered;
     }
 
     /**
@@ -442,11 +501,18 @@ public class ParticipantScoreScheduleService {
     }
 
     /**
-     * Each participant score can be uniquely identified by the combination of exercise id and participant id.
+     * A pending update of a participant score.
      *
-     * @param exerciseId    the id of the exercise
-     * @param participantId the id of the participant (user or team, depending on the exercise's setting)
+     * @param resultLastModified   the last modified date of the latest result that triggered the update
+     * @param resultIdsToBeDeleted the ids of the results that are about to be deleted
      */
-    public record ParticipantScoreId(Long exerciseId, Long participantId) {
+    private record PendingUpdate(Instant resultLastModified, Set<Long> resultIdsToBeDeleted) {
+
+        PendingUpdate merge(PendingUpdate other) {
+            var lastModified = resultLastModified.isAfter(other.resultLastModified) ? resultLastModified : other.resultLastModified;
+            var idsToBeDeleted = new HashSet<>(resultIdsToBeDeleted);
+            idsToBeDeleted.addAll(other.resultIdsToBeDeleted);
+            return new PendingUpdate(lastModified, idsToBeDeleted);
+        }
     }
 }
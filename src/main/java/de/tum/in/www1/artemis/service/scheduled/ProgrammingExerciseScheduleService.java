@@ -3,8 +3,6 @@ package de.tum.in.www1.artemis.service.scheduled;
 import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.function.*;
 import java.util.stream.Collectors;
 
@@ -37,6 +35,7 @@ import de.tum.in.www1.artemis.service.notifications.GroupNotificationService;
 import de.tum.in.www1.artemis.service.programming.ProgrammingExerciseGradingService;
 import de.tum.in.www1.artemis.service.programming.ProgrammingExerciseParticipationService;
 import de.tum.in.www1.artemis.service.programming.ProgrammingTriggerService;
+import de.tum.in.www1.artemis.service.programming.RepositoryBulkOperationService;
 import de.tum.in.www1.artemis.service.util.Tuple;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
 import tech.jhipster.config.JHipsterConstants;
@@ -79,12 +78,14 @@ public class ProgrammingExerciseScheduleService implements IExerciseScheduleServ
 
     private final GitService gitService;
 
+    private final RepositoryBulkOperationService repositoryBulkOperationService;
+
     public ProgrammingExerciseScheduleService(ScheduleService scheduleService, ProgrammingExerciseRepository programmingExerciseRepository,
             ProgrammingExerciseTestCaseRepository programmingExerciseTestCaseRepository, ResultRepository resultRepository, ParticipationRepository participationRepository,
             ProgrammingExerciseStudentParticipationRepository programmingExerciseParticipationRepository, Environment env, ProgrammingTriggerService programmingTriggerService,
             ProgrammingExerciseGradingService programmingExerciseGradingService, GroupNotificationService groupNotificationService, ExamDateService examDateService,
             ProgrammingExerciseParticipationService programmingExerciseParticipationService, ExerciseDateService exerciseDateService, ExamRepository examRepository,
-            StudentExamRepository studentExamRepository, GitService gitService) {
+            StudentExamRepository studentExamRepository, GitService gitService, RepositoryBulkOperationService repositoryBulkOperationService) {
         this.scheduleService = scheduleService;
         this.programmingExerciseRepository = programmingExerciseRepository;
         this.programmingExerciseTestCaseRepository = programmingExerciseTestCaseRepository;
@@ -101,6 +102,7 @@ public class ProgrammingExerciseScheduleService implements IExerciseScheduleServ
         this.programmingExerciseGradingService = programmingExerciseGradingService;
         this.env = env;
         this.gitService = gitService;
+        this.repositoryBulkOperationService = repositoryBulkOperationService;
     }
 
     @PostConstruct
@@ -907,64 +909,18 @@ public class ProgrammingExerciseScheduleService implements IExerciseScheduleServ
 
     /**
      * Invokes the given <code>operation</code> on all student participations that satisfy the <code>condition</code>-{@link Predicate}.
-     * <p>
      *
      * @param programmingExerciseId the programming exercise whose participations should be processed
      * @param operation             the operation to perform
      * @param condition             the condition that tests whether to invoke the operation on a participation
-     * @param operationName         the name of the operation, this is only used for logging
+     * @param operationName         the name of the operation, this is used for logging and to resume an interrupted operation
      * @return a list containing all participations for which the operation has failed with an exception
      * @throws EntityNotFoundException if the programming exercise can't be found.
+     * @see RepositoryBulkOperationService
      */
     private CompletableFuture<List<ProgrammingExerciseStudentParticipation>> invokeOperationOnAllParticipationsThatSatisfy(Long programmingExerciseId,
             BiConsumer<ProgrammingExercise, ProgrammingExerciseStudentParticipation> operation, Predicate<ProgrammingExerciseStudentParticipation> condition,
             String operationName) {
-        log.info("Invoking (scheduled) task '{}' for programming exercise with id {}.", operationName, programmingExerciseId);
-
-        ProgrammingExercise programmingExercise = programmingExerciseRepository.findWithEagerStudentParticipationsByIdElseThrow(programmingExerciseId);
-        List<ProgrammingExerciseStudentParticipation> failedOperations = new ArrayList<>();
-
-        // TODO: we should think about executing those operations again in batches to avoid issues on the vcs server
-
-        // Create a threadpool to execute the operation with a fixed amount of threads
-        ExecutorService threadPool = Executors.newFixedThreadPool(10);
-        var participations = programmingExercise.getStudentParticipations();
-        List<CompletableFuture<ProgrammingExerciseStudentParticipation>> futures = new ArrayList<>();
-        for (StudentParticipation studentParticipation : participations) {
-            Supplier<ProgrammingExerciseStudentParticipation> action = () -> {
-                // We need to set the authorization object for every thread
-                SecurityUtils.setAuthorizationObject();
-                var programmingExerciseStudentParticipation = (ProgrammingExerciseStudentParticipation) studentParticipation;
-
-                if (condition.test(programmingExerciseStudentParticipation)) {
-                    operation.accept(programmingExercise, programmingExerciseStudentParticipation);
-                }
-
-                return programmingExerciseStudentParticipation;
-            };
-
-            CompletableFuture<ProgrammingExerciseStudentParticipation> future = CompletableFuture.supplyAsync(action, threadPool);
-            futures.add(future);
-        }
-
-        for (var future : futures) {
-            future.whenComplete((participation, exception) -> {
-                if (exception != null) {
-                    log.error(String.format("'%s' failed for programming exercise with id %d for student repository with participation id %d", operationName,
-                            programmingExercise.getId(), participation.getId()), exception);
-                    failedOperations.add(participation);
-                }
-            });
-        }
-
-        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(ignore -> {
-            log.info("Finished executing (scheduled) task '{}' for programming exercise with id {}.", operationName, programmingExercise.getId());
-            if (!failedOperations.isEmpty()) {
-                var failedIds = failedOperations.stream().map(participation -> participation.getId().toString()).collect(Collectors.joining(","));
-                log.warn("The (scheduled) task '{}' for programming exercise {} failed for these {} participations: {}", operation, programmingExercise.getId(),
-                        failedOperations.size(), failedIds);
-            }
-            return failedOperations;
-        });
+        return repositoryBulkOperationService.invokeOperationOnAllParticipationsThatSatisfy(programmingExerciseId, operation, condition, operationName);
     }
 }
@@ -2,6 +2,7 @@ package de.tum.in.www1.artemis.service.scheduled.cache.quiz;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,6 +58,16 @@ final class EmptyQuizExerciseCache extends QuizExerciseCache {
         return Map.of();
     }
 
+    @Override
+    Set<String> getLocalSubmissionKeys() {
+        return Set.of();
+    }
+
+    @Override
+    Set<String> getLocalParticipationKeys() {
+        return Set.of();
+    }
+
     @Override
     List<ScheduledTaskHandler> getQuizStart() {
         return List.of();
@@ -51,6 +51,16 @@ abstract class QuizExerciseCache implements Cache {
      */
     abstract Map<String, StudentParticipation> getParticipations();
 
+    /**
+     * The usernames of the QuizSubmissions that are stored in the Hazelcast partitions owned by the local member
+     */
+    abstract Set<String> getLocalSubmissionKeys();
+
+    /**
+     * The usernames of the StudentParticipations that are stored in the Hazelcast partitions owned by the local member
+     */
+    abstract Set<String> getLocalParticipationKeys();
+
     /**
      * The scheduled start tasks of the QuizExercise
      */
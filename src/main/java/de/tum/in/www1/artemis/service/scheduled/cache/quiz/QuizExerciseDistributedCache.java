@@ -108,6 +108,16 @@ final class QuizExerciseDistributedCache extends QuizExerciseCache implements Ha
         return participations;
     }
 
+    @Override
+    Set<String> getLocalSubmissionKeys() {
+        return submissions.localKeySet();
+    }
+
+    @Override
+    Set<String> getLocalParticipationKeys() {
+        return participations.localKeySet();
+    }
+
     @Override
     List<ScheduledTaskHandler> getQuizStart() {
         return quizStart;
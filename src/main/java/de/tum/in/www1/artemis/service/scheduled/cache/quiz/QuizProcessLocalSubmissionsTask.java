@@ -0,0 +1,52 @@
+package de.tum.in.www1.artemis.service.scheduled.cache.quiz;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.hazelcast.spring.context.SpringAware;
+
+/**
+ * Task that is executed on every cluster member to process the cached quiz submissions and participations stored in the Hazelcast partitions owned by that member
+ */
+@SpringAware
+final class QuizProcessLocalSubmissionsTask implements Callable<Integer>, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final List<QuizToProcess> quizzesToProcess;
+
+    @Autowired // ok
+    transient QuizScheduleService quizScheduleService;
+
+    QuizProcessLocalSubmissionsTask(List<QuizToProcess> quizzesToProcess) {
+        this.quizzesToProcess = List.copyOf(quizzesToProcess);
+    }
+
+    @Override
+    public Integer call() {
+        return quizScheduleService.processLocalCachedQuizSubmissions(quizzesToProcess);
+    }
+
+    /**
+     * The state of a quiz with cached changes as loaded by the scheduling member, so that the other members only load the quiz if they own submissions that must be saved
+     *
+     * @param quizExerciseId the id of the quiz
+     * @param quizEnded      whether the quiz has ended
+     * @param endedBatchIds  the ids of the batches of the quiz that have ended
+     */
+    record QuizToProcess(long quizExerciseId, boolean quizEnded, Set<Long> endedBatchIds) implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        QuizToProcess {
+            endedBatchIds = Set.copyOf(endedBatchIds);
+        }
+    }
+}
@@ -5,23 +5,29 @@ import static de.tum.in.www1.artemis.service.util.TimeLogUtil.formatDurationFrom
 import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.*;
-import java.util.Map.Entry;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
 import javax.validation.constraints.NotNull;
 
 import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.hazelcast.config.Config;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IExecutorService;
 import com.hazelcast.cp.IAtomicReference;
 import com.hazelcast.scheduledexecutor.*;
 
@@ -44,6 +50,9 @@ import de.tum.in.www1.artemis.service.QuizMessagingService;
 import de.tum.in.www1.artemis.service.QuizStatisticService;
 import de.tum.in.www1.artemis.service.WebsocketMessagingService;
 import de.tum.in.www1.artemis.service.scheduled.cache.Cache;
+import de.tum.in.www1.artemis.service.scheduled.cache.quiz.QuizProcessLocalSubmissionsTask.QuizToProcess;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @Service
 public class QuizScheduleService {
@@ -52,8 +61,19 @@ public class QuizScheduleService {
 
     private static final String HAZELCAST_PROCESS_CACHE_HANDLER = QuizProcessCacheTask.HAZELCAST_PROCESS_CACHE_TASK + "-handler";
 
+    private static final int SAVE_CHUNK_SIZE = 100;
+
+    /**
+     * The maximum time to wait for all cluster members to process their cached submissions. The statistics are updated with the results that are available afterwards.
+     */
+    private static final long MEMBER_PROCESSING_TIMEOUT_SECONDS = 60;
+
     private final IScheduledExecutorService threadPoolTaskScheduler;
 
+    private final IExecutorService quizProcessingExecutor;
+
+    private final ExecutorService resultSendingExecutor;
+
     private final IAtomicReference<ScheduledTaskHandler> scheduledProcessQuizSubmissions;
 
     private final StudentParticipationRepository studentParticipationRepository;
@@ -72,9 +92,16 @@ public class QuizScheduleService {
 
     private final QuizExerciseRepository quizExerciseRepository;
 
+    private final Timer saveSubmissionsTimer;
+
+    private final Timer sendResultsTimer;
+
+    private final Timer updateStatisticsTimer;
+
     public QuizScheduleService(WebsocketMessagingService websocketMessagingService, StudentParticipationRepository studentParticipationRepository, UserRepository userRepository,
             QuizSubmissionRepository quizSubmissionRepository, HazelcastInstance hazelcastInstance, QuizExerciseRepository quizExerciseRepository,
-            QuizMessagingService quizMessagingService, QuizStatisticService quizStatisticService) {
+            QuizMessagingService quizMessagingService, QuizStatisticService quizStatisticService, MeterRegistry meterRegistry,
+            @Value("${artemis.quiz.result-sending-concurrency:8}") int resultSendingConcurrency) {
         this.websocketMessagingService = websocketMessagingService;
         this.studentParticipationRepository = studentParticipationRepository;
         this.userRepository = userRepository;
@@ -84,7 +111,21 @@ public class QuizScheduleService {
         this.quizStatisticService = quizStatisticService;
         this.scheduledProcessQuizSubmissions = hazelcastInstance.getCPSubsystem().getAtomicReference(HAZELCAST_PROCESS_CACHE_HANDLER);
         this.threadPoolTaskScheduler = hazelcastInstance.getScheduledExecutorService(Constants.HAZELCAST_QUIZ_SCHEDULER);
+        this.quizProcessingExecutor = hazelcastInstance.getExecutorService(Constants.HAZELCAST_QUIZ_PROCESSING_EXECUTOR);
+        this.resultSendingExecutor = Executors.newFixedThreadPool(resultSendingConcurrency,
+                new ThreadFactoryBuilder().setNameFormat("quiz-result-sending-%d").setDaemon(true).build());
         this.quizCache = new QuizCache(hazelcastInstance);
+        this.saveSubmissionsTimer = Timer.builder("artemis.quiz.processing.duration").tag("stage", "save-submissions")
+                .description("Duration of saving the cached submissions of one quiz that are owned by this member").register(meterRegistry);
+        this.sendResultsTimer = Timer.builder("artemis.quiz.processing.duration").tag("stage", "send-results")
+                .description("Duration of sending the results of one quiz to the participants that are owned by this member").register(meterRegistry);
+        this.updateStatisticsTimer = Timer.builder("artemis.quiz.processing.duration").tag("stage", "update-statistics")
+                .description("Duration of updating the statistics of one quiz with the new results").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resultSendingExecutor.shutdownNow();
     }
 
     /**
@@ -96,6 +137,8 @@ public class QuizScheduleService {
         QuizCache.configureHazelcast(config);
         // Pool size default 16, increased capacity (as we could have many quizzes) and default durability for now
         config.getScheduledExecutorConfig(Constants.HAZELCAST_QUIZ_SCHEDULER).setPoolSize(16).setCapacity(1000).setDurability(1);
+        // the cached submissions of all quizzes are processed by one task per member and processing run, so one thread per member is sufficient
+        config.getExecutorConfig(Constants.HAZELCAST_QUIZ_PROCESSING_EXECUTOR).setPoolSize(1);
     }
 
     @EventListener(ApplicationReadyEvent.class)
@@ -399,6 +442,10 @@ public class QuizScheduleService {
     }
 
     /**
+     * Processes the cached data of all quizzes. Every cluster member saves the submissions and sends out the participations that are stored in the Hazelcast partitions it
+     * owns (steps 1 and 2), see {@link #processLocalCachedQuizSubmissions(List)}. The statistics are only updated by the member executing this method (steps 3 and 4), so
+     * that they are never updated concurrently.
+     * <p>
      * // @formatter:off
      * 1. Check cached submissions for new submissions with “isSubmitted() == true”
      *      a. Process each Submission (set submissionType to “SubmissionType.MANUAL”) and create Participation and Result and save them to Database (DB WRITE)
@@ -415,6 +462,7 @@ public class QuizScheduleService {
         log.debug("Process cached quiz submissions");
         // global try-catch for error logging
         try {
+            Map<QuizExerciseCache, QuizExercise> quizzesWithCachedChanges = new LinkedHashMap<>();
             for (Cache cache : quizCache.getAllCaches()) {
                 QuizExerciseCache cachedQuiz = (QuizExerciseCache) cache;
                 // this way near cache is used (values will deserialize new objects)
@@ -456,75 +504,173 @@ public class QuizScheduleService {
                     }
                     continue;
                 }
+                quizzesWithCachedChanges.put(cachedQuiz, quizExercise);
+            }
+
+            if (quizzesWithCachedChanges.isEmpty()) {
+                return;
+            }
+
+            // Save cached Submissions and send out Participations on the members owning them (this will also generate results and place them in the cache)
+            processCachedQuizSubmissionsOnAllMembers(quizzesWithCachedChanges.values().stream().map(QuizScheduleService::toQuizToProcess).toList());
 
-                // Save cached Submissions (this will also generate results and participations and place them in the cache)
+            // Update Statistics with Results (DB Read and DB Write) and remove the results from the cache
+            for (var quizWithCachedChanges : quizzesWithCachedChanges.entrySet()) {
+                QuizExerciseCache cachedQuiz = quizWithCachedChanges.getKey();
+                QuizExercise quizExercise = quizWithCachedChanges.getValue();
+                if (cachedQuiz.getResults().isEmpty()) {
+                    continue;
+                }
                 long start = System.nanoTime();
+                try {
+                    // Get a Set because QuizStatisticService needs one (currently)
+                    Set<Result> newResultsForQuiz = Set.copyOf(cachedQuiz.getResults().values());
+                    // Update the statistics
+                    quizStatisticService.updateStatistics(newResultsForQuiz, quizExercise);
+                    updateStatisticsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    log.info("Updated statistics with {} new results in {} for quiz {}", newResultsForQuiz.size(), formatDurationFrom(start), quizExercise.getTitle());
+                    // Remove only processed results
+                    for (Result result : newResultsForQuiz) {
+                        cachedQuiz.getResults().remove(result.getId());
+                    }
+                }
+                catch (Exception e) {
+                    log.error("Exception in StatisticService.updateStatistics(): {}", e.getMessage(), e);
+                }
+            }
+        }
+        catch (Exception e) {
+            log.error("Exception in Quiz Schedule: {}", e.getMessage(), e);
+        }
+    }
+
+    private static QuizToProcess toQuizToProcess(QuizExercise quizExercise) {
+        Set<Long> endedBatchIds = quizExercise.getQuizBatches().stream().filter(QuizBatch::isEnded).map(QuizBatch::getId).collect(Collectors.toSet());
+        return new QuizToProcess(quizExercise.getId(), quizExercise.isQuizEnded(), endedBatchIds);
+    }
+
+    /**
+     * Lets every cluster member process the cached submissions and participations of the given quizzes that it owns and waits until all members are done or
+     * {@link #MEMBER_PROCESSING_TIMEOUT_SECONDS} have passed
+     *
+     * @param quizzesToProcess the quizzes with cached changes
+     */
+    private void processCachedQuizSubmissionsOnAllMembers(List<QuizToProcess> quizzesToProcess) {
+        var memberFutures = quizProcessingExecutor.submitToAllMembers(new QuizProcessLocalSubmissionsTask(quizzesToProcess));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(MEMBER_PROCESSING_TIMEOUT_SECONDS);
+        for (var memberFuture : memberFutures.entrySet()) {
+            try {
+                int numberOfProcessedSubmissions = memberFuture.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                log.debug("Member {} processed {} cached quiz submissions", memberFuture.getKey(), numberOfProcessedSubmissions);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Interrupted while waiting for member {} to process the cached quiz submissions", memberFuture.getKey());
+            }
+            catch (ExecutionException e) {
+                log.error("Exception while processing the cached quiz submissions on member {}: {}", memberFuture.getKey(), e.getMessage(), e);
+            }
+            catch (TimeoutException e) {
+                // the member keeps processing, the results it creates are used for the statistics in the next run
+                log.error("Member {} did not process the cached quiz submissions within {} seconds", memberFuture.getKey(), MEMBER_PROCESSING_TIMEOUT_SECONDS);
+            }
+        }
+    }
 
-                // TODO avoid some distribution?
+    /**
+     * Saves the cached submissions and sends out the cached participations of the given quizzes that are stored in the Hazelcast partitions owned by this member (steps 1
+     * and 2 of {@link #processCachedQuizSubmissions()}). Submissions and participations are cached by username in the same partition, so the participations created for
+     * the saved submissions are owned by this member as well and can be sent out right away. The quiz is only loaded if this member owns submissions that must be saved.
+     *
+     * @param quizzesToProcess the quizzes with cached changes
+     * @return the number of processed submissions (submit or timeout)
+     */
+    int processLocalCachedQuizSubmissions(List<QuizToProcess> quizzesToProcess) {
+        int numberOfProcessedSubmissions = 0;
+        for (QuizToProcess quizToProcess : quizzesToProcess) {
+            long quizExerciseId = quizToProcess.quizExerciseId();
+            try {
+                QuizExerciseCache cachedQuiz = getReadCache(quizExerciseId);
 
-                if (hasNewSubmissions) {
-                    // Create Participations and Results if the submission was submitted or if the quiz has ended and save them to Database (DB Write)
-                    Map<String, QuizSubmission> submissions = cachedQuiz.getSubmissions();
-                    Map<String, Long> batches = cachedQuiz.getBatches();
+                // Create Participations and Results if the submission was submitted or if the quiz has ended and save them to Database (DB Write)
+                long start = System.nanoTime();
+                Set<String> usernamesToSave = cachedQuiz.getLocalSubmissionKeys().stream().filter(username -> mustBeSaved(quizToProcess, cachedQuiz, username))
+                        .collect(Collectors.toSet());
+                if (!usernamesToSave.isEmpty()) {
+                    QuizExercise quizExercise = quizExerciseRepository.findByIdWithQuestionsAndStatisticsElseThrow(quizExerciseId);
+                    Map<Long, QuizBatch> batchCache = quizExercise.getQuizBatches().stream().collect(Collectors.toUnmodifiableMap(QuizBatch::getId, batch -> batch));
                     // This call will remove the processed Submission map entries itself
-                    int numberOfSubmittedSubmissions = saveQuizSubmissionWithParticipationAndResultToDatabase(quizExercise, submissions, batches, batchCache);
-                    // .. and likely generate new participations and results
+                    int numberOfSubmittedSubmissions = saveQuizSubmissionWithParticipationAndResultToDatabase(quizExercise, usernamesToSave, cachedQuiz.getSubmissions(),
+                            cachedQuiz.getBatches(), batchCache);
                     if (numberOfSubmittedSubmissions > 0) {
-                        // .. so we set the boolean variables here again if some were submitted
-                        hasNewParticipations = true;
-                        hasNewResults = true;
-
+                        numberOfProcessedSubmissions += numberOfSubmittedSubmissions;
+                        saveSubmissionsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
                         log.info("Saved {} submissions to database in {} in quiz {}", numberOfSubmittedSubmissions, formatDurationFrom(start), quizExercise.getTitle());
                     }
                 }
 
                 // Send out Participations from ParticipationHashMap to each user if the quiz has ended
                 start = System.nanoTime();
-
-                if (hasNewParticipations && hasEnded) {
-                    // Send the participation with containing result and quiz back to the users via websocket and remove the participation from the ParticipationHashMap
-                    Collection<Entry<String, StudentParticipation>> finishedParticipations = cachedQuiz.getParticipations().entrySet();
-                    // TODO maybe find a better way to optimize the performance (use an executor service with e.g. X parallel threads)
-                    finishedParticipations.parallelStream().forEach(entry -> {
-                        StudentParticipation participation = entry.getValue();
-                        if (participation.getParticipant() == null || participation.getParticipantIdentifier() == null) {
-                            log.error("Participation is missing student (or student is missing username): {}", participation);
-                        }
-                        else {
-                            sendQuizResultToUser(quizExerciseId, participation);
-                            cachedQuiz.getParticipations().remove(entry.getKey());
-                        }
-                    });
-                    if (!finishedParticipations.isEmpty()) {
-                        log.info("Sent out {} participations in {} for quiz {}", finishedParticipations.size(), formatDurationFrom(start), quizExercise.getTitle());
+                if (quizToProcess.quizEnded()) {
+                    int numberOfSentParticipations = sendQuizResultsToUsers(quizExerciseId, cachedQuiz.getParticipations(), cachedQuiz.getLocalParticipationKeys());
+                    if (numberOfSentParticipations > 0) {
+                        sendResultsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        log.info("Sent out {} participations in {} for quiz {}", numberOfSentParticipations, formatDurationFrom(start), quizExerciseId);
                     }
                 }
+            }
+            catch (Exception e) {
+                log.error("Exception while processing the cached submissions of quiz {}: {}", quizExerciseId, e.getMessage(), e);
+            }
+        }
+        return numberOfProcessedSubmissions;
+    }
 
-                // Update Statistics with Results (DB Read and DB Write) and remove the results from the cache
-                start = System.nanoTime();
+    /**
+     * Checks without loading the quiz if the cached submission of the user must be saved, i.e. if it was submitted or the quiz or the batch of the user has ended
+     */
+    private static boolean mustBeSaved(QuizToProcess quizToProcess, QuizExerciseCache cachedQuiz, String username) {
+        QuizSubmission quizSubmission = cachedQuiz.getSubmissions().get(username);
+        if (quizSubmission == null) {
+            return false;
+        }
+        if (quizSubmission.isSubmitted() || quizToProcess.quizEnded()) {
+            return true;
+        }
+        Long quizBatchId = cachedQuiz.getBatches().get(username);
+        return quizBatchId != null && quizToProcess.endedBatchIds().contains(quizBatchId);
+    }
 
-                if (hasNewResults) {
-                    // Fetch a new quiz exercise here including deeper attribute paths (this is relatively expensive, so we only do that if necessary)
-                    try {
-                        // Get a Set because QuizStatisticService needs one (currently)
-                        Set<Result> newResultsForQuiz = Set.copyOf(cachedQuiz.getResults().values());
-                        // Update the statistics
-                        quizStatisticService.updateStatistics(newResultsForQuiz, quizExercise);
-                        log.info("Updated statistics with {} new results in {} for quiz {}", newResultsForQuiz.size(), formatDurationFrom(start), quizExercise.getTitle());
-                        // Remove only processed results
-                        for (Result result : newResultsForQuiz) {
-                            cachedQuiz.getResults().remove(result.getId());
-                        }
-                    }
-                    catch (Exception e) {
-                        log.error("Exception in StatisticService.updateStatistics(): {}", e.getMessage(), e);
-                    }
+    /**
+     * Sends the participations with their result to the users on the bounded result sending executor and removes them from the cache
+     *
+     * @param quizExerciseId the id of the quiz the participations belong to
+     * @param participations the cached participations mapped by username
+     * @param usernames      the usernames of the participations that should be sent out
+     * @return the number of participations that were sent out
+     */
+    private int sendQuizResultsToUsers(long quizExerciseId, Map<String, StudentParticipation> participations, Set<String> usernames) {
+        AtomicInteger numberOfSentParticipations = new AtomicInteger();
+        List<CompletableFuture<Void>> sentParticipations = new ArrayList<>(usernames.size());
+        for (String username : usernames) {
+            sentParticipations.add(CompletableFuture.runAsync(() -> {
+                StudentParticipation participation = participations.get(username);
+                if (participation == null) {
+                    // the participation was already sent out in the meantime
+                    return;
                 }
-            }
-        }
-        catch (Exception e) {
-            log.error("Exception in Quiz Schedule: {}", e.getMessage(), e);
+                if (participation.getParticipant() == null || participation.getParticipantIdentifier() == null) {
+                    log.error("Participation is missing student (or student is missing username): {}", participation);
+                }
+                else {
+                    sendQuizResultToUser(quizExerciseId, participation);
+                    participations.remove(username);
+                    numberOfSentParticipations.incrementAndGet();
+                }
+            }, resultSendingExecutor));
         }
+        CompletableFuture.allOf(sentParticipations.toArray(CompletableFuture[]::new)).join();
+        return numberOfSentParticipations.get();
     }
 
     public void joinQuizBatch(QuizExercise quizExercise, QuizBatch quizBatch, User user) {
@@ -578,124 +724,236 @@ public class QuizScheduleService {
     /**
      * check if the user submitted the submission or if the quiz has ended: if true: -> Create Participation and Result and save to Database (DB Write) Remove processed Submissions
      * from SubmissionHashMap and write Participations with Result into ParticipationHashMap and Results into ResultHashMap
+     * <p>
+     * The participations and submissions are saved with one saveAll call per chunk. Participations use database generated ids, so Hibernate cannot batch the inserts on the
+     * JDBC level, but each chunk only needs one transaction. If a chunk cannot be saved, its submissions are saved individually, so that one exception (e.g. duplicated key)
+     * cannot destroy multiple student answers.
      *
      * @param quizExercise      the quiz which should be checked
+     * @param usernames         the usernames of the submissions that should be checked, i.e. the ones owned by this member
      * @param userSubmissionMap a Map with all submissions for the given quizExercise mapped by the username
      * @param userBatchMap      a Map of the username to quiz batch id for the given quizExercise
      * @param batchCache        a Map of all the batches for the given quizExercise
      * @return                  the number of processed submissions (submit or timeout)
      */
-    private int saveQuizSubmissionWithParticipationAndResultToDatabase(@NotNull QuizExercise quizExercise, Map<String, QuizSubmission> userSubmissionMap, Map<String, Long> userBatchMap, Map<Long, QuizBatch> batchCache) {
+    private int saveQuizSubmissionWithParticipationAndResultToDatabase(@NotNull QuizExercise quizExercise, Set<String> usernames, Map<String, QuizSubmission> userSubmissionMap,
+            Map<String, Long> userBatchMap, Map<Long, QuizBatch> batchCache) {
+
+        Map<String, QuizSubmission> submissionsToSave = new LinkedHashMap<>();
+        for (String username : usernames) {
+            QuizSubmission quizSubmission = userSubmissionMap.get(username);
+            if (quizSubmission != null && prepareSubmissionForSaving(quizExercise, quizSubmission, batchCache.get(userBatchMap.getOrDefault(username, 0L)))) {
+                submissionsToSave.put(username, quizSubmission);
+            }
+        }
+        if (submissionsToSave.isEmpty()) {
+            return 0;
+        }
 
-        int count = 0;
+        // The "User-Quiz" pair might already be saved in the database, but for some reason was not removed from the maps
+        // We remove it from the maps now to prevent a ConstraintViolationException
+        // We do NOT add it to the participation map, as this should have been done already earlier (when the entry was added to the database)
+        for (String username : studentParticipationRepository.findStudentLoginsByExerciseIdAndStudentLogins(quizExercise.getId(), submissionsToSave.keySet())) {
+            log.error("The participation of user {} in quiz {} was already saved, remove the cached submission", username, quizExercise.getId());
+            submissionsToSave.remove(username);
+            userSubmissionMap.remove(username);
+            // clean up the batch association
+            userBatchMap.remove(username);
+        }
 
-        for (String username : userSubmissionMap.keySet()) {
+        Map<String, User> users = userRepository.findAllByLoginIn(submissionsToSave.keySet()).stream().collect(Collectors.toMap(User::getLogin, Function.identity()));
+        for (List<String> chunk : Lists.partition(List.copyOf(submissionsToSave.keySet()), SAVE_CHUNK_SIZE)) {
+            List<SubmissionToSave> submissionsOfChunk = chunk.stream()
+                    .map(username -> createParticipationAndResult(quizExercise, username, submissionsToSave.get(username), users.get(username))).toList();
+            Map<String, StudentParticipation> savedParticipations = new HashMap<>();
+            List<QuizSubmission> savedSubmissions;
             try {
-                // first case: the user submitted the quizSubmission
-                QuizSubmission quizSubmission = userSubmissionMap.get(username);
-                QuizBatch quizBatch = batchCache.get(userBatchMap.getOrDefault(username, 0L));
-                if (quizSubmission.isSubmitted()) {
-                    if (quizSubmission.getType() == null) {
-                        quizSubmission.setType(SubmissionType.MANUAL);
-                    }
-                } // second case: the quiz or batch has ended
-                else if (quizExercise.isQuizEnded() || quizBatch != null && quizBatch.isEnded()) {
-                    quizSubmission.setSubmitted(true);
-                    quizSubmission.setType(SubmissionType.TIMEOUT);
-                    quizSubmission.setSubmissionDate(ZonedDateTime.now());
+                List<StudentParticipation> participations = studentParticipationRepository.saveAll(submissionsOfChunk.stream().map(SubmissionToSave::participation).toList());
+                for (int i = 0; i < submissionsOfChunk.size(); i++) {
+                    var submissionToSave = submissionsOfChunk.get(i);
+                    savedParticipations.put(submissionToSave.username(), participations.get(i));
+                    connectSubmissionToParticipation(submissionToSave, participations.get(i));
                 }
-                else {
-                    // the quiz is running and the submission was not yet submitted.
-                    continue;
+                // this automatically saves the results due to CascadeType.ALL
+                savedSubmissions = quizSubmissionRepository.saveAll(submissionsOfChunk.stream().map(SubmissionToSave::submission).toList());
+            }
+            catch (Exception ex) {
+                log.warn("Could not save {} submissions in quiz {} together, save them individually: {}", chunk.size(), quizExercise.getId(), ex.getMessage());
+                for (String username : chunk) {
+                    saveQuizSubmissionIndividually(quizExercise, username, users.get(username), savedParticipations.get(username), userSubmissionMap, userBatchMap, batchCache);
                 }
+                continue;
+            }
+            for (int i = 0; i < submissionsOfChunk.size(); i++) {
+                var submissionToSave = submissionsOfChunk.get(i);
+                finishSavedSubmission(quizExercise, submissionToSave.username(), savedParticipations.get(submissionToSave.username()), savedSubmissions.get(i),
+                        submissionToSave.result(), userSubmissionMap, userBatchMap);
+            }
+        }
+        return submissionsToSave.size();
+    }
 
-                if (quizBatch != null) {
-                    // record which batch the submission belongs to
-                    quizSubmission.setQuizBatch(quizBatch.getId());
-                }
+    /**
+     * Saves one cached submission with its participation and result. The submission is read from the cache again, because a failed attempt to save it together with other
+     * submissions might have left database ids in the objects.
+     *
+     * @param quizExercise       the quiz the submission belongs to
+     * @param username           the username of the user who submitted the submission
+     * @param user               the user who submitted the submission, null if the user could not be found
+     * @param savedParticipation the participation of the user if it was already saved, null otherwise
+     * @param userSubmissionMap  a Map with all submissions for the given quizExercise mapped by the username
+     * @param userBatchMap       a Map of the username to quiz batch id for the given quizExercise
+     * @param batchCache         a Map of all the batches for the given quizExercise
+     */
+    private void saveQuizSubmissionIndividually(QuizExercise quizExercise, String username, @Nullable User user, @Nullable StudentParticipation savedParticipation,
+            Map<String, QuizSubmission> userSubmissionMap, Map<String, Long> userBatchMap, Map<Long, QuizBatch> batchCache) {
+        try {
+            QuizSubmission quizSubmission = userSubmissionMap.get(username);
+            if (quizSubmission == null || !prepareSubmissionForSaving(quizExercise, quizSubmission, batchCache.get(userBatchMap.getOrDefault(username, 0L)))) {
+                return;
+            }
+            var submissionToSave = createParticipationAndResult(quizExercise, username, quizSubmission, user);
 
-                count++;
-                // Create Participation and Result and save to Database (DB Write)
-                // Remove processed Submissions from SubmissionHashMap and write Participations with Result into ParticipationHashMap and Results into ResultHashMap
-
-                StudentParticipation participation = new StudentParticipation();
-                // TODO: when this is set earlier for the individual quiz start of a student, we don't need to set this here anymore
-                participation.setInitializationDate(quizSubmission.getSubmissionDate());
-                Optional<User> user = userRepository.findOneByLogin(username);
-                if (user.isEmpty()) {
-                    log.error("Cannot find the user for username {}", username);
-                } else {
-                    participation.setParticipant(user.get());
-                }
-                // add the quizExercise to the participation
-                participation.setExercise(quizExercise);
-                participation.setInitializationState(InitializationState.FINISHED);
+            // NOTE: we save (1) participation and (2) submission (in this particular order) here individually so that one exception (e.g. duplicated key) cannot
+            // destroy multiple student answers
+            StudentParticipation participation = savedParticipation != null ? savedParticipation : studentParticipationRepository.save(submissionToSave.participation());
+            connectSubmissionToParticipation(submissionToSave, participation);
+            // this automatically saves the results due to CascadeType.ALL
+            quizSubmission = quizSubmissionRepository.save(quizSubmission);
 
-                // create new result
-                Result result = new Result().participation(participation);
-                result.setRated(true);
-                result.setAssessmentType(AssessmentType.AUTOMATIC);
-                result.setCompletionDate(quizSubmission.getSubmissionDate());
-                result.setSubmission(quizSubmission);
+            finishSavedSubmission(quizExercise, username, participation, quizSubmission, submissionToSave.result(), userSubmissionMap, userBatchMap);
+        }
+        catch (ConstraintViolationException | DataIntegrityViolationException violationException) {
+            log.error("ConstraintViolationException | DataIntegrityViolationException in saveQuizSubmissionIndividually() for user {} in quiz {}: {}", username, quizExercise.getId(),
+                    violationException.getMessage(), violationException);
+            // We got a ConstraintViolationException -> The "User-Quiz" pair is already saved in the database, but for some reason was not removed from the maps
+            // We remove it from the maps now to prevent this error from occurring again
+            // We do NOT add it to the participation map, as this should have been done already earlier (when the entry was added to the database)
 
-                // calculate scores and update result and submission accordingly
-                quizSubmission.calculateAndUpdateScores(quizExercise.getQuizQuestions());
-                result.evaluateQuizSubmission();
+            userSubmissionMap.remove(username);
 
-                // add result to participation
-                participation.addResult(result);
+            // clean up the batch association
+            userBatchMap.remove(username);
+        }
+        catch (Exception ex) {
+            log.error("Exception in saveQuizSubmissionIndividually() for user {} in quiz {}: {}", username, quizExercise.getId(), ex.getMessage(), ex);
+        }
+    }
 
-                // add submission to participation
-                participation.setSubmissions(Set.of(quizSubmission));
+    /**
+     * Checks if the submission should be saved and prepares it for saving
+     *
+     * @param quizExercise   the quiz the submission belongs to
+     * @param quizSubmission the cached submission
+     * @param quizBatch      the batch of the user, null if the user did not join a batch
+     * @return true if the user submitted the submission or the quiz or batch has ended, false if the quiz is still running
+     */
+    private boolean prepareSubmissionForSaving(QuizExercise quizExercise, QuizSubmission quizSubmission, @Nullable QuizBatch quizBatch) {
+        // first case: the user submitted the quizSubmission
+        if (quizSubmission.isSubmitted()) {
+            if (quizSubmission.getType() == null) {
+                quizSubmission.setType(SubmissionType.MANUAL);
+            }
+        } // second case: the quiz or batch has ended
+        else if (quizExercise.isQuizEnded() || quizBatch != null && quizBatch.isEnded()) {
+            quizSubmission.setSubmitted(true);
+            quizSubmission.setType(SubmissionType.TIMEOUT);
+            quizSubmission.setSubmissionDate(ZonedDateTime.now());
+        }
+        else {
+            // the quiz is running and the submission was not yet submitted.
+            return false;
+        }
 
-                // NOTE: we save (1) participation and (2) submission (in this particular order) here individually so that one exception (e.g. duplicated key) cannot
-                // destroy multiple student answers
-                participation = studentParticipationRepository.save(participation);
+        if (quizBatch != null) {
+            // record which batch the submission belongs to
+            quizSubmission.setQuizBatch(quizBatch.getId());
+        }
+        return true;
+    }
 
-                quizSubmission.addResult(result);
-                quizSubmission.setParticipation(participation);
-                // this automatically saves the results due to CascadeType.ALL
-                quizSubmission = quizSubmissionRepository.save(quizSubmission);
+    /**
+     * Creates the participation and the result for a submission that should be saved
+     *
+     * @param quizExercise   the quiz the submission belongs to
+     * @param username       the username of the user who submitted the submission
+     * @param quizSubmission the submission
+     * @param user           the user who submitted the submission, null if the user could not be found
+     * @return the submission with its new participation and result
+     */
+    private SubmissionToSave createParticipationAndResult(QuizExercise quizExercise, String username, QuizSubmission quizSubmission, @Nullable User user) {
+        StudentParticipation participation = new StudentParticipation();
+        // TODO: when this is set earlier for the individual quiz start of a student, we don't need to set this here anymore
+        participation.setInitializationDate(quizSubmission.getSubmissionDate());
+        if (user == null) {
+            log.error("Cannot find the user for username {}", username);
+        }
+        else {
+            participation.setParticipant(user);
+        }
+        // add the quizExercise to the participation
+        participation.setExercise(quizExercise);
+        participation.setInitializationState(InitializationState.FINISHED);
 
-                log.info("Successfully saved submission in quiz {} for user {}", quizExercise.getTitle(), username);
+        // create new result
+        Result result = new Result().participation(participation);
+        result.setRated(true);
+        result.setAssessmentType(AssessmentType.AUTOMATIC);
+        result.setCompletionDate(quizSubmission.getSubmissionDate());
+        result.setSubmission(quizSubmission);
 
-                // reconnect entities after save
-                participation.setSubmissions(Set.of(quizSubmission));
-                participation.setResults(Set.of(result));
-                result.setSubmission(quizSubmission);
-                result.setParticipation(participation);
+        // calculate scores and update result and submission accordingly
+        quizSubmission.calculateAndUpdateScores(quizExercise.getQuizQuestions());
+        result.evaluateQuizSubmission();
 
-                // no point in keeping the participation around for non-synchronized modes where the due date may only be in a week
-                if (quizExercise.getQuizMode() == QuizMode.SYNCHRONIZED) {
-                    // add the participation to the participationHashMap for the send out at the end of the quiz
-                    addParticipation(quizExercise.getId(), participation);
-                }
+        // add result to participation
+        participation.addResult(result);
 
-                // remove the submission only after the participation has been added to the participation hashmap to avoid duplicated key exceptions for multiple participations for
-                // the same user
-                userSubmissionMap.remove(username);
-                // clean up the batch association
-                userBatchMap.remove(username);
+        // add submission to participation
+        participation.setSubmissions(Set.of(quizSubmission));
 
-                // add the result of the participation resultHashMap for the statistic-Update
-                addResultForStatisticUpdate(quizExercise.getId(), result);
-            }
-            catch (ConstraintViolationException | DataIntegrityViolationException violationException) {
-                log.error("ConstraintViolationException | DataIntegrityViolationException in saveQuizSubmissionWithParticipationAndResultToDatabase() for user {} in quiz {}: {}", username, quizExercise.getId(), violationException.getMessage(), violationException);
-                // We got a ConstraintViolationException -> The "User-Quiz" pair is already saved in the database, but for some reason was not removed from the maps
-                // We remove it from the maps now to prevent this error from occurring again
-                // We do NOT add it to the participation map, as this should have been done already earlier (when the entry was added to the database)
+        return new SubmissionToSave(username, participation, quizSubmission, result);
+    }
 
-                userSubmissionMap.remove(username);
+    private static void connectSubmissionToParticipation(SubmissionToSave submissionToSave, StudentParticipation savedParticipation) {
+        submissionToSave.result().setParticipation(savedParticipation);
+        submissionToSave.submission().addResult(submissionToSave.result());
+        submissionToSave.submission().setParticipation(savedParticipation);
+    }
 
-                // clean up the batch association
-                userBatchMap.remove(username);
-            }
-            catch (Exception ex) {
-                log.error("Exception in saveQuizSubmissionWithParticipationAndResultToDatabase() for user {} in quiz {}: {}", username, quizExercise.getId(), ex.getMessage(), ex);
-            }
+    /**
+     * Reconnects the saved entities and moves the participation and the result from the submission cache into the participation and result cache
+     */
+    private void finishSavedSubmission(QuizExercise quizExercise, String username, StudentParticipation participation, QuizSubmission quizSubmission, Result result,
+            Map<String, QuizSubmission> userSubmissionMap, Map<String, Long> userBatchMap) {
+        log.debug("Successfully saved submission in quiz {} for user {}", quizExercise.getTitle(), username);
+
+        // reconnect entities after save
+        participation.setSubmissions(Set.of(quizSubmission));
+        participation.setResults(Set.of(result));
+        result.setSubmission(quizSubmission);
+        result.setParticipation(participation);
+
+        // no point in keeping the participation around for non-synchronized modes where the due date may only be in a week
+        if (quizExercise.getQuizMode() == QuizMode.SYNCHRONIZED) {
+            // add the participation to the participationHashMap for the send out at the end of the quiz
+            addParticipation(quizExercise.getId(), participation);
         }
-        return count;
+
+        // remove the submission only after the participation has been added to the participation hashmap to avoid duplicated key exceptions for multiple participations for
+        // the same user
+        userSubmissionMap.remove(username);
+        // clean up the batch association
+        userBatchMap.remove(username);
+
+        // add the result of the participation resultHashMap for the statistic-Update
+        addResultForStatisticUpdate(quizExercise.getId(), result);
+    }
+
+    /**
+     * A submission that should be saved together with its new participation and result
+     */
+    private record SubmissionToSave(String username, StudentParticipation participation, QuizSubmission submission, Result result) {
     }
 
     QuizExerciseCache getWriteCache(long exerciseId) {
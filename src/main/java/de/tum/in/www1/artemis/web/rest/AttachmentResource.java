@@ -8,7 +8,6 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,7 +23,6 @@ import de.tum.in.www1.artemis.security.annotations.EnforceAtLeastEditor;
 import de.tum.in.www1.artemis.security.annotations.EnforceAtLeastInstructor;
 import de.tum.in.www1.artemis.security.annotations.EnforceAtLeastTutor;
 import de.tum.in.www1.artemis.service.AuthorizationCheckService;
-import de.tum.in.www1.artemis.service.FilePathService;
 import de.tum.in.www1.artemis.service.FileService;
 import de.tum.in.www1.artemis.service.notifications.GroupNotificationService;
 import de.tum.in.www1.artemis.web.rest.util.HeaderUtil;
@@ -54,19 +52,13 @@ public class AttachmentResource {
 
     private final FileService fileService;
 
-    private final FilePathService filePathService;
-
-    private final CacheManager cacheManager;
-
     public AttachmentResource(AttachmentRepository attachmentRepository, GroupNotificationService groupNotificationService, AuthorizationCheckService authorizationCheckService,
-            UserRepository userRepository, FileService fileService, FilePathService filePathService, CacheManager cacheManager) {
+            UserRepository userRepository, FileService fileService) {
         this.attachmentRepository = attachmentRepository;
         this.groupNotificationService = groupNotificationService;
         this.authorizationCheckService = authorizationCheckService;
         this.userRepository = userRepository;
         this.fileService = fileService;
-        this.filePathService = filePathService;
-        this.cacheManager = cacheManager;
     }
 
     /**
@@ -87,7 +79,6 @@ public class AttachmentResource {
         attachment.setLink(pathString);
 
         Attachment result = attachmentRepository.save(attachment);
-        this.cacheManager.getCache("files").evict(filePathService.actualPathForPublicPath(URI.create(result.getLink())).toString());
         return ResponseEntity.created(new URI("/api/attachments/" + result.getId())).body(result);
     }
 
@@ -118,7 +109,6 @@ public class AttachmentResource {
         }
 
         Attachment result = attachmentRepository.save(attachment);
-        this.cacheManager.getCache("files").evict(filePathService.actualPathForPublicPath(URI.create(result.getLink())).toString());
         if (notificationText != null) {
             groupNotificationService.notifyStudentGroupAboutAttachmentChange(result, notificationText);
         }
@@ -172,12 +162,6 @@ public class AttachmentResource {
         if (attachment.getLecture() != null) {
             course = attachment.getLecture().getCourse();
             relatedEntity = "lecture " + attachment.getLecture().getTitle();
-            try {
-                this.cacheManager.getCache("files").evict(filePathService.actualPathForPublicPath(URI.create(attachment.getLink())).toString());
-            }
-            catch (RuntimeException exception) {
-                // this catch is required for deleting wrongly formatted attachment database entries
-            }
         }
         else if (attachment.getExercise() != null) {
             course = attachment.getExercise().getCourseViaExerciseGroupOrCourseMember();
@@ -103,6 +103,8 @@ public class CourseResource {
 
     private final CourseScoreCalculationService courseScoreCalculationService;
 
+    private final CourseForDashboardCacheService courseForDashboardCacheService;
+
     private final GradingScaleRepository gradingScaleRepository;
 
     @Value("${artemis.course-archives-path}")
@@ -115,7 +117,8 @@ public class CourseResource {
             TutorParticipationRepository tutorParticipationRepository, SubmissionService submissionService, Optional<VcsUserManagementService> optionalVcsUserManagementService,
             AssessmentDashboardService assessmentDashboardService, ExerciseRepository exerciseRepository, Optional<CIUserManagementService> optionalCiUserManagementService,
             FileService fileService, TutorialGroupsConfigurationService tutorialGroupsConfigurationService, GradingScaleService gradingScaleService,
-            CourseScoreCalculationService courseScoreCalculationService, GradingScaleRepository gradingScaleRepository, LearningPathService learningPathService) {
+            CourseScoreCalculationService courseScoreCalculationService, GradingScaleRepository gradingScaleRepository, LearningPathService learningPathService,
+            CourseForDashboardCacheService courseForDashboardCacheService) {
         this.courseService = courseService;
         this.courseRepository = courseRepository;
         this.exerciseService = exerciseService;
@@ -135,6 +138,7 @@ public class CourseResource {
         this.courseScoreCalculationService = courseScoreCalculationService;
         this.gradingScaleRepository = gradingScaleRepository;
         this.learningPathService = learningPathService;
+        this.courseForDashboardCacheService = courseForDashboardCacheService;
     }
 
     /**
@@ -450,6 +454,16 @@ public class CourseResource {
         log.debug("REST request to get one course {} with exams, lectures, exercises, participations, submissions and results, etc.", courseId);
         User user = userRepository.getUserWithGroupsAndAuthorities();
 
+        // the generations have to be retrieved before the data is loaded, so that changes in the meantime invalidate the snapshot
+        var generations = courseForDashboardCacheService.getGenerations(user.getId(), courseId);
+        if (!refresh) {
+            var cachedCourseForDashboard = courseForDashboardCacheService.getCourseForDashboard(user, courseId, generations);
+            if (cachedCourseForDashboard.isPresent()) {
+                log.debug("Return cached dashboard of course {} for user {}", courseId, user.getLogin());
+                return ResponseEntity.ok(cachedCourseForDashboard.get());
+            }
+        }
+
         Course course = courseService.findOneWithExercisesAndLecturesAndExamsAndCompetenciesAndTutorialGroupsForUser(courseId, user, refresh);
         if (!authCheckService.isAtLeastStudentInCourse(course, user)) {
             // user might be allowed to enroll in the course
@@ -472,6 +486,7 @@ public class CourseResource {
         GradingScale gradingScale = gradingScaleRepository.findByCourseId(course.getId()).orElse(null);
 
         CourseForDashboardDTO courseForDashboardDTO = courseScoreCalculationService.getScoresAndParticipationResults(course, gradingScale, user.getId());
+        courseForDashboardCacheService.setCourseForDashboard(user, courseId, generations, courseForDashboardDTO);
         logDuration(List.of(course), user, timeNanoStart);
         return ResponseEntity.ok(courseForDashboardDTO);
     }
@@ -491,6 +506,15 @@ public class CourseResource {
         log.debug(
                 "REST request to get all courses the user {} has access to with exams, lectures, exercises, participations, submissions and results + the calculated scores the user achieved in each of those courses",
                 user.getLogin());
+
+        // the generations have to be retrieved before the data is loaded, so that changes in the meantime invalidate the snapshot
+        var generations = courseForDashboardCacheService.getGenerations(user);
+        var cachedCoursesForDashboard = courseForDashboardCacheService.getCoursesForDashboard(user, generations);
+        if (cachedCoursesForDashboard.isPresent()) {
+            log.debug("Return cached dashboard of all courses for user {}", user.getLogin());
+            return cachedCoursesForDashboard.get();
+        }
+
         List<Course> courses = courseService.findAllActiveWithExercisesAndLecturesAndExamsForUser(user);
         courseService.fetchParticipationsWithSubmissionsAndResultsForCourses(courses, user, false);
         courseService.fetchPlagiarismCasesForCourseExercises(courses.stream().flatMap(course -> course.getExercises().stream()).collect(Collectors.toSet()), user.getId());
@@ -502,6 +526,7 @@ public class CourseResource {
             CourseForDashboardDTO courseForDashboardDTO = courseScoreCalculationService.getScoresAndParticipationResults(course, gradingScale, user.getId());
             coursesForDashboard.add(courseForDashboardDTO);
         }
+        courseForDashboardCacheService.setCoursesForDashboard(user, generations, coursesForDashboard);
         logDuration(courses, user, timeNanoStart);
         return coursesForDashboard;
     }
@@ -16,7 +16,6 @@ import java.util.regex.Pattern;
 import javax.activation.MimetypesFileTypeMap;
 
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.Resource;
@@ -40,6 +39,7 @@ import de.tum.in.www1.artemis.security.annotations.*;
 import de.tum.in.www1.artemis.service.AuthorizationCheckService;
 import de.tum.in.www1.artemis.service.FilePathService;
 import de.tum.in.www1.artemis.service.FileService;
+import de.tum.in.www1.artemis.service.MergedLecturePdfService;
 import de.tum.in.www1.artemis.service.ResourceLoaderService;
 import de.tum.in.www1.artemis.web.rest.errors.AccessForbiddenException;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
@@ -88,11 +88,13 @@ public class FileResource {
 
     private final CourseRepository courseRepository;
 
+    private final MergedLecturePdfService mergedLecturePdfService;
+
     public FileResource(FilePathService filePathService, SlideRepository slideRepository, AuthorizationCheckService authorizationCheckService, FileService fileService,
             ResourceLoaderService resourceLoaderService, LectureRepository lectureRepository, FileUploadSubmissionRepository fileUploadSubmissionRepository,
             FileUploadExerciseRepository fileUploadExerciseRepository, AttachmentRepository attachmentRepository, AttachmentUnitRepository attachmentUnitRepository,
             AuthorizationCheckService authCheckService, UserRepository userRepository, ExamUserRepository examUserRepository, QuizQuestionRepository quizQuestionRepository,
-            DragItemRepository dragItemRepository, CourseRepository courseRepository) {
+            DragItemRepository dragItemRepository, CourseRepository courseRepository, MergedLecturePdfService mergedLecturePdfService) {
         this.filePathService = filePathService;
         this.fileService = fileService;
         this.resourceLoaderService = resourceLoaderService;
@@ -109,6 +111,7 @@ public class FileResource {
         this.quizQuestionRepository = quizQuestionRepository;
         this.dragItemRepository = dragItemRepository;
         this.courseRepository = courseRepository;
+        this.mergedLecturePdfService = mergedLecturePdfService;
     }
 
     /**
@@ -143,7 +146,7 @@ public class FileResource {
      */
     @GetMapping("files/temp/{filename:.+}")
     @EnforceAtLeastTutor
-    public ResponseEntity<byte[]> getTempFile(@PathVariable String filename) {
+    public ResponseEntity<Resource> getTempFile(@PathVariable String filename) {
         log.debug("REST request to get file : {}", filename);
         sanitizeFilenameElseThrow(filename);
         return responseEntityForFilePath(FilePathService.getTempFilePath().resolve(filename));
@@ -178,7 +181,7 @@ public class FileResource {
      */
     @GetMapping("files/markdown/{filename}")
     @EnforceAtLeastStudent
-    public ResponseEntity<byte[]> getMarkdownFile(@PathVariable String filename) {
+    public ResponseEntity<Resource> getMarkdownFile(@PathVariable String filename) {
         log.debug("REST request to get file : {}", filename);
         sanitizeFilenameElseThrow(filename);
         return buildFileResponse(FilePathService.getMarkdownFilePath(), filename);
@@ -232,7 +235,7 @@ public class FileResource {
      */
     @GetMapping("files/drag-and-drop/backgrounds/{questionId}/*")
     @EnforceAtLeastStudent
-    public ResponseEntity<byte[]> getDragAndDropBackgroundFile(@PathVariable Long questionId) {
+    public ResponseEntity<Resource> getDragAndDropBackgroundFile(@PathVariable Long questionId) {
         log.debug("REST request to get background for drag and drop question : {}", questionId);
         DragAndDropQuestion question = quizQuestionRepository.findDnDQuestionByIdOrElseThrow(questionId);
         Course course = question.getExercise().getCourseViaExerciseGroupOrCourseMember();
@@ -248,7 +251,7 @@ public class FileResource {
      */
     @GetMapping("files/drag-and-drop/drag-items/{dragItemId}/*")
     @EnforceAtLeastStudent
-    public ResponseEntity<byte[]> getDragItemFile(@PathVariable Long dragItemId) {
+    public ResponseEntity<Resource> getDragItemFile(@PathVariable Long dragItemId) {
         log.debug("REST request to get file for drag item : {}", dragItemId);
         DragItem dragItem = dragItemRepository.findByIdElseThrow(dragItemId);
         Course course = dragItem.getQuestion().getExercise().getCourseViaExerciseGroupOrCourseMember();
@@ -268,7 +271,7 @@ public class FileResource {
      */
     @GetMapping("files/file-upload-exercises/{exerciseId}/submissions/{submissionId}/*")
     @EnforceAtLeastStudent
-    public ResponseEntity<byte[]> getFileUploadSubmission(@PathVariable Long exerciseId, @PathVariable Long submissionId) {
+    public ResponseEntity<Resource> getFileUploadSubmission(@PathVariable Long exerciseId, @PathVariable Long submissionId) {
         log.debug("REST request to get file for file upload submission : {}", exerciseId);
 
         FileUploadSubmission submission = fileUploadSubmissionRepository.findByIdElseThrow(submissionId);
@@ -301,7 +304,7 @@ public class FileResource {
      */
     @GetMapping("files/course/icons/{courseId}/*")
     @EnforceAtLeastStudent
-    public ResponseEntity<byte[]> getCourseIcon(@PathVariable Long courseId) {
+    public ResponseEntity<Resource> getCourseIcon(@PathVariable Long courseId) {
         log.debug("REST request to get icon for course : {}", courseId);
         Course course = courseRepository.findByIdElseThrow(courseId);
         authCheckService.checkHasAtLeastRoleInCourseElseThrow(Role.STUDENT, course, null);
@@ -316,7 +319,7 @@ public class FileResource {
      */
     @GetMapping("files/exam-user/signatures/{examUserId}/*")
     @EnforceAtLeastInstructor
-    public ResponseEntity<byte[]> getUserSignature(@PathVariable Long examUserId) {
+    public ResponseEntity<Resource> getUserSignature(@PathVariable Long examUserId) {
         log.debug("REST request to get signature for exam user : {}", examUserId);
         ExamUser examUser = examUserRepository.findWithExamById(examUserId).orElseThrow();
         authorizationCheckService.checkHasAtLeastRoleInCourseElseThrow(Role.INSTRUCTOR, examUser.getExam().getCourse(), null);
@@ -332,7 +335,7 @@ public class FileResource {
      */
     @GetMapping("files/exam-user/{examUserId}/*")
     @EnforceAtLeastInstructor
-    public ResponseEntity<byte[]> getExamUserImage(@PathVariable Long examUserId) {
+    public ResponseEntity<Resource> getExamUserImage(@PathVariable Long examUserId) {
         log.debug("REST request to get image for exam user : {}", examUserId);
         ExamUser examUser = examUserRepository.findWithExamById(examUserId).orElseThrow();
         authorizationCheckService.checkHasAtLeastRoleInCourseElseThrow(Role.INSTRUCTOR, examUser.getExam().getCourse(), null);
@@ -349,7 +352,7 @@ public class FileResource {
      */
     @GetMapping("files/attachments/lecture/{lectureId}/{filename}")
     @EnforceAtLeastStudent
-    public ResponseEntity<byte[]> getLectureAttachment(@PathVariable Long lectureId, @PathVariable String filename) {
+    public ResponseEntity<Resource> getLectureAttachment(@PathVariable Long lectureId, @PathVariable String filename) {
         log.debug("REST request to get file : {}", filename);
         sanitizeFilenameElseThrow(filename);
 
@@ -377,7 +380,7 @@ public class FileResource {
      */
     @GetMapping("files/attachments/lecture/{lectureId}/merge-pdf")
     @EnforceAtLeastStudent
-    public ResponseEntity<byte[]> getLecturePdfAttachmentsMerged(@PathVariable Long lectureId) {
+    public ResponseEntity<Resource> getLecturePdfAttachmentsMerged(@PathVariable Long lectureId) {
         log.debug("REST request to get merged pdf files for a lecture with id : {}", lectureId);
 
         User user = userRepository.getUserWithGroupsAndAuthorities();
@@ -387,19 +390,26 @@ public class FileResource {
 
         List<AttachmentUnit> lectureAttachments = attachmentUnitRepository.findAllByLectureIdAndAttachmentTypeElseThrow(lectureId, AttachmentType.FILE);
 
-        List<String> attachmentLinks = lectureAttachments.stream()
-                .filter(unit -> authCheckService.isAllowedToSeeLectureUnit(unit, user) && "pdf".equals(StringUtils.substringAfterLast(unit.getAttachment().getLink(), ".")))
-                .map(unit -> FilePathService.getAttachmentUnitFilePath()
-                        .resolve(Path.of(String.valueOf(unit.getId()), StringUtils.substringAfterLast(unit.getAttachment().getLink(), "/"))).toString())
-                .toList();
+        List<AttachmentUnit> visibleAttachmentUnits = lectureAttachments.stream().filter(unit -> authCheckService.isAllowedToSeeLectureUnit(unit, user)).toList();
 
-        Optional<byte[]> file = fileService.mergePdfFiles(attachmentLinks, lectureRepository.getLectureTitle(lectureId));
-        if (file.isEmpty()) {
+        Optional<Path> mergedPdfPath = mergedLecturePdfService.getMergedPdf(lectureId, visibleAttachmentUnits);
+        if (mergedPdfPath.isEmpty()) {
             log.error("Failed to merge PDF lecture units for lecture with id {}", lectureId);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
 
-        return ResponseEntity.ok().contentType(MediaType.APPLICATION_PDF).body(file.get());
+        try {
+            Optional<FileService.StoredFile> file = fileService.getStoredFile(mergedPdfPath.get());
+            if (file.isEmpty()) {
+                // the file was deleted in the meantime because newer merged files were stored
+                return ResponseEntity.notFound().build();
+            }
+            return fileResponse(file.get()).contentType(MediaType.APPLICATION_PDF).body(file.get().resource());
+        }
+        catch (IOException ex) {
+            log.error("Failed to return the merged PDF of lecture {}", lectureId, ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
     }
 
     /**
@@ -410,7 +420,7 @@ public class FileResource {
      */
     @GetMapping("files/attachments/attachment-unit/{attachmentUnitId}/*")
     @EnforceAtLeastStudent
-    public ResponseEntity<byte[]> getAttachmentUnitAttachment(@PathVariable Long attachmentUnitId) {
+    public ResponseEntity<Resource> getAttachmentUnitAttachment(@PathVariable Long attachmentUnitId) {
         log.debug("REST request to get file for attachment unit : {}", attachmentUnitId);
         AttachmentUnit attachmentUnit = attachmentUnitRepository.findByIdElseThrow(attachmentUnitId);
 
@@ -433,7 +443,7 @@ public class FileResource {
      */
     @GetMapping("files/attachments/attachment-unit/{attachmentUnitId}/slide/{slideNumber}")
     @EnforceAtLeastStudent
-    public ResponseEntity<byte[]> getAttachmentUnitAttachmentSlide(@PathVariable Long attachmentUnitId, @PathVariable String slideNumber) {
+    public ResponseEntity<Resource> getAttachmentUnitAttachmentSlide(@PathVariable Long attachmentUnitId, @PathVariable String slideNumber) {
         log.debug("REST request to get the slide : {}", slideNumber);
         AttachmentUnit attachmentUnit = attachmentUnitRepository.findByIdElseThrow(attachmentUnitId);
 
@@ -467,7 +477,7 @@ public class FileResource {
      * @param filename the name of the file
      * @return response entity
      */
-    private ResponseEntity<byte[]> buildFileResponse(Path path, String filename) {
+    private ResponseEntity<Resource> buildFileResponse(Path path, String filename) {
         return buildFileResponse(path, filename, false);
     }
 
@@ -478,23 +488,24 @@ public class FileResource {
      * @param cache true if the response should contain a header that allows caching; false otherwise
      * @return response entity
      */
-    private ResponseEntity<byte[]> buildFileResponse(Path path, boolean cache) {
+    private ResponseEntity<Resource> buildFileResponse(Path path, boolean cache) {
         return buildFileResponse(path.getParent(), path.getFileName().toString(), cache);
     }
 
     /**
-     * Builds the response with headers, body and content type for specified path and file name
+     * Builds the response with headers, body and content type for specified path and file name.
+     * The file is streamed and the response supports range requests (e.g. to resume a download) and conditional requests with the returned ETag and Last-Modified headers.
      *
      * @param path     to the file
      * @param filename the name of the file
      * @param cache    true if the response should contain a header that allows caching; false otherwise
      * @return response entity
      */
-    private ResponseEntity<byte[]> buildFileResponse(Path path, String filename, boolean cache) {
+    private ResponseEntity<Resource> buildFileResponse(Path path, String filename, boolean cache) {
         try {
             Path actualPath = path.resolve(filename);
-            byte[] file = fileService.getFileForPath(actualPath);
-            if (file == null) {
+            Optional<FileService.StoredFile> file = fileService.getStoredFile(actualPath);
+            if (file.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
 
@@ -507,21 +518,12 @@ public class FileResource {
                     : "inline";
             headers.setContentDisposition(ContentDisposition.builder(contentType).filename(filename).build());
 
-            FileNameMap fileNameMap = URLConnection.getFileNameMap();
-            String mimeType = fileNameMap.getContentTypeFor(filename);
-
-            // If we were unable to find mimeType with previous method, try another one, which returns application/octet-stream mime type,
-            // if it also can't determine mime type
-            if (mimeType == null) {
-                MimetypesFileTypeMap fileTypeMap = new MimetypesFileTypeMap();
-                mimeType = fileTypeMap.getContentType(filename);
-            }
-            var response = ResponseEntity.ok().headers(headers).contentType(MediaType.parseMediaType(mimeType)).header("filename", filename);
+            var response = fileResponse(file.get()).headers(headers).contentType(getMediaType(filename)).header("filename", filename);
             if (cache) {
                 var cacheControl = CacheControl.maxAge(Duration.ofDays(DAYS_TO_CACHE)).cachePublic();
                 response = response.cacheControl(cacheControl);
             }
-            return response.body(file);
+            return response.body(file.get().resource());
         }
         catch (IOException ex) {
             log.error("Failed to download file: {} on path: {}", filename, path, ex);
@@ -550,13 +552,13 @@ public class FileResource {
      * @param filePath the path for the file to read
      * @return ResponseEntity with status 200 and the file as byte stream, status 404 if the file doesn't exist, or status 500 if there is an error while reading the file
      */
-    private ResponseEntity<byte[]> responseEntityForFilePath(Path filePath) {
+    private ResponseEntity<Resource> responseEntityForFilePath(Path filePath) {
         try {
-            var file = fileService.getFileForPath(filePath);
-            if (file == null) {
+            var file = fileService.getStoredFile(filePath);
+            if (file.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
-            return ResponseEntity.ok(file);
+            return fileResponse(file.get()).contentType(getMediaType(filePath.getFileName().toString())).body(file.get().resource());
         }
         catch (IOException e) {
             log.error("Failed to return requested file with path {}", filePath, e);
@@ -564,6 +566,36 @@ public class FileResource {
         }
     }
 
+    /**
+     * Creates a response for the file with the headers for conditional requests.
+     * Spring answers requests with a matching If-None-Match or If-Modified-Since header with 304 (Not Modified) and requests with a Range header with the requested parts.
+     *
+     * @param file the file to send
+     * @return the response builder
+     */
+    private static ResponseEntity.BodyBuilder fileResponse(FileService.StoredFile file) {
+        return ResponseEntity.ok().eTag(file.eTag()).lastModified(file.lastModified());
+    }
+
+    /**
+     * Determines the media type of the file based on its name
+     *
+     * @param filename the name of the file
+     * @return the media type, or application/octet-stream if it can't be determined
+     */
+    private static MediaType getMediaType(String filename) {
+        FileNameMap fileNameMap = URLConnection.getFileNameMap();
+        String mimeType = fileNameMap.getContentTypeFor(filename);
+
+        // If we were unable to find mimeType with previous method, try another one, which returns application/octet-stream mime type,
+        // if it also can't determine mime type
+        if (mimeType == null) {
+            MimetypesFileTypeMap fileTypeMap = new MimetypesFileTypeMap();
+            mimeType = fileTypeMap.getContentType(filename);
+        }
+        return MediaType.parseMediaType(mimeType);
+    }
+
     /**
      * removes illegal characters and compares the resulting with the original file name
      * If both are not equal, it throws an exception
@@ -1,7 +1,5 @@
 package de.tum.in.www1.artemis.web.rest;
 
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
@@ -9,7 +7,6 @@ import org.springframework.web.bind.annotation.*;
 
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.repository.ProgrammingExerciseRepository;
-import de.tum.in.www1.artemis.repository.ResultRepository;
 import de.tum.in.www1.artemis.repository.UserRepository;
 import de.tum.in.www1.artemis.security.Role;
 import de.tum.in.www1.artemis.security.annotations.EnforceAtLeastEditor;
@@ -40,19 +37,17 @@ public class ProgrammingExerciseGradingResource {
 
     private final UserRepository userRepository;
 
-    private final ResultRepository resultRepository;
-
     public ProgrammingExerciseGradingResource(ProgrammingExerciseGradingService programmingExerciseGradingService, ProgrammingExerciseRepository programmingExerciseRepository,
-            AuthorizationCheckService authCheckService, UserRepository userRepository, ResultRepository resultRepository) {
+            AuthorizationCheckService authCheckService, UserRepository userRepository) {
         this.programmingExerciseGradingService = programmingExerciseGradingService;
         this.programmingExerciseRepository = programmingExerciseRepository;
         this.authCheckService = authCheckService;
         this.userRepository = userRepository;
-        this.resultRepository = resultRepository;
     }
 
     /**
      * Use with care: Re-evaluates all latest automatic results for the given programming exercise.
+     * The progress is sent via websocket, see {@link ProgrammingExerciseGradingService#getReEvaluationProgressTopic(long)}.
      *
      * @param exerciseId the id of the exercise to re-evaluate the test case weights of.
      * @return the number of results that were updated.
@@ -67,11 +62,10 @@ public class ProgrammingExerciseGradingResource {
 
         authCheckService.checkHasAtLeastRoleForExerciseElseThrow(Role.INSTRUCTOR, programmingExercise, user);
 
-        List<Result> updatedResults = programmingExerciseGradingService.updateAllResults(programmingExercise);
+        int numberOfReEvaluatedResults = programmingExerciseGradingService.reEvaluateAllResults(programmingExercise);
 
-        programmingExerciseGradingService.logReEvaluate(user, programmingExercise, course, updatedResults);
-        resultRepository.saveAll(updatedResults);
-        return ResponseEntity.ok(updatedResults.size());
+        programmingExerciseGradingService.logReEvaluate(user, programmingExercise, course, numberOfReEvaluatedResults);
+        return ResponseEntity.ok(numberOfReEvaluatedResults);
     }
 
     /**
@@ -42,6 +42,7 @@ import de.tum.in.www1.artemis.service.programming.*;
 import de.tum.in.www1.artemis.web.rest.dto.BuildLogStatisticsDTO;
 import de.tum.in.www1.artemis.web.rest.dto.PageableSearchDTO;
 import de.tum.in.www1.artemis.web.rest.dto.ProgrammingExerciseResetOptionsDTO;
+import de.tum.in.www1.artemis.web.rest.dto.RepositoryOperationProgressDTO;
 import de.tum.in.www1.artemis.web.rest.dto.SearchResultPageDTO;
 import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
 import de.tum.in.www1.artemis.web.rest.errors.ConflictException;
@@ -109,6 +110,8 @@ public class ProgrammingExerciseResource {
 
     private final InstanceMessageSendService instanceMessageSendService;
 
+    private final RepositoryBulkOperationService repositoryBulkOperationService;
+
     public ProgrammingExerciseResource(ProgrammingExerciseRepository programmingExerciseRepository, ProgrammingExerciseTestCaseRepository programmingExerciseTestCaseRepository,
             UserRepository userRepository, AuthorizationCheckService authCheckService, CourseService courseService,
             Optional<ContinuousIntegrationService> continuousIntegrationService, Optional<VersionControlService> versionControlService, ExerciseService exerciseService,
@@ -117,7 +120,8 @@ public class ProgrammingExerciseResource {
             StaticCodeAnalysisService staticCodeAnalysisService, GradingCriterionRepository gradingCriterionRepository, CourseRepository courseRepository, GitService gitService,
             AuxiliaryRepositoryService auxiliaryRepositoryService, SolutionProgrammingExerciseParticipationRepository solutionProgrammingExerciseParticipationRepository,
             TemplateProgrammingExerciseParticipationRepository templateProgrammingExerciseParticipationRepository, ProfileService profileService,
-            BuildLogStatisticsEntryRepository buildLogStatisticsEntryRepository, ChannelRepository channelRepository, InstanceMessageSendService instanceMessageSendService) {
+            BuildLogStatisticsEntryRepository buildLogStatisticsEntryRepository, ChannelRepository channelRepository, InstanceMessageSendService instanceMessageSendService,
+            RepositoryBulkOperationService repositoryBulkOperationService) {
         this.profileService = profileService;
         this.programmingExerciseRepository = programmingExerciseRepository;
         this.programmingExerciseTestCaseRepository = programmingExerciseTestCaseRepository;
@@ -141,6 +145,7 @@ public class ProgrammingExerciseResource {
         this.buildLogStatisticsEntryRepository = buildLogStatisticsEntryRepository;
         this.channelRepository = channelRepository;
         this.instanceMessageSendService = instanceMessageSendService;
+        this.repositoryBulkOperationService = repositoryBulkOperationService;
     }
 
     /**
@@ -628,6 +633,20 @@ public class ProgrammingExerciseResource {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Returns the progress of the operations (e.g. locking or unlocking) that were executed on all repositories of the given programming exercise within the last day.
+     *
+     * @param exerciseId of the exercise
+     * @return The ResponseEntity with status 200 (OK) and the progress of the operations, the latest operation first
+     */
+    @GetMapping(REPOSITORY_OPERATIONS)
+    @EnforceAtLeastInstructor
+    public ResponseEntity<List<RepositoryOperationProgressDTO>> getRepositoryOperationProgress(@PathVariable Long exerciseId) {
+        var programmingExercise = programmingExerciseRepository.findByIdElseThrow(exerciseId);
+        authCheckService.checkHasAtLeastRoleForExerciseElseThrow(Role.INSTRUCTOR, programmingExercise, null);
+        return ResponseEntity.ok(repositoryBulkOperationService.getProgress(exerciseId));
+    }
+
     /**
      * Returns a list of auxiliary repositories for a given programming exercise.
      *
@@ -50,6 +50,8 @@ public final class ProgrammingExerciseResourceEndpoints {
 
     public static final String LOCK_ALL_REPOSITORIES = PROGRAMMING_EXERCISE + "/lock-all-repositories";
 
+    public static final String REPOSITORY_OPERATIONS = PROGRAMMING_EXERCISE + "/repository-operations";
+
     public static final String AUXILIARY_REPOSITORY = PROGRAMMING_EXERCISE + "/auxiliary-repository";
 
     public static final String RESET = PROGRAMMING_EXERCISE + "/reset";
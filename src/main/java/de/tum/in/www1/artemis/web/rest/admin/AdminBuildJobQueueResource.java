@@ -0,0 +1,39 @@
+package de.tum.in.www1.artemis.web.rest.admin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import de.tum.in.www1.artemis.security.annotations.EnforceAdmin;
+import de.tum.in.www1.artemis.service.connectors.localci.LocalCISharedBuildJobQueueService;
+import de.tum.in.www1.artemis.service.connectors.localci.dto.LocalCIBuildQueueStatusDTO;
+
+@Profile("localci")
+@RestController
+@RequestMapping("api/admin/")
+public class AdminBuildJobQueueResource {
+
+    private final Logger log = LoggerFactory.getLogger(AdminBuildJobQueueResource.class);
+
+    private final LocalCISharedBuildJobQueueService localCISharedBuildJobQueueService;
+
+    public AdminBuildJobQueueResource(LocalCISharedBuildJobQueueService localCISharedBuildJobQueueService) {
+        this.localCISharedBuildJobQueueService = localCISharedBuildJobQueueService;
+    }
+
+    /**
+     * GET build-job-queue : Returns the build jobs in the queue shared between all Artemis instances, the build jobs that are currently running, and the available build agents.
+     *
+     * @return the current state of the shared build job queue
+     */
+    @GetMapping("build-job-queue")
+    @EnforceAdmin
+    public ResponseEntity<LocalCIBuildQueueStatusDTO> getBuildJobQueueStatus() {
+        log.debug("REST request to get the status of the local CI build job queue");
+        return ResponseEntity.ok(localCISharedBuildJobQueueService.getStatus());
+    }
+}
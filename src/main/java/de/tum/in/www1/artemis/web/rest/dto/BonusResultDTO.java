@@ -1,5 +1,7 @@
 package de.tum.in.www1.artemis.web.rest.dto;
 
+import java.io.Serializable;
+
 import com.fasterxml.jackson.annotation.JsonInclude;
 
 import de.tum.in.www1.artemis.domain.BonusStrategy;
@@ -10,5 +12,5 @@ import de.tum.in.www1.artemis.domain.plagiarism.PlagiarismVerdict;
  */
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 public record BonusResultDTO(BonusStrategy bonusStrategy, String bonusFromTitle, Double studentPointsOfBonusSource, String bonusGrade, Double finalPoints, String finalGrade,
-        PlagiarismVerdict mostSeverePlagiarismVerdict, Double achievedPresentationScore, Integer presentationScoreThreshold) {
+        PlagiarismVerdict mostSeverePlagiarismVerdict, Double achievedPresentationScore, Integer presentationScoreThreshold) implements Serializable {
 }
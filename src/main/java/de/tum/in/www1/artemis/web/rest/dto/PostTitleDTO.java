@@ -0,0 +1,4 @@
+package de.tum.in.www1.artemis.web.rest.dto;
+
+public record PostTitleDTO(long id, String title) {
+}
@@ -0,0 +1,20 @@
+package de.tum.in.www1.artemis.web.rest.dto;
+
+import java.time.ZonedDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The progress of an operation that is executed on the repositories of all participations of a programming exercise (e.g. locking the repositories at the due date)
+ *
+ * @param operationName  the name of the operation
+ * @param finished       whether the operation is finished
+ * @param total          the number of participations the operation is executed for
+ * @param processed      the number of participations that were processed, including failed ones
+ * @param failed         the number of participations for which the operation failed
+ * @param startDate      the time the operation was started
+ * @param completionDate the time the operation was finished, or null if it is still running
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record RepositoryOperationProgressDTO(String operationName, boolean finished, int total, int processed, int failed, ZonedDateTime startDate, ZonedDateTime completionDate) {
+}
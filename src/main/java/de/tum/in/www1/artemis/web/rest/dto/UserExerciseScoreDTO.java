@@ -0,0 +1,11 @@
+package de.tum.in.www1.artemis.web.rest.dto;
+
+/**
+ * The last score of a user in an exercise, either achieved individually or as member of a team
+ *
+ * @param userId     the id of the user
+ * @param exerciseId the id of the exercise
+ * @param lastScore  the score of the last result of the participation
+ */
+public record UserExerciseScoreDTO(long userId, long exerciseId, Double lastScore) {
+}
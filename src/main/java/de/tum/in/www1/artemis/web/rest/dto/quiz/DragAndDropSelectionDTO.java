@@ -0,0 +1,12 @@
+package de.tum.in.www1.artemis.web.rest.dto.quiz;
+
+/**
+ * A drag item that was dropped onto a drop location in a drag and drop submitted answer
+ *
+ * @param submissionId   the id of the quiz submission
+ * @param questionId     the id of the drag and drop question
+ * @param dragItemId     the id of the dragged item, null if nothing was dragged
+ * @param dropLocationId the id of the drop location, null if nothing was dragged
+ */
+public record DragAndDropSelectionDTO(Long submissionId, Long questionId, Long dragItemId, Long dropLocationId) {
+}
@@ -0,0 +1,11 @@
+package de.tum.in.www1.artemis.web.rest.dto.quiz;
+
+/**
+ * An answer option that was selected in a multiple choice submitted answer
+ *
+ * @param submissionId   the id of the quiz submission
+ * @param questionId     the id of the multiple choice question
+ * @param answerOptionId the id of the selected answer option, null if no answer option was selected
+ */
+public record MultipleChoiceSelectionDTO(Long submissionId, Long questionId, Long answerOptionId) {
+}
@@ -0,0 +1,15 @@
+package de.tum.in.www1.artemis.web.rest.dto.quiz;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The values of a quiz result that are needed to recalculate the statistics of a quiz exercise
+ *
+ * @param participationId the id of the participation the result belongs to
+ * @param rated           whether the result is rated
+ * @param completionDate  the completion date of the result
+ * @param score           the score of the result
+ * @param submissionId    the id of the quiz submission of the result, null if the result has no submission
+ */
+public record QuizResultStatisticDTO(Long participationId, Boolean rated, ZonedDateTime completionDate, Double score, Long submissionId) {
+}
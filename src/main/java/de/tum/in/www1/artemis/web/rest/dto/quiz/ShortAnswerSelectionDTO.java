@@ -0,0 +1,13 @@
+package de.tum.in.www1.artemis.web.rest.dto.quiz;
+
+/**
+ * A text that was submitted for a spot in a short answer submitted answer
+ *
+ * @param submissionId the id of the quiz submission
+ * @param questionId   the id of the short answer question
+ * @param spotId       the id of the spot, null if no text was submitted
+ * @param text         the submitted text
+ * @param isCorrect    whether the submitted text was evaluated as correct
+ */
+public record ShortAnswerSelectionDTO(Long submissionId, Long questionId, Long spotId, String text, Boolean isCorrect) {
+}
@@ -0,0 +1,13 @@
+package de.tum.in.www1.artemis.web.websocket.dto;
+
+/**
+ * This DTO contains the progress of the re-evaluation of the results of a programming exercise:
+ * - totalParticipations: the number of student participations whose latest results are re-evaluated
+ * - processedParticipations: the number of student participations whose latest results were already re-evaluated
+ * - updatedResults: the number of results whose grading has changed and that were saved
+ * - failedParticipations: the number of student participations whose latest results could not be re-evaluated
+ * - finished: has the re-evaluation finished?
+ */
+public record ProgrammingExerciseReEvaluationProgressDTO(int totalParticipations, int processedParticipations, int updatedResults, int failedParticipations, boolean finished) {
+
+}
@@ -0,0 +1,137 @@
+package de.tum.in.www1.artemis.exam;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import de.tum.in.www1.artemis.AbstractSpringIntegrationIndependentTest;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.TextExercise;
+import de.tum.in.www1.artemis.domain.enumeration.AssessmentType;
+import de.tum.in.www1.artemis.domain.enumeration.Language;
+import de.tum.in.www1.artemis.domain.exam.ExerciseGroup;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.exercise.textexercise.TextExerciseFactory;
+import de.tum.in.www1.artemis.participation.ParticipationFactory;
+import de.tum.in.www1.artemis.participation.ParticipationUtilService;
+import de.tum.in.www1.artemis.repository.ResultRepository;
+import de.tum.in.www1.artemis.repository.TextExerciseRepository;
+import de.tum.in.www1.artemis.service.exam.ExamScoresCacheService;
+import de.tum.in.www1.artemis.user.UserUtilService;
+import de.tum.in.www1.artemis.web.rest.dto.ExamScoresDTO;
+
+class ExamScoresCacheServiceTest extends AbstractSpringIntegrationIndependentTest {
+
+    private static final String TEST_PREFIX = "examscorescache";
+
+    @Autowired
+    private ExamScoresCacheService examScoresCacheService;
+
+    @Autowired
+    private ExamUtilService examUtilService;
+
+    @Autowired
+    private UserUtilService userUtilService;
+
+    @Autowired
+    private ParticipationUtilService participationUtilService;
+
+    @Autowired
+    private TextExerciseRepository textExerciseRepository;
+
+    @Autowired
+    private ResultRepository resultRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long examId;
+
+    private StudentParticipation participation;
+
+    @BeforeEach
+    void initTestCase() {
+        userUtilService.addUsers(TEST_PREFIX, 1, 0, 0, 0);
+        ExerciseGroup exerciseGroup = examUtilService.addExerciseGroupWithExamAndCourse(true);
+        examId = exerciseGroup.getExam().getId();
+        // the exercise is created after the scores were calculated, so it is not registered in the cache
+        TextExercise exercise = textExerciseRepository.save(TextExerciseFactory.generateTextExerciseForExam(exerciseGroup));
+        participation = participationUtilService.createAndSaveParticipationForExercise(exercise, TEST_PREFIX + "student1");
+    }
+
+    @Test
+    void shouldInvalidateScoresWhenResultOfUnregisteredExamExerciseIsSaved() {
+        long generation = cacheScores();
+
+        participationUtilService.addResultToParticipation(AssessmentType.MANUAL, ZonedDateTime.now(), participation);
+
+        assertThat(examScoresCacheService.getGeneration(examId)).isNotEqualTo(generation);
+        assertThat(examScoresCacheService.getExamScores(examId, generation)).isEmpty();
+    }
+
+    @Test
+    void shouldInvalidateScoresWhenResultOnlyReferencesParticipation() {
+        long generation = cacheScores();
+        var participationReference = new StudentParticipation();
+        participationReference.setId(participation.getId());
+
+        resultRepository.save(new Result().participation(participationReference).rated(true).score(50D).assessmentType(AssessmentType.MANUAL));
+
+        // the exam of the participation is looked up asynchronously
+        await().untilAsserted(() -> assertThat(examScoresCacheService.getGeneration(examId)).isNotEqualTo(generation));
+        assertThat(examScoresCacheService.getExamScores(examId, generation)).isEmpty();
+    }
+
+    @Test
+    void shouldInvalidateScoresWhenSubmissionIsSaved() {
+        long generation = cacheScores();
+
+        // the submissions determine whether a student has a non-empty submission
+        participationUtilService.addSubmission(participation, ParticipationFactory.generateTextSubmission("text", Language.ENGLISH, true));
+
+        assertThat(examScoresCacheService.getGeneration(examId)).isNotEqualTo(generation);
+        assertThat(examScoresCacheService.getExamScores(examId, generation)).isEmpty();
+    }
+
+    @Test
+    void shouldOnlyInvalidateScoresAfterCommit() {
+        long generation = cacheScores();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            resultRepository.saveAndFlush(new Result().participation(participation).rated(true).score(50D).assessmentType(AssessmentType.MANUAL));
+            // a concurrent calculation must not retrieve a new generation before the result is committed
+            assertThat(examScoresCacheService.getGeneration(examId)).isEqualTo(generation);
+        });
+
+        assertThat(examScoresCacheService.getGeneration(examId)).isNotEqualTo(generation);
+        assertThat(examScoresCacheService.getExamScores(examId, generation)).isEmpty();
+    }
+
+    @Test
+    void shouldNotInvalidateScoresIfTransactionIsRolledBack() {
+        long generation = cacheScores();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            resultRepository.saveAndFlush(new Result().participation(participation).rated(true).score(50D).assessmentType(AssessmentType.MANUAL));
+            status.setRollbackOnly();
+        });
+
+        assertThat(examScoresCacheService.getGeneration(examId)).isEqualTo(generation);
+        assertThat(examScoresCacheService.getExamScores(examId, generation)).isPresent();
+    }
+
+    private long cacheScores() {
+        long generation = examScoresCacheService.getGeneration(examId);
+        examScoresCacheService.setExamScores(examId, generation, new ExamScoresDTO(examId, "exam", 10, 0.0, false, List.of(), List.of()));
+        assertThat(examScoresCacheService.getExamScores(examId, generation)).isPresent();
+        return generation;
+    }
+}
@@ -16,6 +16,7 @@ import de.tum.in.www1.artemis.service.compass.umlmodel.Similarity;
 import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
 import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
 import de.tum.in.www1.artemis.service.compass.umlmodel.activity.UMLActivityDiagram;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLClass;
 
 class UMLDiagramTest {
 
@@ -101,6 +102,36 @@ class UMLDiagramTest {
         assertThat(symmetricSimilarity).isEqualTo(similarity);
     }
 
+    @Test
+    void similarity_stopsBelowMinimumSimilarity() {
+        when(umlDiagram.getModelElements()).thenReturn(List.of(umlElement1, umlElement2, umlElement3));
+        mockOverallSimilarity(referenceElement1, umlElement1, 0.1);
+        mockOverallSimilarity(referenceElement1, umlElement2, 0.2);
+        mockOverallSimilarity(referenceElement1, umlElement3, 0.3);
+
+        double similarity = umlDiagram.similarity(referenceDiagram, 0.9);
+
+        assertThat(similarity).isLessThan(0.9);
+        // After the first reference element, a similarity of 0.9 cannot be reached anymore.
+        verify(umlElement1, Mockito.never()).overallSimilarity(referenceElement2);
+        verify(umlElement2, Mockito.never()).overallSimilarity(referenceElement2);
+        verify(umlElement3, Mockito.never()).overallSimilarity(referenceElement2);
+    }
+
+    @Test
+    void similarityUpperBound() {
+        when(umlDiagram.getModelElements()).thenReturn(List.of(umlElement1, umlElement2, umlElement3));
+        assertThat(UMLDiagram.similarityUpperBound(umlDiagram.getModelElementCountsBySimilarityType(), referenceDiagram.getModelElementCountsBySimilarityType()))
+                .isEqualTo(2.0 / 3);
+
+        when(umlDiagram.getModelElements()).thenReturn(List.of(umlElement1, mock(UMLClass.class)));
+        assertThat(UMLDiagram.similarityUpperBound(umlDiagram.getModelElementCountsBySimilarityType(), referenceDiagram.getModelElementCountsBySimilarityType()))
+                .isEqualTo(0.5);
+
+        when(umlDiagram.getModelElements()).thenReturn(List.of());
+        assertThat(UMLDiagram.similarityUpperBound(umlDiagram.getModelElementCountsBySimilarityType(), referenceDiagram.getModelElementCountsBySimilarityType())).isZero();
+    }
+
     private void verifyNoElementInteraction() {
         verify(umlElement1, Mockito.never()).similarity(any());
         verify(umlElement1, Mockito.never()).overallSimilarity(any());
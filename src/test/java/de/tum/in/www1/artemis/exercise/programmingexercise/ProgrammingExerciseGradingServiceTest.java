@@ -44,6 +44,7 @@ import de.tum.in.www1.artemis.service.util.RoundingUtil;
 import de.tum.in.www1.artemis.user.UserUtilService;
 import de.tum.in.www1.artemis.web.rest.ProgrammingExerciseGradingResource;
 import de.tum.in.www1.artemis.web.rest.dto.ProgrammingExerciseGradingStatisticsDTO;
+import de.tum.in.www1.artemis.web.websocket.dto.ProgrammingExerciseReEvaluationProgressDTO;
 
 /**
  * Tests the {@link ProgrammingExerciseGradingService}.
@@ -607,6 +608,29 @@ abstract class ProgrammingExerciseGradingServiceTest extends AbstractSpringInteg
         verifyStudentScoreCalculations(testParticipations);
     }
 
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "instructor1", roles = "INSTRUCTOR")
+    void shouldOnlySaveChangedResultsWhenReEvaluatingAgain() {
+        programmingExercise = (ProgrammingExercise) exerciseUtilService.addMaxScoreAndBonusPointsToExercise(programmingExercise);
+        programmingExercise = programmingExerciseUtilService.addTemplateParticipationForProgrammingExercise(programmingExercise);
+        programmingExercise = programmingExerciseUtilService.addSolutionParticipationForProgrammingExercise(programmingExercise);
+        programmingExercise = programmingExerciseRepository.findByIdWithTemplateAndSolutionParticipationWithResultsElseThrow(programmingExercise.getId());
+
+        var testCases = createTestCases(false);
+        var testParticipations = createTestParticipations();
+        changeTestCaseWeights(testCases);
+
+        assertThat(programmingExerciseGradingService.reEvaluateAllResults(programmingExercise)).isEqualTo(7);
+        verifyStudentScoreCalculations(testParticipations);
+
+        // the test cases have not changed since the last re-evaluation: only the template and solution results are saved again
+        programmingExercise = programmingExerciseRepository.findByIdWithTemplateAndSolutionParticipationWithResultsElseThrow(programmingExercise.getId());
+        assertThat(programmingExerciseGradingService.reEvaluateAllResults(programmingExercise)).isEqualTo(7);
+        verify(websocketMessagingService).sendCoalescedMessage(ProgrammingExerciseGradingService.getReEvaluationProgressTopic(programmingExercise.getId()),
+                new ProgrammingExerciseReEvaluationProgressDTO(5, 5, 2, 0, true));
+        verifyStudentScoreCalculations(testParticipations);
+    }
+
     @ValueSource(booleans = { false, true })
     @ParameterizedTest(name = "{displayName} [{index}] {argumentsWithNames}")
     @WithMockUser(username = TEST_PREFIX + "instructor1", roles = "INSTRUCTOR")
@@ -725,7 +749,7 @@ abstract class ProgrammingExerciseGradingServiceTest extends AbstractSpringInteg
         programmingExercise = programmingExerciseRepository.findByIdWithTemplateAndSolutionParticipationWithResultsElseThrow(programmingExercise.getId());
 
         final var testCases = createTestCases(false);
-        createTestParticipations();
+        final var testParticipations = createTestParticipations();
 
         for (final var testCase : testCases.values()) {
             testCase.setWeight(0D);
@@ -733,16 +757,17 @@ abstract class ProgrammingExerciseGradingServiceTest extends AbstractSpringInteg
         testCases.get("test1").setBonusMultiplier(1.4D);
         testCaseRepository.saveAll(testCases.values());
 
-        final var updatedResults = programmingExerciseGradingService.updateAllResults(programmingExercise);
-        assertThat(updatedResults).hasSize(7);
+        assertThat(programmingExerciseGradingService.reEvaluateAllResults(programmingExercise)).isEqualTo(7);
 
         // even though the test case weights are all zero, the solution should receive a score
         // => every test case is weighted with 1.0 in that case
-        final var updatedSolution = updatedResults.stream().filter(result -> result.getParticipation() instanceof SolutionProgrammingExerciseParticipation).findFirst()
-                .orElseThrow();
-        assertThat(updatedSolution.getScore()).isCloseTo(66.7, Offset.offset(offsetByTenThousandth));
+        programmingExercise = programmingExerciseRepository.findByIdWithTemplateAndSolutionParticipationWithResultsElseThrow(programmingExercise.getId());
+        final var solutionResults = programmingExercise.getSolutionParticipation().getResults();
+        assertThat(solutionResults).hasSize(1);
+        assertThat(solutionResults.iterator().next().getScore()).isCloseTo(66.7, Offset.offset(offsetByTenThousandth));
 
-        final var updatedStudentResults = updatedResults.stream().filter(result -> result.getParticipation() instanceof StudentParticipation).toList();
+        final var updatedStudentResults = Arrays.stream(testParticipations)
+                .flatMap(participation -> studentParticipationRepository.findWithEagerResultsAndFeedbackById(participation.getId()).orElseThrow().getResults().stream()).toList();
         assertThat(updatedStudentResults).hasSize(5);
 
         for (final var result : updatedStudentResults) {
@@ -175,7 +175,7 @@ class ProgrammingExerciseScheduleServiceTest extends AbstractSpringIntegrationGi
 
         verify(programmingTriggerService, after(SCHEDULER_TASK_TRIGGER_DELAY_MS).never()).triggerInstructorBuildForExercise(programmingExercise.getId());
         // Update all scores should not have been triggered.
-        verify(programmingExerciseGradingService, never()).updateAllResults(programmingExercise);
+        verify(programmingExerciseGradingService, never()).reEvaluateAllResults(programmingExercise);
         // Lock student repository must not be called.
         verifyLockStudentRepositoryAndParticipationOperation(false, 0);
     }
@@ -213,7 +213,7 @@ class ProgrammingExerciseScheduleServiceTest extends AbstractSpringIntegrationGi
 
         verify(programmingTriggerService, after(SCHEDULER_TASK_TRIGGER_DELAY_MS).never()).triggerInstructorBuildForExercise(programmingExercise.getId());
         verifyLockStudentRepositoryAndParticipationOperation(false, 0);
-        verify(programmingExerciseGradingService, never()).updateAllResults(programmingExercise);
+        verify(programmingExerciseGradingService, never()).reEvaluateAllResults(programmingExercise);
     }
 
     @Test
@@ -265,7 +265,7 @@ class ProgrammingExerciseScheduleServiceTest extends AbstractSpringIntegrationGi
         // has AFTER_DUE_DATE tests and no additional build after due date => update the scores to show those test cases in it
         verify(programmingExerciseGradingService, timeout(5000)).updateResultsOnlyRegularDueDateParticipations(programmingExercise);
         // make sure to trigger the update only for participants who do not have got an individual due date
-        verify(programmingExerciseGradingService, never()).updateAllResults(programmingExercise);
+        verify(programmingExerciseGradingService, never()).reEvaluateAllResults(programmingExercise);
     }
 
     @Test
@@ -282,7 +282,7 @@ class ProgrammingExerciseScheduleServiceTest extends AbstractSpringIntegrationGi
         instanceMessageReceiveService.processScheduleProgrammingExercise(programmingExercise.getId());
 
         // has AFTER_DUE_DATE tests, but also buildAfterDueDate => do not update results, but use the results created on additional build run
-        verify(programmingExerciseGradingService, after(SCHEDULER_TASK_TRIGGER_DELAY_MS).never()).updateAllResults(programmingExercise);
+        verify(programmingExerciseGradingService, after(SCHEDULER_TASK_TRIGGER_DELAY_MS).never()).reEvaluateAllResults(programmingExercise);
         verifyLockStudentRepositoryAndParticipationOperation(true, TIMEOUT_MS);
         verify(programmingTriggerService, timeout(TIMEOUT_MS)).triggerInstructorBuildForExercise(programmingExercise.getId());
     }
@@ -307,7 +307,7 @@ class ProgrammingExerciseScheduleServiceTest extends AbstractSpringIntegrationGi
         instanceMessageReceiveService.processScheduleProgrammingExercise(programmingExercise.getId());
 
         // no tests marked as AFTER_DUE_DATE => do not update scores on due date
-        verify(programmingExerciseGradingService, after(SCHEDULER_TASK_TRIGGER_DELAY_MS).never()).updateAllResults(programmingExercise);
+        verify(programmingExerciseGradingService, after(SCHEDULER_TASK_TRIGGER_DELAY_MS).never()).reEvaluateAllResults(programmingExercise);
         verifyLockStudentRepositoryAndParticipationOperation(true, TIMEOUT_MS);
         if (hasBuildAndTestAfterDueDate) {
             verify(programmingTriggerService, timeout(TIMEOUT_MS)).triggerInstructorBuildForExercise(programmingExercise.getId());
@@ -309,6 +309,20 @@ class IrisMessageIntegrationTest extends AbstractIrisIntegrationTest {
         }
     }
 
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void rateLimitCountsOnlyLlmResponses() {
+        var user = userUtilService.getUserByLogin(TEST_PREFIX + "student1");
+        var irisSession = irisSessionService.createChatSessionForProgrammingExercise(exercise, user);
+        int previousMessageCount = irisRateLimitService.getRateLimitInformation(user).currentMessageCount();
+
+        irisMessageService.saveMessage(createDefaultMockMessage(irisSession), irisSession, IrisMessageSender.USER);
+        irisMessageService.saveMessage(createDefaultMockMessage(irisSession), irisSession, IrisMessageSender.LLM);
+        irisMessageService.saveMessage(createDefaultMockMessage(irisSession), irisSession, IrisMessageSender.ARTEMIS);
+
+        assertThat(irisRateLimitService.getRateLimitInformation(user).currentMessageCount()).isEqualTo(previousMessageCount + 1);
+    }
+
     private void setupExercise() throws Exception {
         var savedExercise = irisUtilTestService.setupTemplate(exercise, repository);
         var exerciseParticipation = participationUtilService.addStudentParticipationForProgrammingExercise(savedExercise, TEST_PREFIX + "student1");
@@ -38,6 +38,7 @@ import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
 import de.tum.in.www1.artemis.exercise.textexercise.TextExerciseFactory;
 import de.tum.in.www1.artemis.participation.ParticipationFactory;
 import de.tum.in.www1.artemis.repository.*;
+import de.tum.in.www1.artemis.service.CompetencyProgressService;
 import de.tum.in.www1.artemis.service.LectureUnitService;
 import de.tum.in.www1.artemis.service.ParticipationService;
 import de.tum.in.www1.artemis.team.TeamUtilService;
@@ -88,6 +89,12 @@ class CompetencyIntegrationTest extends AbstractSpringIntegrationLocalCILocalVCT
     @Autowired
     private LectureUnitService lectureUnitService;
 
+    @Autowired
+    private CompetencyProgressRepository competencyProgressRepository;
+
+    @Autowired
+    private CompetencyProgressService competencyProgressService;
+
     @Autowired
     private UserUtilService userUtilService;
 
@@ -566,6 +573,49 @@ class CompetencyIntegrationTest extends AbstractSpringIntegrationLocalCILocalVCT
         assertThat(studentCompetencyProgress2.getConfidence()).isEqualTo(85.0);
     }
 
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "instructor1", roles = "INSTRUCTOR")
+    void updateProgressByLearningObject_shouldUpdateProgressOfAllUsers() {
+        User student1 = userRepository.findOneByLogin(TEST_PREFIX + "student1").orElseThrow();
+        User student2 = userRepository.findOneByLogin(TEST_PREFIX + "student2").orElseThrow();
+        User tutor1 = userRepository.findOneByLogin(TEST_PREFIX + "tutor1").orElseThrow();
+        lectureUnitService.setLectureUnitCompletion(textUnitRepository.findById(idOfTextUnitOfLectureOne).orElseThrow(), student1, true);
+
+        createTextExerciseParticipationSubmissionAndResult(textExercise, student1, 10.0, 0.0, 90, true);
+        createTextExerciseParticipationSubmissionAndResult(textExercise, student2, 10.0, 0.0, 40, true);
+
+        await().until(() -> participantScoreScheduleService.isIdle());
+        // the progress calculated after the results were saved would be considered as updated very recently
+        competencyProgressRepository.deleteAll(competencyProgressRepository.findAllByCompetencyId(competency.getId()));
+
+        competencyProgressService.updateProgressByLearningObject(textExercise, Set.of(student1, student2, tutor1));
+
+        assertCompetencyProgress(student1, 66.7, 90.0);
+        assertCompetencyProgress(student2, 33.3, 40.0);
+        assertCompetencyProgress(tutor1, 0.0, 0.0);
+    }
+
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "instructor1", roles = "INSTRUCTOR")
+    void updateProgressByLearningObject_shouldUpdateProgressOfUsersForLectureUnit() {
+        User student1 = userRepository.findOneByLogin(TEST_PREFIX + "student1").orElseThrow();
+        User student2 = userRepository.findOneByLogin(TEST_PREFIX + "student2").orElseThrow();
+        TextUnit textUnit = textUnitRepository.findById(idOfTextUnitOfLectureOne).orElseThrow();
+        lectureUnitService.setLectureUnitCompletion(textUnit, student1, true);
+
+        competencyProgressService.updateProgressByLearningObject(textUnit, Set.of(student1, student2));
+
+        // the competency has exercises without scores of the students, so the confidence stays at zero
+        assertCompetencyProgress(student1, 33.3, 0.0);
+        assertCompetencyProgress(student2, 0.0, 0.0);
+    }
+
+    private void assertCompetencyProgress(User user, double expectedProgress, double expectedConfidence) {
+        CompetencyProgress competencyProgress = competencyProgressRepository.findByCompetencyIdAndUserId(competency.getId(), user.getId()).orElseThrow();
+        assertThat(competencyProgress.getProgress()).isEqualTo(expectedProgress);
+        assertThat(competencyProgress.getConfidence()).isEqualTo(expectedConfidence);
+    }
+
     @Test
     @WithMockUser(username = TEST_PREFIX + "instructor1", roles = "INSTRUCTOR")
     void updateCompetency_asInstructor_shouldUpdateCompetency() throws Exception {
@@ -0,0 +1,120 @@
+package de.tum.in.www1.artemis.localvcci;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.dockerjava.api.exception.DockerException;
+
+import de.tum.in.www1.artemis.service.connectors.localci.LocalCIContainerPoolService;
+import de.tum.in.www1.artemis.service.connectors.localci.LocalCIContainerService;
+import de.tum.in.www1.artemis.service.connectors.localci.LocalCIDockerService;
+
+class LocalCIContainerPoolServiceTest {
+
+    private static final String IMAGE = "ls1tum/artemis-maven-template:java17-13";
+
+    private final LocalCIContainerService localCIContainerService = mock();
+
+    private final LocalCIDockerService localCIDockerService = mock();
+
+    private final LocalCIContainerPoolService containerPoolService = new LocalCIContainerPoolService(localCIContainerService, localCIDockerService);
+
+    private final AtomicInteger createdContainers = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(containerPoolService, "containerPoolSize", 2);
+        ReflectionTestUtils.setField(containerPoolService, "dockerImage", IMAGE);
+        doAnswer(invocation -> "container-" + createdContainers.incrementAndGet()).when(localCIContainerService).createIdleContainer(eq(IMAGE), anyString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        containerPoolService.removeIdleContainers();
+    }
+
+    @Test
+    void testPoolIsFilledWhenImageIsPrepared() {
+        containerPoolService.prepareImage(IMAGE);
+
+        await().until(() -> idleContainerIds().size() == 2);
+        verify(localCIContainerService, times(2)).createIdleContainer(eq(IMAGE), startsWith("artemis-local-ci-pool-"));
+        verify(localCIDockerService).pullDockerImage(IMAGE);
+    }
+
+    @Test
+    void testAcquiredContainerIsClaimedAndNeverReused() {
+        containerPoolService.prepareImage(IMAGE);
+        await().until(() -> idleContainerIds().size() == 2);
+
+        var firstContainer = containerPoolService.acquireContainer(IMAGE, "build-job-1");
+        var secondContainer = containerPoolService.acquireContainer(IMAGE, "build-job-2");
+
+        assertThat(firstContainer).isPresent();
+        assertThat(secondContainer).isPresent().isNotEqualTo(firstContainer);
+        verify(localCIContainerService).claimIdleContainer(firstContainer.get(), "build-job-1");
+        verify(localCIContainerService).claimIdleContainer(secondContainer.get(), "build-job-2");
+        // the acquired containers are replaced by new ones in the background
+        await().untilAsserted(() -> verify(localCIContainerService, times(4)).createIdleContainer(eq(IMAGE), anyString()));
+    }
+
+    @Test
+    void testAcquireContainerReturnsEmptyIfPoolIsEmpty() {
+        assertThat(containerPoolService.acquireContainer(IMAGE, "build-job-1")).isEmpty();
+
+        // the first request for an image fills its pool for the following build jobs
+        await().until(() -> idleContainerIds().size() == 2);
+        assertThat(containerPoolService.acquireContainer(IMAGE, "build-job-2")).isPresent();
+    }
+
+    @Test
+    void testContainerThatCannotBeClaimedIsRemoved() {
+        containerPoolService.prepareImage(IMAGE);
+        await().until(() -> idleContainerIds().size() == 2);
+        doThrow(new DockerException("No such container", 404)).when(localCIContainerService).claimIdleContainer(anyString(), eq("build-job-1"));
+
+        assertThat(containerPoolService.acquireContainer(IMAGE, "build-job-1")).isEmpty();
+
+        verify(localCIContainerService).removeContainer("container-1");
+    }
+
+    @Test
+    void testIdleContainersAreRemovedOnShutdown() {
+        containerPoolService.prepareImage(IMAGE);
+        await().until(() -> idleContainerIds().size() == 2);
+
+        containerPoolService.removeIdleContainers();
+
+        verify(localCIContainerService).removeContainer("container-1");
+        verify(localCIContainerService).removeContainer("container-2");
+    }
+
+    @Test
+    void testDisabledPoolDoesNotCreateContainers() {
+        ReflectionTestUtils.setField(containerPoolService, "containerPoolSize", 0);
+
+        containerPoolService.initializePool();
+
+        assertThat(containerPoolService.acquireContainer(IMAGE, "build-job-1")).isEmpty();
+        verifyNoInteractions(localCIContainerService, localCIDockerService);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<String> idleContainerIds() {
+        var idleContainerIdsByImage = (Map<String, BlockingQueue<String>>) ReflectionTestUtils.getField(containerPoolService, "idleContainerIdsByImage");
+        return idleContainerIdsByImage.getOrDefault(IMAGE, new LinkedBlockingQueue<>());
+    }
+}
@@ -0,0 +1,111 @@
+package de.tum.in.www1.artemis.localvcci;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.CopyArchiveToContainerCmd;
+
+import de.tum.in.www1.artemis.exception.LocalCIException;
+import de.tum.in.www1.artemis.service.connectors.localci.LocalCIContainerService;
+
+class LocalCIContainerServiceTest {
+
+    private static final String CONTAINER_ID = "container-1";
+
+    private final DockerClient dockerClient = mock();
+
+    private final CopyArchiveToContainerCmd copyArchiveToContainerCmd = mock(CopyArchiveToContainerCmd.class, RETURNS_SELF);
+
+    private final LocalCIContainerService localCIContainerService = new LocalCIContainerService(dockerClient);
+
+    // the archive is deleted after it was copied, so its entries are read while the command is executed
+    private final Map<String, String> copiedFiles = new HashMap<>();
+
+    @TempDir
+    private Path tempPath;
+
+    @BeforeEach
+    void setUp() {
+        doReturn(copyArchiveToContainerCmd).when(dockerClient).copyArchiveToContainerCmd(CONTAINER_ID);
+        doAnswer(invocation -> {
+            readArchive(invocation.getArgument(0));
+            return copyArchiveToContainerCmd;
+        }).when(copyArchiveToContainerCmd).withTarInputStream(any());
+    }
+
+    @Test
+    void testCopyBuildFilesToContainer() throws IOException {
+        Path assignmentRepositoryPath = createRepository("assignment", "src/Main.java", "class Main {}");
+        Path testRepositoryPath = createRepository("test", "test/MainTest.java", "class MainTest {}");
+        Path auxiliaryRepositoryPath = createRepository("auxiliary", "helper.txt", "helper");
+        Path buildScriptPath = Files.writeString(tempPath.resolve("script.sh"), "./gradlew test\n");
+
+        localCIContainerService.copyBuildFilesToContainer(CONTAINER_ID, assignmentRepositoryPath, testRepositoryPath, new Path[] { auxiliaryRepositoryPath },
+                new String[] { "helpers" }, buildScriptPath, "main", "abc123");
+
+        verify(copyArchiveToContainerCmd).withRemotePath("/");
+        verify(copyArchiveToContainerCmd).exec();
+        // the repositories are copied to the locations they would otherwise be bound to
+        assertThat(copiedFiles).containsEntry("assignment-repository/src/Main.java", "class Main {}").containsEntry("test-repository/test/MainTest.java", "class MainTest {}")
+                .containsEntry("helpers-repository/helper.txt", "helper");
+        // the environment of a running container cannot be changed, so it is exported by the build script
+        assertThat(copiedFiles.get("script.sh")).startsWith("export ARTEMIS_BUILD_TOOL=gradle\n").contains("export ARTEMIS_DEFAULT_BRANCH='main'\n")
+                .contains("export ARTEMIS_ASSIGNMENT_REPOSITORY_COMMIT_HASH='abc123'\n").endsWith("./gradlew test\n");
+    }
+
+    @Test
+    void testCopyBuildFilesToContainerWithoutCommitHash() throws IOException {
+        Path assignmentRepositoryPath = createRepository("assignment", "Main.java", "class Main {}");
+        Path testRepositoryPath = createRepository("test", "MainTest.java", "class MainTest {}");
+        Path buildScriptPath = Files.writeString(tempPath.resolve("script.sh"), "./gradlew test\n");
+
+        localCIContainerService.copyBuildFilesToContainer(CONTAINER_ID, assignmentRepositoryPath, testRepositoryPath, new Path[0], new String[0], buildScriptPath, "main", null);
+
+        assertThat(copiedFiles.get("script.sh")).contains("export ARTEMIS_ASSIGNMENT_REPOSITORY_COMMIT_HASH=''\n");
+    }
+
+    @Test
+    void testCopyBuildFilesToContainerWithMissingBuildScript() throws IOException {
+        Path assignmentRepositoryPath = createRepository("assignment", "Main.java", "class Main {}");
+        Path testRepositoryPath = createRepository("test", "MainTest.java", "class MainTest {}");
+
+        assertThatThrownBy(() -> localCIContainerService.copyBuildFilesToContainer(CONTAINER_ID, assignmentRepositoryPath, testRepositoryPath, new Path[0], new String[0],
+                tempPath.resolve("missing.sh"), "main", null)).isInstanceOf(LocalCIException.class);
+        verify(dockerClient, never()).copyArchiveToContainerCmd(anyString());
+    }
+
+    private Path createRepository(String name, String fileName, String content) throws IOException {
+        Path file = tempPath.resolve(name).resolve(fileName);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return tempPath.resolve(name);
+    }
+
+    private void readArchive(InputStream inputStream) throws IOException {
+        try (TarArchiveInputStream tarArchiveInputStream = new TarArchiveInputStream(inputStream)) {
+            TarArchiveEntry entry;
+            while ((entry = tarArchiveInputStream.getNextTarEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    copiedFiles.put(entry.getName(), new String(tarArchiveInputStream.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package de.tum.in.www1.artemis.localvcci;
 
+import static de.tum.in.www1.artemis.config.Constants.FEEDBACK_DETAIL_TEXT_DATABASE_MAX_LENGTH;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -26,13 +27,20 @@ import org.springframework.security.test.context.support.WithMockUser;
 import com.github.dockerjava.api.command.CopyArchiveFromContainerCmd;
 import com.github.dockerjava.api.exception.NotFoundException;
 
+import de.tum.in.www1.artemis.domain.Feedback;
+import de.tum.in.www1.artemis.domain.ProgrammingSubmission;
+import de.tum.in.www1.artemis.domain.Result;
 import de.tum.in.www1.artemis.domain.Team;
 import de.tum.in.www1.artemis.domain.enumeration.ExerciseMode;
 import de.tum.in.www1.artemis.domain.enumeration.ProjectType;
 import de.tum.in.www1.artemis.domain.participation.Participation;
 import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseStudentParticipation;
 import de.tum.in.www1.artemis.exception.LocalCIException;
+import de.tum.in.www1.artemis.repository.LongFeedbackTextRepository;
+import de.tum.in.www1.artemis.repository.ProgrammingSubmissionRepository;
+import de.tum.in.www1.artemis.repository.ResultRepository;
 import de.tum.in.www1.artemis.service.connectors.localci.LocalCIConnectorService;
+import de.tum.in.www1.artemis.service.connectors.localci.dto.LocalCIBuildQueueStatusDTO;
 import de.tum.in.www1.artemis.util.LocalRepository;
 import de.tum.in.www1.artemis.web.websocket.programmingSubmission.BuildTriggerWebsocketError;
 
@@ -41,6 +49,15 @@ class LocalCIIntegrationTest extends AbstractLocalCILocalVCIntegrationTest {
     @Autowired
     private LocalCIConnectorService localCIConnectorService;
 
+    @Autowired
+    private ProgrammingSubmissionRepository programmingSubmissionRepository;
+
+    @Autowired
+    private ResultRepository resultRepository;
+
+    @Autowired
+    private LongFeedbackTextRepository longFeedbackTextRepository;
+
     private LocalRepository studentAssignmentRepository;
 
     private String commitHash;
@@ -276,6 +293,50 @@ class LocalCIIntegrationTest extends AbstractLocalCILocalVCIntegrationTest {
         verifyUserNotification(studentParticipation);
     }
 
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void testLongFailureMessageIsKept() throws IOException {
+        ProgrammingExerciseStudentParticipation studentParticipation = localVCLocalCITestService.createParticipation(programmingExercise, student1Login);
+        // e.g. a test case with an infinite loop that prints into the failure message
+        String failureMessage = "a".repeat(FEEDBACK_DETAIL_TEXT_DATABASE_MAX_LENGTH * 10);
+        String testResults = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <testsuite name="testpackage.ClassTest" tests="1" skipped="0" failures="1" errors="0">
+                  <testcase name="testClass[MergeSort]" classname="testpackage.ClassTest">
+                    <failure message="%s" type="org.opentest4j.AssertionFailedError"/>
+                  </testcase>
+                </testsuite>
+                """.formatted(failureMessage);
+        localVCLocalCITestService.mockInputStreamReturnedFromContainer(dockerClient, "/repositories/test-repository/build/test-results/test",
+                Map.of("TEST-testpackage.ClassTest.xml", testResults));
+
+        localCIConnectorService.processNewPush(commitHash, studentAssignmentRepository.originGit.getRepository());
+
+        ProgrammingSubmission submission = programmingSubmissionRepository.findFirstByParticipationIdOrderByLegalSubmissionDateDesc(studentParticipation.getId()).orElseThrow();
+        Result result = resultRepository.findByIdWithEagerFeedbacksElseThrow(submission.getLatestResult().getId());
+        Feedback feedback = result.getFeedbacks().stream().filter(resultFeedback -> "testClass[MergeSort]".equals(resultFeedback.getText())).findFirst().orElseThrow();
+        assertThat(feedback.getHasLongFeedbackText()).isTrue();
+        String longFeedbackText = longFeedbackTextRepository.findByFeedbackId(feedback.getId()).orElseThrow().getText();
+        // the message exceeds the feedback detail text, so it is stored completely as long feedback text
+        assertThat(longFeedbackText).isEqualTo(failureMessage);
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void testGetBuildJobQueueStatus() throws Exception {
+        LocalCIBuildQueueStatusDTO status = request.get("/api/admin/build-job-queue", HttpStatus.OK, LocalCIBuildQueueStatusDTO.class);
+        // The shared queue is disabled in the test environment, so all build jobs are executed directly by the instance that queued them.
+        assertThat(status.distributed()).isFalse();
+        assertThat(status.queuedBuildJobs()).isNullOrEmpty();
+        assertThat(status.runningBuildJobs()).isNullOrEmpty();
+    }
+
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void testGetBuildJobQueueStatus_forbidden() throws Exception {
+        request.get("/api/admin/build-job-queue", HttpStatus.FORBIDDEN, LocalCIBuildQueueStatusDTO.class);
+    }
+
     private void verifyUserNotification(Participation participation) {
         BuildTriggerWebsocketError expectedError = new BuildTriggerWebsocketError(
                 "java.util.concurrent.ExecutionException: de.tum.in.www1.artemis.exception.LocalCIException: Error while parsing test results", participation.getId());
@@ -0,0 +1,115 @@
+package de.tum.in.www1.artemis.localvcci;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.www1.artemis.service.connectors.localci.LocalCIBuildJobPriority;
+import de.tum.in.www1.artemis.service.connectors.localci.LocalCIPriorityBuildExecutor;
+
+class LocalCIPriorityBuildExecutorTest {
+
+    private LocalCIPriorityBuildExecutor executor;
+
+    private CountDownLatch blockingJobLatch;
+
+    private List<String> executedBuildJobs;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        executor = new LocalCIPriorityBuildExecutor(1, 10, Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        blockingJobLatch = new CountDownLatch(1);
+        executedBuildJobs = new CopyOnWriteArrayList<>();
+        // Occupy the only build thread so that all following build jobs are queued.
+        CountDownLatch blockingJobStartedLatch = new CountDownLatch(1);
+        executor.submitBuildJob(() -> {
+            blockingJobStartedLatch.countDown();
+            return blockingJobLatch.await(10, TimeUnit.SECONDS);
+        }, LocalCIBuildJobPriority.COURSE, 0L, 0L);
+        // The virtual time is advanced when the blocking job starts. Wait for it, so that the virtual start times of the following build jobs do not depend on the
+        // scheduling of the build thread.
+        assertThat(blockingJobStartedLatch.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testBuildJobsAreOrderedByPriority() throws Exception {
+        submit("practice", LocalCIBuildJobPriority.PRACTICE, 1L, 1L);
+        submit("course", LocalCIBuildJobPriority.COURSE, 1L, 2L);
+        submit("exam", LocalCIBuildJobPriority.EXAM, 1L, 3L);
+        Future<String> last = submit("instructor", LocalCIBuildJobPriority.INSTRUCTOR, 1L, 4L);
+
+        blockingJobLatch.countDown();
+        awaitQueueDrained(last);
+
+        assertThat(executedBuildJobs).containsExactly("instructor", "exam", "course", "practice");
+    }
+
+    @Test
+    void testBuildCapacityIsSharedFairlyBetweenCourses() throws Exception {
+        submit("course1-job1", LocalCIBuildJobPriority.COURSE, 1L, 1L);
+        submit("course1-job2", LocalCIBuildJobPriority.COURSE, 1L, 2L);
+        submit("course1-job3", LocalCIBuildJobPriority.COURSE, 1L, 3L);
+        submit("course2-job1", LocalCIBuildJobPriority.COURSE, 2L, 4L);
+        Future<String> last = submit("course2-job2", LocalCIBuildJobPriority.COURSE, 2L, 5L);
+
+        blockingJobLatch.countDown();
+        awaitQueueDrained(last);
+
+        assertThat(executedBuildJobs).containsExactly("course1-job1", "course2-job1", "course1-job2", "course2-job2", "course1-job3");
+    }
+
+    @Test
+    void testQueuedBuildJobIsSupersededByNewerBuildJobOfSameParticipation() throws Exception {
+        Future<String> superseded = submit("commit1", LocalCIBuildJobPriority.COURSE, 1L, 1L);
+        Future<String> latest = submit("commit2", LocalCIBuildJobPriority.COURSE, 1L, 1L);
+
+        assertThat(superseded.isCancelled()).isTrue();
+        assertThat(executor.getQueue()).hasSize(1);
+
+        blockingJobLatch.countDown();
+        assertThat(latest.get(10, TimeUnit.SECONDS)).isEqualTo("commit2");
+        assertThat(executedBuildJobs).containsExactly("commit2");
+    }
+
+    @Test
+    void testBuildJobIsRejectedIfQueueIsFull() {
+        for (long participationId = 1; participationId <= 10; participationId++) {
+            submit("job" + participationId, LocalCIBuildJobPriority.COURSE, 1L, participationId);
+        }
+
+        assertThatThrownBy(() -> submit("job11", LocalCIBuildJobPriority.COURSE, 1L, 11L)).isInstanceOf(RejectedExecutionException.class);
+        // Superseding a queued build job does not increase the queue size and is therefore still possible.
+        submit("job10-newer", LocalCIBuildJobPriority.COURSE, 1L, 10L);
+        assertThat(executor.getQueue()).hasSize(10);
+    }
+
+    private Future<String> submit(String name, LocalCIBuildJobPriority priority, long courseId, long participationId) {
+        return executor.submitBuildJob(() -> {
+            executedBuildJobs.add(name);
+            return name;
+        }, priority, courseId, participationId);
+    }
+
+    private void awaitQueueDrained(Future<String> lastBuildJob) throws Exception {
+        lastBuildJob.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,240 @@
+package de.tum.in.www1.artemis.localvcci;
+
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_LOCAL_CI_BUILD_JOB_QUEUE;
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_LOCAL_CI_BUILD_JOB_RESULTS;
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_LOCAL_CI_PROCESSING_BUILD_JOBS;
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_LOCAL_CI_QUEUED_BUILD_JOBS_BY_PARTICIPATION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+
+import de.tum.in.www1.artemis.exception.LocalCIException;
+import de.tum.in.www1.artemis.service.connectors.localci.LocalCIBuildJobPriority;
+import de.tum.in.www1.artemis.service.connectors.localci.LocalCISharedBuildJobQueueService;
+import de.tum.in.www1.artemis.service.connectors.localci.dto.LocalCIBuildAgentInformation;
+import de.tum.in.www1.artemis.service.connectors.localci.dto.LocalCIBuildJobQueueItem;
+import de.tum.in.www1.artemis.service.connectors.localci.dto.LocalCIBuildResult;
+
+class LocalCISharedBuildJobQueueServiceTest {
+
+    private static final String BUILD_AGENT = "build-agent-1";
+
+    private HazelcastInstance hazelcastInstance;
+
+    private LocalCISharedBuildJobQueueService sharedBuildJobQueueService;
+
+    @BeforeEach
+    void setUp() {
+        Config config = new Config();
+        config.setClusterName("local-ci-shared-queue-test-" + System.nanoTime());
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+        LocalCISharedBuildJobQueueService.configureHazelcast(config);
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+
+        sharedBuildJobQueueService = new LocalCISharedBuildJobQueueService(hazelcastInstance);
+        ReflectionTestUtils.setField(sharedBuildJobQueueService, "distributedBuildQueue", true);
+        ReflectionTestUtils.setField(sharedBuildJobQueueService, "queueSizeLimit", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hazelcastInstance.shutdown();
+    }
+
+    @Test
+    void testQueuedBuildJobIsSupersededByNewerBuildJobOfSameParticipation() throws Exception {
+        CompletableFuture<LocalCIBuildResult> superseded = sharedBuildJobQueueService.addBuildJob(1L, "commit1", LocalCIBuildJobPriority.COURSE, 1L);
+        sharedBuildJobQueueService.addBuildJob(1L, "commit2", LocalCIBuildJobPriority.COURSE, 1L);
+
+        assertThat(superseded).failsWithin(Duration.ofSeconds(10)).withThrowableOfType(ExecutionException.class).withCauseInstanceOf(CancellationException.class);
+        assertThat(sharedBuildJobQueueService.getStatus().queuedBuildJobs()).map(LocalCIBuildJobQueueItem::commitHash).containsExactly("commit2");
+        assertThat(queuedBuildJobsByParticipationId().get(1L).commitHash()).isEqualTo("commit2");
+    }
+
+    @Test
+    void testTakeNextBuildJobMovesBuildJobToProcessingBuildJobs() throws Exception {
+        sharedBuildJobQueueService.addBuildJob(1L, "commit1", LocalCIBuildJobPriority.COURSE, 1L);
+
+        LocalCIBuildJobQueueItem buildJob = sharedBuildJobQueueService.takeNextBuildJob(BUILD_AGENT, 1).orElseThrow();
+
+        assertThat(buildJob.buildAgentName()).isEqualTo(BUILD_AGENT);
+        assertThat(buildJob.buildStartDate()).isPositive();
+        assertThat(sharedBuildJobQueueService.getStatus().queuedBuildJobs()).isEmpty();
+        assertThat(sharedBuildJobQueueService.getStatus().runningBuildJobs()).containsExactly(buildJob);
+        assertThat(queuedBuildJobsByParticipationId()).isEmpty();
+        assertThat(sharedBuildJobQueueService.takeNextBuildJob(BUILD_AGENT, 0)).isEmpty();
+    }
+
+    @Test
+    void testNewerBuildJobIsNotSupersededWhenOlderBuildJobIsTaken() throws Exception {
+        sharedBuildJobQueueService.addBuildJob(1L, "commit1", LocalCIBuildJobPriority.COURSE, 1L);
+        LocalCIBuildJobQueueItem runningBuildJob = sharedBuildJobQueueService.takeNextBuildJob(BUILD_AGENT, 1).orElseThrow();
+
+        // the running build job cannot be superseded anymore
+        CompletableFuture<LocalCIBuildResult> newerBuildJob = sharedBuildJobQueueService.addBuildJob(1L, "commit2", LocalCIBuildJobPriority.COURSE, 1L);
+
+        assertThat(newerBuildJob).isNotDone();
+        assertThat(sharedBuildJobQueueService.getStatus().runningBuildJobs()).containsExactly(runningBuildJob);
+        assertThat(sharedBuildJobQueueService.getStatus().queuedBuildJobs()).map(LocalCIBuildJobQueueItem::commitHash).containsExactly("commit2");
+    }
+
+    @Test
+    void testBuildJobsAreTakenByPriority() throws Exception {
+        sharedBuildJobQueueService.addBuildJob(1L, "practice", LocalCIBuildJobPriority.PRACTICE, 1L);
+        sharedBuildJobQueueService.addBuildJob(2L, "exam", LocalCIBuildJobPriority.EXAM, 1L);
+
+        assertThat(sharedBuildJobQueueService.takeNextBuildJob(BUILD_AGENT, 1)).map(LocalCIBuildJobQueueItem::commitHash).contains("exam");
+        assertThat(sharedBuildJobQueueService.takeNextBuildJob(BUILD_AGENT, 1)).map(LocalCIBuildJobQueueItem::commitHash).contains("practice");
+    }
+
+    @Test
+    void testFinishBuildJobCompletesFutureOfInstanceThatAddedIt() throws Exception {
+        CompletableFuture<LocalCIBuildResult> futureResult = sharedBuildJobQueueService.addBuildJob(1L, "commit1", LocalCIBuildJobPriority.COURSE, 1L);
+        LocalCIBuildJobQueueItem buildJob = sharedBuildJobQueueService.takeNextBuildJob(BUILD_AGENT, 1).orElseThrow();
+
+        sharedBuildJobQueueService.finishBuildJob(buildJob, null, "The build failed");
+
+        assertThat(futureResult).failsWithin(Duration.ofSeconds(10)).withThrowableOfType(ExecutionException.class).withCauseInstanceOf(LocalCIException.class)
+                .withMessageContaining("The build failed");
+        assertThat(sharedBuildJobQueueService.getStatus().runningBuildJobs()).isEmpty();
+    }
+
+    @Test
+    void testFinishBuildJobStoresResultUntilInstanceThatAddedItProcessesIt() throws Exception {
+        CompletableFuture<LocalCIBuildResult> futureResult = sharedBuildJobQueueService.addBuildJob(1L, "commit1", LocalCIBuildJobPriority.COURSE, 1L);
+        LocalCIBuildJobQueueItem buildJob = sharedBuildJobQueueService.takeNextBuildJob(BUILD_AGENT, 1).orElseThrow();
+        List<LocalCIBuildJobQueueItem> orphanedBuildJobs = new ArrayList<>();
+
+        sharedBuildJobQueueService.finishBuildJob(buildJob, createBuildResult("commit1"), null);
+        sharedBuildJobQueueService.processBuildJobResults((orphanedBuildJob, buildResult) -> orphanedBuildJobs.add(orphanedBuildJob));
+
+        assertThat(futureResult).succeedsWithin(Duration.ofSeconds(10)).extracting(LocalCIBuildResult::getCommitHashFromAssignmentRepo).isEqualTo(Optional.of("commit1"));
+        assertThat(buildJobResults()).isEmpty();
+        // the instance that added the build job is still available, so the result is not processed by the other instances
+        assertThat(orphanedBuildJobs).isEmpty();
+    }
+
+    @Test
+    void testResultOfBuildJobAddedByUnavailableInstanceIsProcessed() throws Exception {
+        // e.g. the instance that added the build job was restarted while a build agent executed it
+        var buildJob = new LocalCIBuildJobQueueItem(UUID.randomUUID().toString(), 1L, "commit1", LocalCIBuildJobPriority.COURSE, 1L, System.currentTimeMillis(),
+                UUID.randomUUID().toString(), null, 0);
+        hazelcastInstance.<LocalCIBuildJobQueueItem>getQueue(HAZELCAST_LOCAL_CI_BUILD_JOB_QUEUE).add(buildJob);
+        LocalCIBuildJobQueueItem runningBuildJob = sharedBuildJobQueueService.takeNextBuildJob(BUILD_AGENT, 1).orElseThrow();
+        Map<LocalCIBuildJobQueueItem, LocalCIBuildResult> processedResults = new HashMap<>();
+
+        sharedBuildJobQueueService.finishBuildJob(runningBuildJob, createBuildResult("commit1"), null);
+        sharedBuildJobQueueService.processBuildJobResults(processedResults::put);
+        sharedBuildJobQueueService.processBuildJobResults(processedResults::put);
+
+        // the result is processed exactly once
+        assertThat(processedResults).containsOnlyKeys(runningBuildJob);
+        assertThat(processedResults.get(runningBuildJob).getCommitHashFromAssignmentRepo()).contains("commit1");
+        assertThat(buildJobResults()).isEmpty();
+    }
+
+    @Test
+    void testFailedResultOfBuildJobAddedByUnavailableInstanceIsDiscarded() throws Exception {
+        var buildJob = new LocalCIBuildJobQueueItem(UUID.randomUUID().toString(), 1L, "commit1", LocalCIBuildJobPriority.COURSE, 1L, System.currentTimeMillis(),
+                UUID.randomUUID().toString(), null, 0);
+        hazelcastInstance.<LocalCIBuildJobQueueItem>getQueue(HAZELCAST_LOCAL_CI_BUILD_JOB_QUEUE).add(buildJob);
+        LocalCIBuildJobQueueItem runningBuildJob = sharedBuildJobQueueService.takeNextBuildJob(BUILD_AGENT, 1).orElseThrow();
+        List<LocalCIBuildJobQueueItem> orphanedBuildJobs = new ArrayList<>();
+
+        sharedBuildJobQueueService.finishBuildJob(runningBuildJob, null, "The build failed");
+        sharedBuildJobQueueService.processBuildJobResults((orphanedBuildJob, buildResult) -> orphanedBuildJobs.add(orphanedBuildJob));
+
+        // the build agent already notified the user about the failed build job
+        assertThat(orphanedBuildJobs).isEmpty();
+        assertThat(buildJobResults()).isEmpty();
+    }
+
+    @Test
+    void testBuildJobsOfDeadBuildAgentAreRequeued() throws Exception {
+        CompletableFuture<LocalCIBuildResult> futureResult = sharedBuildJobQueueService.addBuildJob(1L, "commit1", LocalCIBuildJobPriority.COURSE, 1L);
+        sharedBuildJobQueueService.sendHeartbeat(new LocalCIBuildAgentInformation(BUILD_AGENT, 1, 1, System.currentTimeMillis()));
+        LocalCIBuildJobQueueItem buildJob = sharedBuildJobQueueService.takeNextBuildJob(BUILD_AGENT, 1).orElseThrow();
+
+        sharedBuildJobQueueService.removeBuildAgent(BUILD_AGENT);
+
+        assertThat(sharedBuildJobQueueService.getStatus().runningBuildJobs()).isEmpty();
+        LocalCIBuildJobQueueItem requeuedBuildJob = sharedBuildJobQueueService.takeNextBuildJob("build-agent-2", 1).orElseThrow();
+        assertThat(requeuedBuildJob.id()).isEqualTo(buildJob.id());
+        assertThat(requeuedBuildJob.buildAgentName()).isEqualTo("build-agent-2");
+
+        // the result of the dead build agent is discarded
+        sharedBuildJobQueueService.finishBuildJob(buildJob, null, "The build agent was stopped");
+        assertThat(processingBuildJobs()).containsKey(buildJob.id());
+        assertThat(futureResult).isNotDone();
+    }
+
+    @Test
+    void testRequeuedBuildJobDoesNotReplaceNewerBuildJobInIndex() throws Exception {
+        sharedBuildJobQueueService.addBuildJob(1L, "commit1", LocalCIBuildJobPriority.COURSE, 1L);
+        sharedBuildJobQueueService.takeNextBuildJob(BUILD_AGENT, 1).orElseThrow();
+        sharedBuildJobQueueService.addBuildJob(1L, "commit2", LocalCIBuildJobPriority.COURSE, 1L);
+
+        sharedBuildJobQueueService.requeueBuildJobsOfDeadBuildAgents();
+
+        assertThat(queuedBuildJobsByParticipationId().get(1L).commitHash()).isEqualTo("commit2");
+        assertThat(sharedBuildJobQueueService.getStatus().queuedBuildJobs()).map(LocalCIBuildJobQueueItem::commitHash).containsExactlyInAnyOrder("commit1", "commit2");
+    }
+
+    @Test
+    void testBuildJobIsRejectedIfQueueIsFull() {
+        sharedBuildJobQueueService.addBuildJob(1L, "commit1", LocalCIBuildJobPriority.COURSE, 1L);
+        sharedBuildJobQueueService.addBuildJob(2L, "commit2", LocalCIBuildJobPriority.COURSE, 1L);
+
+        assertThatThrownBy(() -> sharedBuildJobQueueService.addBuildJob(3L, "commit3", LocalCIBuildJobPriority.COURSE, 1L)).isInstanceOf(RejectedExecutionException.class);
+        // superseding a queued build job does not increase the size of the queue
+        sharedBuildJobQueueService.addBuildJob(2L, "commit4", LocalCIBuildJobPriority.COURSE, 1L);
+
+        assertThat(sharedBuildJobQueueService.getStatus().queuedBuildJobs()).map(LocalCIBuildJobQueueItem::commitHash).containsExactlyInAnyOrder("commit1", "commit4");
+        assertThat(queuedBuildJobsByParticipationId()).containsOnlyKeys(1L, 2L);
+    }
+
+    @Test
+    void testTakeNextBuildJobReturnsEmptyIfNoBuildJobIsQueued() throws Exception {
+        assertThat(sharedBuildJobQueueService.takeNextBuildJob(BUILD_AGENT, 0)).isEmpty();
+        assertThat(processingBuildJobs()).isEmpty();
+        assertThat(sharedBuildJobQueueService.getStatus().queuedBuildJobs()).isEmpty();
+    }
+
+    private Map<Long, LocalCIBuildJobQueueItem> queuedBuildJobsByParticipationId() {
+        return hazelcastInstance.getMap(HAZELCAST_LOCAL_CI_QUEUED_BUILD_JOBS_BY_PARTICIPATION);
+    }
+
+    private Map<String, ?> buildJobResults() {
+        return hazelcastInstance.getMap(HAZELCAST_LOCAL_CI_BUILD_JOB_RESULTS);
+    }
+
+    private static LocalCIBuildResult createBuildResult(String commitHash) {
+        return new LocalCIBuildResult("main", commitHash, "tests", true, ZonedDateTime.now(), List.of());
+    }
+
+    private Map<String, LocalCIBuildJobQueueItem> processingBuildJobs() {
+        return hazelcastInstance.getMap(HAZELCAST_LOCAL_CI_PROCESSING_BUILD_JOBS);
+    }
+}
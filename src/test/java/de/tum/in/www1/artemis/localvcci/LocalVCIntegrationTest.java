@@ -11,6 +11,7 @@ import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.naming.InvalidNameException;
 import javax.naming.ldap.LdapName;
@@ -29,8 +30,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.test.context.support.WithMockUser;
 
 import de.tum.in.www1.artemis.domain.ProgrammingSubmission;
+import de.tum.in.www1.artemis.domain.User;
 import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseStudentParticipation;
 import de.tum.in.www1.artemis.repository.ProgrammingSubmissionRepository;
+import de.tum.in.www1.artemis.repository.UserRepository;
 import de.tum.in.www1.artemis.service.connectors.GitService;
 import de.tum.in.www1.artemis.service.ldap.LdapUserDto;
 import de.tum.in.www1.artemis.util.LocalRepository;
@@ -43,6 +46,9 @@ class LocalVCIntegrationTest extends AbstractLocalCILocalVCIntegrationTest {
     @Autowired
     ProgrammingSubmissionRepository programmingSubmissionRepository;
 
+    @Autowired
+    UserRepository userRepository;
+
     private LocalRepository assignmentRepository;
 
     private LocalRepository templateRepository;
@@ -141,6 +147,40 @@ class LocalVCIntegrationTest extends AbstractLocalCILocalVCIntegrationTest {
         localVCLocalCITestService.testPushSuccessful(assignmentRepository.localGit, instructor1Login, projectKey1, assignmentRepositorySlug);
     }
 
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void testFetchPush_offlineIDEDisallowedAfterCachedFetch() {
+        localVCLocalCITestService.createParticipation(programmingExercise, student1Login);
+        localVCLocalCITestService.testFetchSuccessful(assignmentRepository.localGit, student1Login, projectKey1, assignmentRepositorySlug);
+
+        programmingExercise.setAllowOfflineIde(false);
+        programmingExerciseRepository.save(programmingExercise);
+
+        // The cached exercise and read authorization are invalidated when the exercise is changed.
+        localVCLocalCITestService.testFetchReturnsError(assignmentRepository.localGit, student1Login, projectKey1, assignmentRepositorySlug, FORBIDDEN);
+        localVCLocalCITestService.testPushReturnsError(assignmentRepository.localGit, student1Login, projectKey1, assignmentRepositorySlug, FORBIDDEN);
+    }
+
+    @Test
+    void testFetchPush_instructorRemovedFromCourseAfterCachedFetch() {
+        localVCLocalCITestService.testFetchSuccessful(templateRepository.localGit, instructor1Login, projectKey1, templateRepositorySlug);
+
+        User instructor = userRepository.findOneWithGroupsAndAuthoritiesByLogin(instructor1Login).orElseThrow();
+        Set<String> groups = instructor.getGroups();
+        instructor.setGroups(Set.of());
+        userRepository.save(instructor);
+        try {
+            // The cached user and read authorization are invalidated when the groups of the user are changed.
+            localVCLocalCITestService.testFetchReturnsError(templateRepository.localGit, instructor1Login, projectKey1, templateRepositorySlug, NOT_AUTHORIZED);
+            localVCLocalCITestService.testPushReturnsError(templateRepository.localGit, instructor1Login, projectKey1, templateRepositorySlug, NOT_AUTHORIZED);
+        }
+        finally {
+            instructor = userRepository.findOneWithGroupsAndAuthoritiesByLogin(instructor1Login).orElseThrow();
+            instructor.setGroups(groups);
+            userRepository.save(instructor);
+        }
+    }
+
     @Test
     void testFetchPush_assignmentRepository_student_noParticipation() throws GitAPIException, IOException, URISyntaxException {
         // Create a new repository, but don't create a participation for student2.
@@ -5,6 +5,10 @@ import static de.tum.in.www1.artemis.web.rest.ProgrammingExerciseResourceEndpoin
 import static de.tum.in.www1.artemis.web.rest.ProgrammingExerciseResourceEndpoints.UNLOCK_ALL_REPOSITORIES;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.nio.file.Path;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -18,6 +22,8 @@ import de.tum.in.www1.artemis.exam.ExamUtilService;
 import de.tum.in.www1.artemis.exercise.ExerciseUtilService;
 import de.tum.in.www1.artemis.exercise.programmingexercise.ProgrammingExerciseUtilService;
 import de.tum.in.www1.artemis.service.connectors.ConnectorHealth;
+import de.tum.in.www1.artemis.service.connectors.localvc.LocalVCRepositoryUrl;
+import de.tum.in.www1.artemis.util.LocalRepository;
 
 class LocalVCServiceTest extends AbstractSpringIntegrationLocalCILocalVCTest {
 
@@ -45,6 +51,27 @@ class LocalVCServiceTest extends AbstractSpringIntegrationLocalCILocalVCTest {
         versionControlService.setRepositoryPermissionsToReadOnly(null, null, null);
     }
 
+    @Test
+    void testCopyRepository() throws Exception {
+        String projectKey = "LOCALVCCOPY";
+        String sourceRepositorySlug = projectKey.toLowerCase() + "-exercise";
+        LocalRepository sourceRepository = localVCLocalCITestService.createAndConfigureLocalRepository(projectKey, sourceRepositorySlug);
+        String commitHash = localVCLocalCITestService.commitFile(sourceRepository.localRepoFile.toPath(), sourceRepository.localGit);
+        sourceRepository.localGit.push().setRemote("origin").call();
+
+        var targetRepositoryUrl = versionControlService.copyRepository(projectKey, sourceRepositorySlug, defaultBranch, projectKey, "student1");
+
+        Path targetRepositoryPath = new LocalVCRepositoryUrl(targetRepositoryUrl.toString(), localVCBaseUrl).getLocalRepositoryPath(localVCBasePath);
+        try (Git targetGit = Git.open(targetRepositoryPath.toFile())) {
+            assertThat(targetGit.getRepository().resolve(Constants.R_HEADS + defaultBranch).getName()).isEqualTo(commitHash);
+            assertThat(targetGit.getRepository().getFullBranch()).isEqualTo(Constants.R_HEADS + defaultBranch);
+        }
+        finally {
+            sourceRepository.resetLocalRepo();
+            versionControlService.deleteProject(projectKey);
+        }
+    }
+
     @Test
     @WithMockUser(username = TEST_PREFIX + "instructor1", roles = "INSTRUCTOR")
     void testLockingAndUnlockingShouldReturnBadRequest() throws Exception {
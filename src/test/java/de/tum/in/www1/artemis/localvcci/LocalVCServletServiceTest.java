@@ -0,0 +1,113 @@
+package de.tum.in.www1.artemis.localvcci;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.tum.in.www1.artemis.service.connectors.localvc.LocalVCServletService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LocalVCServletServiceTest {
+
+    private static final String REPOSITORY_PATH = "projectkey/projectkey-student1.git";
+
+    @TempDir
+    private Path localVCBasePath;
+
+    private LocalVCServletService localVCServletService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Git.init().setBare(true).setDirectory(localVCBasePath.resolve(REPOSITORY_PATH).toFile()).call().close();
+        localVCServletService = new LocalVCServletService(mock(), mock(), mock(), mock(), mock(), Optional.empty(), mock(), mock(), mock(), new SimpleMeterRegistry(), 10, 10);
+        ReflectionTestUtils.setField(localVCServletService, "localVCBasePath", localVCBasePath.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        localVCServletService.closeRepositories();
+    }
+
+    @Test
+    void shouldReuseCachedRepository() throws Exception {
+        Repository repository = localVCServletService.resolveRepository(REPOSITORY_PATH);
+        Repository sameRepository = localVCServletService.resolveRepository(REPOSITORY_PATH);
+
+        assertThat(sameRepository).isSameAs(repository);
+        // one reference of the cache and one of each caller
+        assertThat(getUseCount(repository)).isEqualTo(3);
+
+        repository.close();
+        sameRepository.close();
+        assertThat(getUseCount(repository)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepEvictedRepositoryOpenUntilReleased() throws Exception {
+        Repository repository = localVCServletService.resolveRepository(REPOSITORY_PATH);
+
+        localVCServletService.closeRepositories();
+
+        assertThat(getUseCount(repository)).isEqualTo(1);
+        Repository reopenedRepository = localVCServletService.resolveRepository(REPOSITORY_PATH);
+        assertThat(reopenedRepository).isNotSameAs(repository);
+        assertThat(getUseCount(reopenedRepository)).isEqualTo(2);
+
+        repository.close();
+        reopenedRepository.close();
+        assertThat(getUseCount(repository)).isZero();
+    }
+
+    @Test
+    void shouldNeverReturnClosedRepositoryWhileItIsEvicted() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicInteger closedRepositories = new AtomicInteger();
+        try {
+            List<Callable<Void>> tasks = List.of(this::evictRepeatedly, () -> resolveRepeatedly(closedRepositories), () -> resolveRepeatedly(closedRepositories),
+                    () -> resolveRepeatedly(closedRepositories));
+            for (Future<Void> future : executor.invokeAll(tasks, 30, TimeUnit.SECONDS)) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        assertThat(closedRepositories).hasValue(0);
+    }
+
+    private Void evictRepeatedly() {
+        for (int i = 0; i < 1000; i++) {
+            localVCServletService.closeRepositories();
+        }
+        return null;
+    }
+
+    private Void resolveRepeatedly(AtomicInteger closedRepositories) throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            Repository repository = localVCServletService.resolveRepository(REPOSITORY_PATH);
+            // the reference acquired by the caller keeps the repository open
+            if (getUseCount(repository) <= 0) {
+                closedRepositories.incrementAndGet();
+            }
+            repository.close();
+        }
+        return null;
+    }
+
+    private static int getUseCount(Repository repository) {
+        return ((AtomicInteger) ReflectionTestUtils.getField(repository, "useCnt")).get();
+    }
+}
@@ -0,0 +1,70 @@
+package de.tum.in.www1.artemis.metis.similarity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.www1.artemis.domain.metis.Post;
+import de.tum.in.www1.artemis.repository.metis.PostRepository;
+import de.tum.in.www1.artemis.service.metis.similarity.PostSimilarityIndexService;
+import de.tum.in.www1.artemis.web.rest.dto.PostTitleDTO;
+
+class PostSimilarityIndexServiceTest {
+
+    private static final long COURSE_ID = 1L;
+
+    private PostRepository postRepository;
+
+    private PostSimilarityIndexService postSimilarityIndexService;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        when(postRepository.findPostTitlesForCourse(COURSE_ID)).thenReturn(List.of(new PostTitleDTO(1L, "Question about the exam date"),
+                new PostTitleDTO(2L, "Exam date?"), new PostTitleDTO(3L, "Problem with the build plan"), new PostTitleDTO(4L, null)));
+        postSimilarityIndexService = new PostSimilarityIndexService(postRepository);
+    }
+
+    @Test
+    void testFindSimilarPostIds_orderedBySimilarity() {
+        List<Long> similarPostIds = postSimilarityIndexService.findSimilarPostIds(COURSE_ID, "When is the exam date?", 5);
+
+        assertThat(similarPostIds).startsWith(2L, 1L).doesNotContain(4L);
+    }
+
+    @Test
+    void testFindSimilarPostIds_limit() {
+        assertThat(postSimilarityIndexService.findSimilarPostIds(COURSE_ID, "exam", 1)).containsExactly(2L);
+    }
+
+    @Test
+    void testFindSimilarPostIds_noSharedShingles() {
+        assertThat(postSimilarityIndexService.findSimilarPostIds(COURSE_ID, "xyz", 5)).isEmpty();
+        assertThat(postSimilarityIndexService.findSimilarPostIds(COURSE_ID, " ", 5)).isEmpty();
+    }
+
+    @Test
+    void testIndexAndRemovePost() {
+        // build the index first, afterwards it is only maintained incrementally
+        postSimilarityIndexService.findSimilarPostIds(COURSE_ID, "build", 5);
+
+        Post post = new Post();
+        post.setId(5L);
+        post.setTitle("Build plan fails");
+        postSimilarityIndexService.indexPost(COURSE_ID, post);
+        assertThat(postSimilarityIndexService.findSimilarPostIds(COURSE_ID, "build plan fails", 1)).containsExactly(5L);
+
+        post.setTitle("Exam registration");
+        postSimilarityIndexService.indexPost(COURSE_ID, post);
+        assertThat(postSimilarityIndexService.findSimilarPostIds(COURSE_ID, "build plan fails", 5)).containsExactly(3L);
+
+        postSimilarityIndexService.removePost(COURSE_ID, 3L);
+        assertThat(postSimilarityIndexService.findSimilarPostIds(COURSE_ID, "build plan fails", 5)).isEmpty();
+
+        verify(postRepository, times(1)).findPostTitlesForCourse(COURSE_ID);
+    }
+}
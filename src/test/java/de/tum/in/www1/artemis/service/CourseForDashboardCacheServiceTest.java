@@ -0,0 +1,164 @@
+package de.tum.in.www1.artemis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import de.tum.in.www1.artemis.AbstractSpringIntegrationIndependentTest;
+import de.tum.in.www1.artemis.domain.Course;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.TextExercise;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.enumeration.AssessmentType;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.exercise.ExerciseUtilService;
+import de.tum.in.www1.artemis.exercise.textexercise.TextExerciseUtilService;
+import de.tum.in.www1.artemis.participation.ParticipationUtilService;
+import de.tum.in.www1.artemis.repository.CourseRepository;
+import de.tum.in.www1.artemis.repository.TextExerciseRepository;
+import de.tum.in.www1.artemis.service.listeners.EntityChange;
+import de.tum.in.www1.artemis.user.UserUtilService;
+import de.tum.in.www1.artemis.web.rest.dto.CourseForDashboardDTO;
+
+// every created or updated course invalidates the cached course lists, so courses must not be changed by other tests in the meantime
+@Isolated
+class CourseForDashboardCacheServiceTest extends AbstractSpringIntegrationIndependentTest {
+
+    private static final String TEST_PREFIX = "coursefordashboardcache";
+
+    @Autowired
+    private CourseForDashboardCacheService courseForDashboardCacheService;
+
+    @Autowired
+    private UserUtilService userUtilService;
+
+    @Autowired
+    private TextExerciseUtilService textExerciseUtilService;
+
+    @Autowired
+    private ExerciseUtilService exerciseUtilService;
+
+    @Autowired
+    private ParticipationUtilService participationUtilService;
+
+    @Autowired
+    private TextExerciseRepository textExerciseRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    private User student;
+
+    private Course course;
+
+    private Course otherCourse;
+
+    @BeforeEach
+    void initTestCase() {
+        userUtilService.addUsers(TEST_PREFIX, 1, 0, 0, 0);
+        student = userUtilService.getUserByLogin(TEST_PREFIX + "student1");
+        course = textExerciseUtilService.addCourseWithOneReleasedTextExercise();
+        otherCourse = textExerciseUtilService.addCourseWithOneReleasedTextExercise();
+    }
+
+    @Test
+    void shouldOnlyCacheCourseListIfItsCoursesWereKnownBeforeLoading() {
+        courseForDashboardCacheService.setCoursesForDashboard(student, courseForDashboardCacheService.getGenerations(student), dashboardsOf(course));
+        assertThat(courseForDashboardCacheService.getCoursesForDashboard(student, courseForDashboardCacheService.getGenerations(student))).isEmpty();
+
+        cacheCourseList();
+        assertThat(courseForDashboardCacheService.getCoursesForDashboard(student, courseForDashboardCacheService.getGenerations(student))).isPresent();
+
+        // a course was added to the list, so its generation was not retrieved before loading
+        courseForDashboardCacheService.setCoursesForDashboard(student, courseForDashboardCacheService.getGenerations(student), dashboardsOf(course, otherCourse));
+        assertThat(courseForDashboardCacheService.getCoursesForDashboard(student, courseForDashboardCacheService.getGenerations(student))).isEmpty();
+    }
+
+    @Test
+    void shouldNotInvalidateCourseListIfOtherCourseChanges() {
+        cacheCourseList();
+
+        TextExercise otherExercise = exerciseUtilService.getFirstExerciseWithType(otherCourse, TextExercise.class);
+        otherExercise.setTitle("changed title");
+        textExerciseRepository.save(otherExercise);
+
+        assertThat(courseForDashboardCacheService.getCoursesForDashboard(student, courseForDashboardCacheService.getGenerations(student))).isPresent();
+    }
+
+    @Test
+    void shouldInvalidateCourseListIfOwnCourseChanges() {
+        cacheCourseList();
+
+        TextExercise exercise = exerciseUtilService.getFirstExerciseWithType(course, TextExercise.class);
+        exercise.setTitle("changed title");
+        textExerciseRepository.save(exercise);
+
+        assertThat(courseForDashboardCacheService.getCoursesForDashboard(student, courseForDashboardCacheService.getGenerations(student))).isEmpty();
+    }
+
+    @Test
+    void shouldInvalidateCourseListIfAnyCourseIsUpdated() {
+        cacheCourseList();
+
+        // e.g. the groups of the other course might have changed, so that the user is part of it now
+        otherCourse.setTitle("changed title");
+        courseRepository.save(otherCourse);
+
+        assertThat(courseForDashboardCacheService.getCoursesForDashboard(student, courseForDashboardCacheService.getGenerations(student))).isEmpty();
+    }
+
+    @Test
+    void shouldInvalidateCourseOfUserIfResultOfParticipationIsSaved() {
+        TextExercise exercise = exerciseUtilService.getFirstExerciseWithType(course, TextExercise.class);
+        StudentParticipation participation = participationUtilService.createAndSaveParticipationForExercise(exercise, TEST_PREFIX + "student1");
+        var generations = cacheCourse();
+
+        participationUtilService.addResultToParticipation(AssessmentType.MANUAL, ZonedDateTime.now(), participation);
+
+        assertThat(courseForDashboardCacheService.getGenerations(student.getId(), course.getId())).isNotEqualTo(generations);
+        assertThat(courseForDashboardCacheService.getCourseForDashboard(student, course.getId(), courseForDashboardCacheService.getGenerations(student.getId(), course.getId())))
+                .isEmpty();
+    }
+
+    @Test
+    void shouldInvalidateCourseOfUserIfUserOfChangedParticipationIsNotLoaded() {
+        TextExercise exercise = exerciseUtilService.getFirstExerciseWithType(course, TextExercise.class);
+        StudentParticipation participation = participationUtilService.createAndSaveParticipationForExercise(exercise, TEST_PREFIX + "student1");
+        var generations = cacheCourse();
+
+        // the result only references the id of the participation
+        StudentParticipation participationReference = new StudentParticipation();
+        participationReference.setId(participation.getId());
+        Result result = new Result().participation(participationReference);
+        courseForDashboardCacheService.invalidate(new EntityChange(result, EntityChange.Type.INSERT, Map.of()));
+
+        await().until(() -> !courseForDashboardCacheService.getGenerations(student.getId(), course.getId()).equals(generations));
+    }
+
+    private void cacheCourseList() {
+        // the first list is only used to learn the courses of the user
+        courseForDashboardCacheService.setCoursesForDashboard(student, courseForDashboardCacheService.getGenerations(student), dashboardsOf(course));
+        courseForDashboardCacheService.setCoursesForDashboard(student, courseForDashboardCacheService.getGenerations(student), dashboardsOf(course));
+        assertThat(courseForDashboardCacheService.getCoursesForDashboard(student, courseForDashboardCacheService.getGenerations(student))).isPresent();
+    }
+
+    private CourseForDashboardCacheService.Generations cacheCourse() {
+        var generations = courseForDashboardCacheService.getGenerations(student.getId(), course.getId());
+        courseForDashboardCacheService.setCourseForDashboard(student, course.getId(), generations, dashboardsOf(course).get(0));
+        assertThat(courseForDashboardCacheService.getCourseForDashboard(student, course.getId(), generations)).isPresent();
+        return generations;
+    }
+
+    private static List<CourseForDashboardDTO> dashboardsOf(Course... courses) {
+        return Stream.of(courses).map(course -> new CourseForDashboardDTO(course, null, null, null, null, null, null, List.of())).toList();
+    }
+}
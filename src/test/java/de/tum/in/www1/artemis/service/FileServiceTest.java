@@ -121,17 +121,37 @@ class FileServiceTest extends AbstractSpringIntegrationIndependentTest {
     }
 
     @Test
-    void testGetFileForPath() throws IOException {
+    void testGetStoredFile() throws IOException {
         writeFile("testFile.txt", FILE_WITH_UNIX_LINE_ENDINGS);
-        byte[] result = fileService.getFileForPath(Path.of(".", "exportTest", "testFile.txt"));
-        assertThat(result).containsExactly(FILE_WITH_UNIX_LINE_ENDINGS.getBytes(StandardCharsets.UTF_8));
+        var storedFile = fileService.getStoredFile(Path.of(".", "exportTest", "testFile.txt"));
+        assertThat(storedFile).isPresent();
+        assertThat(storedFile.get().resource().getInputStream().readAllBytes()).containsExactly(FILE_WITH_UNIX_LINE_ENDINGS.getBytes(StandardCharsets.UTF_8));
+        assertThat(storedFile.get().size()).isEqualTo(FILE_WITH_UNIX_LINE_ENDINGS.getBytes(StandardCharsets.UTF_8).length);
+        assertThat(storedFile.get().eTag()).startsWith("\"").endsWith("\"");
     }
 
     @Test
-    void testGetFileFOrPath_notFound() throws IOException {
+    void testGetStoredFile_changed() throws IOException {
         writeFile("testFile.txt", FILE_WITH_UNIX_LINE_ENDINGS);
-        byte[] result = fileService.getFileForPath(Path.of(".", "exportTest", UUID.randomUUID() + ".txt"));
-        assertThat(result).isNull();
+        Path path = Path.of(".", "exportTest", "testFile.txt");
+        String eTag = fileService.getStoredFile(path).orElseThrow().eTag();
+
+        writeFile("testFile.txt", FILE_WITH_WINDOWS_LINE_ENDINGS);
+        var storedFile = fileService.getStoredFile(path).orElseThrow();
+        assertThat(storedFile.resource().getInputStream().readAllBytes()).containsExactly(FILE_WITH_WINDOWS_LINE_ENDINGS.getBytes(StandardCharsets.UTF_8));
+        assertThat(storedFile.eTag()).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void testGetStoredFile_notFound() throws IOException {
+        writeFile("testFile.txt", FILE_WITH_UNIX_LINE_ENDINGS);
+        assertThat(fileService.getStoredFile(Path.of(".", "exportTest", UUID.randomUUID() + ".txt"))).isEmpty();
+    }
+
+    @Test
+    void testGetStoredFile_directory() throws IOException {
+        writeFile("testFile.txt", FILE_WITH_UNIX_LINE_ENDINGS);
+        assertThat(fileService.getStoredFile(Path.of(".", "exportTest"))).isEmpty();
     }
 
     @Test
@@ -257,15 +277,17 @@ class FileServiceTest extends AbstractSpringIntegrationIndependentTest {
     }
 
     @Test
-    void testMergePdf_nullInput_shouldReturnEmptyOptional() {
-        Optional<byte[]> result = fileService.mergePdfFiles(null, "");
-        assertThat(result).isEmpty();
+    void testMergePdf_nullInput_shouldReturnFalse() {
+        Path targetPath = Path.of(".", "exportTest", "merged.pdf");
+        assertThat(fileService.mergePdfFiles(null, "", targetPath)).isFalse();
+        assertThat(targetPath).doesNotExist();
     }
 
     @Test
-    void testMergePdf_emptyList_shouldReturnEmptyOptional() {
-        Optional<byte[]> result = fileService.mergePdfFiles(new ArrayList<>(), "list_of_pdfs");
-        assertThat(result).isEmpty();
+    void testMergePdf_emptyList_shouldReturnFalse() {
+        Path targetPath = Path.of(".", "exportTest", "merged.pdf");
+        assertThat(fileService.mergePdfFiles(new ArrayList<>(), "list_of_pdfs", targetPath)).isFalse();
+        assertThat(targetPath).doesNotExist();
     }
 
     @Test
@@ -293,11 +315,12 @@ class FileServiceTest extends AbstractSpringIntegrationIndependentTest {
         paths.add(Path.of(".", "exportTest", "testfile1.pdf").toString());
         paths.add(Path.of(".", "exportTest", "testfile2.pdf").toString());
 
-        Optional<byte[]> mergedFile = fileService.mergePdfFiles(paths, "list_of_pdfs");
-        assertThat(mergedFile).isPresent();
-        assertThat(mergedFile.get()).isNotEmpty();
-        PDDocument mergedDoc = Loader.loadPDF(mergedFile.get());
-        assertThat(mergedDoc.getNumberOfPages()).isEqualTo(5);
+        Path targetPath = Path.of(".", "exportTest", "merged.pdf");
+        assertThat(fileService.mergePdfFiles(paths, "list_of_pdfs", targetPath)).isTrue();
+        try (PDDocument mergedDoc = Loader.loadPDF(targetPath.toFile())) {
+            assertThat(mergedDoc.getNumberOfPages()).isEqualTo(5);
+            assertThat(mergedDoc.getDocumentInformation().getTitle()).isEqualTo("list_of_pdfs");
+        }
     }
 
     @Test
@@ -0,0 +1,180 @@
+package de.tum.in.www1.artemis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.stream.Stream;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.TaskScheduler;
+
+import de.tum.in.www1.artemis.AbstractSpringIntegrationIndependentTest;
+import de.tum.in.www1.artemis.domain.Attachment;
+import de.tum.in.www1.artemis.domain.Lecture;
+import de.tum.in.www1.artemis.domain.lecture.AttachmentUnit;
+import de.tum.in.www1.artemis.lecture.LectureUtilService;
+import de.tum.in.www1.artemis.repository.AttachmentRepository;
+import de.tum.in.www1.artemis.repository.AttachmentUnitRepository;
+import de.tum.in.www1.artemis.repository.LectureRepository;
+
+class MergedLecturePdfServiceTest extends AbstractSpringIntegrationIndependentTest {
+
+    @Autowired
+    private LectureUtilService lectureUtilService;
+
+    @Autowired
+    private LectureRepository lectureRepository;
+
+    @Autowired
+    private AttachmentUnitRepository attachmentUnitRepository;
+
+    @Autowired
+    private AttachmentRepository attachmentRepository;
+
+    private final FileService fileService = spy(new FileService());
+
+    private final TaskScheduler scheduler = mock();
+
+    private MergedLecturePdfService mergedLecturePdfService;
+
+    private Lecture lecture;
+
+    private AttachmentUnit firstUnit;
+
+    private AttachmentUnit secondUnit;
+
+    @BeforeEach
+    void initTestCase() throws IOException {
+        doNothing().when(fileService).schedulePathForDeletion(any(), anyLong());
+        doReturn(mock(ScheduledFuture.class)).when(scheduler).schedule(any(Runnable.class), any(Instant.class));
+        mergedLecturePdfService = new MergedLecturePdfService(fileService, attachmentUnitRepository, lectureRepository, scheduler);
+
+        lecture = lectureUtilService.createCourseWithLecture(true);
+        lecture.setTitle("Merged lecture");
+        lecture = lectureRepository.save(lecture);
+        firstUnit = createPdfAttachmentUnit(3);
+        secondUnit = createPdfAttachmentUnit(2);
+        lectureUtilService.addLectureUnitsToLecture(lecture, List.of(firstUnit, secondUnit));
+    }
+
+    @Test
+    void shouldMergePdfFilesOnlyOnce() throws IOException {
+        Path mergedPdfPath = mergedLecturePdfService.getMergedPdf(lecture.getId(), List.of(firstUnit, secondUnit)).orElseThrow();
+
+        try (PDDocument mergedDoc = Loader.loadPDF(mergedPdfPath.toFile())) {
+            assertThat(mergedDoc.getNumberOfPages()).isEqualTo(5);
+            assertThat(mergedDoc.getDocumentInformation().getTitle()).isEqualTo("Merged lecture");
+        }
+        assertThat(mergedLecturePdfService.getMergedPdf(lecture.getId(), List.of(firstUnit, secondUnit))).contains(mergedPdfPath);
+        verify(fileService).mergePdfFiles(anyList(), eq("Merged lecture"), any());
+    }
+
+    @Test
+    void shouldOnlyDeleteOutdatedFilesOfSameVariant() throws IOException {
+        Path bothUnitsPath = mergedLecturePdfService.getMergedPdf(lecture.getId(), List.of(firstUnit, secondUnit)).orElseThrow();
+        Path firstUnitPath = mergedLecturePdfService.getMergedPdf(lecture.getId(), List.of(firstUnit)).orElseThrow();
+        verify(fileService, never()).schedulePathForDeletion(any(), anyLong());
+
+        // a changed file leads to a new version of every variant that contains it
+        writePdf(secondUnit, 4);
+        Path updatedBothUnitsPath = mergedLecturePdfService.getMergedPdf(lecture.getId(), List.of(firstUnit, secondUnit)).orElseThrow();
+
+        assertThat(updatedBothUnitsPath).isNotEqualTo(bothUnitsPath);
+        try (PDDocument mergedDoc = Loader.loadPDF(updatedBothUnitsPath.toFile())) {
+            assertThat(mergedDoc.getNumberOfPages()).isEqualTo(7);
+        }
+        verify(fileService).schedulePathForDeletion(bothUnitsPath, 5);
+        verify(fileService, never()).schedulePathForDeletion(eq(firstUnitPath), anyLong());
+        verify(fileService, never()).schedulePathForDeletion(eq(updatedBothUnitsPath), anyLong());
+    }
+
+    @Test
+    void shouldRebuildMergedPdfOfUnitsVisibleToStudents() throws IOException {
+        Attachment hiddenAttachment = secondUnit.getAttachment();
+        hiddenAttachment.setReleaseDate(ZonedDateTime.now().plusDays(1));
+        attachmentRepository.save(hiddenAttachment);
+        ScheduledFuture<?> firstRebuild = mock();
+        doReturn(firstRebuild).when(scheduler).schedule(any(Runnable.class), any(Instant.class));
+
+        mergedLecturePdfService.scheduleRebuild(lecture.getId());
+        mergedLecturePdfService.scheduleRebuild(lecture.getId());
+
+        // several changes in a short time only lead to one rebuild
+        var rebuild = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(2)).schedule(rebuild.capture(), any(Instant.class));
+        verify(firstRebuild).cancel(false);
+
+        rebuild.getValue().run();
+
+        List<Path> mergedPdfPaths;
+        try (Stream<Path> files = Files.list(FilePathService.getMergedLecturePdfFilePath().resolve(String.valueOf(lecture.getId())))) {
+            mergedPdfPaths = files.filter(path -> path.toString().endsWith(".pdf")).toList();
+        }
+        assertThat(mergedPdfPaths).hasSize(1);
+        try (PDDocument mergedDoc = Loader.loadPDF(mergedPdfPaths.get(0).toFile())) {
+            assertThat(mergedDoc.getNumberOfPages()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void shouldDeleteOtherVariantsAfterRebuild() throws IOException {
+        Path bothUnitsPath = mergedLecturePdfService.getMergedPdf(lecture.getId(), List.of(firstUnit, secondUnit)).orElseThrow();
+        Path firstUnitPath = mergedLecturePdfService.getMergedPdf(lecture.getId(), List.of(firstUnit)).orElseThrow();
+
+        mergedLecturePdfService.scheduleRebuild(lecture.getId());
+        var rebuild = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(rebuild.capture(), any(Instant.class));
+        rebuild.getValue().run();
+
+        // both units are visible to students, so only the file of the other variant is outdated
+        verify(fileService).schedulePathForDeletion(firstUnitPath, 5);
+        verify(fileService, never()).schedulePathForDeletion(eq(bothUnitsPath), anyLong());
+    }
+
+    @Test
+    void shouldDeleteMergedPdfsOfLecture() {
+        doNothing().when(fileService).scheduleDirectoryPathForRecursiveDeletion(any(), anyLong());
+        ScheduledFuture<?> rebuild = mock();
+        doReturn(rebuild).when(scheduler).schedule(any(Runnable.class), any(Instant.class));
+        mergedLecturePdfService.scheduleRebuild(lecture.getId());
+
+        mergedLecturePdfService.deleteMergedPdfs(lecture.getId());
+
+        verify(rebuild).cancel(false);
+        verify(fileService).scheduleDirectoryPathForRecursiveDeletion(FilePathService.getMergedLecturePdfFilePath().resolve(String.valueOf(lecture.getId())), 5);
+    }
+
+    private AttachmentUnit createPdfAttachmentUnit(int numberOfPages) throws IOException {
+        AttachmentUnit attachmentUnit = lectureUtilService.createAttachmentUnit(false);
+        Attachment attachment = attachmentUnit.getAttachment();
+        attachment.setLink("/api/files/attachments/attachment-unit/" + attachmentUnit.getId() + "/slides.pdf");
+        attachmentUnit.setAttachment(attachmentRepository.save(attachment));
+        writePdf(attachmentUnit, numberOfPages);
+        return attachmentUnit;
+    }
+
+    private static void writePdf(AttachmentUnit attachmentUnit, int numberOfPages) throws IOException {
+        Path pdfPath = FilePathService.getAttachmentUnitFilePath().resolve(Path.of(String.valueOf(attachmentUnit.getId()), "slides.pdf"));
+        Files.createDirectories(pdfPath.getParent());
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 0; i < numberOfPages; i++) {
+                document.addPage(new PDPage());
+            }
+            document.save(pdfPath.toFile());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package de.tum.in.www1.artemis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.cache.Cache;
+
+import de.tum.in.www1.artemis.AbstractSpringIntegrationIndependentTest;
+import de.tum.in.www1.artemis.domain.Course;
+import de.tum.in.www1.artemis.domain.TextExercise;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.enumeration.InitializationState;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.exercise.ExerciseUtilService;
+import de.tum.in.www1.artemis.exercise.textexercise.TextExerciseUtilService;
+import de.tum.in.www1.artemis.participation.ParticipationUtilService;
+import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
+import de.tum.in.www1.artemis.repository.UserRepository;
+import de.tum.in.www1.artemis.user.UserUtilService;
+
+class WebsocketAuthorizationCacheServiceTest extends AbstractSpringIntegrationIndependentTest {
+
+    private static final String TEST_PREFIX = "websocketauthorizationcache";
+
+    private static final String LOGIN = TEST_PREFIX + "student1";
+
+    @Autowired
+    private WebsocketAuthorizationCacheService websocketAuthorizationCacheService;
+
+    @Autowired
+    private UserUtilService userUtilService;
+
+    @Autowired
+    private TextExerciseUtilService textExerciseUtilService;
+
+    @Autowired
+    private ExerciseUtilService exerciseUtilService;
+
+    @Autowired
+    private ParticipationUtilService participationUtilService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StudentParticipationRepository studentParticipationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void initTestCase() {
+        userUtilService.addUsers(TEST_PREFIX, 1, 0, 0, 0);
+    }
+
+    @Test
+    void shouldInvalidateUserAfterGroupsAreChanged() {
+        websocketAuthorizationCacheService.getUserWithGroupsAndAuthorities(LOGIN);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            addGroup("new-group");
+            // the change is not committed yet, so a concurrent request must not cache it
+            assertThat(websocketAuthorizationCacheService.getUserWithGroupsAndAuthorities(LOGIN).getGroups()).doesNotContain("new-group");
+        });
+
+        assertThat(websocketAuthorizationCacheService.getUserWithGroupsAndAuthorities(LOGIN).getGroups()).contains("new-group");
+    }
+
+    @Test
+    void shouldNotInvalidateUserIfTransactionIsRolledBack() {
+        websocketAuthorizationCacheService.getUserWithGroupsAndAuthorities(LOGIN);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            addGroup("rolled-back-group");
+            status.setRollbackOnly();
+        });
+
+        assertThat(usersByLogin().getIfPresent(LOGIN)).isNotNull();
+    }
+
+    @Test
+    void shouldNotInvalidateUserIfIrrelevantPropertyIsChanged() {
+        websocketAuthorizationCacheService.getUserWithGroupsAndAuthorities(LOGIN);
+
+        User user = userRepository.findOneWithGroupsAndAuthoritiesByLogin(LOGIN).orElseThrow();
+        user.setFirstName("changed first name");
+        userRepository.save(user);
+
+        assertThat(usersByLogin().getIfPresent(LOGIN)).isNotNull();
+    }
+
+    @Test
+    void shouldNotShareCachedUserBetweenCallers() {
+        User user = websocketAuthorizationCacheService.getUserWithGroupsAndAuthorities(LOGIN);
+        user.getGroups().add("modified-group");
+
+        User otherUser = websocketAuthorizationCacheService.getUserWithGroupsAndAuthorities(LOGIN);
+
+        assertThat(otherUser).isNotSameAs(user);
+        assertThat(otherUser.getGroups()).doesNotContain("modified-group");
+    }
+
+    @Test
+    void shouldNotInvalidateParticipationOwnersIfIrrelevantPropertyIsChanged() {
+        Course course = textExerciseUtilService.addCourseWithOneReleasedTextExercise();
+        TextExercise exercise = exerciseUtilService.getFirstExerciseWithType(course, TextExercise.class);
+        StudentParticipation participation = participationUtilService.createAndSaveParticipationForExercise(exercise, LOGIN);
+        assertThat(websocketAuthorizationCacheService.isParticipationOwnedBy(participation.getId(), LOGIN)).isTrue();
+
+        participation.setInitializationState(InitializationState.FINISHED);
+        studentParticipationRepository.save(participation);
+
+        assertThat(participationOwners().getIfPresent(participation.getId())).containsExactly(LOGIN);
+    }
+
+    private void addGroup(String group) {
+        User user = userRepository.findOneWithGroupsAndAuthoritiesByLogin(LOGIN).orElseThrow();
+        Set<String> groups = new HashSet<>(user.getGroups());
+        groups.add(group);
+        user.setGroups(groups);
+        userRepository.saveAndFlush(user);
+    }
+
+    private Cache<?, ?> usersByLogin() {
+        return (Cache<?, ?>) ReflectionTestUtils.getField(websocketAuthorizationCacheService, "usersByLogin");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Long, Set<String>> participationOwners() {
+        return (Cache<Long, Set<String>>) ReflectionTestUtils.getField(websocketAuthorizationCacheService, "participationOwners");
+    }
+}
@@ -0,0 +1,131 @@
+package de.tum.in.www1.artemis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WebsocketMessagingServiceTest {
+
+    private static final String TOPIC = "/topic/statistics";
+
+    private final SimpMessageSendingOperations messagingTemplate = mock();
+
+    private final WebsocketMessagingService websocketMessagingService = new WebsocketMessagingService(messagingTemplate, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        websocketMessagingService.stopWorkers();
+    }
+
+    @Test
+    void shouldOnlySendLatestCoalescedMessage() {
+        // given: the workers are not started yet, so the messages stay queued
+        var first = websocketMessagingService.sendCoalescedMessage(TOPIC, "first");
+        var second = websocketMessagingService.sendCoalescedMessage(TOPIC, "second");
+
+        // when
+        websocketMessagingService.startWorkers();
+
+        // then
+        await().until(() -> first.isDone() && second.isDone());
+        assertThat(first).isCompleted();
+        assertThat(second).isCompleted();
+        verify(messagingTemplate).convertAndSend(TOPIC, "second");
+        verify(messagingTemplate, never()).convertAndSend(TOPIC, "first");
+    }
+
+    @Test
+    void shouldSendMessageInCallerThreadIfQueueIsFull() {
+        // given
+        fillQueue();
+
+        // when
+        var future = websocketMessagingService.sendMessage(TOPIC, "overflow");
+
+        // then: the message was sent before the method returned
+        assertThat(future).isCompleted();
+        verify(messagingTemplate).convertAndSend(TOPIC, "overflow");
+    }
+
+    @Test
+    void shouldSendCoalescedMessageInCallerThreadIfQueueIsFullAndSendLaterMessages() {
+        // given
+        fillQueue();
+
+        // when
+        var overflow = websocketMessagingService.sendCoalescedMessage(TOPIC, "overflow");
+
+        // then: the latest message of a topic is never dropped, e.g. the final progress of a long-running operation
+        assertThat(overflow).isCompleted();
+        verify(messagingTemplate).convertAndSend(TOPIC, "overflow");
+
+        // when: the queue is empty again, later messages to the topic are not coalesced into the message sent by the caller
+        websocketMessagingService.startWorkers();
+        var later = websocketMessagingService.sendCoalescedMessage(TOPIC, "later");
+
+        // then
+        await().until(later::isDone);
+        assertThat(later).isCompleted();
+        verify(messagingTemplate).convertAndSend(TOPIC, "later");
+    }
+
+    @Test
+    void shouldSendMessagesToSameTopicInOrder() {
+        // given
+        var messages = IntStream.range(0, 1000).mapToObj(i -> websocketMessagingService.sendMessage(TOPIC, i)).toList();
+
+        // when
+        websocketMessagingService.startWorkers();
+
+        // then
+        await().until(() -> messages.stream().allMatch(CompletableFuture::isDone));
+        var inOrder = inOrder(messagingTemplate);
+        for (int i = 0; i < 1000; i++) {
+            inOrder.verify(messagingTemplate).convertAndSend(TOPIC, (Object) i);
+        }
+    }
+
+    @Test
+    void shouldCompleteQueuedMessagesExceptionallyOnShutdown() {
+        // given
+        var message = websocketMessagingService.sendMessage(TOPIC, "message");
+        var first = websocketMessagingService.sendCoalescedMessage(TOPIC, "first");
+        var second = websocketMessagingService.sendCoalescedMessage(TOPIC, "second");
+
+        // when
+        websocketMessagingService.stopWorkers();
+
+        // then
+        for (var future : List.of(message, first, second)) {
+            assertThat(future).failsWithin(Duration.ZERO).withThrowableOfType(ExecutionException.class)
+                    .withCauseInstanceOf(RejectedExecutionException.class);
+        }
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    /**
+     * Fills the queue of the worker that sends the messages to {@link #TOPIC}
+     */
+    private void fillQueue() {
+        int queueCapacity = (int) ReflectionTestUtils.getField(WebsocketMessagingService.class, "QUEUE_CAPACITY");
+        int workerThreads = (int) ReflectionTestUtils.getField(WebsocketMessagingService.class, "WORKER_THREADS");
+        for (int i = 0; i < queueCapacity / workerThreads; i++) {
+            websocketMessagingService.sendMessage(TOPIC, i);
+        }
+        verifyNoInteractions(messagingTemplate);
+    }
+}
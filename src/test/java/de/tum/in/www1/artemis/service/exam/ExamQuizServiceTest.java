@@ -45,6 +45,9 @@ class ExamQuizServiceTest extends AbstractSpringIntegrationIndependentTest {
     @Autowired
     private QuizSubmissionRepository quizSubmissionRepository;
 
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
     @Autowired
     private ExerciseGroupRepository exerciseGroupRepository;
 
@@ -239,6 +242,36 @@ class ExamQuizServiceTest extends AbstractSpringIntegrationIndependentTest {
         request.delete("/api/courses/" + course.getId() + "/exams/" + exam.getId(), HttpStatus.OK);
     }
 
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "instructor1", roles = "INSTRUCTOR")
+    void startExercises_resumesPartiallyStartedExam() throws Exception {
+        exam = examUtilService.registerUsersForExamAndSaveExam(exam, TEST_PREFIX, NUMBER_OF_STUDENTS);
+
+        exerciseGroup.setExam(exam);
+        exerciseGroup = exerciseGroupRepository.save(exerciseGroup);
+        exam.setExerciseGroups(List.of(exerciseGroup));
+        quizExercise.setExerciseGroup(exerciseGroup);
+        quizExercise = quizExerciseService.save(quizExercise);
+        exerciseGroup.setExercises(Set.of(quizExercise));
+
+        assertThat(studentExamRepository.generateStudentExams(exam)).hasSize(NUMBER_OF_STUDENTS);
+
+        // simulate a previous start that was interrupted after the participation of the first student was created
+        var participation = new StudentParticipation();
+        participation.setExercise(quizExercise);
+        participation.setParticipant(userUtilService.getUserByLogin(TEST_PREFIX + "student1"));
+        participation.setInitializationState(InitializationState.UNINITIALIZED);
+        studentParticipationRepository.save(participation);
+
+        assertThat(studentExamService.startExercises(exam.getId()).join()).isEqualTo(NUMBER_OF_STUDENTS);
+        // starting the exercises again must neither create nor count participations a second time
+        assertThat(studentExamService.startExercises(exam.getId()).join()).isZero();
+
+        var participations = studentParticipationRepository.findByExerciseId(quizExercise.getId());
+        assertThat(participations).hasSize(NUMBER_OF_STUDENTS).allMatch(studentParticipation -> studentParticipation.getInitializationState() == InitializationState.INITIALIZED);
+        assertThat(submissionRepository.findParticipationIdsWithSubmissionsByExerciseId(quizExercise.getId())).hasSize(NUMBER_OF_STUDENTS);
+    }
+
     private void waitForParticipantScores() {
         participantScoreScheduleService.executeScheduledTasks();
         await().until(() -> participantScoreScheduleService.isIdle());
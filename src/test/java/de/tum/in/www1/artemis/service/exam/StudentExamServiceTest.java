@@ -0,0 +1,175 @@
+package de.tum.in.www1.artemis.service.exam;
+
+import static de.tum.in.www1.artemis.config.Constants.EXAM_EXERCISE_START_STATUS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.ZonedDateTime;
+import java.util.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.scheduling.TaskScheduler;
+
+import de.tum.in.www1.artemis.domain.*;
+import de.tum.in.www1.artemis.domain.exam.Exam;
+import de.tum.in.www1.artemis.domain.exam.ExerciseGroup;
+import de.tum.in.www1.artemis.domain.exam.StudentExam;
+import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseStudentParticipation;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.repository.*;
+import de.tum.in.www1.artemis.service.ParticipationService;
+import de.tum.in.www1.artemis.service.SubmissionService;
+import de.tum.in.www1.artemis.service.SubmissionVersionService;
+import de.tum.in.www1.artemis.service.WebsocketMessagingService;
+import de.tum.in.www1.artemis.service.programming.ProgrammingExerciseParticipationService;
+import de.tum.in.www1.artemis.service.programming.ProgrammingTriggerService;
+import de.tum.in.www1.artemis.service.util.ExamExerciseStartPreparationStatus;
+
+class StudentExamServiceTest {
+
+    private static final long EXAM_ID = 1L;
+
+    private final ParticipationService participationService = mock();
+
+    private final ProgrammingExerciseParticipationService programmingExerciseParticipationService = mock();
+
+    private final ExamRepository examRepository = mock();
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(EXAM_EXERCISE_START_STATUS);
+
+    private final StudentExamService studentExamService = new StudentExamService(mock(StudentExamRepository.class), mock(UserRepository.class), participationService,
+            mock(QuizSubmissionRepository.class), mock(SubmittedAnswerRepository.class), mock(TextSubmissionRepository.class), mock(ModelingSubmissionRepository.class),
+            mock(SubmissionVersionService.class), programmingExerciseParticipationService, mock(SubmissionService.class), mock(StudentParticipationRepository.class),
+            mock(ExamQuizService.class), mock(ProgrammingExerciseRepository.class), mock(ProgrammingTriggerService.class), examRepository, cacheManager,
+            mock(WebsocketMessagingService.class), mock(TaskScheduler.class), mock(ExamScoresCacheService.class), 2);
+
+    private Exam exam;
+
+    private TextExercise textExercise;
+
+    private ProgrammingExercise programmingExercise;
+
+    private User student1;
+
+    private User student2;
+
+    @BeforeEach
+    void setUp() {
+        exam = new Exam();
+        exam.setId(EXAM_ID);
+        exam.setStartDate(ZonedDateTime.now().plusHours(2));
+        var exerciseGroup = new ExerciseGroup();
+        exerciseGroup.setExam(exam);
+
+        textExercise = new TextExercise();
+        textExercise.setId(1L);
+        textExercise.setExerciseGroup(exerciseGroup);
+        programmingExercise = new ProgrammingExercise();
+        programmingExercise.setId(2L);
+        programmingExercise.setExerciseGroup(exerciseGroup);
+
+        student1 = createStudent(1L);
+        student2 = createStudent(2L);
+        doReturn(Optional.of(exam)).when(examRepository).findWithStudentExamsExercisesById(EXAM_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        studentExamService.shutdown();
+    }
+
+    @Test
+    void testStartExercisesSetsUpProgrammingExercisesOfEachStudentExam() throws Exception {
+        addStudentExam(student1, textExercise, programmingExercise);
+        addStudentExam(student2, textExercise, programmingExercise);
+        mockStartInBulk(textExercise);
+        mockStartInBulk(programmingExercise);
+        doAnswer(invocation -> createParticipation(programmingExercise, invocation.getArgument(1))).when(participationService).startExercise(eq(programmingExercise), any(),
+                eq(true));
+
+        int generatedParticipations = studentExamService.startExercises(EXAM_ID).get();
+
+        assertThat(generatedParticipations).isEqualTo(4);
+        // the repositories of the programming exercises are set up individually because this cannot be done in bulk
+        verify(participationService).startExercise(programmingExercise, student1, true);
+        verify(participationService).startExercise(programmingExercise, student2, true);
+        verify(participationService, never()).startExercise(eq(textExercise), any(), anyBoolean());
+        // the exam starts in more than 5 minutes, so the repositories stay locked for now
+        verify(programmingExerciseParticipationService, times(2)).lockStudentParticipation(any());
+        assertThat(getExerciseStartStatus()).extracting(ExamExerciseStartPreparationStatus::finished, ExamExerciseStartPreparationStatus::failed).containsExactly(2, 0);
+    }
+
+    @Test
+    void testStartExercisesResumesFailedProgrammingExerciseSetup() throws Exception {
+        addStudentExam(student1, textExercise, programmingExercise);
+        addStudentExam(student2, textExercise, programmingExercise);
+        mockStartInBulk(textExercise);
+        mockStartInBulk(programmingExercise);
+        doAnswer(invocation -> createParticipation(programmingExercise, invocation.getArgument(1))).when(participationService).startExercise(eq(programmingExercise), any(),
+                eq(true));
+        doThrow(new IllegalStateException("VCS not available")).when(participationService).startExercise(programmingExercise, student1, true);
+
+        assertThat(studentExamService.startExercises(EXAM_ID).get()).isEqualTo(3);
+        assertThat(getExerciseStartStatus()).extracting(ExamExerciseStartPreparationStatus::finished, ExamExerciseStartPreparationStatus::failed).containsExactly(1, 1);
+
+        // all other participations were started completely, so only the unfinished programming participation is continued when the exercises are started again
+        doReturn(List.of()).when(participationService).startExerciseInBulk(eq(textExercise), any());
+        doReturn(List.of(createParticipation(programmingExercise, student1))).when(participationService).startExerciseInBulk(eq(programmingExercise), any());
+        doAnswer(invocation -> createParticipation(programmingExercise, student1)).when(participationService).startExercise(programmingExercise, student1, true);
+
+        assertThat(studentExamService.startExercises(EXAM_ID).get()).isEqualTo(1);
+        verify(participationService, times(2)).startExercise(programmingExercise, student1, true);
+        verify(participationService).startExercise(programmingExercise, student2, true);
+        assertThat(getExerciseStartStatus()).extracting(ExamExerciseStartPreparationStatus::finished, ExamExerciseStartPreparationStatus::failed).containsExactly(2, 0);
+    }
+
+    @Test
+    void testStartExercisesOnlyFailsStudentExamsOfExerciseThatCannotBeStarted() throws Exception {
+        var otherTextExercise = new TextExercise();
+        otherTextExercise.setId(3L);
+        addStudentExam(student1, textExercise);
+        addStudentExam(student2, otherTextExercise);
+        doThrow(new IllegalStateException("Database not available")).when(participationService).startExerciseInBulk(eq(textExercise), any());
+        mockStartInBulk(otherTextExercise);
+
+        int generatedParticipations = studentExamService.startExercises(EXAM_ID).get();
+
+        assertThat(generatedParticipations).isEqualTo(1);
+        assertThat(getExerciseStartStatus()).extracting(ExamExerciseStartPreparationStatus::finished, ExamExerciseStartPreparationStatus::failed).containsExactly(1, 1);
+    }
+
+    private void addStudentExam(User student, Exercise... exercises) {
+        var studentExam = new StudentExam();
+        studentExam.setId(student.getId());
+        studentExam.setUser(student);
+        studentExam.setExercises(new ArrayList<>(List.of(exercises)));
+        exam.addStudentExam(studentExam);
+    }
+
+    private void mockStartInBulk(Exercise exercise) {
+        doAnswer(invocation -> invocation.<Collection<User>>getArgument(1).stream().map(student -> createParticipation(exercise, student)).toList()).when(participationService)
+                .startExerciseInBulk(eq(exercise), any());
+    }
+
+    private ExamExerciseStartPreparationStatus getExerciseStartStatus() {
+        return studentExamService.getExerciseStartStatusOfExam(EXAM_ID).orElseThrow();
+    }
+
+    private static StudentParticipation createParticipation(Exercise exercise, User student) {
+        var participation = exercise instanceof ProgrammingExercise ? new ProgrammingExerciseStudentParticipation() : new StudentParticipation();
+        participation.setExercise(exercise);
+        participation.setParticipant(student);
+        return participation;
+    }
+
+    private static User createStudent(Long id) {
+        var student = new User();
+        student.setId(id);
+        student.setLogin("student" + id);
+        return student;
+    }
+}
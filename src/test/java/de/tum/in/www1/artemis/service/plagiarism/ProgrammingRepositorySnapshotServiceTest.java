@@ -0,0 +1,200 @@
+package de.tum.in.www1.artemis.service.plagiarism;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.tum.in.www1.artemis.domain.VcsRepositoryUrl;
+import de.tum.in.www1.artemis.service.connectors.GitService;
+
+class ProgrammingRepositorySnapshotServiceTest {
+
+    private static final String[] JAVA_SUFFIXES = { ".java" };
+
+    private final GitService gitService = mock();
+
+    private final ProgrammingRepositorySnapshotService service = new ProgrammingRepositorySnapshotService(gitService);
+
+    private final VcsRepositoryUrl repositoryUrl = mock();
+
+    @TempDir
+    private Path tempPath;
+
+    private Path repositoryPath;
+
+    private Path snapshotPath;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repositoryPath = tempPath.resolve("repository");
+        snapshotPath = tempPath.resolve("snapshots").resolve("repository");
+        Git.init().setDirectory(repositoryPath.toFile()).call().close();
+
+        ReflectionTestUtils.setField(service, "plagiarismSnapshotPath", tempPath.toString());
+        ReflectionTestUtils.setField(service, "plagiarismSnapshotRetentionDays", 30);
+        when(gitService.getLocalPathOfRepo(anyString(), eq(repositoryUrl))).thenAnswer(invocation -> Path.of(invocation.getArgument(0, String.class), "repository"));
+        when(gitService.getOrFetchBareRepository(eq(repositoryUrl), any())).thenAnswer(invocation -> new FileRepositoryBuilder().setWorkTree(repositoryPath.toFile()).build());
+    }
+
+    @Test
+    void shouldExportOnlyFilesWithSuffixesOfLatestCommit() throws Exception {
+        // given
+        commitFile("src/Main.java", "class Main {}");
+        commitFile("README.md", "# Readme");
+
+        var targetPath = tempPath.resolve("target");
+
+        // when
+        var linkedSnapshot = service.exportAndLinkSnapshot(repositoryUrl, JAVA_SUFFIXES, targetPath);
+
+        // then
+        assertThat(linkedSnapshot).contains(targetPath);
+        assertThat(snapshotPath.resolve("src/Main.java")).hasContent("class Main {}");
+        assertThat(snapshotPath.resolve("README.md")).doesNotExist();
+        assertThat(targetPath.resolve("src/Main.java")).hasContent("class Main {}");
+        assertThat(targetPath.resolve("README.md")).doesNotExist();
+    }
+
+    @Test
+    void shouldOnlyExportAgainAfterNewCommit() throws Exception {
+        // given
+        commitFile("Main.java", "class Main {}");
+        service.exportAndLinkSnapshot(repositoryUrl, JAVA_SUFFIXES, tempPath.resolve("target1"));
+        Files.delete(snapshotPath.resolve("Main.java"));
+        Files.writeString(snapshotPath.resolve("Main.java"), "modified");
+
+        // when
+        service.exportAndLinkSnapshot(repositoryUrl, JAVA_SUFFIXES, tempPath.resolve("target2"));
+
+        // then
+        assertThat(snapshotPath.resolve("Main.java")).hasContent("modified");
+
+        // when
+        commitFile("Other.java", "class Other {}");
+        service.exportAndLinkSnapshot(repositoryUrl, JAVA_SUFFIXES, tempPath.resolve("target3"));
+
+        // then
+        assertThat(snapshotPath.resolve("Main.java")).hasContent("class Main {}");
+        assertThat(snapshotPath.resolve("Other.java")).hasContent("class Other {}");
+        // the files linked by a previous check are not affected by the new export
+        assertThat(tempPath.resolve("target2/Main.java")).hasContent("modified");
+        assertThat(tempPath.resolve("target2/Other.java")).doesNotExist();
+    }
+
+    @Test
+    void shouldReturnEmptySnapshotForRepositoryWithoutCommits() throws Exception {
+        var targetPath = tempPath.resolve("target");
+
+        assertThat(service.exportAndLinkSnapshot(repositoryUrl, JAVA_SUFFIXES, targetPath)).isEmpty();
+        assertThat(targetPath).doesNotExist();
+    }
+
+    @Test
+    void shouldLinkCompleteSnapshotIntoEveryTargetIfRepositoryIsUsedConcurrently() throws Exception {
+        // given
+        commitFile("Main.java", "class Main {}");
+        service.exportAndLinkSnapshot(repositoryUrl, new String[] { ".md" }, tempPath.resolve("target"));
+
+        // when the suffixes differ from the ones of the existing snapshot, every check tries to export the snapshot again
+        List<CompletableFuture<Void>> futures = IntStream.range(0, 8).mapToObj(index -> CompletableFuture.runAsync(() -> {
+            try {
+                String[] fileSuffixes = index % 2 == 0 ? JAVA_SUFFIXES : new String[] { ".java", ".md" };
+                service.exportAndLinkSnapshot(repositoryUrl, fileSuffixes, tempPath.resolve("target" + index));
+            }
+            catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        })).toList();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        // then
+        IntStream.range(0, 8).forEach(index -> assertThat(tempPath.resolve("target" + index).resolve("Main.java")).hasContent("class Main {}"));
+    }
+
+    @Test
+    void shouldDeleteOnlySnapshotsThatWereNotUsedWithinRetentionPeriod() throws Exception {
+        // given
+        commitFile("Main.java", "class Main {}");
+        service.exportAndLinkSnapshot(repositoryUrl, JAVA_SUFFIXES, tempPath.resolve("target"));
+        var commitMarkerPath = snapshotPath.resolveSibling("repository.commit");
+        var mirrorPath = Files.createDirectories(tempPath.resolve("mirrors").resolve("repository"));
+
+        // when
+        service.deleteUnusedSnapshots();
+
+        // then
+        assertThat(snapshotPath.resolve("Main.java")).exists();
+        assertThat(mirrorPath).exists();
+
+        // when
+        Files.setLastModifiedTime(commitMarkerPath, FileTime.from(Instant.now().minus(31, ChronoUnit.DAYS)));
+        service.deleteUnusedSnapshots();
+
+        // then
+        assertThat(commitMarkerPath).doesNotExist();
+        assertThat(snapshotPath).doesNotExist();
+        assertThat(mirrorPath).doesNotExist();
+        // the linked files of a running check are kept
+        assertThat(tempPath.resolve("target/Main.java")).hasContent("class Main {}");
+    }
+
+    @Test
+    void shouldKeepUsingSnapshotAfterItWasUsedAgain() throws Exception {
+        // given
+        commitFile("Main.java", "class Main {}");
+        service.exportAndLinkSnapshot(repositoryUrl, JAVA_SUFFIXES, tempPath.resolve("target1"));
+        var commitMarkerPath = snapshotPath.resolveSibling("repository.commit");
+        Files.setLastModifiedTime(commitMarkerPath, FileTime.from(Instant.now().minus(31, ChronoUnit.DAYS)));
+
+        // when
+        service.exportAndLinkSnapshot(repositoryUrl, JAVA_SUFFIXES, tempPath.resolve("target2"));
+        service.deleteUnusedSnapshots();
+
+        // then
+        assertThat(snapshotPath.resolve("Main.java")).exists();
+    }
+
+    @Test
+    void shouldCountChangedLines() throws Exception {
+        // given
+        var templateSnapshotPath = Files.createDirectories(tempPath.resolve("template"));
+        Files.writeString(templateSnapshotPath.resolve("Main.java"), "class Main {\n}\n");
+        Files.writeString(templateSnapshotPath.resolve("Removed.java"), "class Removed {\n}\n");
+        Files.createDirectories(snapshotPath.resolve("src"));
+        Files.writeString(snapshotPath.resolve("Main.java"), "class Main {\n    int a;\n}\n");
+        Files.writeString(snapshotPath.resolve("src/Added.java"), "class Added {\n}\n");
+
+        // when
+        int changedLines = service.countChangedLines(snapshotPath, templateSnapshotPath);
+
+        // then
+        // one added line in Main.java, two added lines in Added.java and two removed lines in Removed.java
+        assertThat(changedLines).isEqualTo(5);
+    }
+
+    private void commitFile(String fileName, String content) throws Exception {
+        var file = repositoryPath.resolve(fileName);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        try (Git git = Git.open(repositoryPath.toFile())) {
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("Add " + fileName).call();
+        }
+    }
+}
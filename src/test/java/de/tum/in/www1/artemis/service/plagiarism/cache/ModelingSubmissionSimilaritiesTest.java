@@ -0,0 +1,73 @@
+package de.tum.in.www1.artemis.service.plagiarism.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ModelingSubmissionSimilaritiesTest {
+
+    private ModelingSubmissionSimilarities similarities;
+
+    @BeforeEach
+    void setUp() {
+        similarities = new ModelingSubmissionSimilarities();
+        similarities.updateModelHash(1L, "hash1");
+        similarities.updateModelHash(2L, "hash2");
+        similarities.updateModelHash(3L, "hash3");
+    }
+
+    @Test
+    void testSimilarityIsReusedInBothDirections() {
+        similarities.putSimilarity(2L, 1L, 0.75, 0.5);
+
+        assertThat(similarities.getSimilarity(1L, 2L, 0.5)).hasValue(0.75);
+        assertThat(similarities.getSimilarity(2L, 1L, 0.9)).hasValue(0.75);
+        assertThat(similarities.getSimilarity(1L, 3L, 0.5)).isEmpty();
+    }
+
+    @Test
+    void testSimilarityIsReusedWithoutLosingPrecision() {
+        // would be rounded up to 0.5 with single precision and then reach a minimum similarity of 50%
+        double similarity = 0.4999999999;
+        similarities.putSimilarity(1L, 2L, similarity, 0.3);
+
+        assertThat(similarities.getSimilarity(1L, 2L, 0.3)).hasValue(similarity);
+    }
+
+    @Test
+    void testSimilarityBelowMinimumIsOnlyReusedForHigherMinimum() {
+        similarities.putSimilarity(1L, 2L, 0.3, 0.5);
+
+        assertThat(similarities.getSimilarity(1L, 2L, 0.6).orElseThrow()).isNegative();
+        assertThat(similarities.getSimilarity(1L, 2L, 0.4)).isEmpty();
+    }
+
+    @Test
+    void testSimilaritiesAreRemovedWhenModelChanges() {
+        similarities.putSimilarity(1L, 2L, 0.75, 0.5);
+        similarities.putSimilarity(1L, 3L, 0.75, 0.5);
+
+        similarities.updateModelHash(2L, "hash2");
+        assertThat(similarities.getSimilarity(1L, 2L, 0.5)).isPresent();
+
+        similarities.updateModelHash(2L, "changedHash2");
+        assertThat(similarities.getSimilarity(1L, 2L, 0.5)).isEmpty();
+        assertThat(similarities.getSimilarity(1L, 3L, 0.5)).isPresent();
+
+        similarities.retainSubmissions(Set.of(1L, 2L));
+        assertThat(similarities.getSimilarity(1L, 3L, 0.5)).isEmpty();
+        assertThat(similarities.size()).isZero();
+    }
+
+    @Test
+    void testSizeCountsPairsOfSubmissions() {
+        similarities.putSimilarity(1L, 2L, 0.75, 0.5);
+        similarities.putSimilarity(2L, 1L, 0.8, 0.5);
+        similarities.putSimilarity(3L, 1L, 0.75, 0.5);
+
+        assertThat(similarities.size()).isEqualTo(2);
+    }
+}
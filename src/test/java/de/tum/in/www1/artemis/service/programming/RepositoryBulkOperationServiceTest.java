@@ -0,0 +1,151 @@
+package de.tum.in.www1.artemis.service.programming;
+
+import static de.tum.in.www1.artemis.config.Constants.HAZELCAST_REPOSITORY_OPERATION_PROGRESS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+
+import de.tum.in.www1.artemis.AbstractSpringIntegrationIndependentTest;
+import de.tum.in.www1.artemis.domain.ProgrammingExercise;
+import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseStudentParticipation;
+import de.tum.in.www1.artemis.exercise.ExerciseUtilService;
+import de.tum.in.www1.artemis.exercise.programmingexercise.ProgrammingExerciseUtilService;
+import de.tum.in.www1.artemis.participation.ParticipationUtilService;
+import de.tum.in.www1.artemis.user.UserUtilService;
+import de.tum.in.www1.artemis.web.rest.dto.RepositoryOperationProgressDTO;
+
+class RepositoryBulkOperationServiceTest extends AbstractSpringIntegrationIndependentTest {
+
+    private static final String TEST_PREFIX = "repositorybulkoperation";
+
+    private static final String OPERATION_NAME = "lock";
+
+    @Autowired
+    private RepositoryBulkOperationService repositoryBulkOperationService;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    @Autowired
+    private UserUtilService userUtilService;
+
+    @Autowired
+    private ProgrammingExerciseUtilService programmingExerciseUtilService;
+
+    @Autowired
+    private ExerciseUtilService exerciseUtilService;
+
+    @Autowired
+    private ParticipationUtilService participationUtilService;
+
+    private IMap<String, RepositoryBulkOperationService.OperationProgress> progresses;
+
+    private ProgrammingExercise programmingExercise;
+
+    private ProgrammingExerciseStudentParticipation participation1;
+
+    private ProgrammingExerciseStudentParticipation participation2;
+
+    private ProgrammingExerciseStudentParticipation participation3;
+
+    private final Set<Long> executedParticipationIds = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void initTestCase() {
+        userUtilService.addUsers(TEST_PREFIX, 3, 0, 0, 1);
+        var course = programmingExerciseUtilService.addCourseWithOneProgrammingExercise();
+        programmingExercise = exerciseUtilService.getFirstExerciseWithType(course, ProgrammingExercise.class);
+        participation1 = participationUtilService.addStudentParticipationForProgrammingExercise(programmingExercise, TEST_PREFIX + "student1");
+        participation2 = participationUtilService.addStudentParticipationForProgrammingExercise(programmingExercise, TEST_PREFIX + "student2");
+        participation3 = participationUtilService.addStudentParticipationForProgrammingExercise(programmingExercise, TEST_PREFIX + "student3");
+        progresses = hazelcastInstance.getMap(HAZELCAST_REPOSITORY_OPERATION_PROGRESS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        progresses.keySet().stream().filter(key -> key.startsWith(programmingExercise.getId() + "/")).forEach(progresses::delete);
+    }
+
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "instructor1", roles = "INSTRUCTOR")
+    void shouldExecuteOperationOnParticipationsSatisfyingConditionAndReportProgress() throws Exception {
+        var failedParticipations = invokeOperation(participation -> !participation.getId().equals(participation2.getId()));
+
+        assertThat(failedParticipations).isEmpty();
+        assertThat(executedParticipationIds).containsExactlyInAnyOrder(participation1.getId(), participation3.getId());
+
+        var progress = request.getList("/api/programming-exercises/" + programmingExercise.getId() + "/repository-operations", HttpStatus.OK,
+                RepositoryOperationProgressDTO.class);
+        assertThat(progress).hasSize(1);
+        assertThat(progress.get(0).operationName()).isEqualTo(OPERATION_NAME);
+        assertThat(progress.get(0).finished()).isTrue();
+        assertThat(progress.get(0).total()).isEqualTo(3);
+        assertThat(progress.get(0).processed()).isEqualTo(3);
+        assertThat(progress.get(0).failed()).isZero();
+    }
+
+    @Test
+    @WithMockUser(username = TEST_PREFIX + "student1", roles = "USER")
+    void shouldNotReturnProgressToStudents() throws Exception {
+        request.getList("/api/programming-exercises/" + programmingExercise.getId() + "/repository-operations", HttpStatus.FORBIDDEN, RepositoryOperationProgressDTO.class);
+    }
+
+    @Test
+    void shouldReportFailedParticipations() throws Exception {
+        var failedParticipations = repositoryBulkOperationService.invokeOperationOnAllParticipationsThatSatisfy(programmingExercise.getId(), (exercise, participation) -> {
+            if (participation.getId().equals(participation1.getId())) {
+                throw new IllegalStateException("The repository cannot be locked");
+            }
+            executedParticipationIds.add(participation.getId());
+        }, participation -> true, OPERATION_NAME).get(30, TimeUnit.SECONDS);
+
+        assertThat(failedParticipations).map(ProgrammingExerciseStudentParticipation::getId).containsExactly(participation1.getId());
+        assertThat(executedParticipationIds).containsExactlyInAnyOrder(participation2.getId(), participation3.getId());
+    }
+
+    @Test
+    void shouldNotResumeInterruptedOperation() throws Exception {
+        storeProgress(OPERATION_NAME, 1, ZonedDateTime.now().minusMinutes(5), null);
+
+        invokeOperation(participation -> true);
+
+        assertThat(executedParticipationIds).containsExactlyInAnyOrder(participation1.getId(), participation2.getId(), participation3.getId());
+        assertThat(progresses.get(programmingExercise.getId() + "/" + OPERATION_NAME).processed()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldKeepProgressOfOtherRunningOperations() throws Exception {
+        String stashKey = programmingExercise.getId() + "/stash";
+        storeProgress("stash", 1, ZonedDateTime.now().minusMinutes(5), null);
+
+        invokeOperation(participation -> true);
+
+        assertThat(progresses.get(stashKey)).isNotNull();
+        assertThat(progresses.get(stashKey).processed()).isEqualTo(1);
+    }
+
+    private List<ProgrammingExerciseStudentParticipation> invokeOperation(Predicate<ProgrammingExerciseStudentParticipation> condition) throws Exception {
+        return repositoryBulkOperationService.invokeOperationOnAllParticipationsThatSatisfy(programmingExercise.getId(),
+                (exercise, participation) -> executedParticipationIds.add(participation.getId()), condition, OPERATION_NAME).get(30, TimeUnit.SECONDS);
+    }
+
+    private void storeProgress(String operationName, int processed, ZonedDateTime startDate, ZonedDateTime completionDate) {
+        progresses.set(programmingExercise.getId() + "/" + operationName,
+                new RepositoryBulkOperationService.OperationProgress(operationName, 3, processed, 0, startDate, completionDate));
+    }
+}
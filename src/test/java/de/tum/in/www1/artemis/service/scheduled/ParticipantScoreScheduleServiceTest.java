@@ -0,0 +1,138 @@
+package de.tum.in.www1.artemis.service.scheduled;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+
+import de.tum.in.www1.artemis.domain.Course;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.TextExercise;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.scores.ParticipantScore;
+import de.tum.in.www1.artemis.repository.*;
+import de.tum.in.www1.artemis.service.CompetencyProgressService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ParticipantScoreScheduleServiceTest {
+
+    private static final long EXERCISE_ID = 1L;
+
+    private final TaskScheduler scheduler = mock();
+
+    private final ParticipantScoreRepository participantScoreRepository = mock();
+
+    private final StudentScoreRepository studentScoreRepository = mock();
+
+    private final ExerciseRepository exerciseRepository = mock();
+
+    private final ResultRepository resultRepository = mock();
+
+    private final UserRepository userRepository = mock();
+
+    private final ParticipantScoreScheduleService participantScoreScheduleService = new ParticipantScoreScheduleService(scheduler, mock(CompetencyProgressService.class),
+            participantScoreRepository, studentScoreRepository, mock(TeamScoreRepository.class), exerciseRepository, resultRepository, userRepository, mock(TeamRepository.class),
+            new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        var exercise = new TextExercise();
+        exercise.setId(EXERCISE_ID);
+        exercise.setMaxPoints(10.0);
+        exercise.setCourse(new Course());
+        doReturn(Optional.of(exercise)).when(exerciseRepository).findById(EXERCISE_ID);
+        doReturn(mock(ScheduledFuture.class)).when(scheduler).schedule(any(Runnable.class), any(Instant.class));
+        doAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream().map(ParticipantScoreScheduleServiceTest::createUser).toList()).when(userRepository)
+                .findAllById(any());
+        participantScoreScheduleService.activate();
+    }
+
+    @Test
+    void shouldMergeUpdatesOfExerciseIntoOneBatch() {
+        doReturn(List.of(new ParticipantResultDTO(1L, createResult(11L, 80.0)), new ParticipantResultDTO(1L, createResult(10L, 50.0)),
+                new ParticipantResultDTO(2L, createResult(20L, 100.0)))).when(resultRepository).getResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForStudents(
+                        eq(EXERCISE_ID), any());
+
+        participantScoreScheduleService.scheduleTask(EXERCISE_ID, 1L, null);
+        participantScoreScheduleService.scheduleTask(EXERCISE_ID, 1L, 11L);
+        participantScoreScheduleService.scheduleTask(EXERCISE_ID, 2L, null);
+
+        // only one batch is scheduled for all updates of the exercise
+        var batch = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(batch.capture(), any(Instant.class));
+        assertThat(participantScoreScheduleService.isIdle()).isFalse();
+
+        batch.getValue().run();
+
+        verify(resultRepository).getResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForStudents(EXERCISE_ID, List.of(1L, 2L));
+        // the participant scores are saved together and the result that is about to be deleted is not considered for the first participant
+        assertThat(savedParticipantScores()).extracting(score -> score.getParticipant().getId(), ParticipantScore::getLastScore).containsExactlyInAnyOrder(tuple(1L, 50.0),
+                tuple(2L, 100.0));
+        assertThat(participantScoreScheduleService.isIdle()).isTrue();
+    }
+
+    @Test
+    void shouldProcessManyParticipantsInSeveralBatches() {
+        LongStream.rangeClosed(1, 250).forEach(participantId -> participantScoreScheduleService.scheduleTask(EXERCISE_ID, participantId, null));
+        var batch = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(batch.capture(), any(Instant.class));
+
+        batch.getValue().run();
+
+        var participantIds = ArgumentCaptor.forClass(List.class);
+        verify(resultRepository, times(2)).getResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForStudents(eq(EXERCISE_ID), participantIds.capture());
+        assertThat(participantIds.getAllValues()).extracting(List::size).containsExactly(200, 50);
+    }
+
+    @Test
+    void shouldScheduleNextBatchForUpdatesThatArriveWhileBatchIsProcessed() {
+        participantScoreScheduleService.scheduleTask(EXERCISE_ID, 1L, null);
+        var batch = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(batch.capture(), any(Instant.class));
+        doAnswer(invocation -> {
+            // the batch of the exercise is still being processed, so the next batch is only scheduled once it is finished
+            participantScoreScheduleService.scheduleTask(EXERCISE_ID, 2L, null);
+            return List.of();
+        }).when(resultRepository).getResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForStudents(eq(EXERCISE_ID), eq(List.of(1L)));
+
+        batch.getValue().run();
+
+        verify(scheduler, times(2)).schedule(batch.capture(), any(Instant.class));
+        batch.getValue().run();
+        verify(resultRepository).getResultsOrderedByParticipationIdLegalSubmissionIdResultIdDescForStudents(EXERCISE_ID, List.of(2L));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ParticipantScore> savedParticipantScores() {
+        ArgumentCaptor<List<ParticipantScore>> participantScores = ArgumentCaptor.forClass(List.class);
+        verify(participantScoreRepository).saveAll(participantScores.capture());
+        return participantScores.getValue();
+    }
+
+    private static User createUser(Long id) {
+        var user = new User();
+        user.setId(id);
+        user.setLogin("user" + id);
+        return user;
+    }
+
+    private static Result createResult(Long id, double score) {
+        var result = new Result();
+        result.setId(id);
+        result.setScore(score);
+        result.setRated(true);
+        result.setCompletionDate(ZonedDateTime.now());
+        return result;
+    }
+}
@@ -0,0 +1,258 @@
+package de.tum.in.www1.artemis.service.scheduled.cache.quiz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+
+import de.tum.in.www1.artemis.domain.Course;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.enumeration.QuizMode;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+import de.tum.in.www1.artemis.exercise.quizexercise.QuizExerciseFactory;
+import de.tum.in.www1.artemis.repository.QuizExerciseRepository;
+import de.tum.in.www1.artemis.repository.QuizSubmissionRepository;
+import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
+import de.tum.in.www1.artemis.repository.UserRepository;
+import de.tum.in.www1.artemis.service.WebsocketMessagingService;
+import de.tum.in.www1.artemis.service.scheduled.cache.quiz.QuizProcessLocalSubmissionsTask.QuizToProcess;
+import de.tum.in.www1.artemis.user.UserFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class QuizScheduleServiceTest {
+
+    private static final long QUIZ_EXERCISE_ID = 42L;
+
+    private static final long QUIZ_BATCH_ID = 7L;
+
+    private final WebsocketMessagingService websocketMessagingService = mock();
+
+    private final StudentParticipationRepository studentParticipationRepository = mock();
+
+    private final UserRepository userRepository = mock();
+
+    private final QuizSubmissionRepository quizSubmissionRepository = mock();
+
+    private final QuizExerciseRepository quizExerciseRepository = mock();
+
+    private final AtomicLong participationIds = new AtomicLong();
+
+    private HazelcastInstance hazelcastInstance;
+
+    private QuizScheduleService quizScheduleService;
+
+    private QuizExercise quizExercise;
+
+    @BeforeEach
+    void setUp() {
+        Config config = new Config();
+        config.setClusterName("quiz-schedule-service-test-" + System.nanoTime());
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+        QuizScheduleService.configureHazelcast(config);
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+
+        quizScheduleService = new QuizScheduleService(websocketMessagingService, studentParticipationRepository, userRepository, quizSubmissionRepository, hazelcastInstance,
+                quizExerciseRepository, mock(), mock(), new SimpleMeterRegistry(), 2);
+
+        quizExercise = QuizExerciseFactory.createQuiz(new Course(), ZonedDateTime.now().minusMinutes(20), ZonedDateTime.now().minusMinutes(5), QuizMode.SYNCHRONIZED);
+        quizExercise.setId(QUIZ_EXERCISE_ID);
+        quizExercise.getQuizBatches().forEach(quizBatch -> quizBatch.setId(QUIZ_BATCH_ID));
+        when(quizExerciseRepository.findByIdWithQuestionsAndStatisticsElseThrow(QUIZ_EXERCISE_ID)).thenReturn(quizExercise);
+        when(userRepository.findAllByLoginIn(anyCollection())).thenAnswer(invocation -> {
+            List<User> users = new ArrayList<>();
+            for (Object login : invocation.<Iterable<?>>getArgument(0)) {
+                users.add(UserFactory.generateActivatedUser((String) login));
+            }
+            return users;
+        });
+        when(studentParticipationRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<StudentParticipation> participations = new ArrayList<>();
+            for (Object participation : invocation.<Iterable<?>>getArgument(0)) {
+                ((StudentParticipation) participation).setId(participationIds.incrementAndGet());
+                participations.add((StudentParticipation) participation);
+            }
+            return participations;
+        });
+        when(studentParticipationRepository.save(any())).thenAnswer(invocation -> {
+            StudentParticipation participation = invocation.getArgument(0);
+            participation.setId(participationIds.incrementAndGet());
+            return participation;
+        });
+        when(quizSubmissionRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(quizSubmissionRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(websocketMessagingService.sendMessageToUser(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        quizScheduleService.shutdown();
+        hazelcastInstance.shutdown();
+    }
+
+    @Test
+    void shouldSaveSubmittedSubmissionsTogether() {
+        cacheSubmission("student1", true);
+        cacheSubmission("student2", true);
+
+        int numberOfProcessedSubmissions = process(false);
+
+        assertThat(numberOfProcessedSubmissions).isEqualTo(2);
+        verify(studentParticipationRepository).saveAll(any());
+        verify(quizSubmissionRepository).saveAll(any());
+        verify(studentParticipationRepository, never()).save(any());
+        verify(quizSubmissionRepository, never()).save(any());
+        assertThat(cachedQuiz().getSubmissions()).isEmpty();
+        assertThat(cachedQuiz().getParticipations()).containsOnlyKeys("student1", "student2");
+        assertThat(cachedQuiz().getResults()).hasSize(2);
+    }
+
+    @Test
+    void shouldNotLoadQuizIfNoSubmissionMustBeSaved() {
+        cacheSubmission("student1", false);
+
+        int numberOfProcessedSubmissions = process(false);
+
+        assertThat(numberOfProcessedSubmissions).isZero();
+        verifyNoInteractions(quizExerciseRepository, studentParticipationRepository, quizSubmissionRepository);
+        assertThat(cachedQuiz().getSubmissions()).containsOnlyKeys("student1");
+    }
+
+    @Test
+    void shouldSaveUnsubmittedSubmissionsOfEndedBatch() {
+        cacheSubmission("student1", false);
+        quizScheduleService.getWriteCache(QUIZ_EXERCISE_ID).getBatches().put("student1", QUIZ_BATCH_ID);
+
+        int numberOfProcessedSubmissions = quizScheduleService.processLocalCachedQuizSubmissions(List.of(new QuizToProcess(QUIZ_EXERCISE_ID, false, Set.of(QUIZ_BATCH_ID))));
+
+        assertThat(numberOfProcessedSubmissions).isEqualTo(1);
+        assertThat(cachedQuiz().getSubmissions()).isEmpty();
+        assertThat(cachedQuiz().getBatches()).isEmpty();
+    }
+
+    @Test
+    void shouldSaveSubmissionsIndividuallyIfParticipationsOfChunkCannotBeSaved() {
+        cacheSubmission("student1", true);
+        cacheSubmission("student2", true);
+        doThrow(new DataIntegrityViolationException("duplicate participation")).when(studentParticipationRepository).saveAll(any());
+        doThrow(new DataIntegrityViolationException("duplicate participation")).when(studentParticipationRepository)
+                .save(argThat((StudentParticipation participation) -> "student1".equals(participation.getParticipantIdentifier())));
+
+        process(false);
+
+        verify(studentParticipationRepository, times(2)).save(any());
+        verify(quizSubmissionRepository).save(any());
+        // the participation of student 1 already exists, so its cached submission is removed instead of failing again in the next run
+        assertThat(cachedQuiz().getSubmissions()).isEmpty();
+        assertThat(cachedQuiz().getParticipations()).containsOnlyKeys("student2");
+    }
+
+    @Test
+    void shouldNotSaveCommittedParticipationsAgainIfSubmissionsOfChunkCannotBeSaved() {
+        cacheSubmission("student1", true);
+        cacheSubmission("student2", true);
+        doThrow(new DataIntegrityViolationException("the submissions cannot be saved")).when(quizSubmissionRepository).saveAll(any());
+
+        process(false);
+
+        // the participations were committed by saveAll, so only the submissions are saved individually
+        verify(studentParticipationRepository).saveAll(any());
+        verify(studentParticipationRepository, never()).save(any());
+        verify(quizSubmissionRepository, times(2)).save(any());
+        assertThat(cachedQuiz().getSubmissions()).isEmpty();
+        assertThat(cachedQuiz().getParticipations()).containsOnlyKeys("student1", "student2");
+        assertThat(cachedQuiz().getParticipations().values()).map(StudentParticipation::getId).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void shouldRemoveSubmissionsOfAlreadySavedParticipations() {
+        cacheSubmission("student1", true);
+        cacheSubmission("student2", true);
+        quizScheduleService.getWriteCache(QUIZ_EXERCISE_ID).getBatches().put("student1", QUIZ_BATCH_ID);
+        when(studentParticipationRepository.findStudentLoginsByExerciseIdAndStudentLogins(eq(QUIZ_EXERCISE_ID), anyCollection())).thenReturn(Set.of("student1"));
+
+        int numberOfProcessedSubmissions = process(false);
+
+        assertThat(numberOfProcessedSubmissions).isEqualTo(1);
+        verify(userRepository).findAllByLoginIn(Set.of("student2"));
+        verify(studentParticipationRepository).saveAll(argThat((Iterable<StudentParticipation> participations) -> {
+            List<String> logins = new ArrayList<>();
+            participations.forEach(participation -> logins.add(participation.getParticipantIdentifier()));
+            return logins.equals(List.of("student2"));
+        }));
+        assertThat(cachedQuiz().getSubmissions()).isEmpty();
+        assertThat(cachedQuiz().getBatches()).isEmpty();
+        assertThat(cachedQuiz().getParticipations()).containsOnlyKeys("student2");
+    }
+
+    @Test
+    void shouldSendResultsOnResultSendingExecutorAfterQuizEnded() {
+        List<String> sendingThreads = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            sendingThreads.add(Thread.currentThread().getName());
+            return CompletableFuture.completedFuture(null);
+        }).when(websocketMessagingService).sendMessageToUser(anyString(), anyString(), any());
+        cacheParticipation("student1", UserFactory.generateActivatedUser("student1"));
+        cacheParticipation("student2", UserFactory.generateActivatedUser("student2"));
+        cacheParticipation("student3", null);
+
+        process(true);
+
+        verify(websocketMessagingService).sendMessageToUser(eq("student1"), eq("/topic/exercise/" + QUIZ_EXERCISE_ID + "/participation"), any());
+        verify(websocketMessagingService).sendMessageToUser(eq("student2"), eq("/topic/exercise/" + QUIZ_EXERCISE_ID + "/participation"), any());
+        assertThat(sendingThreads).hasSize(2).allMatch(threadName -> threadName.startsWith("quiz-result-sending-"));
+        // the participation without a student cannot be sent
+        assertThat(cachedQuiz().getParticipations()).containsOnlyKeys("student3");
+        verifyNoInteractions(quizExerciseRepository);
+    }
+
+    @Test
+    void shouldNotSendResultsBeforeQuizEnded() {
+        cacheParticipation("student1", UserFactory.generateActivatedUser("student1"));
+
+        process(false);
+
+        verify(websocketMessagingService, never()).sendMessageToUser(anyString(), anyString(), any());
+        assertThat(cachedQuiz().getParticipations()).containsOnlyKeys("student1");
+    }
+
+    private int process(boolean quizEnded) {
+        return quizScheduleService.processLocalCachedQuizSubmissions(List.of(new QuizToProcess(QUIZ_EXERCISE_ID, quizEnded, Set.of())));
+    }
+
+    private void cacheSubmission(String username, boolean submitted) {
+        QuizSubmission quizSubmission = new QuizSubmission().submittedAnswers(new HashSet<>());
+        quizSubmission.setSubmitted(submitted);
+        quizSubmission.setSubmissionDate(ZonedDateTime.now());
+        quizScheduleService.updateSubmission(QUIZ_EXERCISE_ID, username, quizSubmission);
+    }
+
+    private void cacheParticipation(String key, User user) {
+        StudentParticipation participation = new StudentParticipation();
+        participation.setId(participationIds.incrementAndGet());
+        participation.setParticipant(user);
+        quizScheduleService.getWriteCache(QUIZ_EXERCISE_ID).getParticipations().put(key, participation);
+    }
+
+    private QuizExerciseCache cachedQuiz() {
+        return quizScheduleService.getWriteCache(QUIZ_EXERCISE_ID);
+    }
+}